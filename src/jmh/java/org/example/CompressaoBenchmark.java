@@ -0,0 +1,78 @@
+package org.example;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * CPU gasta para comprimir o corpo de GET /tarefas em gzip, por nível e
+ * tamanho do armazenamento. A preparação imprime o tamanho do corpo com e sem
+ * compressão, o que dá a banda economizada por esse custo. Depois da primeira
+ * resposta comprimida o corpo sai pronto de {@link CacheListagens}, e
+ * {@code corpoComprimidoEmCache} mede esse caso.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CompressaoBenchmark {
+
+    @Param({"100", "10000", "100000"})
+    int quantidade;
+
+    @Param({"1", "6", "9"})
+    int nivel;
+
+    private byte[] corpo;
+    private CacheListagens cache;
+    private CacheListagens.Resposta resposta;
+    private CompressaoRespostas compressao;
+
+    @Setup
+    public void preparar() throws IOException {
+        List<Tarefa> lista = new ArrayList<>(quantidade);
+        for (int i = 0; i < quantidade; i++) {
+            lista.add(new Tarefa(UUID.randomUUID(), "Tarefa " + i, "Descrição da tarefa " + i, i % 3 == 0, 1));
+        }
+        ByteArrayOutputStream saida = new ByteArrayOutputStream();
+        EscritorJsonTarefas.escreverArray(saida, lista.iterator(), Integer.MAX_VALUE);
+        corpo = saida.toByteArray();
+
+        compressao = new CompressaoRespostas(nivel, CompressaoRespostas.TAMANHO_MINIMO_PADRAO);
+        cache = new CacheListagens(Long.MAX_VALUE);
+        CacheListagens.Captura captura = cache.capturar(OutputStream.nullOutputStream());
+        captura.write(corpo);
+        cache.guardar("", 1, captura, null);
+        resposta = cache.buscar("", 1);
+        int comprimido = cache.corpoGzip(resposta, compressao).length;
+        System.out.printf("%n%d tarefas, nível %d: %d -> %d bytes (%.1f%%)%n",
+                quantidade, nivel, corpo.length, comprimido, 100.0 * comprimido / corpo.length);
+    }
+
+    @Benchmark
+    public byte[] comprimir() {
+        return compressao.gzip(corpo);
+    }
+
+    @Benchmark
+    public byte[] corpoComprimidoEmCache() {
+        return cache.corpoGzip(resposta, compressao);
+    }
+}
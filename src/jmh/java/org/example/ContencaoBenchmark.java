@@ -0,0 +1,99 @@
+package org.example;
+
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * 16 threads alterando poucas tarefas ({@code ids}). {@code otimista} faz o
+ * que um cliente HTTP faria com If-Match: lê a versão, tenta gravar e repete
+ * em caso de conflito (as repetições aparecem no contador {@code conflitos});
+ * {@code atomica} faz a alteração inteira dentro de {@code alterar}, como o
+ * PATCH sem If-Match. {@code versionado} é a pilha do servidor sem retenção
+ * nem cluster: as travas por faixa do versionado e do indexado e a da faixa
+ * do {@link MapaUuid}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(16)
+public class ContencaoBenchmark {
+
+    @Param({"memoria", "indexado", "versionado"})
+    String armazenamento;
+
+    @Param({"1", "16", "1024"})
+    int ids;
+
+    private TarefaRepository repositorio;
+    private UUID[] chaves;
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        repositorio = switch (armazenamento) {
+            case "memoria" -> new TarefaRepositoryMemoria();
+            case "indexado" -> new TarefaRepositoryIndexado(new TarefaRepositoryMemoria());
+            case "versionado" -> new TarefaRepositoryVersionado(
+                    new TarefaRepositoryIndexado(new TarefaRepositoryMemoria()));
+            default -> throw new IllegalArgumentException(armazenamento);
+        };
+        chaves = new UUID[ids];
+        for (int i = 0; i < ids; i++) {
+            Tarefa tarefa = new Tarefa("Tarefa " + i, "Descrição da tarefa " + i);
+            repositorio.salvar(tarefa);
+            chaves[i] = tarefa.getId();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void encerrar() {
+        repositorio.close();
+    }
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Contadores {
+        public long conflitos;
+    }
+
+    @Benchmark
+    public Tarefa otimista(Contadores contadores) {
+        UUID id = chaves[ThreadLocalRandom.current().nextInt(chaves.length)];
+        while (true) {
+            Tarefa lida = repositorio.buscarPorId(id).orElseThrow();
+            PrecondicaoVersao precondicao = PrecondicaoVersao.doHeader(lida.etag());
+            try {
+                return repositorio.alterar(id, atual -> {
+                    precondicao.exigir(atual);
+                    return atual.comConcluida(!atual.isConcluida());
+                });
+            } catch (PrecondicaoVersao.VersaoConflitanteException e) {
+                contadores.conflitos++;
+            }
+        }
+    }
+
+    @Benchmark
+    public Tarefa atomica() {
+        UUID id = chaves[ThreadLocalRandom.current().nextInt(chaves.length)];
+        return repositorio.alterar(id, atual -> atual.comConcluida(!atual.isConcluida()));
+    }
+}
@@ -0,0 +1,76 @@
+package org.example;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * JSON contra CBOR em listas grandes: codificar do zero com o ObjectMapper,
+ * montar a resposta de GET /tarefas com os bytes em cache de cada tarefa e
+ * ler a lista de volta, como faz o cliente. O tamanho do corpo de cada formato
+ * é impresso na preparação.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FormatoCorpoBenchmark {
+
+    private static final TypeReference<List<Tarefa>> LISTA_TAREFAS = new TypeReference<>() {
+    };
+
+    @Param({"JSON", "CBOR"})
+    FormatoCorpo formato;
+
+    @Param({"1000", "100000"})
+    int quantidade;
+
+    private List<Tarefa> lista;
+    private byte[] corpoLista;
+
+    @Setup
+    public void preparar() throws IOException {
+        lista = new ArrayList<>(quantidade);
+        for (int i = 0; i < quantidade; i++) {
+            lista.add(new Tarefa(UUID.randomUUID(), "Tarefa " + i, "Descrição da tarefa " + i, i % 2 == 0, 1));
+        }
+        ByteArrayOutputStream saida = new ByteArrayOutputStream();
+        EscritorJsonTarefas.escreverArray(saida, lista.iterator(), Integer.MAX_VALUE, formato);
+        corpoLista = saida.toByteArray();
+        System.out.printf("%n%s, %d tarefas: %d bytes (%.1f por tarefa)%n",
+                formato, quantidade, corpoLista.length, (double) corpoLista.length / quantidade);
+    }
+
+    @Benchmark
+    public byte[] codificarLista() throws IOException {
+        return formato.objectMapper().writeValueAsBytes(lista);
+    }
+
+    @Benchmark
+    public void escreverListaEmCache() throws IOException {
+        EscritorJsonTarefas.escreverArray(OutputStream.nullOutputStream(), lista.iterator(), Integer.MAX_VALUE, formato);
+    }
+
+    @Benchmark
+    public List<Tarefa> decodificarLista() throws IOException {
+        return formato.objectMapper().readValue(corpoLista, LISTA_TAREFAS);
+    }
+}
@@ -0,0 +1,156 @@
+package org.example;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Vazão ponta a ponta de cada rota de {@link AplicacaoPrincipal}. Com
+ * {@code transporte=http} o servidor real fica numa porta livre e é chamado
+ * por um HttpClient com keep-alive; com {@code emProcesso} as requisições vão
+ * pelo {@link TransporteEmProcesso}, sem sockets nem cliente, o que isola o
+ * custo do servidor. As rotas de listagem são medidas com o cache de
+ * respostas ({@code listarTodasTarefas}, que repete a mesma consulta) e com
+ * If-None-Match ({@code ...Condicional}, que recebe 304).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(4)
+@Fork(1)
+public class HandlersBenchmark {
+
+    @Param({"http", "emProcesso"})
+    String transporte;
+
+    private ServidorTarefas servidor;
+    private TransporteEmProcesso emProcesso;
+    private HttpClient cliente;
+    private String baseUrl;
+    private String idExistente;
+    private String etagListagem;
+
+    @Setup(Level.Trial)
+    public void iniciar() throws Exception {
+        TarefaRepository repositorio = new TarefaRepositoryIndexado(new TarefaRepositoryMemoria());
+        for (int i = 0; i < 1000; i++) {
+            repositorio.salvar(new Tarefa("Tarefa " + i, "Descrição da tarefa " + i));
+        }
+        Tarefa tarefa = new Tarefa("Comprar Leite", "No supermercado");
+        repositorio.salvar(tarefa);
+        idExistente = tarefa.getId().toString();
+
+        if (transporte.equals("emProcesso")) {
+            servidor = ServidorTarefas.emProcesso(repositorio);
+            emProcesso = servidor.transporte();
+            etagListagem = emProcesso.get("/tarefas").header("ETag");
+        } else {
+            servidor = ServidorTarefas.iniciar(repositorio, 0);
+            baseUrl = servidor.url();
+            cliente = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+            etagListagem = cliente.send(HttpRequest.newBuilder(URI.create(baseUrl + "/tarefas")).GET().build(),
+                    HttpResponse.BodyHandlers.discarding()).headers().firstValue("ETag").orElseThrow();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void parar() {
+        servidor.close();
+    }
+
+    private int get(String path) throws IOException, InterruptedException {
+        if (emProcesso != null) {
+            return emProcesso.get(path).status();
+        }
+        HttpRequest requisicao = HttpRequest.newBuilder(URI.create(baseUrl + path)).GET().build();
+        return cliente.send(requisicao, HttpResponse.BodyHandlers.ofByteArray()).statusCode();
+    }
+
+    private int post(String path, String corpo) throws IOException, InterruptedException {
+        if (emProcesso != null) {
+            return emProcesso.post(path, corpo).status();
+        }
+        HttpRequest requisicao = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(corpo))
+                .build();
+        return cliente.send(requisicao, HttpResponse.BodyHandlers.ofByteArray()).statusCode();
+    }
+
+    @Benchmark
+    public int hello() throws Exception {
+        return get("/hello");
+    }
+
+    @Benchmark
+    public int status() throws Exception {
+        return get("/status");
+    }
+
+    @Benchmark
+    public int saudacao() throws Exception {
+        return get("/saudacao/Bernardo");
+    }
+
+    @Benchmark
+    public int echo() throws Exception {
+        return post("/echo", "{\"mensagem\":\"Mensagem de benchmark\"}");
+    }
+
+    @Benchmark
+    public int criarTarefa() throws Exception {
+        return post("/tarefas", "{\"titulo\":\"Tarefa de benchmark\",\"descricao\":\"Criada pelo JMH\"}");
+    }
+
+    @Benchmark
+    public int listarTarefasPagina() throws Exception {
+        return get("/tarefas?limit=100");
+    }
+
+    @Benchmark
+    public int listarTodasTarefas() throws Exception {
+        return get("/tarefas");
+    }
+
+    @Benchmark
+    public int listarTodasTarefasCondicional() throws Exception {
+        if (emProcesso != null) {
+            return emProcesso.enviar("GET", "/tarefas", Map.of("If-None-Match", etagListagem), null).status();
+        }
+        HttpRequest requisicao = HttpRequest.newBuilder(URI.create(baseUrl + "/tarefas"))
+                .header("If-None-Match", etagListagem)
+                .GET()
+                .build();
+        return cliente.send(requisicao, HttpResponse.BodyHandlers.ofByteArray()).statusCode();
+    }
+
+    @Benchmark
+    public int buscarTarefaPorId() throws Exception {
+        return get("/tarefas/" + idExistente);
+    }
+
+    @Benchmark
+    public int buscarTarefaIdInvalido() throws Exception {
+        return get("/tarefas/NAO-EH-UM-UUID-VALIDO");
+    }
+}
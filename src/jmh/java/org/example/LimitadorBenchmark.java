@@ -0,0 +1,78 @@
+package org.example;
+
+import io.javalin.http.HandlerType;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Custo por requisição dos limitadores, com 4 threads: o balde de
+ * {@link LimitadorTaxa} para clientes diferentes (cada thread o seu) e para um
+ * único cliente já acima do limite, e o par adquirir/liberar de
+ * {@link LimitadorAdaptativo}. Rodar com {@code -prof gc} para confirmar que
+ * não há alocação.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(4)
+@Fork(1)
+public class LimitadorBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Limitadores {
+        LimitadorTaxa.Regra livre;
+        LimitadorTaxa.Regra saturada;
+        LimitadorAdaptativo adaptativo;
+        final long origem = System.nanoTime();
+
+        @Setup
+        public void iniciar() {
+            livre = new LimitadorTaxa("POST /tarefas=1000000000:1000000", LimitadorTaxa.FAIXAS_PADRAO)
+                    .regra(HandlerType.POST, "/tarefas");
+            saturada = new LimitadorTaxa("POST /tarefas=1:1", LimitadorTaxa.FAIXAS_PADRAO)
+                    .regra(HandlerType.POST, "/tarefas");
+            adaptativo = new LimitadorAdaptativo(1000, 1000, 2.0);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Cliente {
+        int hash;
+
+        @Setup
+        public void iniciar() {
+            hash = ("10.0.0." + ThreadLocalRandom.current().nextInt(256)).hashCode();
+        }
+    }
+
+    @Benchmark
+    public long taxaPorCliente(Limitadores limitadores, Cliente cliente) {
+        return limitadores.livre.consumir(cliente.hash, System.nanoTime() - limitadores.origem);
+    }
+
+    @Benchmark
+    public long taxaRecusada(Limitadores limitadores) {
+        return limitadores.saturada.consumir(42, System.nanoTime() - limitadores.origem);
+    }
+
+    @Benchmark
+    public boolean adaptativo(Limitadores limitadores) {
+        boolean admitida = limitadores.adaptativo.adquirir();
+        if (admitida) {
+            limitadores.adaptativo.liberar(1_000_000, System.nanoTime());
+        }
+        return admitida;
+    }
+}
@@ -0,0 +1,76 @@
+package org.example;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Custo, para quem atende a requisição, de registrar a criação de uma tarefa:
+ * o println antigo (concatenação e trava do PrintStream, aqui sem o custo do
+ * terminal) contra {@link LogEstruturado} gravando em arquivo. Com DESCARTAR
+ * o benchmark produz mais rápido do que o disco grava e a maior parte é
+ * descartada; BLOQUEAR mostra a vazão sustentada pela thread de escrita.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(4)
+@Fork(1)
+public class LogBenchmark {
+
+    @Param({"DESCARTAR", "BLOQUEAR"})
+    private LogEstruturado.Politica politica;
+
+    private final Tarefa tarefa = new Tarefa("Comprar Leite", "No supermercado");
+    private PrintStream console;
+    private LogEstruturado log;
+    private Path diretorio;
+
+    @Setup
+    public void iniciar() throws Exception {
+        console = new PrintStream(OutputStream.nullOutputStream(), true);
+        diretorio = Files.createTempDirectory("log-benchmark");
+        log = new LogEstruturado(diretorio.resolve("tarefas.log"), LogEstruturado.CAPACIDADE_PADRAO,
+                politica, false, LogEstruturado.TAMANHO_ARQUIVO_PADRAO, 1);
+    }
+
+    @TearDown
+    public void parar() throws Exception {
+        log.close();
+        System.out.println("Eventos gravados: " + log.gravados() + ", descartados: " + log.descartados());
+        try (var arquivos = Files.list(diretorio)) {
+            for (Path arquivo : arquivos.toList()) {
+                Files.delete(arquivo);
+            }
+        }
+        Files.delete(diretorio);
+    }
+
+    @Benchmark
+    public void println() {
+        console.println("Tarefa cadastrada: " + tarefa.getTitulo() + " (ID: " + tarefa.getId() + ")");
+    }
+
+    @Benchmark
+    public void logEstruturado() {
+        log.auditoria("tarefa_criada", tarefa.getId(), tarefa.getTitulo(), -1);
+    }
+}
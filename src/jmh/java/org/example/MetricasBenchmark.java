@@ -0,0 +1,58 @@
+package org.example;
+
+import io.javalin.http.HandlerType;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Custo por requisição de {@link MetricasServidor}: o que o request logger faz
+ * ao fim de cada requisição, com 4 threads gravando na mesma rota. Rodar com
+ * {@code -prof gc} para confirmar que não há alocação; o resultado se compara
+ * ao tempo por requisição de {@link HandlersBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(4)
+@Fork(1)
+public class MetricasBenchmark {
+
+    private static final String ROTA = "/tarefas/{id}";
+
+    private MetricasServidor metricas;
+    private HistogramaLatencia histograma;
+
+    @Setup
+    public void iniciar() {
+        metricas = new MetricasServidor(new TarefaRepositoryVersionado(new TarefaRepositoryMemoria()));
+        histograma = new HistogramaLatencia();
+    }
+
+    @Benchmark
+    public void registrarHistograma() {
+        histograma.registrar(1_500_000);
+    }
+
+    @Benchmark
+    public void registrarRequisicao() {
+        metricas.registrar(HandlerType.GET, ROTA, 200, 1_500_000);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public String exportar() {
+        return metricas.exportar();
+    }
+}
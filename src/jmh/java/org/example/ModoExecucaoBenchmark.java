@@ -0,0 +1,87 @@
+package org.example;
+
+import io.javalin.Javalin;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compara threads de plataforma e virtual threads com uma mistura de
+ * requisições rápidas (GET /hello) e lentas (rota extra que bloqueia por
+ * {@code atrasoMs}, simulando I/O). O modo SampleTime informa vazão e os
+ * percentis de latência, inclusive o p99.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 3)
+@Measurement(iterations = 3, time = 5)
+@Threads(400)
+@Fork(1)
+public class ModoExecucaoBenchmark {
+
+    @Param({"PLATAFORMA", "VIRTUAL"})
+    ModoExecucao modo;
+
+    @Param({"10"})
+    int percentualLento;
+
+    @Param({"100"})
+    int atrasoMs;
+
+    @Param({"0", "200"})
+    int concorrenciaMaxima;
+
+    private Javalin app;
+    private HttpClient cliente;
+    private URI rapida;
+    private URI lenta;
+
+    @Setup(Level.Trial)
+    public void iniciar() throws Exception {
+        int porta;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            porta = socket.getLocalPort();
+        }
+        System.setProperty("servidor.esperaMaximaMs", "10000");
+        app = ServidorTarefas.iniciar(new TarefaRepositoryMemoria(), porta, modo, concorrenciaMaxima).app();
+        int atraso = atrasoMs;
+        app.get("/lento", ctx -> {
+            Thread.sleep(atraso);
+            ctx.result("ok");
+        });
+        rapida = URI.create("http://localhost:" + porta + "/hello");
+        lenta = URI.create("http://localhost:" + porta + "/lento");
+        cliente = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+    }
+
+    @TearDown(Level.Trial)
+    public void parar() {
+        app.stop();
+    }
+
+    @Benchmark
+    public int requisicaoMista() throws Exception {
+        URI destino = ThreadLocalRandom.current().nextInt(100) < percentualLento ? lenta : rapida;
+        return cliente.send(HttpRequest.newBuilder(destino).GET().build(), HttpResponse.BodyHandlers.discarding())
+                .statusCode();
+    }
+}
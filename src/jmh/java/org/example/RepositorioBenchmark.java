@@ -0,0 +1,129 @@
+package org.example;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * put/get concorrentes nos repositórios de tarefas com 1, 4 e 16 threads.
+ * O repositório é pré-carregado com {@code tamanho} tarefas. {@code feed}
+ * é a pilha usada pela aplicação (versionado + indexado) com 8 assinantes do
+ * feed de alterações que nunca consomem seus eventos. {@code retencao}
+ * acrescenta {@link TarefaRepositoryRetencao} com TTL e limite folgado (mede
+ * só o registro de leituras e escritas); em {@code retencaoFrio} só metade
+ * cabe na memória e o resto vai e volta do armazenamento frio.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RepositorioBenchmark {
+
+    @Param({"memoria", "indexado", "feed", "mapeado", "retencao", "retencaoFrio"})
+    String armazenamento;
+
+    @Param({"100000"})
+    int tamanho;
+
+    private TarefaRepository repositorio;
+    private UUID[] ids;
+
+    @Setup(Level.Trial)
+    public void preparar() throws IOException {
+        repositorio = switch (armazenamento) {
+            case "memoria" -> new TarefaRepositoryMemoria();
+            case "indexado" -> new TarefaRepositoryIndexado(new TarefaRepositoryMemoria());
+            case "feed" -> comAssinantesParados(new TarefaRepositoryVersionado(
+                    new TarefaRepositoryIndexado(new TarefaRepositoryMemoria())));
+            case "mapeado" -> new TarefaRepositoryMapeado(Files.createTempDirectory("jmh-tarefas"));
+            case "retencao" -> new TarefaRepositoryRetencao(new TarefaRepositoryIndexado(new TarefaRepositoryMemoria()),
+                    3_600_000, tamanho * 2L, 0, true, null, TarefaRepositoryRetencao.TICK_PADRAO_MS).iniciar();
+            case "retencaoFrio" -> new TarefaRepositoryRetencao(new TarefaRepositoryIndexado(new TarefaRepositoryMemoria()),
+                    0, tamanho / 2, 0, true, Files.createTempDirectory("jmh-tarefas").resolve("frias.bin"),
+                    TarefaRepositoryRetencao.TICK_PADRAO_MS).iniciar();
+            default -> throw new IllegalArgumentException(armazenamento);
+        };
+        ids = new UUID[tamanho];
+        for (int i = 0; i < tamanho; i++) {
+            Tarefa tarefa = new Tarefa("Tarefa " + i, "Descrição da tarefa " + i);
+            repositorio.salvar(tarefa);
+            ids[i] = tarefa.getId();
+        }
+    }
+
+    private static TarefaRepository comAssinantesParados(TarefaRepositoryVersionado repositorio) {
+        for (int i = 0; i < 8; i++) {
+            repositorio.feed().assinar(-1, FeedAlteracoes.CAPACIDADE_ASSINANTE_PADRAO,
+                    FeedAlteracoes.Politica.DESCARTAR_ANTIGOS);
+        }
+        return repositorio;
+    }
+
+    @TearDown(Level.Trial)
+    public void encerrar() {
+        repositorio.close();
+    }
+
+    private Tarefa buscarAleatoria() {
+        return repositorio.buscarPorId(ids[ThreadLocalRandom.current().nextInt(ids.length)]).orElse(null);
+    }
+
+    private void regravarAleatoria() {
+        UUID id = ids[ThreadLocalRandom.current().nextInt(ids.length)];
+        repositorio.salvar(new Tarefa(id, "Atualizada", "Regravada pelo benchmark", false));
+    }
+
+    @Benchmark
+    @Threads(1)
+    public Tarefa get1Thread() {
+        return buscarAleatoria();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public Tarefa get4Threads() {
+        return buscarAleatoria();
+    }
+
+    @Benchmark
+    @Threads(16)
+    public Tarefa get16Threads() {
+        return buscarAleatoria();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void put1Thread() {
+        regravarAleatoria();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void put4Threads() {
+        regravarAleatoria();
+    }
+
+    @Benchmark
+    @Threads(16)
+    public void put16Threads() {
+        regravarAleatoria();
+    }
+}
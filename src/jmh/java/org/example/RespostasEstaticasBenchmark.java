@@ -0,0 +1,85 @@
+package org.example;
+
+import io.javalin.json.JavalinJackson;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Trabalho dos handlers de /hello, /status e /saudacao/{nome} sem o HTTP:
+ * o que eles faziam a cada requisição (Map, data formatada, ctx.json pelo
+ * JavalinJackson e conversão da String em bytes) contra os corpos guardados
+ * em {@link RespostasEstaticas}. Rodar com {@code -prof gc} para comparar a
+ * alocação por requisição.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RespostasEstaticasBenchmark {
+
+    private final JavalinJackson jackson = new JavalinJackson();
+    private RespostasEstaticas respostas;
+    private MetricasServidor metricas;
+    private String nome = "Bernardo";
+
+    @Setup
+    public void iniciar() {
+        metricas = new MetricasServidor(new TarefaRepositoryVersionado(new TarefaRepositoryMemoria()));
+        respostas = new RespostasEstaticas(metricas::resumo, RespostasEstaticas.INTERVALO_STATUS_PADRAO_MS,
+                RespostasEstaticas.CAPACIDADE_SAUDACOES_PADRAO);
+    }
+
+    @Benchmark
+    public byte[] helloAnterior() {
+        return "Hello, Javalin!".getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public byte[] helloEmCache() {
+        return respostas.hello();
+    }
+
+    @Benchmark
+    public byte[] statusAnterior() {
+        Map<String, String> status = Map.of(
+                "status", "ok",
+                "timestamp", LocalDateTime.now().format(DateTimeFormatter.ISO_DATE_TIME));
+        return jackson.toJsonString(status, Map.class).getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public byte[] statusResumoSemCache() {
+        return jackson.toJsonString(metricas.resumo(), Map.class).getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public byte[] statusEmCache() {
+        return respostas.status();
+    }
+
+    @Benchmark
+    public byte[] saudacaoAnterior() {
+        Map<String, String> saudacao = Map.of("mensagem", "Olá, " + nome + "!");
+        return jackson.toJsonString(saudacao, Map.class).getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public byte[] saudacaoEmCache() {
+        return respostas.saudacao(nome);
+    }
+}
@@ -0,0 +1,71 @@
+package org.example;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SerializacaoBenchmark {
+
+    @Param({"10", "1000", "100000"})
+    int quantidade;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private Tarefa tarefa;
+    private List<Tarefa> lista;
+    private byte[] tarefaJson;
+
+    @Setup
+    public void preparar() throws IOException {
+        tarefa = new Tarefa("Comprar Leite", "No supermercado da esquina");
+        lista = new ArrayList<>(quantidade);
+        for (int i = 0; i < quantidade; i++) {
+            lista.add(new Tarefa("Tarefa " + i, "Descrição da tarefa " + i));
+        }
+        tarefaJson = objectMapper.writeValueAsBytes(tarefa);
+    }
+
+    @Benchmark
+    public byte[] serializarTarefa() throws IOException {
+        return objectMapper.writeValueAsBytes(tarefa);
+    }
+
+    @Benchmark
+    public byte[] jsonEmCacheDaTarefa() {
+        return tarefa.jsonUtf8();
+    }
+
+    @Benchmark
+    public Tarefa desserializarTarefa() throws IOException {
+        return objectMapper.readValue(tarefaJson, Tarefa.class);
+    }
+
+    @Benchmark
+    public byte[] serializarListaComObjectMapper() throws IOException {
+        return objectMapper.writeValueAsBytes(lista);
+    }
+
+    @Benchmark
+    public void serializarListaEmStreaming() throws IOException {
+        EscritorJsonTarefas.escreverArray(OutputStream.nullOutputStream(), lista.iterator(), Integer.MAX_VALUE);
+    }
+}
@@ -0,0 +1,153 @@
+package org.example;
+
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Custo do parse do {id} de GET /tarefas/{id} (UUID.fromString, que lança
+ * exceção no ID inválido, contra {@link LeitorUuid}) e da busca por ID em
+ * {@code tamanho} tarefas: skip list (o mapa ordenado dos repositórios),
+ * ConcurrentHashMap e {@link MapaUuid}. Na preparação imprime os bytes por
+ * entrada de cada mapa, medidos pelo heap usado após GC.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UuidBenchmark {
+
+    private final String idValido = UUID.randomUUID().toString();
+    private final String idInvalido = "NAO-EH-UM-UUID-VALIDO";
+    /** Mesmo tamanho de um UUID, para que o leitor tenha de percorrer o texto todo. */
+    private final String idInvalidoLongo = idValido.substring(0, 35) + "g";
+
+    @Param({"100000"})
+    int tamanho;
+
+    private UUID[] ids;
+    private ConcurrentSkipListMap<UUID, Tarefa> skipList;
+    private ConcurrentHashMap<UUID, Tarefa> hashMap;
+    private MapaUuid<Tarefa> mapaUuid;
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        ids = new UUID[tamanho];
+        Tarefa[] tarefas = new Tarefa[tamanho];
+        for (int i = 0; i < tamanho; i++) {
+            tarefas[i] = new Tarefa("Tarefa " + i, "");
+            ids[i] = tarefas[i].getId();
+        }
+        skipList = medir("ConcurrentSkipListMap", () -> {
+            ConcurrentSkipListMap<UUID, Tarefa> mapa = new ConcurrentSkipListMap<>();
+            for (Tarefa tarefa : tarefas) {
+                mapa.put(new UUID(tarefa.getId().getMostSignificantBits(), tarefa.getId().getLeastSignificantBits()), tarefa);
+            }
+            return mapa;
+        });
+        hashMap = medir("ConcurrentHashMap", () -> {
+            ConcurrentHashMap<UUID, Tarefa> mapa = new ConcurrentHashMap<>();
+            for (Tarefa tarefa : tarefas) {
+                mapa.put(new UUID(tarefa.getId().getMostSignificantBits(), tarefa.getId().getLeastSignificantBits()), tarefa);
+            }
+            return mapa;
+        });
+        mapaUuid = medir("MapaUuid", () -> {
+            MapaUuid<Tarefa> mapa = new MapaUuid<>();
+            for (Tarefa tarefa : tarefas) {
+                mapa.put(tarefa.getId(), tarefa);
+            }
+            return mapa;
+        });
+    }
+
+    /** Monta o mapa com chaves próprias (como no repositório real) e imprime o heap retido por entrada. */
+    private <M> M medir(String nome, Supplier<M> montar) {
+        long antes = heapAposGc();
+        M mapa = montar.get();
+        long depois = heapAposGc();
+        int entradas = mapa instanceof Map ? ((Map<?, ?>) mapa).size() : ((MapaUuid<?>) mapa).size();
+        System.out.printf("%n%s: %.1f bytes por entrada%n", nome, (double) (depois - antes) / entradas);
+        return mapa;
+    }
+
+    private static long heapAposGc() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+
+    @Benchmark
+    public UUID fromStringValido() {
+        return UUID.fromString(idValido);
+    }
+
+    @Benchmark
+    public UUID fromStringInvalido() {
+        try {
+            return UUID.fromString(idInvalido);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    @Benchmark
+    public UUID leitorValido() {
+        return LeitorUuid.ler(idValido);
+    }
+
+    @Benchmark
+    public UUID leitorInvalido() {
+        return LeitorUuid.ler(idInvalido);
+    }
+
+    @Benchmark
+    public UUID leitorInvalidoLongo() {
+        return LeitorUuid.ler(idInvalidoLongo);
+    }
+
+    @Benchmark
+    public Tarefa buscarSkipList() {
+        return skipList.get(ids[ThreadLocalRandom.current().nextInt(tamanho)]);
+    }
+
+    @Benchmark
+    public Tarefa buscarHashMap() {
+        return hashMap.get(ids[ThreadLocalRandom.current().nextInt(tamanho)]);
+    }
+
+    @Benchmark
+    public Tarefa buscarMapaUuid() {
+        return mapaUuid.get(ids[ThreadLocalRandom.current().nextInt(tamanho)]);
+    }
+
+    /** Caminho completo do GET com o texto do ID: parse e busca, sem o objeto UUID intermediário. */
+    @Benchmark
+    public Tarefa lerEBuscarMapaUuid() {
+        String texto = idValido;
+        if (!LeitorUuid.valido(texto)) {
+            return null;
+        }
+        return mapaUuid.get(LeitorUuid.maisSignificativos(texto), LeitorUuid.menosSignificativos(texto));
+    }
+}
@@ -0,0 +1,108 @@
+package org.example;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Anel de hash consistente que decide quais nós guardam cada tarefa. Cada nó
+ * ocupa vários pontos do anel (nós virtuais), para que as faixas fiquem
+ * parecidas em tamanho; o dono de um UUID é o primeiro nó a partir da posição
+ * do UUID no sentido horário e as réplicas são os nós distintos seguintes.
+ * Incluir ou tirar um nó só muda o dono das faixas vizinhas aos seus pontos.
+ */
+public final class AnelConsistente {
+
+    public static final int PONTOS_POR_NO_PADRAO = 128;
+
+    private final List<String> nos;
+    private final long[] posicoes;
+    private final int[] donoDaPosicao;
+
+    public AnelConsistente(List<String> nos, int pontosPorNo) {
+        if (nos.isEmpty()) {
+            throw new IllegalArgumentException("O anel precisa de ao menos um nó.");
+        }
+        this.nos = List.copyOf(nos);
+        long[][] pontos = new long[nos.size() * pontosPorNo][];
+        int i = 0;
+        for (int no = 0; no < nos.size(); no++) {
+            for (int ponto = 0; ponto < pontosPorNo; ponto++) {
+                pontos[i++] = new long[]{hash(nos.get(no) + "#" + ponto), no};
+            }
+        }
+        Arrays.sort(pontos, (a, b) -> Long.compare(a[0], b[0]));
+        this.posicoes = new long[pontos.length];
+        this.donoDaPosicao = new int[pontos.length];
+        for (int p = 0; p < pontos.length; p++) {
+            posicoes[p] = pontos[p][0];
+            donoDaPosicao[p] = (int) pontos[p][1];
+        }
+    }
+
+    public AnelConsistente(List<String> nos) {
+        this(nos, PONTOS_POR_NO_PADRAO);
+    }
+
+    public List<String> nos() {
+        return nos;
+    }
+
+    /** Nó dono do ID. */
+    public String dono(UUID id) {
+        return nos.get(donoDaPosicao[inicio(id)]);
+    }
+
+    /**
+     * Dono e réplicas do ID, nessa ordem: até {@code quantidade} nós distintos
+     * (limitado ao total de nós).
+     */
+    public List<String> donos(UUID id, int quantidade) {
+        int limite = Math.min(quantidade, nos.size());
+        List<String> donos = new ArrayList<>(limite);
+        boolean[] incluido = new boolean[nos.size()];
+        int posicao = inicio(id);
+        while (donos.size() < limite) {
+            int no = donoDaPosicao[posicao];
+            if (!incluido[no]) {
+                incluido[no] = true;
+                donos.add(nos.get(no));
+            }
+            posicao = (posicao + 1) % posicoes.length;
+        }
+        return donos;
+    }
+
+    private int inicio(UUID id) {
+        long chave = misturar(id.getMostSignificantBits() ^ Long.rotateLeft(id.getLeastSignificantBits(), 32));
+        int posicao = Arrays.binarySearch(posicoes, chave);
+        if (posicao < 0) {
+            posicao = -posicao - 1;
+        }
+        return posicao == posicoes.length ? 0 : posicao;
+    }
+
+    /** Finalizador do MurmurHash3: espalha bem os bits de um long. */
+    private static long misturar(long valor) {
+        valor ^= valor >>> 33;
+        valor *= 0xff51afd7ed558ccdL;
+        valor ^= valor >>> 33;
+        valor *= 0xc4ceb9fe1a85ec53L;
+        valor ^= valor >>> 33;
+        return valor;
+    }
+
+    private static long hash(String texto) {
+        try {
+            byte[] digest = MessageDigest.getInstance("MD5").digest(texto.getBytes(StandardCharsets.UTF_8));
+            return ByteBuffer.wrap(digest).getLong();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -1,52 +1,172 @@
 package org.example;
 
+import com.fasterxml.jackson.core.type.TypeReference;
 import io.javalin.Javalin;
+import io.javalin.config.JavalinConfig;
+import io.javalin.http.ContentType;
+import io.javalin.http.Context;
 import io.javalin.http.HttpStatus;
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
+import java.io.OutputStream;
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
 
 public class AplicacaoPrincipal {
 
-    public static final Map<UUID, Tarefa> tarefas = new ConcurrentHashMap<>();
+    static final int LIMITE_MAXIMO_PAGINA = 1000;
+
+    private static final TypeReference<Map<String, Object>> CAMPOS = new TypeReference<>() {
+    };
 
     public static void main(String[] args) {
-        Javalin app = Javalin.create()
-                .start(7000);
+        imprimirEnderecos(iniciarDoSistema());
+    }
+
+    /**
+     * Monta o armazenamento conforme as propriedades do sistema e sobe o
+     * servidor na porta {@code servidor.porta}; o servidor e o armazenamento
+     * são fechados no desligamento da JVM.
+     */
+    static ServidorTarefas iniciarDoSistema() {
+        TarefaRepository repositorio = TarefaRepositoryRetencao.doSistema(
+                TarefaRepositoryIndexado.doSistema(criarRepositorio()));
+        if (System.getProperty("cluster.nos") != null) {
+            repositorio = TarefaRepositoryCluster.doSistema(repositorio);
+        }
+        ServidorTarefas servidor = ServidorTarefas.iniciar(repositorio, Integer.getInteger("servidor.porta", 7000));
+        Runtime.getRuntime().addShutdownHook(new Thread(servidor::close));
+        return servidor;
+    }
+
+    private static void imprimirEnderecos(ServidorTarefas servidor) {
+        TarefaRepository repositorio = servidor.tarefas().delegado();
+        int porta = servidor.porta();
+        System.out.println("--------------------------------------------------");
+        System.out.println("Armazenamento de tarefas: " + servidor.tarefas().getClass().getSimpleName());
+        if (repositorio instanceof TarefaRepositoryRetencao) {
+            System.out.println("Retenção de tarefas: " + ((TarefaRepositoryRetencao) repositorio).descricao());
+        }
+        if (repositorio instanceof TarefaRepositoryCluster) {
+            System.out.println("Cluster: " + ((TarefaRepositoryCluster) repositorio).anel().nos()
+                    + " (réplicas: " + Integer.getInteger("cluster.replicas", TarefaRepositoryCluster.REPLICAS_PADRAO) + ")");
+        }
+        System.out.println("Threads dos handlers: " + ModoExecucao.doSistema());
+        if (System.getProperty("limite.regras") != null) {
+            System.out.println("Limites por cliente: " + System.getProperty("limite.regras"));
+        }
+        System.out.println("Servidor Javalin do AT-DSWT-Java iniciado na porta " + porta + ".");
+        System.out.println("Endpoints para teste:");
+        System.out.println("  GET  -> http://localhost:" + porta + "/hello");
+        System.out.println("  GET  -> http://localhost:" + porta + "/status");
+        System.out.println("  GET  -> http://localhost:" + porta + "/metrics (Métricas no formato Prometheus)");
+        System.out.println("  GET  -> http://localhost:" + porta + "/saudacao/SeuNome");
+        System.out.println("  POST -> http://localhost:" + porta + "/echo (JSON: {\"mensagem\": \"Sua Mensagem\"})");
+        System.out.println("");
+        System.out.println("  --- Endpoints de Tarefas ---");
+        System.out.println("  POST -> http://localhost:" + porta + "/tarefas (Cria uma tarefa - Body JSON: {\"titulo\":\"Comprar Leite\",\"descricao\":\"No mercado da esquina\"})");
+        System.out.println("  POST -> http://localhost:" + porta + "/tarefas/batch (Cria várias tarefas - Body: array JSON ou NDJSON)");
+        System.out.println("  GET  -> http://localhost:" + porta + "/tarefas (Lista todas as tarefas)");
+        System.out.println("  GET  -> http://localhost:" + porta + "/tarefas?limit=100&cursor=... (Lista paginada; próximo cursor no header X-Proximo-Cursor)");
+        System.out.println("  GET  -> http://localhost:" + porta + "/tarefas?concluida=false&titulo_prefix=Comp&q=leite (Filtros indexados)");
+        System.out.println("  GET  -> http://localhost:" + porta + "/tarefas/{id} (Busca por ID da tarefa, ex: /tarefas/a1b2c3d4-e5f6-7890-1234-567890abcdef)");
+        System.out.println("  PUT    -> http://localhost:" + porta + "/tarefas/{id} (Substitui a tarefa; header If-Match opcional com a ETag)");
+        System.out.println("  PATCH  -> http://localhost:" + porta + "/tarefas/{id} (Altera campos - Body JSON: {\"concluida\": true})");
+        System.out.println("  DELETE -> http://localhost:" + porta + "/tarefas/{id} (Remove a tarefa)");
+        System.out.println("  GET  -> http://localhost:" + porta + "/tarefas/eventos (Feed de alterações via SSE; retoma com Last-Event-ID ou ?desde=)");
+        System.out.println("  WS   -> ws://localhost:" + porta + "/tarefas/eventos/ws?desde=0 (Feed de alterações via WebSocket)");
+        System.out.println("  (Rotas de tarefas aceitam CBOR: Accept/Content-Type application/cbor)");
+        System.out.println("  (Respostas a partir de " + Integer.getInteger("compressao.tamanhoMinimo",
+                CompressaoRespostas.TAMANHO_MINIMO_PADRAO) + " bytes saem em gzip com Accept-Encoding: gzip)");
+        System.out.println("--------------------------------------------------");
+    }
 
+    /**
+     * Monta a aplicação com todas as rotas sobre {@code versionado}, sem
+     * iniciá-la; {@code ajustes} recebe a configuração do Javalin depois da
+     * padrão (ex.: conectores). Use {@link ServidorTarefas}.
+     */
+    static Javalin criar(TarefaRepositoryVersionado versionado, ModoExecucao modo, int concorrenciaMaxima,
+                         Consumer<JavalinConfig> ajustes) {
+        TarefaRepositoryCluster cluster = versionado.delegado() instanceof TarefaRepositoryCluster
+                ? (TarefaRepositoryCluster) versionado.delegado() : null;
+        // Em cluster a versão local não enxerga escritas feitas pelos outros nós,
+        // então a listagem não usa cache nem respostas condicionais.
+        CacheListagens cacheListagens = new CacheListagens(cluster != null ? 0
+                : Long.getLong("tarefas.cacheListagensBytes", CacheListagens.CAPACIDADE_PADRAO));
+
+        MetricasServidor metricas = new MetricasServidor(versionado);
+        LogEstruturado log = LogEstruturado.doSistema();
+        versionado.registrarFalhasEm(log);
+        if (versionado.delegado() instanceof TarefaRepositoryRetencao) {
+            ((TarefaRepositoryRetencao) versionado.delegado()).conectar(versionado, log);
+        }
+        CompressaoRespostas compressao = CompressaoRespostas.doSistema();
+
+        Javalin app = Javalin.create(config -> {
+            config.useVirtualThreads = modo == ModoExecucao.VIRTUAL;
+            metricas.configurar(config);
+            compressao.configurar(config);
+            config.requestLogger.http((ctx, duracaoMs) -> {
+                metricas.registrar(ctx, duracaoMs);
+                if (log.registraAcessos()) {
+                    log.acesso(ctx.method().name(), ctx.path(), ctx.statusCode(),
+                            (long) (duracaoMs * 1_000_000.0), ctx.ip());
+                }
+            });
+            config.events.serverStarted(() -> AquecimentoJackson.iniciar(metricas.jsonMapper(), true));
+            config.events.serverStopped(log::close);
+            ajustes.accept(config);
+        });
+        AquecimentoJackson.iniciar(metricas.jsonMapper(), false);
+
+        // Antes do limitador, para contar também as requisições que ele recusa.
+        metricas.instalar(app);
+
+        // Primeiro a taxa por cliente, para que quem abusa não ocupe vagas do limite global.
+        LimitadorTaxa limitadorTaxa = LimitadorTaxa.doSistema();
+        if (limitadorTaxa != null) {
+            limitadorTaxa.instalar(app);
+        }
+        LimitadorAdaptativo limitadorAdaptativo = LimitadorAdaptativo.doSistema();
+        if (limitadorAdaptativo != null) {
+            limitadorAdaptativo.instalar(app);
+        }
+
+        if (concorrenciaMaxima > 0) {
+            new LimitadorConcorrencia(concorrenciaMaxima, Long.getLong("servidor.esperaMaximaMs", 1000))
+                    .instalar(app);
+        }
+
+        RespostasEstaticas respostas = new RespostasEstaticas(metricas::resumo,
+                Long.getLong("status.intervaloMs", RespostasEstaticas.INTERVALO_STATUS_PADRAO_MS),
+                Integer.getInteger("saudacao.cacheTamanho", RespostasEstaticas.CAPACIDADE_SAUDACOES_PADRAO));
 
         app.get("/hello", ctx -> {
-            ctx.result("Hello, Javalin!");
+            ctx.result(respostas.hello());
         });
 
         app.get("/status", ctx -> {
-            Map<String, String> status = Map.of(
-                    "status", "ok",
-                    "timestamp", LocalDateTime.now().format(DateTimeFormatter.ISO_DATE_TIME)
-            );
-            ctx.json(status);
+            ctx.contentType("application/json").result(respostas.status());
         });
 
         app.post("/echo", ctx -> {
-            Map<String, Object> corpoRequisicao = ctx.bodyAsClass(Map.class);
+            Map<String, Object> corpoRequisicao = ctx.bodyAsClass(CAMPOS.getType());
             String mensagemRecebida = (String) corpoRequisicao.get("mensagem");
             Map<String, String> resposta = Map.of("mensagem", mensagemRecebida);
             ctx.json(resposta);
         });
 
         app.get("/saudacao/{nome}", ctx -> {
-            String nome = ctx.pathParam("nome");
-            Map<String, String> saudacao = Map.of("mensagem", "Olá, " + nome + "!");
-            ctx.json(saudacao);
+            ctx.contentType("application/json").result(respostas.saudacao(ctx.pathParam("nome")));
         });
 
 
         app.post("/tarefas", ctx -> {
-            Tarefa novaTarefa = ctx.bodyAsClass(Tarefa.class);
+            Tarefa novaTarefa = FormatoCorpo.ler(ctx, Tarefa.class);
 
             if (novaTarefa.getTitulo() == null || novaTarefa.getTitulo().trim().isEmpty()) {
                 ctx.status(HttpStatus.BAD_REQUEST);
@@ -54,48 +174,326 @@ public class AplicacaoPrincipal {
                 return;
             }
 
-            tarefas.put(novaTarefa.getId(), novaTarefa);
+            // Um ID já existente (repetição do cliente) continua a versão em vez de voltar à 1.
+            Tarefa criada = versionado.alterar(novaTarefa.getId(), atual -> novaTarefa);
             ctx.status(HttpStatus.CREATED);
-            ctx.json(novaTarefa);
-            System.out.println("Tarefa cadastrada: " + novaTarefa.getTitulo() + " (ID: " + novaTarefa.getId() + ")");
+            ctx.header("ETag", criada.etag());
+            FormatoCorpo formato = FormatoCorpo.daResposta(ctx);
+            ctx.contentType(formato.tipo()).result(criada.corpo(formato));
+            log.auditoria("tarefa_criada", criada.getId(), criada.getTitulo(), -1);
+        });
+
+        app.post("/tarefas/batch", ctx -> {
+            LoteTarefas.Resultado resultado = LoteTarefas.importar(ctx.bodyInputStream(), versionado,
+                    FormatoCorpo.daRequisicao(ctx.contentType()));
+            ctx.status(resultado.getCriadas() > 0 ? HttpStatus.CREATED : HttpStatus.BAD_REQUEST);
+            FormatoCorpo formato = FormatoCorpo.daResposta(ctx);
+            if (formato == FormatoCorpo.JSON) {
+                ctx.json(resultado);
+            } else {
+                ctx.contentType(formato.tipo()).result(formato.escrever(resultado));
+            }
+            log.auditoria("lote_criado", null, null, resultado.getCriadas());
         });
 
         app.get("/tarefas", ctx -> {
-            ctx.json(new ArrayList<>(tarefas.values()));
+            String limiteParam = ctx.queryParam("limit");
+            String cursorParam = ctx.queryParam("cursor");
+
+            int limite = Integer.MAX_VALUE;
+            if (limiteParam != null) {
+                try {
+                    limite = Integer.parseInt(limiteParam);
+                } catch (NumberFormatException e) {
+                    limite = 0;
+                }
+                if (limite < 1 || limite > LIMITE_MAXIMO_PAGINA) {
+                    ctx.status(HttpStatus.BAD_REQUEST);
+                    ctx.json(Map.of("erro", "O parâmetro limit deve estar entre 1 e " + LIMITE_MAXIMO_PAGINA + "."));
+                    return;
+                }
+            }
+
+            UUID aPartirDe = null;
+            if (cursorParam != null) {
+                try {
+                    aPartirDe = CursorTarefas.decodificar(cursorParam);
+                } catch (IllegalArgumentException e) {
+                    ctx.status(HttpStatus.BAD_REQUEST);
+                    ctx.json(Map.of("erro", "O cursor fornecido é inválido."));
+                    return;
+                }
+            }
+
+            String concluidaParam = ctx.queryParam("concluida");
+            Boolean concluida = null;
+            if (concluidaParam != null) {
+                if (!concluidaParam.equals("true") && !concluidaParam.equals("false")) {
+                    ctx.status(HttpStatus.BAD_REQUEST);
+                    ctx.json(Map.of("erro", "O parâmetro concluida deve ser true ou false."));
+                    return;
+                }
+                concluida = Boolean.valueOf(concluidaParam);
+            }
+            FiltroTarefas filtro = new FiltroTarefas(concluida, ctx.queryParam("titulo_prefix"), ctx.queryParam("q"));
+
+            FormatoCorpo formato = FormatoCorpo.daResposta(ctx);
+            ctx.header("Vary", "Accept, Accept-Encoding");
+            long versao = versionado.versao();
+            if (cluster == null) {
+                long ultimaAlteracao = versionado.ultimaAlteracao();
+                long agora = System.currentTimeMillis();
+                String etag = versionado.etag(versao);
+                ctx.header("ETag", etag);
+                if (RequisicaoCondicional.segundoEncerrado(ultimaAlteracao, agora)) {
+                    ctx.header("Last-Modified", RequisicaoCondicional.formatarData(ultimaAlteracao));
+                }
+                if (RequisicaoCondicional.naoModificado(ctx.header("If-None-Match"), ctx.header("If-Modified-Since"),
+                        etag, ultimaAlteracao, agora)) {
+                    ctx.status(HttpStatus.NOT_MODIFIED);
+                    return;
+                }
+            }
+
+            ctx.contentType(formato.tipo());
+            String chaveCache = (formato == FormatoCorpo.JSON ? "" : formato + " ")
+                    + (ctx.queryString() == null ? "" : ctx.queryString());
+            CacheListagens.Resposta emCache = cacheListagens.buscar(chaveCache, versao);
+            if (emCache != null) {
+                if (emCache.getProximoCursor() != null) {
+                    ctx.header("X-Proximo-Cursor", emCache.getProximoCursor());
+                }
+                // Com Content-Encoding já definido o Javalin não comprime de novo.
+                if (compressao.comprimir(ctx.header("Accept-Encoding"), emCache.getCorpo().length)) {
+                    ctx.header("Content-Encoding", "gzip");
+                    ctx.result(cacheListagens.corpoGzip(emCache, compressao));
+                } else {
+                    ctx.result(emCache.getCorpo());
+                }
+                return;
+            }
+
+            Iterator<Tarefa> iterador = versionado.listar(filtro, aPartirDe);
+            // Sem limit a listagem pode ter o repositório inteiro, e copiá-la
+            // para o cache só para descartar a cópia depois dobraria o custo;
+            // ela só é capturada quando cabe numa página.
+            CacheListagens.Captura captura = limiteParam != null || versionado.tamanho() <= LIMITE_MAXIMO_PAGINA
+                    ? cacheListagens.capturar(ctx.outputStream()) : null;
+            OutputStream saida = captura != null ? captura : ctx.outputStream();
+            String proximoCursor = null;
+            if (limiteParam == null) {
+                EscritorJsonTarefas.escreverArray(saida, iterador, limite, formato);
+            } else {
+                List<Tarefa> pagina = new ArrayList<>(Math.min(limite, 64));
+                while (pagina.size() < limite && iterador.hasNext()) {
+                    pagina.add(iterador.next());
+                }
+                if (iterador.hasNext()) {
+                    proximoCursor = CursorTarefas.codificar(pagina.get(pagina.size() - 1).getId());
+                    ctx.header("X-Proximo-Cursor", proximoCursor);
+                }
+                EscritorJsonTarefas.escreverArray(saida, pagina.iterator(), limite, formato);
+            }
+            if (captura != null) {
+                cacheListagens.guardar(chaveCache, versao, captura, proximoCursor);
+            }
         });
 
+        // Registrado antes de /tarefas/{id}, que também casaria com /tarefas/eventos.
+        new TransmissorFeed(versionado.feed(),
+                Integer.getInteger("feed.capacidadeAssinante", FeedAlteracoes.CAPACIDADE_ASSINANTE_PADRAO),
+                FeedAlteracoes.Politica.doSistema(), log)
+                .instalar(app);
+
         app.get("/tarefas/{id}", ctx -> {
-            String idBusca = ctx.pathParam("id");
-            Tarefa tarefaEncontrada = null;
-            try {
-                UUID uuidIdBusca = UUID.fromString(idBusca);
-                tarefaEncontrada = tarefas.get(uuidIdBusca);
-            } catch (IllegalArgumentException e) {
-                ctx.status(HttpStatus.BAD_REQUEST);
-                ctx.json(Map.of("erro", "O ID fornecido não é um formato UUID válido."));
+            UUID uuidIdBusca = idDaTarefa(ctx);
+            if (uuidIdBusca == null) {
                 return;
             }
+            Tarefa tarefaEncontrada = versionado.buscarPorId(uuidIdBusca).orElse(null);
 
             if (tarefaEncontrada != null) {
-                ctx.json(tarefaEncontrada);
+                ctx.header("Vary", "Accept, Accept-Encoding");
+                long ultimaAlteracao = versionado.ultimaAlteracao();
+                long agora = System.currentTimeMillis();
+                ctx.header("ETag", tarefaEncontrada.etag());
+                String ifModifiedSince = null;
+                if (cluster == null) {
+                    if (RequisicaoCondicional.segundoEncerrado(ultimaAlteracao, agora)) {
+                        ctx.header("Last-Modified", RequisicaoCondicional.formatarData(ultimaAlteracao));
+                    }
+                    ifModifiedSince = ctx.header("If-Modified-Since");
+                }
+                if (RequisicaoCondicional.naoModificado(ctx.header("If-None-Match"), ifModifiedSince,
+                        tarefaEncontrada.etag(), ultimaAlteracao, agora)) {
+                    ctx.status(HttpStatus.NOT_MODIFIED);
+                    return;
+                }
+                FormatoCorpo formato = FormatoCorpo.daResposta(ctx);
+                ctx.contentType(formato.tipo()).result(tarefaEncontrada.corpo(formato));
             } else {
                 ctx.status(HttpStatus.NOT_FOUND);
-                ctx.json(Map.of("erro", "Tarefa não encontrada com o ID: " + idBusca));
+                ctx.json(Map.of("erro", "Tarefa não encontrada com o ID: " + ctx.pathParam("id")));
             }
         });
 
-        System.out.println("--------------------------------------------------");
-        System.out.println("Servidor Javalin do AT-DSWT-Java iniciado na porta 7000.");
-        System.out.println("Endpoints para teste:");
-        System.out.println("  GET  -> http://localhost:7000/hello");
-        System.out.println("  GET  -> http://localhost:7000/status");
-        System.out.println("  GET  -> http://localhost:7000/saudacao/SeuNome");
-        System.out.println("  POST -> http://localhost:7000/echo (JSON: {\"mensagem\": \"Sua Mensagem\"})");
-        System.out.println("");
-        System.out.println("  --- Endpoints de Tarefas ---");
-        System.out.println("  POST -> http://localhost:7000/tarefas (Cria uma tarefa - Body JSON: {\"titulo\":\"Comprar Leite\",\"descricao\":\"No mercado da esquina\"})");
-        System.out.println("  GET  -> http://localhost:7000/tarefas (Lista todas as tarefas)");
-        System.out.println("  GET  -> http://localhost:7000/tarefas/{id} (Busca por ID da tarefa, ex: /tarefas/a1b2c3d4-e5f6-7890-1234-567890abcdef)");
-        System.out.println("--------------------------------------------------");
+        app.put("/tarefas/{id}", ctx -> {
+            UUID id = idDaTarefa(ctx);
+            if (id == null) {
+                return;
+            }
+            Tarefa dados = FormatoCorpo.ler(ctx, Tarefa.class);
+            if (dados.getTitulo() == null || dados.getTitulo().trim().isEmpty()) {
+                ctx.status(HttpStatus.BAD_REQUEST);
+                ctx.json(Map.of("erro", "O título da tarefa é obrigatório."));
+                return;
+            }
+
+            PrecondicaoVersao precondicao = PrecondicaoVersao.doHeader(ctx.header("If-Match"));
+            Tarefa alterada = versionado.alterar(id, atual -> {
+                if (atual == null) {
+                    return null;
+                }
+                precondicao.exigir(atual);
+                return dados.comId(id);
+            });
+            responderAlterada(ctx, id, alterada);
+        });
+
+        app.patch("/tarefas/{id}", ctx -> {
+            UUID id = idDaTarefa(ctx);
+            if (id == null) {
+                return;
+            }
+            Map<String, Object> campos = FormatoCorpo.ler(ctx, CAMPOS);
+            String erro = validarCamposPatch(campos);
+            if (erro != null) {
+                ctx.status(HttpStatus.BAD_REQUEST);
+                ctx.json(Map.of("erro", erro));
+                return;
+            }
+
+            PrecondicaoVersao precondicao = PrecondicaoVersao.doHeader(ctx.header("If-Match"));
+            Tarefa alterada = versionado.alterar(id, atual -> {
+                if (atual == null) {
+                    return null;
+                }
+                precondicao.exigir(atual);
+                Tarefa nova = atual;
+                if (campos.containsKey("titulo")) {
+                    nova = nova.comTitulo((String) campos.get("titulo"));
+                }
+                if (campos.containsKey("descricao")) {
+                    nova = nova.comDescricao((String) campos.get("descricao"));
+                }
+                if (campos.containsKey("concluida")) {
+                    nova = nova.comConcluida((Boolean) campos.get("concluida"));
+                }
+                return nova;
+            });
+            responderAlterada(ctx, id, alterada);
+        });
+
+        app.delete("/tarefas/{id}", ctx -> {
+            UUID id = idDaTarefa(ctx);
+            if (id == null) {
+                return;
+            }
+            PrecondicaoVersao precondicao = PrecondicaoVersao.doHeader(ctx.header("If-Match"));
+            boolean[] existia = new boolean[1];
+            versionado.alterar(id, atual -> {
+                existia[0] = atual != null;
+                if (atual != null) {
+                    precondicao.exigir(atual);
+                }
+                return null;
+            });
+            if (existia[0]) {
+                ctx.status(HttpStatus.NO_CONTENT);
+            } else {
+                ctx.status(HttpStatus.NOT_FOUND);
+                ctx.json(Map.of("erro", "Tarefa não encontrada com o ID: " + id));
+            }
+        });
+
+        if (cluster != null) {
+            cluster.instalar(app);
+            app.exception(TarefaRepositoryCluster.NoIndisponivelException.class, (e, ctx) -> {
+                ctx.status(HttpStatus.SERVICE_UNAVAILABLE);
+                ctx.json(Map.of("erro", e.getMessage()));
+            });
+        }
+
+        app.exception(FormatoCorpo.CorpoInvalidoException.class, (e, ctx) -> {
+            ctx.status(HttpStatus.BAD_REQUEST);
+            ctx.json(Map.of("erro", e.getMessage()));
+        });
+
+        app.exception(PrecondicaoVersao.VersaoConflitanteException.class, (e, ctx) -> {
+            ctx.status(HttpStatus.PRECONDITION_FAILED);
+            if (e.getVersaoAtual() >= 0) {
+                ctx.header("ETag", Tarefa.etag(e.getVersaoAtual()));
+            }
+            ctx.json(Map.of("erro", e.getMessage(), "versaoAtual", e.getVersaoAtual()));
+        });
+
+        return app;
+    }
+
+    private static UUID idDaTarefa(Context ctx) {
+        UUID id = LeitorUuid.ler(ctx.pathParam("id"));
+        if (id == null) {
+            ctx.status(HttpStatus.BAD_REQUEST);
+            ctx.result(RespostasEstaticas.ERRO_UUID_INVALIDO).contentType(ContentType.APPLICATION_JSON);
+        }
+        return id;
+    }
+
+    private static void responderAlterada(Context ctx, UUID id, Tarefa alterada) {
+        if (alterada == null) {
+            ctx.status(HttpStatus.NOT_FOUND);
+            ctx.json(Map.of("erro", "Tarefa não encontrada com o ID: " + id));
+            return;
+        }
+        ctx.header("ETag", alterada.etag());
+        FormatoCorpo formato = FormatoCorpo.daResposta(ctx);
+        ctx.contentType(formato.tipo()).result(alterada.corpo(formato));
+    }
+
+    private static String validarCamposPatch(Map<String, Object> campos) {
+        if (campos == null) {
+            return "O corpo deve ser um objeto.";
+        }
+        if (campos.containsKey("titulo")) {
+            Object titulo = campos.get("titulo");
+            if (!(titulo instanceof String) || ((String) titulo).trim().isEmpty()) {
+                return "O título da tarefa é obrigatório.";
+            }
+        }
+        if (campos.containsKey("descricao") && campos.get("descricao") != null
+                && !(campos.get("descricao") instanceof String)) {
+            return "O campo descricao deve ser um texto.";
+        }
+        if (campos.containsKey("concluida") && !(campos.get("concluida") instanceof Boolean)) {
+            return "O campo concluida deve ser true ou false.";
+        }
+        return null;
+    }
+
+    static TarefaRepository criarRepositorio() {
+        String armazenamento = System.getProperty("tarefas.armazenamento", "memoria");
+        switch (armazenamento) {
+            case "memoria":
+                return new TarefaRepositoryMemoria();
+            case "persistente":
+                Path diretorio = Path.of(System.getProperty("tarefas.diretorio", "dados"));
+                int intervaloSnapshot = Integer.getInteger("tarefas.intervaloSnapshot",
+                        TarefaRepositoryPersistente.INTERVALO_SNAPSHOT_PADRAO);
+                return new TarefaRepositoryPersistente(diretorio, intervaloSnapshot);
+            case "mapeado":
+                return new TarefaRepositoryMapeado(Path.of(System.getProperty("tarefas.diretorio", "dados")));
+            default:
+                throw new IllegalArgumentException("Armazenamento de tarefas desconhecido: " + armazenamento);
+        }
     }
 }
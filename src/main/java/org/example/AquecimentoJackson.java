@@ -0,0 +1,60 @@
+package org.example;
+
+import io.javalin.json.JsonMapper;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Aquecimento do Jackson numa thread de fundo: carrega as classes e monta os
+ * serializadores de {@link Tarefa} (JSON e CBOR), a leitura dos corpos e o
+ * JsonMapper do Javalin, para que a primeira requisição de tarefa não pague
+ * algumas centenas de milissegundos de carga de classes.
+ *
+ * <p>Com mais de um processador o aquecimento roda enquanto o Jetty sobe; com
+ * um só ele começa depois que o servidor já atende, para não atrasar o
+ * {@code /hello}. Uma requisição que chegue antes do fim espera a
+ * inicialização das mesmas classes, sem custo extra. Desligado com
+ * {@code -Dinicializacao.aquecer=false}.</p>
+ */
+final class AquecimentoJackson {
+
+    private static final AtomicBoolean iniciado = new AtomicBoolean();
+
+    private AquecimentoJackson() {
+    }
+
+    /**
+     * Chamado antes e depois de subir o servidor ({@code servidorNoAr}); o
+     * aquecimento começa uma vez por JVM, na chamada que vale para o número de
+     * processadores.
+     */
+    static void iniciar(JsonMapper jsonMapper, boolean servidorNoAr) {
+        boolean variosProcessadores = Runtime.getRuntime().availableProcessors() > 1;
+        if (servidorNoAr == variosProcessadores
+                || !Boolean.parseBoolean(System.getProperty("inicializacao.aquecer", "true"))
+                || !iniciado.compareAndSet(false, true)) {
+            return;
+        }
+        Thread.ofPlatform().daemon().name("aquecimento-jackson").start(() -> aquecer(jsonMapper));
+    }
+
+    static void aquecer(JsonMapper jsonMapper) {
+        Tarefa.aquecerSerializadores();
+        String json = "{\"id\":\"00000000-0000-0000-0000-000000000000\",\"titulo\":\"aquecimento\","
+                + "\"descricao\":\"\",\"concluida\":false}";
+        try {
+            Tarefa lida = jsonMapper.fromJsonString(json, Tarefa.class);
+            FormatoCorpo.CBOR.objectMapper().readValue(
+                    FormatoCorpo.CBOR.objectMapper().writeValueAsBytes(lida), Tarefa.class);
+            jsonMapper.fromJsonString("{\"concluida\":true}", Map.class);
+            try (InputStream corpo = jsonMapper.toJsonStream(Map.of("erro", "aquecimento"), Map.class)) {
+                corpo.readAllBytes();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
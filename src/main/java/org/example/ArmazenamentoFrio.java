@@ -0,0 +1,449 @@
+package org.example;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.BiConsumer;
+import java.util.zip.CRC32;
+
+/**
+ * Arquivo append-only para onde {@link TarefaRepositoryRetencao} despeja as
+ * tarefas que não cabem mais na memória. Só o índice ID → posição fica em
+ * memória, ordenado por ID para que {@link #listar} possa ser intercalado com
+ * a listagem do repositório; a tarefa é lida do disco quando alguém a pede.
+ *
+ * <p>Registros no mesmo formato do log de {@link TarefaRepositoryPersistente}
+ * ({@code [int tamanho][int crc32][payload]}), com um registro de remoção para
+ * que a tarefa trazida de volta não reapareça após um reinício. Quando mais da
+ * metade do arquivo é lixo ele é reescrito só com os registros vivos. Não há
+ * {@code fsync}: o arquivo sobrevive ao reinício do processo, não
+ * necessariamente a uma queda da máquina.</p>
+ */
+final class ArmazenamentoFrio implements AutoCloseable {
+
+    private static final byte TIPO_SALVAR = 1;
+    private static final byte TIPO_REMOVER = 3;
+    private static final int CABECALHO = 8;
+    private static final long TAMANHO_MINIMO_COMPACTACAO = 1 << 20;
+    private static final long LOTE_COMPACTACAO = 1 << 20;
+
+    private final Path arquivo;
+    /** Trocado inteiro ao reabrir ou compactar, para que consultas sem trava não vejam o índice pela metade. */
+    private volatile ConcurrentNavigableMap<UUID, Posicao> posicoes = new ConcurrentSkipListMap<>();
+    /** Leituras usam o canal em paralelo; escritas e a troca do arquivo são exclusivas. */
+    private final ReentrantReadWriteLock trava = new ReentrantReadWriteLock();
+    private FileChannel canal;
+    private long tamanhoArquivo;
+    private long bytesVivos;
+    /** Muda a cada limpeza ou troca de arquivo; uma compactação em andamento que a vê mudar desiste. */
+    private long geracao;
+
+    ArmazenamentoFrio(Path arquivo) {
+        this.arquivo = arquivo;
+        try {
+            Path pai = arquivo.toAbsolutePath().getParent();
+            if (pai != null) {
+                Files.createDirectories(pai);
+            }
+            abrir();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Falha ao abrir o armazenamento frio " + arquivo, e);
+        }
+    }
+
+    boolean contem(UUID id) {
+        return posicoes.containsKey(id);
+    }
+
+    int tamanho() {
+        return posicoes.size();
+    }
+
+    /** Grava a tarefa junto com o horário (epoch em ms) da última escrita dela. */
+    void gravar(Tarefa tarefa, long ultimaEscrita) {
+        trava.writeLock().lock();
+        try {
+            long posicao = tamanhoArquivo;
+            int tamanho = anexar(registro(TIPO_SALVAR, tarefa.getId(), tarefa, ultimaEscrita));
+            Posicao anterior = posicoes.put(tarefa.getId(),
+                    new Posicao(posicao, tamanho, ultimaEscrita, tarefa.isConcluida(), tarefa.getVersao()));
+            bytesVivos += tamanho - (anterior != null ? anterior.tamanho : 0);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Falha ao gravar no armazenamento frio", e);
+        } finally {
+            trava.writeLock().unlock();
+        }
+    }
+
+    /** Tarefa guardada com esse ID, ou {@code null}. */
+    Tarefa ler(UUID id) {
+        trava.readLock().lock();
+        try {
+            Posicao posicao = posicoes.get(id);
+            if (posicao == null) {
+                return null;
+            }
+            ByteBuffer buffer = ByteBuffer.allocate(posicao.tamanho);
+            while (buffer.hasRemaining()) {
+                if (canal.read(buffer, posicao.posicao + buffer.position()) < 0) {
+                    throw new IOException("Registro truncado na posição " + posicao.posicao);
+                }
+            }
+            DataInputStream registro = validar(buffer.array(), CABECALHO, posicao.tamanho - CABECALHO);
+            if (registro == null) {
+                throw new IOException("Registro corrompido na posição " + posicao.posicao);
+            }
+            registro.readByte();
+            return TarefaRepositoryPersistente.lerTarefa(registro);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Falha ao ler do armazenamento frio", e);
+        } finally {
+            trava.readLock().unlock();
+        }
+    }
+
+    /**
+     * Tarefas guardadas, em ordem de ID, a partir do ID seguinte a
+     * {@code aPartirDe}; cada uma é lida do disco quando o iterador chega
+     * nela, e as removidas no caminho são puladas.
+     */
+    Iterator<Tarefa> listar(UUID aPartirDe) {
+        ConcurrentNavigableMap<UUID, Posicao> atuais = posicoes;
+        Iterator<UUID> ids = (aPartirDe == null ? atuais : atuais.tailMap(aPartirDe, false)).keySet().iterator();
+        Iterator<Tarefa> tarefas = new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return ids.hasNext();
+            }
+
+            @Override
+            public Tarefa next() {
+                return ler(ids.next());
+            }
+        };
+        return new IteradorFiltrado<>(tarefas, tarefa -> tarefa != null);
+    }
+
+    /** Horário da última escrita da tarefa guardada, ou -1 se ela não está aqui. */
+    long ultimaEscrita(UUID id) {
+        Posicao posicao = posicoes.get(id);
+        return posicao != null ? posicao.ultimaEscrita : -1;
+    }
+
+    /** Versão da tarefa guardada, ou -1 se ela não está aqui. */
+    long versao(UUID id) {
+        Posicao posicao = posicoes.get(id);
+        return posicao != null ? posicao.versao : -1;
+    }
+
+    /** Entrega a {@code visitante} o ID e o horário da última escrita de cada tarefa concluída guardada. */
+    void paraCadaConcluida(BiConsumer<UUID, Long> visitante) {
+        posicoes.forEach((id, posicao) -> {
+            if (posicao.concluida) {
+                visitante.accept(id, posicao.ultimaEscrita);
+            }
+        });
+    }
+
+    void remover(UUID id) {
+        if (!posicoes.containsKey(id)) {
+            return;
+        }
+        trava.writeLock().lock();
+        try {
+            Posicao anterior = posicoes.remove(id);
+            if (anterior != null) {
+                bytesVivos -= anterior.tamanho;
+                anexar(registro(TIPO_REMOVER, id, null, 0));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Falha ao gravar no armazenamento frio", e);
+        } finally {
+            trava.writeLock().unlock();
+        }
+    }
+
+    void limpar() {
+        trava.writeLock().lock();
+        try {
+            canal.truncate(0);
+            tamanhoArquivo = 0;
+            bytesVivos = 0;
+            posicoes.clear();
+            geracao++;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Falha ao limpar o armazenamento frio", e);
+        } finally {
+            trava.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Reescreve o arquivo só com os registros vivos quando mais da metade dele
+     * é lixo. As concluídas vencidas não são descartadas aqui: quem as remove é
+     * {@link TarefaRepositoryRetencao}, para que a remoção apareça no feed.
+     *
+     * <p>A cópia é feita num arquivo novo, em lotes de
+     * {@value #LOTE_COMPACTACAO} bytes sob a trava de leitura, então as
+     * leituras continuam e as escritas só esperam um lote. Só a troca é
+     * exclusiva: os registros anexados durante a cópia são levados para o
+     * arquivo novo e aplicados ao índice novo, que então substitui o antigo.</p>
+     */
+    void compactarSeNecessario() {
+        List<Map.Entry<UUID, Posicao>> vivas;
+        long limite;
+        long geracaoInicial;
+        trava.readLock().lock();
+        try {
+            if (tamanhoArquivo < TAMANHO_MINIMO_COMPACTACAO || bytesVivos * 2 > tamanhoArquivo) {
+                return;
+            }
+            limite = tamanhoArquivo;
+            geracaoInicial = geracao;
+            vivas = new ArrayList<>(posicoes.entrySet());
+        } finally {
+            trava.readLock().unlock();
+        }
+        // Na ordem do arquivo antigo, para que a reabertura reaplique os registros na mesma sequência.
+        vivas.sort((a, b) -> Long.compare(a.getValue().posicao, b.getValue().posicao));
+
+        Path temporario = arquivo.resolveSibling(arquivo.getFileName() + ".tmp");
+        FileChannel novo = null;
+        boolean trocado = false;
+        try {
+            novo = FileChannel.open(temporario, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+            Indice indice = new Indice();
+            int proxima = 0;
+            while (proxima < vivas.size()) {
+                trava.readLock().lock();
+                try {
+                    if (geracao != geracaoInicial) {
+                        return;
+                    }
+                    long copiados = 0;
+                    while (proxima < vivas.size() && copiados < LOTE_COMPACTACAO) {
+                        Map.Entry<UUID, Posicao> viva = vivas.get(proxima++);
+                        Posicao antiga = viva.getValue();
+                        long nova = novo.position();
+                        transferir(canal, antiga.posicao, antiga.tamanho, novo);
+                        indice.posicoes.put(viva.getKey(), new Posicao(nova, antiga.tamanho, antiga.ultimaEscrita,
+                                antiga.concluida, antiga.versao));
+                        indice.bytesVivos += antiga.tamanho;
+                        copiados += antiga.tamanho;
+                    }
+                } finally {
+                    trava.readLock().unlock();
+                }
+            }
+
+            trava.writeLock().lock();
+            try {
+                if (geracao != geracaoInicial) {
+                    return;
+                }
+                long inicioCauda = novo.position();
+                transferir(canal, limite, tamanhoArquivo - limite, novo);
+                long fim = reconstruir(novo, inicioCauda, novo.position(), indice);
+                Files.move(temporario, arquivo, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                // O canal antigo continua apontando para o arquivo substituído até ser fechado.
+                FileChannel antigo = canal;
+                canal = novo;
+                trocado = true;
+                tamanhoArquivo = fim;
+                bytesVivos = indice.bytesVivos;
+                posicoes = indice.posicoes;
+                geracao++;
+                antigo.close();
+            } finally {
+                trava.writeLock().unlock();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Falha ao compactar o armazenamento frio", e);
+        } finally {
+            if (!trocado) {
+                descartarTemporario(novo, temporario);
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        trava.writeLock().lock();
+        try {
+            canal.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Falha ao fechar o armazenamento frio", e);
+        } finally {
+            trava.writeLock().unlock();
+        }
+    }
+
+    /** Abre o arquivo e reconstrói o índice; um registro truncado ou inválido encerra a leitura e é descartado. */
+    private void abrir() throws IOException {
+        canal = FileChannel.open(arquivo, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        Indice indice = new Indice();
+        long fim = reconstruir(canal, 0, canal.size(), indice);
+        canal.truncate(fim);
+        tamanhoArquivo = fim;
+        bytesVivos = indice.bytesVivos;
+        posicoes = indice.posicoes;
+    }
+
+    /**
+     * Lê em sequência os registros de {@code origem} entre {@code inicio} e
+     * {@code fim}, aplicando-os a {@code indice}, sem carregar o arquivo
+     * inteiro em memória.
+     *
+     * @return a posição logo após o último registro válido
+     */
+    private static long reconstruir(FileChannel origem, long inicio, long fim, Indice indice) throws IOException {
+        // Sem fechar o stream, que fecharia o canal; as escritas usam posições absolutas.
+        DataInputStream entrada = new DataInputStream(new BufferedInputStream(
+                Channels.newInputStream(origem.position(inicio)), 64 * 1024));
+        byte[] registro = new byte[256];
+        long posicao = inicio;
+        while (fim - posicao >= CABECALHO) {
+            int tamanhoPayload = entrada.readInt();
+            int crc = entrada.readInt();
+            if (tamanhoPayload <= 0 || tamanhoPayload > fim - posicao - CABECALHO) {
+                break;
+            }
+            int tamanho = CABECALHO + tamanhoPayload;
+            if (registro.length < tamanho) {
+                registro = new byte[Math.max(tamanho, registro.length * 2)];
+            }
+            ByteBuffer.wrap(registro).putInt(tamanhoPayload).putInt(crc);
+            entrada.readFully(registro, CABECALHO, tamanhoPayload);
+            DataInputStream payload = validar(registro, CABECALHO, tamanhoPayload);
+            if (payload == null) {
+                break;
+            }
+            byte tipo = payload.readByte();
+            UUID id = new UUID(payload.readLong(), payload.readLong());
+            Posicao anterior;
+            if (tipo == TIPO_SALVAR) {
+                // Os últimos campos do payload são concluida, versão e última escrita.
+                ByteBuffer campos = ByteBuffer.wrap(registro, tamanho - 17, 17);
+                boolean concluida = campos.get() != 0;
+                long versao = campos.getLong();
+                long ultimaEscrita = campos.getLong();
+                anterior = indice.posicoes.put(id, new Posicao(posicao, tamanho, ultimaEscrita, concluida, versao));
+                indice.bytesVivos += tamanho;
+            } else {
+                anterior = indice.posicoes.remove(id);
+            }
+            if (anterior != null) {
+                indice.bytesVivos -= anterior.tamanho;
+            }
+            posicao += tamanho;
+        }
+        return posicao;
+    }
+
+    /** Copia {@code quantidade} bytes de {@code origem}, a partir de {@code posicao}, para o fim de {@code destino}. */
+    private static void transferir(FileChannel origem, long posicao, long quantidade, FileChannel destino)
+            throws IOException {
+        long copiados = 0;
+        while (copiados < quantidade) {
+            long parte = origem.transferTo(posicao + copiados, quantidade - copiados, destino);
+            if (parte <= 0) {
+                throw new IOException("Registro truncado na posição " + (posicao + copiados));
+            }
+            copiados += parte;
+        }
+    }
+
+    private static void descartarTemporario(FileChannel novo, Path temporario) {
+        try {
+            if (novo != null) {
+                novo.close();
+            }
+            Files.deleteIfExists(temporario);
+        } catch (IOException e) {
+            // Só sobra um .tmp, recriado na próxima compactação.
+        }
+    }
+
+    private int anexar(byte[] registro) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(registro);
+        while (buffer.hasRemaining()) {
+            canal.write(buffer, tamanhoArquivo + buffer.position());
+        }
+        tamanhoArquivo += registro.length;
+        return registro.length;
+    }
+
+    private static byte[] registro(byte tipo, UUID id, Tarefa tarefa, long ultimaEscrita) throws IOException {
+        ByteArrayOutputStream bytesPayload = new ByteArrayOutputStream(128);
+        DataOutputStream payload = new DataOutputStream(bytesPayload);
+        payload.writeByte(tipo);
+        payload.writeLong(id.getMostSignificantBits());
+        payload.writeLong(id.getLeastSignificantBits());
+        if (tipo == TIPO_SALVAR) {
+            TarefaRepositoryPersistente.escreverTexto(payload, tarefa.getTitulo());
+            TarefaRepositoryPersistente.escreverTexto(payload, tarefa.getDescricao());
+            payload.writeBoolean(tarefa.isConcluida());
+            payload.writeLong(tarefa.getVersao());
+            payload.writeLong(ultimaEscrita);
+        }
+        byte[] bytes = bytesPayload.toByteArray();
+        CRC32 crc = new CRC32();
+        crc.update(bytes);
+        ByteBuffer registro = ByteBuffer.allocate(CABECALHO + bytes.length);
+        registro.putInt(bytes.length).putInt((int) crc.getValue()).put(bytes);
+        return registro.array();
+    }
+
+    /** Confere o CRC do payload e devolve um leitor sobre ele, ou {@code null} se não bate. */
+    private static DataInputStream validar(byte[] dados, int inicioPayload, int tamanhoPayload) {
+        CRC32 crc = new CRC32();
+        crc.update(dados, inicioPayload, tamanhoPayload);
+        int esperado = ByteBuffer.wrap(dados, inicioPayload - 4, 4).getInt();
+        if ((int) crc.getValue() != esperado) {
+            return null;
+        }
+        return new DataInputStream(new ByteArrayInputStream(dados, inicioPayload, tamanhoPayload));
+    }
+
+    /** Índice em construção, ao abrir ou compactar. */
+    private static final class Indice {
+        final ConcurrentNavigableMap<UUID, Posicao> posicoes = new ConcurrentSkipListMap<>();
+        long bytesVivos;
+    }
+
+    private static final class Posicao {
+        final long posicao;
+        final int tamanho;
+        final long ultimaEscrita;
+        final boolean concluida;
+        final long versao;
+
+        Posicao(long posicao, int tamanho, long ultimaEscrita, boolean concluida, long versao) {
+            this.posicao = posicao;
+            this.tamanho = tamanho;
+            this.ultimaEscrita = ultimaEscrita;
+            this.concluida = concluida;
+            this.versao = versao;
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package org.example;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Arquivo mapeado em memória em regiões de 64 MB, endereçado por posições
+ * {@code long}. As regiões são mapeadas sob demanda e o arquivo cresce
+ * conforme novas posições são escritas. Valores primitivos devem estar
+ * alinhados ao próprio tamanho para não atravessar regiões.
+ *
+ * <p>As regiões mapeadas ficam num array publicado por cópia: a leitura não
+ * trava, e o mapeamento de uma região nova acontece sob o monitor deste
+ * objeto, então dois leitores com só a trava de leitura do repositório não
+ * mapeiam a mesma região duas vezes.</p>
+ */
+final class ArquivoMapeado implements Closeable {
+
+    private static final int BITS_REGIAO = 26;
+    private static final long TAMANHO_REGIAO = 1L << BITS_REGIAO;
+    private static final long MASCARA_REGIAO = TAMANHO_REGIAO - 1;
+
+    private final FileChannel canal;
+    private volatile MappedByteBuffer[] regioes = new MappedByteBuffer[0];
+
+    ArquivoMapeado(Path arquivo, boolean truncar) {
+        try {
+            canal = truncar
+                    ? FileChannel.open(arquivo, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                            StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)
+                    : FileChannel.open(arquivo, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                            StandardOpenOption.WRITE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Não foi possível abrir " + arquivo, e);
+        }
+    }
+
+    long getLong(long posicao) {
+        return regiao(posicao).getLong((int) (posicao & MASCARA_REGIAO));
+    }
+
+    void putLong(long posicao, long valor) {
+        regiao(posicao).putLong((int) (posicao & MASCARA_REGIAO), valor);
+    }
+
+    int getInt(long posicao) {
+        return regiao(posicao).getInt((int) (posicao & MASCARA_REGIAO));
+    }
+
+    void putInt(long posicao, int valor) {
+        regiao(posicao).putInt((int) (posicao & MASCARA_REGIAO), valor);
+    }
+
+    void lerBytes(long posicao, byte[] destino) {
+        int copiados = 0;
+        while (copiados < destino.length) {
+            long atual = posicao + copiados;
+            int deslocamento = (int) (atual & MASCARA_REGIAO);
+            int quantidade = (int) Math.min(destino.length - copiados, TAMANHO_REGIAO - deslocamento);
+            regiao(atual).get(deslocamento, destino, copiados, quantidade);
+            copiados += quantidade;
+        }
+    }
+
+    void escreverBytes(long posicao, byte[] origem) {
+        int copiados = 0;
+        while (copiados < origem.length) {
+            long atual = posicao + copiados;
+            int deslocamento = (int) (atual & MASCARA_REGIAO);
+            int quantidade = (int) Math.min(origem.length - copiados, TAMANHO_REGIAO - deslocamento);
+            regiao(atual).put(deslocamento, origem, copiados, quantidade);
+            copiados += quantidade;
+        }
+    }
+
+    void forcar() {
+        for (MappedByteBuffer regiao : regioes) {
+            regiao.force();
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        forcar();
+        regioes = new MappedByteBuffer[0];
+        try {
+            canal.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private MappedByteBuffer regiao(long posicao) {
+        int indice = (int) (posicao >>> BITS_REGIAO);
+        MappedByteBuffer[] atuais = regioes;
+        if (indice < atuais.length) {
+            return atuais[indice];
+        }
+        return mapear(indice);
+    }
+
+    private synchronized MappedByteBuffer mapear(int indice) {
+        MappedByteBuffer[] atuais = regioes;
+        if (indice < atuais.length) {
+            return atuais[indice];
+        }
+        MappedByteBuffer[] novas = Arrays.copyOf(atuais, indice + 1);
+        try {
+            for (int i = atuais.length; i <= indice; i++) {
+                novas[i] = canal.map(FileChannel.MapMode.READ_WRITE, i * TAMANHO_REGIAO, TAMANHO_REGIAO);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Não foi possível mapear a região " + indice, e);
+        }
+        regioes = novas;
+        return novas[indice];
+    }
+}
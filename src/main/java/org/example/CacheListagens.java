@@ -0,0 +1,183 @@
+package org.example;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Cache dos corpos já serializados de GET /tarefas, por query string. Cada
+ * resposta guarda a versão do repositório em que foi montada; quando a versão
+ * muda, todo o cache é descartado de uma vez.
+ *
+ * <p>O total guardado é limitado a {@code capacidadeBytes}. Respostas maiores
+ * que um quarto da capacidade são transmitidas normalmente e não entram no
+ * cache.</p>
+ *
+ * <p>A versão gzip de cada corpo é gerada no primeiro pedido comprimido e
+ * guardada junto, contando no mesmo limite.</p>
+ *
+ * <p>As buscas não travam. Quem grava troca a versão, conta os bytes e
+ * altera o mapa sob o monitor do cache, para que uma resposta de versão
+ * antiga não entre depois da limpeza nem deixe bytes contados sem dono.</p>
+ */
+public final class CacheListagens {
+
+    public static final long CAPACIDADE_PADRAO = 64L * 1024 * 1024;
+
+    private final ConcurrentHashMap<String, Resposta> respostas = new ConcurrentHashMap<>();
+    /** Protegido pelo monitor do cache. */
+    private long bytesEmUso;
+    private final long capacidadeBytes;
+    private volatile long versaoDoCache = -1;
+
+    public CacheListagens(long capacidadeBytes) {
+        this.capacidadeBytes = capacidadeBytes;
+    }
+
+    public Resposta buscar(String chave, long versao) {
+        if (versao != versaoDoCache) {
+            return null;
+        }
+        Resposta resposta = respostas.get(chave);
+        return resposta != null && resposta.versao == versao ? resposta : null;
+    }
+
+    /**
+     * Envolve a saída da resposta copiando o que for escrito, até o tamanho
+     * máximo aceito pelo cache.
+     */
+    public Captura capturar(OutputStream saida) {
+        return new Captura(saida, capacidadeBytes / 4);
+    }
+
+    public void guardar(String chave, long versao, Captura captura, String proximoCursor) {
+        if (captura.copia == null || capacidadeBytes <= 0) {
+            return;
+        }
+        byte[] corpo = captura.copia.toByteArray();
+        synchronized (this) {
+            if (versao < versaoDoCache) {
+                return;
+            }
+            if (versao > versaoDoCache) {
+                respostas.clear();
+                bytesEmUso = 0;
+                versaoDoCache = versao;
+            }
+            Resposta anterior = respostas.get(chave);
+            long liberados = anterior == null ? 0 : anterior.bytes();
+            if (bytesEmUso - liberados + corpo.length > capacidadeBytes) {
+                return;
+            }
+            respostas.put(chave, new Resposta(chave, versao, corpo, proximoCursor));
+            bytesEmUso += corpo.length - liberados;
+        }
+    }
+
+    /**
+     * Corpo comprimido da resposta, gerado uma vez e reaproveitado enquanto ela
+     * estiver no cache.
+     */
+    public byte[] corpoGzip(Resposta resposta, CompressaoRespostas compressao) {
+        byte[] gzip = resposta.gzip;
+        if (gzip != null) {
+            return gzip;
+        }
+        gzip = compressao.gzip(resposta.corpo);
+        synchronized (this) {
+            if (resposta.gzip != null) {
+                return resposta.gzip;
+            }
+            // Só conta se a resposta ainda está no cache: uma já trocada ou
+            // limpa não tem mais quem desconte esses bytes.
+            if (respostas.get(resposta.chave) == resposta && bytesEmUso + gzip.length <= capacidadeBytes) {
+                resposta.gzip = gzip;
+                bytesEmUso += gzip.length;
+            }
+        }
+        return gzip;
+    }
+
+    /** Bytes contados no limite; usado pelos testes. */
+    synchronized long bytesEmUso() {
+        return bytesEmUso;
+    }
+
+    /** Soma dos corpos de fato guardados, para comparar com {@link #bytesEmUso()}. */
+    synchronized long bytesGuardados() {
+        long soma = 0;
+        for (Resposta resposta : respostas.values()) {
+            soma += resposta.bytes();
+        }
+        return soma;
+    }
+
+    public static final class Resposta {
+        final String chave;
+        final long versao;
+        final byte[] corpo;
+        final String proximoCursor;
+        volatile byte[] gzip;
+
+        Resposta(String chave, long versao, byte[] corpo, String proximoCursor) {
+            this.chave = chave;
+            this.versao = versao;
+            this.corpo = corpo;
+            this.proximoCursor = proximoCursor;
+        }
+
+        public byte[] getCorpo() {
+            return corpo;
+        }
+
+        public String getProximoCursor() {
+            return proximoCursor;
+        }
+
+        long bytes() {
+            byte[] comprimido = gzip;
+            return corpo.length + (comprimido == null ? 0 : comprimido.length);
+        }
+    }
+
+    public static final class Captura extends OutputStream {
+        private final OutputStream saida;
+        private final long limite;
+        private ByteArrayOutputStream copia = new ByteArrayOutputStream();
+
+        Captura(OutputStream saida, long limite) {
+            this.saida = saida;
+            this.limite = limite;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            saida.write(b);
+            if (copia != null) {
+                copia.write(b);
+                verificarLimite();
+            }
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            saida.write(b, off, len);
+            if (copia != null) {
+                copia.write(b, off, len);
+                verificarLimite();
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            saida.flush();
+        }
+
+        private void verificarLimite() {
+            if (copia.size() > limite) {
+                copia = null;
+            }
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package org.example;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Cache LRU de tamanho limitado, dividido em segmentos para que threads que
+ * buscam chaves diferentes raramente disputem a mesma trava. Cada segmento é
+ * um {@link LinkedHashMap} em ordem de acesso que descarta a entrada menos
+ * usada quando passa da sua parte da capacidade; o descarte é LRU por
+ * segmento, não global.
+ */
+public final class CacheLru<K, V> {
+
+    private static final int QUANTIDADE_SEGMENTOS = 16;
+
+    private final Segmento<K, V>[] segmentos;
+
+    @SuppressWarnings("unchecked")
+    public CacheLru(int capacidade) {
+        int porSegmento = Math.max(1, (capacidade + QUANTIDADE_SEGMENTOS - 1) / QUANTIDADE_SEGMENTOS);
+        this.segmentos = (Segmento<K, V>[]) new Segmento<?, ?>[QUANTIDADE_SEGMENTOS];
+        for (int i = 0; i < segmentos.length; i++) {
+            segmentos[i] = new Segmento<>(porSegmento);
+        }
+    }
+
+    public V buscar(K chave) {
+        Segmento<K, V> segmento = segmento(chave);
+        synchronized (segmento) {
+            return segmento.get(chave);
+        }
+    }
+
+    /**
+     * Valor da chave, criado com {@code criar} se ainda não estiver no cache.
+     * A criação roda fora da trava; se duas threads criarem ao mesmo tempo,
+     * fica o valor de quem terminou primeiro.
+     */
+    public V buscarOuCriar(K chave, Function<? super K, ? extends V> criar) {
+        V valor = buscar(chave);
+        if (valor != null) {
+            return valor;
+        }
+        V novo = criar.apply(chave);
+        Segmento<K, V> segmento = segmento(chave);
+        synchronized (segmento) {
+            V existente = segmento.putIfAbsent(chave, novo);
+            return existente != null ? existente : novo;
+        }
+    }
+
+    public int tamanho() {
+        int total = 0;
+        for (Segmento<K, V> segmento : segmentos) {
+            synchronized (segmento) {
+                total += segmento.size();
+            }
+        }
+        return total;
+    }
+
+    private Segmento<K, V> segmento(K chave) {
+        int hash = chave.hashCode();
+        return segmentos[(hash ^ (hash >>> 16)) & (QUANTIDADE_SEGMENTOS - 1)];
+    }
+
+    private static final class Segmento<K, V> extends LinkedHashMap<K, V> {
+        private static final long serialVersionUID = 1L;
+
+        private final int capacidade;
+
+        Segmento(int capacidade) {
+            super(16, 0.75f, true);
+            this.capacidade = capacidade;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<K, V> maisAntiga) {
+            return size() > capacidade;
+        }
+    }
+}
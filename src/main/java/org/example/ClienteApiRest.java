@@ -1,150 +1,422 @@
 package org.example;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.SerializationFeature;
-import java.io.BufferedReader;
-import java.io.InputStreamReader;
-import java.io.OutputStream;
-import java.net.HttpURLConnection;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.net.URI;
-import java.net.URL;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
 import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
-public class ClienteApiRest {
+/**
+ * Cliente da API de tarefas sobre {@link HttpClient}: conexões reaproveitadas
+ * (pool do próprio HttpClient), HTTP/2 quando o servidor aceita, chamadas
+ * assíncronas com {@link CompletableFuture} e respostas já convertidas em
+ * {@link Tarefa}.
+ *
+ * <p>Falhas de conexão, 429 e 503 são repetidas até {@code maxTentativas}
+ * vezes, com espera exponencial e jitter completo (um valor aleatório entre
+ * zero e o teto da tentativa). Repetir uma criação é seguro porque o ID da
+ * tarefa é gerado aqui e enviado no corpo: a segunda gravação substitui a
+ * primeira.</p>
+ *
+ * <p>Com {@link FormatoCorpo#CBOR} os corpos enviados e recebidos das rotas de
+ * tarefas usam CBOR, com os UUIDs em 16 bytes; os erros continuam em JSON.</p>
+ */
+public class ClienteApiRest implements AutoCloseable {
 
-    private static final String BASE_URL = "http://localhost:7000";
-    private static final ObjectMapper objectMapper = new ObjectMapper()
-            .enable(SerializationFeature.INDENT_OUTPUT);
+    public static final int TENTATIVAS_PADRAO = 4;
+    public static final long ESPERA_BASE_PADRAO_MS = 50;
+    public static final long ESPERA_MAXIMA_MS = 2_000;
 
-    public static void main(String[] args) {
-        System.out.println("Iniciando o cliente Java para consumo da API REST...");
+    /** Lê a versao das tarefas recebidas; também usado entre os nós de {@link TarefaRepositoryCluster}. */
+    static final ObjectMapper objectMapper = new ObjectMapper()
+            .addMixIn(Tarefa.class, LeituraTarefa.class);
+    private static final ObjectMapper objectMapperCbor = new ObjectMapper(new CBORFactory())
+            .addMixIn(Tarefa.class, LeituraTarefa.class);
+    private static final TypeReference<List<Tarefa>> LISTA_TAREFAS = new TypeReference<>() {
+    };
 
-        try {
-            System.out.println("\n--- 1. Criando uma nova tarefa (POST /tarefas) ---");
-            String novaTarefaJson = "{\"titulo\":\"Estudar para a prova\",\"descricao\":\"Revisar Javalin e JUnit\"}";
-            String idTarefaCriada = extraiIdDaTarefa(fazerRequisicao("POST", "/tarefas", novaTarefaJson).body);
+    private final String baseUrl;
+    private final int maxTentativas;
+    private final long esperaBaseMs;
+    private final FormatoCorpo formato;
+    private final ObjectMapper leitor;
+    private final ExecutorService executor;
+    private final HttpClient http;
 
-            String segundaTarefaJson = "{\"titulo\":\"Fazer compras\",\"descricao\":\"Leite, pão e ovos\"}";
-            fazerRequisicao("POST", "/tarefas", segundaTarefaJson);
+    public ClienteApiRest(String baseUrl) {
+        this(baseUrl, FormatoCorpo.JSON);
+    }
 
-            System.out.println("\n--- Criando uma tarefa JÁ CONCLUÍDA (POST /tarefas com 'concluida': true) ---");
-            String tarefaConcluidaJson = "{\"titulo\":\"Pagar contas\",\"descricao\":\"Luz, água e internet\",\"concluida\":true}";
-            fazerRequisicao("POST", "/tarefas", tarefaConcluidaJson);
+    public ClienteApiRest(String baseUrl, FormatoCorpo formato) {
+        this(baseUrl, HttpClient.Version.HTTP_2, TENTATIVAS_PADRAO, ESPERA_BASE_PADRAO_MS, formato);
+    }
 
+    public ClienteApiRest(String baseUrl, HttpClient.Version versao, int maxTentativas, long esperaBaseMs) {
+        this(baseUrl, versao, maxTentativas, esperaBaseMs, FormatoCorpo.JSON);
+    }
 
-            System.out.println("\n--- Tentando criar tarefa sem título (POST /tarefas) ---");
-            String tarefaSemTituloJson = "{\"titulo\":\"\",\"descricao\":\"Esta não deveria passar\"}";
-            fazerRequisicao("POST", "/tarefas", tarefaSemTituloJson);
+    public ClienteApiRest(String baseUrl, HttpClient.Version versao, int maxTentativas, long esperaBaseMs,
+                          FormatoCorpo formato) {
+        this.formato = formato;
+        this.leitor = formato == FormatoCorpo.CBOR ? objectMapperCbor : objectMapper;
+        this.baseUrl = baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
+        this.maxTentativas = maxTentativas;
+        this.esperaBaseMs = esperaBaseMs;
+        this.executor = Executors.newVirtualThreadPerTaskExecutor();
+        this.http = HttpClient.newBuilder()
+                .version(versao)
+                .connectTimeout(Duration.ofSeconds(5))
+                .executor(executor)
+                .build();
+    }
 
+    public CompletableFuture<Tarefa> criarTarefa(Tarefa tarefa) {
+        return enviar(requisicao("/tarefas").POST(corpo(tarefa)))
+                .thenApply(resposta -> ler(exigirSucesso(resposta), Tarefa.class));
+    }
 
-            System.out.println("\n--- 2. Listando todas as tarefas (GET /tarefas) ---");
-            fazerRequisicao("GET", "/tarefas", null);
+    public CompletableFuture<Optional<Tarefa>> buscarTarefa(UUID id) {
+        return enviar(requisicao("/tarefas/" + id).GET())
+                .thenApply(resposta -> resposta.statusCode() == 404
+                        ? Optional.empty()
+                        : Optional.of(ler(exigirSucesso(resposta), Tarefa.class)));
+    }
 
+    public CompletableFuture<List<Tarefa>> listarTarefas() {
+        return enviar(requisicao("/tarefas").GET())
+                .thenApply(resposta -> ler(exigirSucesso(resposta), LISTA_TAREFAS));
+    }
 
-            System.out.println("\n--- 3. Buscando uma tarefa por ID (GET /tarefas/{id}) ---");
-            if (idTarefaCriada != null) {
-                fazerRequisicao("GET", "/tarefas/" + idTarefaCriada, null);
-            } else {
-                System.out.println("  ID da tarefa não foi obtido, impossível testar busca por ID.");
-            }
+    /**
+     * Página de GET /tarefas. {@code cursor} é o valor do header
+     * X-Proximo-Cursor da página anterior, ou {@code null} na primeira.
+     */
+    public CompletableFuture<Pagina> listarPagina(int limite, String cursor) {
+        String path = "/tarefas?limit=" + limite + (cursor == null ? "" : "&cursor=" + cursor);
+        return enviar(requisicao(path).GET())
+                .thenApply(resposta -> new Pagina(ler(exigirSucesso(resposta), LISTA_TAREFAS),
+                        resposta.headers().firstValue("X-Proximo-Cursor").orElse(null)));
+    }
 
-            System.out.println("\n--- Tentando buscar tarefa inexistente (GET /tarefas/{id}) ---");
-            String idInexistente = UUID.randomUUID().toString();
-            fazerRequisicao("GET", "/tarefas/" + idInexistente, null);
+    /**
+     * PATCH /tarefas/{id}. Com {@code versaoEsperada} o pedido vai com
+     * If-Match e falha com {@link ErroApi} 412 se a tarefa mudou.
+     */
+    public CompletableFuture<Tarefa> alterarTarefa(UUID id, Map<String, Object> campos, Long versaoEsperada) {
+        HttpRequest.Builder requisicao = requisicao("/tarefas/" + id)
+                .method("PATCH", corpo(campos));
+        if (versaoEsperada != null) {
+            requisicao.header("If-Match", "\"" + versaoEsperada + "\"");
+        }
+        return enviar(requisicao).thenApply(resposta -> ler(exigirSucesso(resposta), Tarefa.class));
+    }
 
-            System.out.println("\n--- Tentando buscar tarefa com ID inválido (GET /tarefas/{id}) ---");
-            String idInvalido = "ID_INVALIDO_AQUI";
-            fazerRequisicao("GET", "/tarefas/" + idInvalido, null);
+    /** DELETE /tarefas/{id}; {@code false} se a tarefa não existia. */
+    public CompletableFuture<Boolean> removerTarefa(UUID id) {
+        return enviar(requisicao("/tarefas/" + id).DELETE())
+                .thenApply(resposta -> {
+                    if (resposta.statusCode() == 404) {
+                        return false;
+                    }
+                    exigirSucesso(resposta);
+                    return true;
+                });
+    }
 
+    /** Envia todas as tarefas num único POST /tarefas/batch. */
+    public CompletableFuture<ResultadoLote> criarLote(Collection<Tarefa> tarefas) {
+        return enviar(requisicao("/tarefas/batch").POST(corpo(tarefas)))
+                .thenApply(resposta -> {
+                    if (resposta.statusCode() != 400) {
+                        exigirSucesso(resposta);
+                    }
+                    return ler(resposta, ResultadoLote.class);
+                });
+    }
 
-            System.out.println("\n--- 4. Obtendo o status da API (GET /status) ---");
-            fazerRequisicao("GET", "/status", null);
+    /**
+     * Cria as tarefas com um POST por tarefa, mantendo até
+     * {@code emVooMaximo} requisições abertas ao mesmo tempo sobre as conexões
+     * do pool (ou streams de uma conexão HTTP/2). O resultado segue a ordem de
+     * {@code tarefas}.
+     */
+    public CompletableFuture<List<Tarefa>> criarTodas(List<Tarefa> tarefas, int emVooMaximo) {
+        return emParalelo(tarefas, emVooMaximo, this::criarTarefa);
+    }
 
-            System.out.println("\n--- Testando /hello (GET) ---");
-            fazerRequisicao("GET", "/hello", null);
+    /**
+     * Divide as tarefas em lotes de {@code tamanhoLote} e envia até
+     * {@code emVooMaximo} lotes ao mesmo tempo.
+     */
+    public CompletableFuture<List<ResultadoLote>> criarEmLotes(List<Tarefa> tarefas, int tamanhoLote, int emVooMaximo) {
+        List<List<Tarefa>> lotes = new ArrayList<>();
+        for (int i = 0; i < tarefas.size(); i += tamanhoLote) {
+            lotes.add(tarefas.subList(i, Math.min(tarefas.size(), i + tamanhoLote)));
+        }
+        return emParalelo(lotes, emVooMaximo, this::criarLote);
+    }
 
-            System.out.println("\n--- Testando /saudacao/Mundo (GET) ---");
-            fazerRequisicao("GET", "/saudacao/Mundo", null);
+    /**
+     * Fecha o HttpClient, que espera as requisições em andamento e libera as
+     * conexões do pool, e depois o executor em que ele roda.
+     */
+    @Override
+    public void close() {
+        try {
+            http.close();
+        } finally {
+            executor.shutdown();
+        }
+    }
 
-            System.out.println("\n--- Testando /echo (POST) ---");
-            fazerRequisicao("POST", "/echo", "{\"mensagem\":\"Olá do cliente Javalin!\"}");
+    private <T, R> CompletableFuture<List<R>> emParalelo(List<T> itens, int emVooMaximo,
+                                                         Function<T, CompletableFuture<R>> chamada) {
+        Semaphore vagas = new Semaphore(emVooMaximo);
+        List<CompletableFuture<R>> futuros = new ArrayList<>(itens.size());
+        return CompletableFuture.supplyAsync(() -> {
+            for (T item : itens) {
+                vagas.acquireUninterruptibly();
+                CompletableFuture<R> futuro = chamada.apply(item);
+                futuro.whenComplete((r, e) -> vagas.release());
+                futuros.add(futuro);
+            }
+            return futuros;
+        }, executor).thenCompose(todos -> CompletableFuture.allOf(todos.toArray(new CompletableFuture<?>[0]))
+                .thenApply(v -> {
+                    List<R> resultados = new ArrayList<>(todos.size());
+                    for (CompletableFuture<R> futuro : todos) {
+                        resultados.add(futuro.join());
+                    }
+                    return resultados;
+                }));
+    }
 
+    private HttpRequest.Builder requisicao(String path) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(Duration.ofSeconds(30))
+                .header("Accept", formato.tipo());
+    }
 
-        } catch (Exception e) {
-            System.err.println("Ocorreu um erro ao consumir a API: " + e.getMessage());
-            e.printStackTrace();
+    private HttpRequest.BodyPublisher corpo(Object corpo) {
+        try {
+            return HttpRequest.BodyPublishers.ofByteArray(corpo instanceof Tarefa
+                    ? ((Tarefa) corpo).corpo(formato)
+                    : formato.objectMapper().writeValueAsBytes(corpo));
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
         }
-        System.out.println("\nCliente Java finalizado.");
     }
 
-    private static TestResponse fazerRequisicao(String metodo, String path, String body) throws Exception {
-        URL url = new URI(BASE_URL + path).toURL();
-        HttpURLConnection connection = (HttpURLConnection) url.openConnection();
-        connection.setRequestMethod(metodo);
+    private CompletableFuture<HttpResponse<byte[]>> enviar(HttpRequest.Builder builder) {
+        HttpRequest requisicao = builder.header("Content-Type", formato.tipo()).build();
+        return tentar(() -> http.sendAsync(requisicao, HttpResponse.BodyHandlers.ofByteArray()), 1);
+    }
+
+    private CompletableFuture<HttpResponse<byte[]>> tentar(Supplier<CompletableFuture<HttpResponse<byte[]>>> chamada,
+                                                           int tentativa) {
+        return chamada.get().handle((resposta, erro) -> {
+            boolean repetir = tentativa < maxTentativas
+                    && (erro != null ? causa(erro) instanceof IOException
+                    : resposta.statusCode() == 503 || resposta.statusCode() == 429);
+            if (!repetir) {
+                return erro != null
+                        ? CompletableFuture.<HttpResponse<byte[]>>failedFuture(causa(erro))
+                        : CompletableFuture.completedFuture(resposta);
+            }
+            long espera = espera(tentativa, resposta);
+            return CompletableFuture.supplyAsync(() -> null,
+                            CompletableFuture.delayedExecutor(espera, TimeUnit.MILLISECONDS, executor))
+                    .thenCompose(v -> tentar(chamada, tentativa + 1));
+        }).thenCompose(futuro -> futuro);
+    }
 
-        if (metodo.equals("POST") || metodo.equals("PUT")) {
-            connection.setDoOutput(true);
-            connection.setRequestProperty("Content-Type", "application/json");
-            if (body != null && !body.isEmpty()) {
-                try (OutputStream os = connection.getOutputStream()) {
-                    byte[] input = body.getBytes(StandardCharsets.UTF_8);
-                    os.write(input, 0, input.length);
+    private long espera(int tentativa, HttpResponse<byte[]> resposta) {
+        if (resposta != null) {
+            Optional<String> retryAfter = resposta.headers().firstValue("Retry-After");
+            if (retryAfter.isPresent()) {
+                try {
+                    return Math.min(ESPERA_MAXIMA_MS, Long.parseLong(retryAfter.get().trim()) * 1000);
+                } catch (NumberFormatException e) {
+                    // Data HTTP em vez de segundos: usa o backoff normal.
                 }
             }
         }
+        long teto = Math.min(ESPERA_MAXIMA_MS, esperaBaseMs << Math.min(tentativa - 1, 20));
+        return ThreadLocalRandom.current().nextLong(teto + 1);
+    }
 
-        int statusCode = connection.getResponseCode();
-        System.out.println("  URL: " + url);
-        System.out.println("  Método: " + metodo);
-        if (body != null) {
-            System.out.println("  Corpo enviado: " + body);
+    private static Throwable causa(Throwable erro) {
+        return erro instanceof CompletionException && erro.getCause() != null ? erro.getCause() : erro;
+    }
+
+    private static HttpResponse<byte[]> exigirSucesso(HttpResponse<byte[]> resposta) {
+        if (resposta.statusCode() >= 300) {
+            throw new ErroApi(resposta.statusCode(), new String(resposta.body(), StandardCharsets.UTF_8));
         }
-        System.out.println("  Status HTTP: " + statusCode + " " + connection.getResponseMessage());
+        return resposta;
+    }
 
-        StringBuilder response = new StringBuilder();
-        try (BufferedReader br = new BufferedReader(new InputStreamReader(
-                statusCode >= 300 ? connection.getErrorStream() : connection.getInputStream(), StandardCharsets.UTF_8))) {
-            String responseLine;
-            while ((responseLine = br.readLine()) != null) {
-                response.append(responseLine.trim());
-            }
+    private <T> T ler(HttpResponse<byte[]> resposta, Class<T> tipo) {
+        try {
+            return leitor.readValue(resposta.body(), tipo);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
         }
+    }
 
-        String responseBody = response.toString();
-        if (!responseBody.isEmpty() && (responseBody.startsWith("{") || responseBody.startsWith("["))) {
-            try {
-                Object json = objectMapper.readValue(responseBody, Object.class);
-                System.out.println("  Resposta JSON formatada:\n" + objectMapper.writeValueAsString(json));
-            } catch (Exception e) {
-                System.out.println("  Resposta (não JSON ou com erro de parse):\n" + responseBody);
-            }
-        } else {
-            System.out.println("  Resposta:\n" + responseBody);
+    private <T> T ler(HttpResponse<byte[]> resposta, TypeReference<T> tipo) {
+        try {
+            return leitor.readValue(resposta.body(), tipo);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
         }
-        connection.disconnect();
-        return new TestResponse(statusCode, responseBody);
     }
 
-    private static class TestResponse {
-        public final int status;
-        public final String body;
+    /**
+     * O servidor ignora {@code versao} no corpo recebido, mas o cliente
+     * precisa lê-la das respostas para usar If-Match.
+     */
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    abstract static class LeituraTarefa {
+        @JsonCreator(mode = JsonCreator.Mode.DISABLED)
+        LeituraTarefa(UUID id, String titulo, String descricao, boolean concluida) {
+        }
 
-        public TestResponse(int status, String body) {
+        @JsonCreator
+        LeituraTarefa(@JsonProperty("id") UUID id,
+                      @JsonProperty("titulo") String titulo,
+                      @JsonProperty("descricao") String descricao,
+                      @JsonProperty("concluida") boolean concluida,
+                      @JsonProperty("versao") long versao) {
+        }
+    }
+
+    /** Resposta HTTP com status de erro. */
+    public static class ErroApi extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        private final int status;
+        private final String corpo;
+
+        public ErroApi(int status, String corpo) {
+            super("HTTP " + status + ": " + corpo);
             this.status = status;
-            this.body = body;
+            this.corpo = corpo;
+        }
+
+        public int getStatus() {
+            return status;
+        }
+
+        public String getCorpo() {
+            return corpo;
         }
     }
 
-    private static String extraiIdDaTarefa(String jsonBody) {
-        try {
-            Map<String, Object> tarefa = objectMapper.readValue(jsonBody, Map.class);
-            if (tarefa != null && tarefa.containsKey("id")) {
-                return tarefa.get("id").toString();
+    public static class Pagina {
+        private final List<Tarefa> tarefas;
+        private final String proximoCursor;
+
+        public Pagina(List<Tarefa> tarefas, String proximoCursor) {
+            this.tarefas = tarefas;
+            this.proximoCursor = proximoCursor;
+        }
+
+        public List<Tarefa> getTarefas() {
+            return tarefas;
+        }
+
+        /** {@code null} na última página. */
+        public String getProximoCursor() {
+            return proximoCursor;
+        }
+    }
+
+    /** Corpo da resposta de POST /tarefas/batch. */
+    public static class ResultadoLote {
+        public int criadas;
+        public List<UUID> ids = List.of();
+        public List<Map<String, Object>> erros = List.of();
+    }
+
+    public static void main(String[] args) {
+        System.out.println("Iniciando o cliente Java para consumo da API REST...");
+
+        FormatoCorpo formato = args.length > 1 ? FormatoCorpo.valueOf(args[1].toUpperCase()) : FormatoCorpo.JSON;
+        try (ClienteApiRest cliente = new ClienteApiRest(args.length > 0 ? args[0] : "http://localhost:7000", formato)) {
+            System.out.println("\n--- 1. Criando tarefas (POST /tarefas) ---");
+            Tarefa criada = cliente.criarTarefa(new Tarefa("Estudar para a prova", "Revisar Javalin e JUnit")).join();
+            System.out.println("  " + criada);
+            System.out.println("  " + cliente.criarTarefa(new Tarefa("Fazer compras", "Leite, pão e ovos")).join());
+            System.out.println("  " + cliente.criarTarefa(
+                    new Tarefa("Pagar contas", "Luz, água e internet").comConcluida(true)).join());
+
+            System.out.println("\n--- Tentando criar tarefa sem título (POST /tarefas) ---");
+            try {
+                cliente.criarTarefa(new Tarefa("", "Esta não deveria passar")).join();
+            } catch (CompletionException e) {
+                System.out.println("  " + e.getCause().getMessage());
+            }
+
+            System.out.println("\n--- 2. Listando todas as tarefas (GET /tarefas) ---");
+            cliente.listarTarefas().join().forEach(tarefa -> System.out.println("  " + tarefa));
+
+            System.out.println("\n--- 3. Buscando uma tarefa por ID (GET /tarefas/{id}) ---");
+            System.out.println("  " + cliente.buscarTarefa(criada.getId()).join().orElse(null));
+            System.out.println("  Inexistente: " + cliente.buscarTarefa(UUID.randomUUID()).join());
+
+            System.out.println("\n--- 4. Concluindo a tarefa com If-Match (PATCH /tarefas/{id}) ---");
+            Tarefa concluida = cliente.alterarTarefa(criada.getId(), Map.of("concluida", true), criada.getVersao()).join();
+            System.out.println("  " + concluida);
+            try {
+                cliente.alterarTarefa(criada.getId(), Map.of("titulo", "Versão antiga"), criada.getVersao()).join();
+            } catch (CompletionException e) {
+                System.out.println("  Versão desatualizada: " + e.getCause().getMessage());
             }
+
+            System.out.println("\n--- 5. Criando 1000 tarefas em paralelo e 10.000 em lotes ---");
+            List<Tarefa> novas = new ArrayList<>();
+            for (int i = 0; i < 11_000; i++) {
+                novas.add(new Tarefa("Tarefa " + i, "Criada pelo cliente"));
+            }
+            long inicio = System.nanoTime();
+            cliente.criarTodas(novas.subList(0, 1000), 64).join();
+            System.out.printf("  1000 POSTs individuais em %d ms%n", (System.nanoTime() - inicio) / 1_000_000);
+            inicio = System.nanoTime();
+            cliente.criarEmLotes(novas.subList(1000, novas.size()), LoteTarefas.TAMANHO_BLOCO, 4).join();
+            System.out.printf("  10.000 tarefas em lotes em %d ms%n", (System.nanoTime() - inicio) / 1_000_000);
+
+            System.out.println("\n--- 6. Removendo a tarefa (DELETE /tarefas/{id}) ---");
+            System.out.println("  Removida: " + cliente.removerTarefa(criada.getId()).join());
         } catch (Exception e) {
-            System.err.println("Erro ao extrair ID da tarefa do JSON: " + e.getMessage());
+            System.err.println("Ocorreu um erro ao consumir a API: " + e.getMessage());
+            e.printStackTrace();
         }
-        return null;
+        System.out.println("\nCliente Java finalizado.");
     }
 }
@@ -0,0 +1,111 @@
+package org.example;
+
+import io.javalin.compression.CompressionStrategy;
+import io.javalin.compression.Gzip;
+import io.javalin.config.JavalinConfig;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Compressão gzip das respostas, negociada pelo Accept-Encoding. O Javalin
+ * comprime em streaming as respostas cuja primeira escrita tem ao menos
+ * {@code tamanhoMinimo} bytes, então corpos pequenos como o de /hello saem
+ * sem compressão. Para GET /tarefas o corpo em cache já é guardado também
+ * comprimido ({@link CacheListagens.Resposta#corpoGzip}), e consultas
+ * repetidas não pagam a compressão de novo até a próxima escrita.
+ *
+ * <p>Nível 0 ({@code -Dcompressao.nivel=0}) desliga a compressão.</p>
+ */
+public final class CompressaoRespostas {
+
+    public static final int NIVEL_PADRAO = 6;
+    /** Abaixo de um pacote TCP típico a compressão quase não economiza banda. */
+    public static final int TAMANHO_MINIMO_PADRAO = 1500;
+
+    private final int nivel;
+    private final int tamanhoMinimo;
+
+    public CompressaoRespostas(int nivel, int tamanhoMinimo) {
+        if (nivel < 0 || nivel > 9) {
+            throw new IllegalArgumentException("O nível de compressão deve estar entre 0 e 9.");
+        }
+        this.nivel = nivel;
+        this.tamanhoMinimo = tamanhoMinimo;
+    }
+
+    public static CompressaoRespostas doSistema() {
+        return new CompressaoRespostas(Integer.getInteger("compressao.nivel", NIVEL_PADRAO),
+                Integer.getInteger("compressao.tamanhoMinimo", TAMANHO_MINIMO_PADRAO));
+    }
+
+    public void configurar(JavalinConfig config) {
+        if (nivel == 0) {
+            config.http.disableCompression();
+            return;
+        }
+        CompressionStrategy estrategia = new CompressionStrategy(null, new Gzip(nivel));
+        estrategia.setDefaultMinSizeForCompression(tamanhoMinimo);
+        config.http.customCompression(estrategia);
+    }
+
+    /**
+     * Se um corpo já pronto de {@code tamanho} bytes deve ir comprimido para
+     * o cliente que enviou {@code acceptEncoding}.
+     */
+    public boolean comprimir(String acceptEncoding, int tamanho) {
+        return nivel > 0 && tamanho >= tamanhoMinimo && aceitaGzip(acceptEncoding);
+    }
+
+    public byte[] gzip(byte[] corpo) {
+        return gzip(corpo, nivel);
+    }
+
+    static byte[] gzip(byte[] corpo, int nivel) {
+        ByteArrayOutputStream saida = new ByteArrayOutputStream(corpo.length / 4 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(saida, 8192) {
+            {
+                def.setLevel(nivel);
+            }
+        }) {
+            gzip.write(corpo);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return saida.toByteArray();
+    }
+
+    /**
+     * gzip aceito no Accept-Encoding com qualidade maior que zero; sem menção
+     * a gzip, vale a qualidade de *.
+     */
+    static boolean aceitaGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        double qualidadeGzip = -1;
+        double qualidadeQualquer = -1;
+        for (String faixa : acceptEncoding.split(",")) {
+            String[] partes = faixa.split(";");
+            String codificacao = partes[0].trim();
+            double qualidade = 1;
+            for (int i = 1; i < partes.length; i++) {
+                String parametro = partes[i].trim();
+                if (parametro.startsWith("q=")) {
+                    try {
+                        qualidade = Double.parseDouble(parametro.substring(2));
+                    } catch (NumberFormatException e) {
+                        qualidade = 0;
+                    }
+                }
+            }
+            if (codificacao.equalsIgnoreCase("gzip")) {
+                qualidadeGzip = qualidade;
+            } else if (codificacao.equals("*")) {
+                qualidadeQualquer = qualidade;
+            }
+        }
+        return (qualidadeGzip >= 0 ? qualidadeGzip : qualidadeQualquer) > 0;
+    }
+}
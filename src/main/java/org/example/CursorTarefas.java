@@ -0,0 +1,34 @@
+package org.example;
+
+import java.nio.ByteBuffer;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Cursor opaco usado na paginação de GET /tarefas: é o ID da última tarefa
+ * devolvida, codificado em Base64 URL-safe.
+ */
+public final class CursorTarefas {
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private CursorTarefas() {
+    }
+
+    public static String codificar(UUID ultimoId) {
+        ByteBuffer buffer = ByteBuffer.allocate(16);
+        buffer.putLong(ultimoId.getMostSignificantBits());
+        buffer.putLong(ultimoId.getLeastSignificantBits());
+        return ENCODER.encodeToString(buffer.array());
+    }
+
+    public static UUID decodificar(String cursor) {
+        byte[] bytes = DECODER.decode(cursor);
+        if (bytes.length != 16) {
+            throw new IllegalArgumentException("Cursor inválido: " + cursor);
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        return new UUID(buffer.getLong(), buffer.getLong());
+    }
+}
@@ -0,0 +1,60 @@
+package org.example;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+
+/**
+ * Escreve listas de tarefas como array JSON direto no OutputStream da resposta,
+ * item a item, sem montar a lista inteira em memória. Cada item usa os bytes
+ * JSON já guardados na própria {@link Tarefa}.
+ *
+ * <p>Em CBOR a lista vira um array de tamanho indefinido (0x9F ... 0xFF), o
+ * que permite concatenar da mesma forma o CBOR guardado em cada tarefa.</p>
+ */
+public final class EscritorJsonTarefas {
+
+    private static final int TAMANHO_BUFFER = 16 * 1024;
+    private static final int CBOR_INICIO_ARRAY_INDEFINIDO = 0x9F;
+    private static final int CBOR_FIM_INDEFINIDO = 0xFF;
+
+    private EscritorJsonTarefas() {
+    }
+
+    public static void escreverArray(OutputStream saida, Iterator<Tarefa> tarefas, int limite) throws IOException {
+        escreverArray(saida, tarefas, limite, FormatoCorpo.JSON);
+    }
+
+    public static void escreverArray(OutputStream saida, Iterator<Tarefa> tarefas, int limite,
+                                     FormatoCorpo formato) throws IOException {
+        if (formato == FormatoCorpo.CBOR) {
+            escreverArrayCbor(saida, tarefas, limite);
+            return;
+        }
+        BufferedOutputStream buffer = new BufferedOutputStream(saida, TAMANHO_BUFFER);
+        buffer.write('[');
+        int escritas = 0;
+        while (escritas < limite && tarefas.hasNext()) {
+            if (escritas > 0) {
+                buffer.write(',');
+            }
+            buffer.write(tarefas.next().jsonUtf8());
+            escritas++;
+        }
+        buffer.write(']');
+        buffer.flush();
+    }
+
+    private static void escreverArrayCbor(OutputStream saida, Iterator<Tarefa> tarefas, int limite) throws IOException {
+        BufferedOutputStream buffer = new BufferedOutputStream(saida, TAMANHO_BUFFER);
+        buffer.write(CBOR_INICIO_ARRAY_INDEFINIDO);
+        int escritas = 0;
+        while (escritas < limite && tarefas.hasNext()) {
+            buffer.write(tarefas.next().cbor());
+            escritas++;
+        }
+        buffer.write(CBOR_FIM_INDEFINIDO);
+        buffer.flush();
+    }
+}
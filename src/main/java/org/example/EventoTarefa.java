@@ -0,0 +1,71 @@
+package org.example;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import java.io.UncheckedIOException;
+import java.util.UUID;
+
+/**
+ * Evento do feed de alterações. {@code sequencia} cresce de um em um, na
+ * ordem em que as escritas foram aplicadas; {@code tarefa} é a versão
+ * gravada (ausente em remoções e limpezas).
+ */
+@JsonPropertyOrder({"sequencia", "tipo", "id", "tarefa"})
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public final class EventoTarefa {
+
+    public enum Tipo {
+        CRIADA, ALTERADA, REMOVIDA, LIMPEZA
+    }
+
+    private static final ObjectWriter writerJson = new ObjectMapper().writerFor(EventoTarefa.class);
+
+    private final long sequencia;
+    private final Tipo tipo;
+    private final UUID id;
+    private final Tarefa tarefa;
+
+    private volatile String json;
+
+    public EventoTarefa(long sequencia, Tipo tipo, UUID id, Tarefa tarefa) {
+        this.sequencia = sequencia;
+        this.tipo = tipo;
+        this.id = id;
+        this.tarefa = tarefa;
+    }
+
+    public long getSequencia() {
+        return sequencia;
+    }
+
+    public Tipo getTipo() {
+        return tipo;
+    }
+
+    public UUID getId() {
+        return id;
+    }
+
+    public Tarefa getTarefa() {
+        return tarefa;
+    }
+
+    /** JSON do evento, gerado uma vez e enviado a todos os assinantes. */
+    @JsonIgnore
+    public String json() {
+        String atual = json;
+        if (atual == null) {
+            try {
+                atual = writerJson.writeValueAsString(this);
+            } catch (JsonProcessingException e) {
+                throw new UncheckedIOException(e);
+            }
+            json = atual;
+        }
+        return atual;
+    }
+}
@@ -0,0 +1,162 @@
+package org.example;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Feed de alterações das tarefas. {@link TarefaRepositoryVersionado} publica
+ * um {@link EventoTarefa} por escrita; cada assinante tem uma fila limitada
+ * própria, e publicar nunca bloqueia: se a fila de um assinante lento está
+ * cheia, ele é desconectado (e pode retomar pela sequência) ou perde o evento
+ * mais antigo, conforme a {@link Politica}.
+ *
+ * <p>Os últimos {@code tamanhoHistorico} eventos ficam num buffer circular
+ * para que um cliente reconectado retome de onde parou.</p>
+ */
+public final class FeedAlteracoes {
+
+    public static final int TAMANHO_HISTORICO_PADRAO = 10_000;
+    public static final int CAPACIDADE_ASSINANTE_PADRAO = 1024;
+
+    public enum Politica {
+        DESCONECTAR, DESCARTAR_ANTIGOS;
+
+        public static Politica doSistema() {
+            return "descartar".equalsIgnoreCase(System.getProperty("feed.politica"))
+                    ? DESCARTAR_ANTIGOS : DESCONECTAR;
+        }
+    }
+
+    private final EventoTarefa[] historico;
+    private final CopyOnWriteArrayList<Assinatura> assinaturas = new CopyOnWriteArrayList<>();
+    private long sequencia;
+
+    public FeedAlteracoes(int tamanhoHistorico) {
+        this.historico = new EventoTarefa[tamanhoHistorico];
+    }
+
+    public FeedAlteracoes() {
+        this(TAMANHO_HISTORICO_PADRAO);
+    }
+
+    /**
+     * Numera e distribui um evento. Chamado pelo repositório dentro da trava da
+     * tarefa, então eventos de uma mesma tarefa saem na ordem das escritas.
+     *
+     * <p>O monitor é um só para o feed e é tomado com a trava da faixa na mão:
+     * escritas de faixas diferentes se enfileiram aqui pelo tempo de numerar o
+     * evento e oferecê-lo a cada assinante ({@code offer}, que nunca espera),
+     * um custo que cresce com os assinantes e não com as tarefas. Publicar
+     * depois de soltar a trava da faixa encurtaria essa fila, mas deixaria duas
+     * escritas da mesma tarefa saírem no feed na ordem inversa.</p>
+     */
+    public synchronized EventoTarefa publicar(EventoTarefa.Tipo tipo, UUID id, Tarefa tarefa) {
+        EventoTarefa evento = new EventoTarefa(++sequencia, tipo, id, tarefa);
+        historico[(int) (sequencia % historico.length)] = evento;
+        for (Assinatura assinatura : assinaturas) {
+            assinatura.entregar(evento);
+        }
+        return evento;
+    }
+
+    public synchronized long ultimaSequencia() {
+        return sequencia;
+    }
+
+    public int quantidadeAssinantes() {
+        return assinaturas.size();
+    }
+
+    /**
+     * Cria uma assinatura que recebe os eventos posteriores a {@code aPartirDe}.
+     * Se parte deles já saiu do histórico, o primeiro item entregue é um aviso
+     * de lacuna ({@link Assinatura#teveLacuna()}) e o cliente deve recarregar
+     * GET /tarefas.
+     *
+     * @param aPartirDe última sequência já vista pelo cliente, ou {@code -1}
+     *                  para receber só eventos novos
+     */
+    public synchronized Assinatura assinar(long aPartirDe, int capacidade, Politica politica) {
+        List<EventoTarefa> pendentes = new ArrayList<>();
+        boolean lacuna = false;
+        if (aPartirDe >= 0 && aPartirDe < sequencia) {
+            long primeiroDisponivel = Math.max(1, sequencia - historico.length + 1);
+            lacuna = aPartirDe + 1 < primeiroDisponivel;
+            for (long s = Math.max(aPartirDe + 1, primeiroDisponivel); s <= sequencia; s++) {
+                pendentes.add(historico[(int) (s % historico.length)]);
+            }
+        }
+        Assinatura assinatura = new Assinatura(capacidade + pendentes.size(), politica, lacuna);
+        assinatura.fila.addAll(pendentes);
+        assinaturas.add(assinatura);
+        return assinatura;
+    }
+
+    public final class Assinatura implements AutoCloseable {
+        private final ArrayBlockingQueue<EventoTarefa> fila;
+        private final Politica politica;
+        private final boolean lacuna;
+        private volatile boolean encerrada;
+        private volatile boolean atrasada;
+        private volatile long descartados;
+
+        private Assinatura(int capacidade, Politica politica, boolean lacuna) {
+            this.fila = new ArrayBlockingQueue<>(capacidade);
+            this.politica = politica;
+            this.lacuna = lacuna;
+        }
+
+        private void entregar(EventoTarefa evento) {
+            if (fila.offer(evento)) {
+                return;
+            }
+            if (politica == Politica.DESCONECTAR) {
+                atrasada = true;
+                close();
+                return;
+            }
+            // Só a thread que publica insere, sob a trava do feed: após o poll há espaço.
+            fila.poll();
+            fila.offer(evento);
+            descartados++;
+        }
+
+        /**
+         * Próximo evento, esperando até {@code esperaMs}. Devolve {@code null}
+         * se o tempo acabar ou se a assinatura foi encerrada.
+         */
+        public EventoTarefa proximo(long esperaMs) throws InterruptedException {
+            if (encerrada) {
+                return null;
+            }
+            return fila.poll(esperaMs, TimeUnit.MILLISECONDS);
+        }
+
+        public boolean ativa() {
+            return !encerrada;
+        }
+
+        /** A assinatura foi encerrada porque o cliente não acompanhou os eventos. */
+        public boolean atrasada() {
+            return atrasada;
+        }
+
+        public boolean teveLacuna() {
+            return lacuna;
+        }
+
+        public long descartados() {
+            return descartados;
+        }
+
+        @Override
+        public void close() {
+            encerrada = true;
+            assinaturas.remove(this);
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package org.example;
+
+import java.text.Normalizer;
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Filtros aceitos por GET /tarefas: {@code concluida}, {@code titulo_prefix} e
+ * busca textual {@code q} sobre título e descrição. Comparações ignoram
+ * maiúsculas e acentos.
+ */
+public final class FiltroTarefas {
+
+    public static final FiltroTarefas NENHUM = new FiltroTarefas(null, null, null);
+
+    private static final Pattern MARCAS_DIACRITICAS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARADORES = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private final Boolean concluida;
+    private final String prefixoTitulo;
+    private final Set<String> termos;
+
+    public FiltroTarefas(Boolean concluida, String prefixoTitulo, String texto) {
+        this.concluida = concluida;
+        this.prefixoTitulo = prefixoTitulo == null || prefixoTitulo.isEmpty() ? null : normalizar(prefixoTitulo);
+        this.termos = texto == null ? Set.of() : tokens(texto);
+    }
+
+    public Boolean getConcluida() {
+        return concluida;
+    }
+
+    public String getPrefixoTitulo() {
+        return prefixoTitulo;
+    }
+
+    public Set<String> getTermos() {
+        return termos;
+    }
+
+    public boolean vazio() {
+        return concluida == null && prefixoTitulo == null && termos.isEmpty();
+    }
+
+    public boolean aceita(Tarefa tarefa) {
+        if (concluida != null && concluida != tarefa.isConcluida()) {
+            return false;
+        }
+        if (prefixoTitulo != null && (tarefa.getTitulo() == null || !normalizar(tarefa.getTitulo()).startsWith(prefixoTitulo))) {
+            return false;
+        }
+        if (!termos.isEmpty()) {
+            Set<String> tokensTarefa = tokens(tarefa.getTitulo());
+            tokensTarefa.addAll(tokens(tarefa.getDescricao()));
+            return tokensTarefa.containsAll(termos);
+        }
+        return true;
+    }
+
+    static String normalizar(String texto) {
+        String semAcentos = MARCAS_DIACRITICAS.matcher(Normalizer.normalize(texto, Normalizer.Form.NFD)).replaceAll("");
+        return semAcentos.toLowerCase(Locale.ROOT);
+    }
+
+    static Set<String> tokens(String texto) {
+        Set<String> tokens = new LinkedHashSet<>();
+        if (texto == null) {
+            return tokens;
+        }
+        for (String token : SEPARADORES.split(normalizar(texto))) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+}
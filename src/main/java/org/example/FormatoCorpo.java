@@ -0,0 +1,157 @@
+package org.example;
+
+import com.fasterxml.jackson.core.JacksonException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import io.javalin.http.Context;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Type;
+
+/**
+ * Formatos aceitos nos corpos das rotas de tarefas. JSON é o padrão; CBOR
+ * (RFC 8949) é escolhido pelo header Accept na resposta e pelo Content-Type na
+ * requisição. Em CBOR o Jackson grava os UUIDs como 16 bytes, em vez dos 36
+ * caracteres do JSON.
+ *
+ * <p>As respostas de erro continuam em JSON. Um corpo que não pode ser lido
+ * vira {@link CorpoInvalidoException}, respondida com 400.</p>
+ */
+public enum FormatoCorpo {
+
+    JSON("application/json", new ObjectMapper()),
+    CBOR("application/cbor", new ObjectMapper(new CBORFactory()));
+
+    private final String tipo;
+    private final ObjectMapper objectMapper;
+
+    FormatoCorpo(String tipo, ObjectMapper objectMapper) {
+        this.tipo = tipo;
+        this.objectMapper = objectMapper;
+    }
+
+    /** Media type usado no Content-Type. */
+    public String tipo() {
+        return tipo;
+    }
+
+    public ObjectMapper objectMapper() {
+        return objectMapper;
+    }
+
+    /**
+     * Formato da resposta conforme o header Accept: CBOR quando ele é aceito
+     * com qualidade maior ou igual à de application/json; JSON nos demais
+     * casos, inclusive sem Accept.
+     */
+    public static FormatoCorpo daResposta(String accept) {
+        if (accept == null || accept.indexOf("cbor") < 0) {
+            return JSON;
+        }
+        double qualidadeJson = 0;
+        double qualidadeCbor = 0;
+        for (String faixa : accept.split(",")) {
+            String[] partes = faixa.split(";");
+            String tipo = partes[0].trim();
+            double qualidade = 1;
+            for (int i = 1; i < partes.length; i++) {
+                String parametro = partes[i].trim();
+                if (parametro.startsWith("q=")) {
+                    try {
+                        qualidade = Double.parseDouble(parametro.substring(2));
+                    } catch (NumberFormatException e) {
+                        qualidade = 0;
+                    }
+                }
+            }
+            if (tipo.equalsIgnoreCase(CBOR.tipo)) {
+                qualidadeCbor = Math.max(qualidadeCbor, qualidade);
+            } else if (tipo.equalsIgnoreCase(JSON.tipo)) {
+                qualidadeJson = Math.max(qualidadeJson, qualidade);
+            }
+        }
+        return qualidadeCbor > 0 && qualidadeCbor >= qualidadeJson ? CBOR : JSON;
+    }
+
+    public static FormatoCorpo daResposta(Context ctx) {
+        return daResposta(ctx.header("Accept"));
+    }
+
+    /** Formato do corpo recebido conforme o Content-Type; JSON quando ausente. */
+    public static FormatoCorpo daRequisicao(String contentType) {
+        return contentType != null && contentType.regionMatches(true, 0, CBOR.tipo, 0, CBOR.tipo.length())
+                ? CBOR : JSON;
+    }
+
+    /**
+     * Lê o corpo da requisição. JSON passa pelo JsonMapper do Javalin, como
+     * antes; CBOR é lido aqui e medido no mesmo histograma de desserialização.
+     *
+     * @throws CorpoInvalidoException se o corpo está malformado ou não tem o tipo esperado
+     */
+    public static <T> T ler(Context ctx, Class<T> tipo) {
+        return lerTipo(ctx, tipo);
+    }
+
+    /** Como {@link #ler(Context, Class)}, para tipos genéricos como {@code Map<String, Object>}. */
+    public static <T> T ler(Context ctx, TypeReference<T> tipo) {
+        return lerTipo(ctx, tipo.getType());
+    }
+
+    private static <T> T lerTipo(Context ctx, Type tipo) {
+        if (daRequisicao(ctx.contentType()) == JSON) {
+            try {
+                return ctx.bodyAsClass(tipo);
+            } catch (Exception e) {
+                throw invalido(e);
+            }
+        }
+        long inicio = System.nanoTime();
+        try {
+            return CBOR.objectMapper.readValue(ctx.bodyAsBytes(), CBOR.objectMapper.constructType(tipo));
+        } catch (IOException e) {
+            throw invalido(e);
+        } finally {
+            MetricasServidor.DESSERIALIZACAO_REQUISICAO.registrar(System.nanoTime() - inicio);
+        }
+    }
+
+    /**
+     * Erros do Jackson (de sintaxe ou de mapeamento) viram
+     * {@link CorpoInvalidoException}; o JsonMapper do Javalin os propaga sem
+     * embrulhar, por isso a busca na cadeia de causas.
+     */
+    private static RuntimeException invalido(Exception e) {
+        for (Throwable causa = e; causa != null; causa = causa.getCause()) {
+            if (causa instanceof JacksonException) {
+                return new CorpoInvalidoException((JacksonException) causa);
+            }
+        }
+        if (e instanceof RuntimeException) {
+            return (RuntimeException) e;
+        }
+        return e instanceof IOException ? new UncheckedIOException((IOException) e) : new IllegalStateException(e);
+    }
+
+    /** Serializa {@code valor} neste formato. */
+    public byte[] escrever(Object valor) {
+        long inicio = System.nanoTime();
+        try {
+            return objectMapper.writeValueAsBytes(valor);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            MetricasServidor.SERIALIZACAO_RESPOSTA.registrar(System.nanoTime() - inicio);
+        }
+    }
+
+    /** Corpo da requisição que não pôde ser lido no formato informado. */
+    public static class CorpoInvalidoException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        public CorpoInvalidoException(JacksonException causa) {
+            super("Corpo da requisição inválido: " + causa.getOriginalMessage(), causa);
+        }
+    }
+}
@@ -0,0 +1,430 @@
+package org.example;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+/**
+ * Gerador de carga para a API de tarefas. Dois modos:
+ *
+ * <ul>
+ *   <li>{@code aberto}: requisições disparadas a uma taxa constante,
+ *   independente das respostas. A latência é medida a partir do instante em
+ *   que a requisição deveria ter saído, então atrasos do próprio servidor (ou
+ *   do gerador) entram na medida em vez de sumirem (coordinated omission);</li>
+ *   <li>{@code fechado}: {@code concorrencia} usuários, cada um enviando a
+ *   próxima requisição assim que recebe a anterior. Mede a vazão máxima, mas
+ *   esconde as filas: use o modo aberto para falar de latência.</li>
+ * </ul>
+ *
+ * <p>Exemplo: {@code --modo aberto --taxa 2000 --duracao 30 --mix
+ * criar=1,listar=1,buscar=6,echo=1,status=1 --em-processo --saida carga.json}.
+ * Sem {@code --em-processo} a carga vai para {@code --url}. As latências são
+ * registradas em HdrHistogram por rota e resumidas em percentis, no console
+ * e, com {@code --saida}, num JSON.</p>
+ */
+public class GeradorCarga {
+
+    private static final long MAXIMO_EM_VOO = 20_000;
+
+    public enum Rota {
+        CRIAR("criar", "POST /tarefas"),
+        LISTAR("listar", "GET /tarefas?limit=100"),
+        BUSCAR("buscar", "GET /tarefas/{id}"),
+        ECHO("echo", "POST /echo"),
+        STATUS("status", "GET /status");
+
+        final String nome;
+        final String descricao;
+
+        Rota(String nome, String descricao) {
+            this.nome = nome;
+            this.descricao = descricao;
+        }
+
+        static Rota doNome(String nome) {
+            for (Rota rota : values()) {
+                if (rota.nome.equals(nome)) {
+                    return rota;
+                }
+            }
+            throw new IllegalArgumentException("Rota desconhecida no mix: " + nome);
+        }
+    }
+
+    private final Configuracao configuracao;
+    private final HttpClient http;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final Recorder[] latencias = new Recorder[Rota.values().length];
+    private final LongAdder[] erros = new LongAdder[Rota.values().length];
+    private final LongAdder falhasDeConexao = new LongAdder();
+    private final LongAdder naoEnviadas = new LongAdder();
+    private final AtomicInteger emVoo = new AtomicInteger();
+    private final Rota[] sorteio;
+    private final List<UUID> ids = new ArrayList<>();
+    private String baseUrl;
+
+    public GeradorCarga(Configuracao configuracao) {
+        this.configuracao = configuracao;
+        this.http = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .executor(executor)
+                .build();
+        for (int i = 0; i < latencias.length; i++) {
+            latencias[i] = new Recorder(3);
+            erros[i] = new LongAdder();
+        }
+        List<Rota> pesos = new ArrayList<>();
+        configuracao.mix.forEach((rota, peso) -> {
+            for (int i = 0; i < peso; i++) {
+                pesos.add(rota);
+            }
+        });
+        this.sorteio = pesos.toArray(new Rota[0]);
+    }
+
+    public static void main(String[] args) throws Exception {
+        Configuracao configuracao = Configuracao.dosArgumentos(args);
+        ServidorTarefas servidor = null;
+        if (configuracao.emProcesso) {
+            servidor = ServidorTarefas.iniciar(TarefaRepositoryIndexado.doSistema(AplicacaoPrincipal.criarRepositorio()), 0);
+            configuracao.url = servidor.url();
+        }
+        try {
+            Map<String, Object> resumo = new GeradorCarga(configuracao).executar();
+            if (configuracao.saida != null) {
+                new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT)
+                        .writeValue(configuracao.saida.toFile(), resumo);
+                System.out.println("Resumo gravado em " + configuracao.saida);
+            }
+        } finally {
+            if (servidor != null) {
+                servidor.close();
+            }
+        }
+        System.exit(0);
+    }
+
+    public Map<String, Object> executar() throws Exception {
+        baseUrl = configuracao.url;
+        popular();
+        System.out.printf("Carga %s em %s por %ds (aquecimento de %ds), mix %s%n", configuracao.modo, baseUrl,
+                configuracao.duracaoSegundos, configuracao.aquecimentoSegundos, configuracao.mix);
+
+        if (configuracao.aquecimentoSegundos > 0) {
+            rodar(TimeUnit.SECONDS.toNanos(configuracao.aquecimentoSegundos));
+            for (Recorder recorder : latencias) {
+                recorder.reset();
+            }
+            for (LongAdder erro : erros) {
+                erro.reset();
+            }
+            falhasDeConexao.reset();
+            naoEnviadas.reset();
+        }
+        long inicio = System.nanoTime();
+        rodar(TimeUnit.SECONDS.toNanos(configuracao.duracaoSegundos));
+        aguardarEmVoo();
+        double segundos = (System.nanoTime() - inicio) / 1e9;
+
+        Map<String, Object> resumo = resumir(segundos);
+        imprimir(resumo);
+        executor.shutdown();
+        return resumo;
+    }
+
+    private void popular() throws IOException, InterruptedException {
+        StringBuilder lote = new StringBuilder("[");
+        List<UUID> novos = new ArrayList<>();
+        for (int i = 0; i < configuracao.tarefasIniciais; i++) {
+            Tarefa tarefa = new Tarefa("Tarefa de carga " + i, "Criada pelo gerador de carga");
+            novos.add(tarefa.getId());
+            lote.append(i == 0 ? "" : ",").append(new String(tarefa.jsonUtf8(), StandardCharsets.UTF_8));
+        }
+        lote.append(']');
+        if (!novos.isEmpty()) {
+            HttpResponse<Void> resposta = http.send(HttpRequest.newBuilder(URI.create(baseUrl + "/tarefas/batch"))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(lote.toString()))
+                    .build(), HttpResponse.BodyHandlers.discarding());
+            if (resposta.statusCode() != 201) {
+                throw new IllegalStateException("Falha ao popular as tarefas iniciais: HTTP " + resposta.statusCode());
+            }
+        }
+        ids.addAll(novos);
+    }
+
+    private void rodar(long duracaoNanos) throws InterruptedException {
+        if (configuracao.modo == Modo.ABERTO) {
+            rodarAberto(duracaoNanos);
+        } else {
+            rodarFechado(duracaoNanos);
+        }
+    }
+
+    private void rodarAberto(long duracaoNanos) {
+        long intervalo = (long) (1e9 / configuracao.taxa);
+        long inicio = System.nanoTime();
+        long fim = inicio + duracaoNanos;
+        for (long i = 0; ; i++) {
+            long previsto = inicio + i * intervalo;
+            if (previsto >= fim) {
+                return;
+            }
+            long espera;
+            while ((espera = previsto - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(espera);
+            }
+            Rota rota = sortear();
+            if (emVoo.get() >= MAXIMO_EM_VOO) {
+                naoEnviadas.increment();
+                continue;
+            }
+            emVoo.incrementAndGet();
+            http.sendAsync(requisicao(rota), HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((resposta, erro) -> {
+                        registrar(rota, previsto, resposta, erro);
+                        emVoo.decrementAndGet();
+                    });
+        }
+    }
+
+    private void rodarFechado(long duracaoNanos) throws InterruptedException {
+        long fim = System.nanoTime() + duracaoNanos;
+        List<Thread> usuarios = new ArrayList<>();
+        for (int i = 0; i < configuracao.concorrencia; i++) {
+            usuarios.add(Thread.ofVirtual().start(() -> {
+                while (System.nanoTime() < fim) {
+                    Rota rota = sortear();
+                    long inicio = System.nanoTime();
+                    try {
+                        registrar(rota, inicio, http.send(requisicao(rota), HttpResponse.BodyHandlers.discarding()), null);
+                    } catch (IOException e) {
+                        registrar(rota, inicio, null, e);
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+            }));
+        }
+        for (Thread usuario : usuarios) {
+            usuario.join();
+        }
+    }
+
+    private void aguardarEmVoo() throws InterruptedException {
+        long limite = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (emVoo.get() > 0 && System.nanoTime() < limite) {
+            Thread.sleep(10);
+        }
+    }
+
+    private Rota sortear() {
+        return sorteio[ThreadLocalRandom.current().nextInt(sorteio.length)];
+    }
+
+    private HttpRequest requisicao(Rota rota) {
+        HttpRequest.Builder builder;
+        switch (rota) {
+            case CRIAR:
+                builder = HttpRequest.newBuilder(URI.create(baseUrl + "/tarefas"))
+                        .POST(HttpRequest.BodyPublishers.ofByteArray(
+                                new Tarefa("Tarefa de carga", "Criada pelo gerador de carga").jsonUtf8()));
+                break;
+            case LISTAR:
+                builder = HttpRequest.newBuilder(URI.create(baseUrl + "/tarefas?limit=100")).GET();
+                break;
+            case BUSCAR:
+                UUID id = ids.isEmpty() ? UUID.randomUUID() : ids.get(ThreadLocalRandom.current().nextInt(ids.size()));
+                builder = HttpRequest.newBuilder(URI.create(baseUrl + "/tarefas/" + id)).GET();
+                break;
+            case ECHO:
+                builder = HttpRequest.newBuilder(URI.create(baseUrl + "/echo"))
+                        .POST(HttpRequest.BodyPublishers.ofString("{\"mensagem\":\"carga\"}"));
+                break;
+            default:
+                builder = HttpRequest.newBuilder(URI.create(baseUrl + "/status")).GET();
+        }
+        return builder.header("Content-Type", "application/json").timeout(Duration.ofSeconds(30)).build();
+    }
+
+    private void registrar(Rota rota, long inicio, HttpResponse<?> resposta, Throwable erro) {
+        latencias[rota.ordinal()].recordValue(Math.max(0, System.nanoTime() - inicio) / 1000);
+        if (erro != null) {
+            falhasDeConexao.increment();
+            erros[rota.ordinal()].increment();
+        } else if (resposta.statusCode() >= 400) {
+            erros[rota.ordinal()].increment();
+        }
+    }
+
+    private Map<String, Object> resumir(double segundos) {
+        Histogram total = new Histogram(3);
+        Map<String, Object> porRota = new LinkedHashMap<>();
+        long errosTotais = 0;
+        for (Rota rota : configuracao.mix.keySet()) {
+            Histogram histograma = latencias[rota.ordinal()].getIntervalHistogram();
+            total.add(histograma);
+            long errosRota = erros[rota.ordinal()].sum();
+            errosTotais += errosRota;
+            Map<String, Object> dados = percentis(histograma, segundos);
+            dados.put("erros", errosRota);
+            dados.put("rota", rota.descricao);
+            porRota.put(rota.nome, dados);
+        }
+
+        Map<String, Object> resumo = new LinkedHashMap<>();
+        resumo.put("modo", configuracao.modo.name().toLowerCase());
+        resumo.put("url", baseUrl);
+        resumo.put("duracaoSegundos", segundos);
+        if (configuracao.modo == Modo.ABERTO) {
+            resumo.put("taxaAlvo", configuracao.taxa);
+            resumo.put("naoEnviadas", naoEnviadas.sum());
+        } else {
+            resumo.put("concorrencia", configuracao.concorrencia);
+        }
+        Map<String, Object> geral = percentis(total, segundos);
+        geral.put("erros", errosTotais);
+        geral.put("falhasDeConexao", falhasDeConexao.sum());
+        resumo.put("total", geral);
+        resumo.put("rotas", porRota);
+        return resumo;
+    }
+
+    private static Map<String, Object> percentis(Histogram histograma, double segundos) {
+        Map<String, Object> dados = new LinkedHashMap<>();
+        dados.put("requisicoes", histograma.getTotalCount());
+        dados.put("vazao", histograma.getTotalCount() / segundos);
+        dados.put("mediaMs", histograma.getMean() / 1000);
+        for (double percentil : new double[]{50, 90, 99, 99.9, 99.99}) {
+            dados.put("p" + (percentil == (long) percentil ? Long.toString((long) percentil) : Double.toString(percentil))
+                    + "Ms", histograma.getValueAtPercentile(percentil) / 1000.0);
+        }
+        dados.put("maxMs", histograma.getMaxValue() / 1000.0);
+        return dados;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void imprimir(Map<String, Object> resumo) {
+        System.out.printf("%-24s %10s %10s %9s %9s %9s %9s %9s %7s%n",
+                "rota", "reqs", "req/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms", "erros");
+        Map<String, Object> rotas = (Map<String, Object>) resumo.get("rotas");
+        rotas.values().forEach(dados -> imprimirLinha((String) ((Map<String, Object>) dados).get("rota"),
+                (Map<String, Object>) dados));
+        imprimirLinha("total", (Map<String, Object>) resumo.get("total"));
+        if (resumo.containsKey("naoEnviadas") && (long) resumo.get("naoEnviadas") > 0) {
+            System.out.println("Requisições não enviadas (limite de " + MAXIMO_EM_VOO + " em voo): "
+                    + resumo.get("naoEnviadas"));
+        }
+    }
+
+    private static void imprimirLinha(String nome, Map<String, Object> dados) {
+        System.out.printf("%-24s %10d %10.1f %9.2f %9.2f %9.2f %9.2f %9.2f %7d%n", nome,
+                dados.get("requisicoes"), dados.get("vazao"), dados.get("p50Ms"), dados.get("p90Ms"),
+                dados.get("p99Ms"), dados.get("p99.9Ms"), dados.get("maxMs"), dados.get("erros"));
+    }
+
+    public enum Modo {
+        ABERTO, FECHADO
+    }
+
+    public static class Configuracao {
+        Modo modo = Modo.ABERTO;
+        String url = "http://localhost:7000";
+        boolean emProcesso;
+        double taxa = 1000;
+        int concorrencia = 64;
+        int duracaoSegundos = 30;
+        int aquecimentoSegundos = 5;
+        int tarefasIniciais = 1000;
+        Map<Rota, Integer> mix = mixPadrao();
+        Path saida;
+
+        static Map<Rota, Integer> mixPadrao() {
+            Map<Rota, Integer> mix = new LinkedHashMap<>();
+            mix.put(Rota.CRIAR, 1);
+            mix.put(Rota.LISTAR, 1);
+            mix.put(Rota.BUSCAR, 6);
+            mix.put(Rota.ECHO, 1);
+            mix.put(Rota.STATUS, 1);
+            return mix;
+        }
+
+        public static Configuracao dosArgumentos(String[] args) {
+            Configuracao configuracao = new Configuracao();
+            for (int i = 0; i < args.length; i++) {
+                String nome = args[i];
+                if (nome.equals("--em-processo")) {
+                    configuracao.emProcesso = true;
+                    continue;
+                }
+                if (i + 1 >= args.length) {
+                    throw new IllegalArgumentException("Falta o valor de " + nome);
+                }
+                String valor = args[++i];
+                switch (nome) {
+                    case "--modo":
+                        configuracao.modo = Modo.valueOf(valor.toUpperCase());
+                        break;
+                    case "--url":
+                        configuracao.url = valor;
+                        break;
+                    case "--taxa":
+                        configuracao.taxa = Double.parseDouble(valor);
+                        break;
+                    case "--concorrencia":
+                        configuracao.concorrencia = Integer.parseInt(valor);
+                        break;
+                    case "--duracao":
+                        configuracao.duracaoSegundos = Integer.parseInt(valor);
+                        break;
+                    case "--aquecimento":
+                        configuracao.aquecimentoSegundos = Integer.parseInt(valor);
+                        break;
+                    case "--tarefas-iniciais":
+                        configuracao.tarefasIniciais = Integer.parseInt(valor);
+                        break;
+                    case "--mix":
+                        configuracao.mix = new LinkedHashMap<>();
+                        for (String parte : valor.split(",")) {
+                            String[] rotaPeso = parte.split("=");
+                            configuracao.mix.put(Rota.doNome(rotaPeso[0].trim()),
+                                    rotaPeso.length > 1 ? Integer.parseInt(rotaPeso[1].trim()) : 1);
+                        }
+                        break;
+                    case "--saida":
+                        configuracao.saida = Path.of(valor);
+                        break;
+                    default:
+                        throw new IllegalArgumentException("Opção desconhecida: " + nome);
+                }
+            }
+            if (configuracao.mix.values().stream().mapToInt(Integer::intValue).sum() <= 0) {
+                throw new IllegalArgumentException("O mix precisa de ao menos uma rota com peso positivo.");
+            }
+            return configuracao;
+        }
+    }
+}
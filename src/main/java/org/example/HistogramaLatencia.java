@@ -0,0 +1,109 @@
+package org.example;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histograma de durações com buckets fixos, exportado no formato de histograma
+ * do Prometheus (contagens acumuladas por limite superior, soma e contagem).
+ * Cada bucket é um {@link LongAdder}: registrar não trava nem aloca, mesmo com
+ * muitas threads gravando na mesma rota.
+ */
+public final class HistogramaLatencia {
+
+    /** Limites superiores dos buckets, de 50 µs a 10 s. */
+    static final long[] LIMITES_PADRAO_NANOS = {
+            50_000L, 100_000L, 250_000L, 500_000L,
+            1_000_000L, 2_500_000L, 5_000_000L, 10_000_000L, 25_000_000L, 50_000_000L,
+            100_000_000L, 250_000_000L, 500_000_000L,
+            1_000_000_000L, 2_500_000_000L, 5_000_000_000L, 10_000_000_000L
+    };
+
+    private final long[] limitesNanos;
+    private final String[] limitesTexto;
+    private final LongAdder[] buckets;
+    private final LongAdder somaNanos = new LongAdder();
+
+    public HistogramaLatencia() {
+        this(LIMITES_PADRAO_NANOS);
+    }
+
+    public HistogramaLatencia(long[] limitesNanos) {
+        this.limitesNanos = limitesNanos.clone();
+        this.limitesTexto = new String[limitesNanos.length];
+        for (int i = 0; i < limitesNanos.length; i++) {
+            limitesTexto[i] = Double.toString(limitesNanos[i] / 1e9);
+        }
+        // O último bucket guarda o que passou de todos os limites (+Inf).
+        this.buckets = new LongAdder[limitesNanos.length + 1];
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = new LongAdder();
+        }
+    }
+
+    public void registrar(long nanos) {
+        int i = 0;
+        while (i < limitesNanos.length && nanos > limitesNanos[i]) {
+            i++;
+        }
+        buckets[i].increment();
+        somaNanos.add(nanos);
+    }
+
+    public long contagem() {
+        long total = 0;
+        for (LongAdder bucket : buckets) {
+            total += bucket.sum();
+        }
+        return total;
+    }
+
+    public double somaSegundos() {
+        return somaNanos.sum() / 1e9;
+    }
+
+    /**
+     * Limite superior, em nanossegundos, do bucket onde cai o percentil pedido
+     * (0 a 100). Serve de estimativa rápida para o /status; o /metrics exporta
+     * os buckets inteiros. Devolve {@code Long.MAX_VALUE} se o percentil cair
+     * acima do último limite e 0 se ainda não houve registros.
+     */
+    public long percentilNanos(double percentil) {
+        long[] contagens = new long[buckets.length];
+        long total = 0;
+        for (int i = 0; i < buckets.length; i++) {
+            contagens[i] = buckets[i].sum();
+            total += contagens[i];
+        }
+        if (total == 0) {
+            return 0;
+        }
+        long alvo = (long) Math.ceil(total * percentil / 100.0);
+        long acumulado = 0;
+        for (int i = 0; i < limitesNanos.length; i++) {
+            acumulado += contagens[i];
+            if (acumulado >= alvo) {
+                return limitesNanos[i];
+            }
+        }
+        return Long.MAX_VALUE;
+    }
+
+    /**
+     * Escreve as séries {@code _bucket}, {@code _sum} e {@code _count} do
+     * histograma. {@code rotulos} vem já formatado ({@code metodo="GET",rota="/x"})
+     * ou vazio.
+     */
+    void escreverPrometheus(StringBuilder saida, String nome, String rotulos) {
+        String separador = rotulos.isEmpty() ? "" : ",";
+        long acumulado = 0;
+        for (int i = 0; i < buckets.length; i++) {
+            acumulado += buckets[i].sum();
+            String limite = i < limitesTexto.length ? limitesTexto[i] : "+Inf";
+            saida.append(nome).append("_bucket{").append(rotulos).append(separador)
+                    .append("le=\"").append(limite).append("\"} ").append(acumulado).append('\n');
+        }
+        String chaves = rotulos.isEmpty() ? "" : "{" + rotulos + "}";
+        saida.append(nome).append("_sum").append(chaves).append(' ').append(somaNanos.sum() / 1e9).append('\n');
+        saida.append(nome).append("_count").append(chaves).append(' ').append(acumulado).append('\n');
+    }
+}
@@ -0,0 +1,38 @@
+package org.example;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.Predicate;
+
+final class IteradorFiltrado<T> implements Iterator<T> {
+
+    private final Iterator<T> origem;
+    private final Predicate<T> condicao;
+    private T proximo;
+
+    IteradorFiltrado(Iterator<T> origem, Predicate<T> condicao) {
+        this.origem = origem;
+        this.condicao = condicao;
+    }
+
+    @Override
+    public boolean hasNext() {
+        while (proximo == null && origem.hasNext()) {
+            T candidato = origem.next();
+            if (candidato != null && condicao.test(candidato)) {
+                proximo = candidato;
+            }
+        }
+        return proximo != null;
+    }
+
+    @Override
+    public T next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        T atual = proximo;
+        proximo = null;
+        return atual;
+    }
+}
@@ -0,0 +1,66 @@
+package org.example;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+
+/**
+ * Intercala iteradores já ordenados por ID num único iterador ordenado. Uma
+ * tarefa presente em mais de um deles sai uma vez só, na versão do iterador
+ * que vem primeiro na lista.
+ */
+final class IteradorIntercalado implements Iterator<Tarefa> {
+
+    private final PriorityQueue<Cabeca> cabecas = new PriorityQueue<>((a, b) -> {
+        int comparacao = a.atual.getId().compareTo(b.atual.getId());
+        return comparacao != 0 ? comparacao : Integer.compare(a.ordem, b.ordem);
+    });
+
+    IteradorIntercalado(List<Iterator<Tarefa>> partes) {
+        for (int i = 0; i < partes.size(); i++) {
+            Iterator<Tarefa> parte = partes.get(i);
+            if (parte.hasNext()) {
+                cabecas.add(new Cabeca(parte, i));
+            }
+        }
+    }
+
+    @Override
+    public boolean hasNext() {
+        return !cabecas.isEmpty();
+    }
+
+    @Override
+    public Tarefa next() {
+        Cabeca cabeca = cabecas.poll();
+        if (cabeca == null) {
+            throw new NoSuchElementException();
+        }
+        Tarefa tarefa = cabeca.atual;
+        avancar(cabeca);
+        while (!cabecas.isEmpty() && cabecas.peek().atual.getId().equals(tarefa.getId())) {
+            avancar(cabecas.poll());
+        }
+        return tarefa;
+    }
+
+    private void avancar(Cabeca cabeca) {
+        if (cabeca.parte.hasNext()) {
+            cabeca.atual = cabeca.parte.next();
+            cabecas.add(cabeca);
+        }
+    }
+
+    private static final class Cabeca {
+        final Iterator<Tarefa> parte;
+        final int ordem;
+        Tarefa atual;
+
+        Cabeca(Iterator<Tarefa> parte, int ordem) {
+            this.parte = parte;
+            this.ordem = ordem;
+            this.atual = parte.next();
+        }
+    }
+}
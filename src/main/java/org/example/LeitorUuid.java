@@ -0,0 +1,90 @@
+package org.example;
+
+import java.util.Arrays;
+import java.util.UUID;
+
+/**
+ * Leitura de UUIDs na forma canônica (8-4-4-4-12 dígitos hexadecimais, em
+ * maiúsculas ou minúsculas) sem exceções: ao contrário de
+ * {@link UUID#fromString}, um ID inválido não custa mais que um válido, sem
+ * stack trace no caminho do 400. {@link #valido} e as duas metades não
+ * alocam; {@link #ler} aloca só o UUID. Os dígitos são lidos de quatro em
+ * quatro por tabela, sem desvios por caractere. Formas abreviadas que
+ * {@code fromString} aceita, como "1-2-3-4-5", são recusadas.
+ */
+final class LeitorUuid {
+
+    static final int TAMANHO = 36;
+
+    private static final byte[] VALOR_HEX = new byte[128];
+
+    static {
+        Arrays.fill(VALOR_HEX, (byte) -1);
+        for (int i = 0; i < 10; i++) {
+            VALOR_HEX['0' + i] = (byte) i;
+        }
+        for (int i = 0; i < 6; i++) {
+            VALOR_HEX['a' + i] = (byte) (10 + i);
+            VALOR_HEX['A' + i] = (byte) (10 + i);
+        }
+    }
+
+    private LeitorUuid() {
+    }
+
+    /** O UUID do texto, ou {@code null} se ele não está na forma canônica. */
+    static UUID ler(String texto) {
+        if (!hifensNoLugar(texto)) {
+            return null;
+        }
+        long a = quatro(texto, 0);
+        long b = quatro(texto, 4);
+        long c = quatro(texto, 9);
+        long d = quatro(texto, 14);
+        long e = quatro(texto, 19);
+        long f = quatro(texto, 24);
+        long g = quatro(texto, 28);
+        long h = quatro(texto, 32);
+        // Um dígito inválido deixa o grupo negativo.
+        if ((a | b | c | d | e | f | g | h) < 0) {
+            return null;
+        }
+        return new UUID(a << 48 | b << 32 | c << 16 | d, e << 48 | f << 32 | g << 16 | h);
+    }
+
+    static boolean valido(String texto) {
+        if (!hifensNoLugar(texto)) {
+            return false;
+        }
+        return (quatro(texto, 0) | quatro(texto, 4) | quatro(texto, 9) | quatro(texto, 14)
+                | quatro(texto, 19) | quatro(texto, 24) | quatro(texto, 28) | quatro(texto, 32)) >= 0;
+    }
+
+    /** Primeira metade do UUID; só vale para texto já aceito por {@link #valido}. */
+    static long maisSignificativos(String texto) {
+        return quatro(texto, 0) << 48 | quatro(texto, 4) << 32 | quatro(texto, 9) << 16 | quatro(texto, 14);
+    }
+
+    /** Segunda metade do UUID; só vale para texto já aceito por {@link #valido}. */
+    static long menosSignificativos(String texto) {
+        return quatro(texto, 19) << 48 | quatro(texto, 24) << 32 | quatro(texto, 28) << 16 | quatro(texto, 32);
+    }
+
+    private static boolean hifensNoLugar(String texto) {
+        return texto != null && texto.length() == TAMANHO
+                && texto.charAt(8) == '-' && texto.charAt(13) == '-'
+                && texto.charAt(18) == '-' && texto.charAt(23) == '-';
+    }
+
+    /** Quatro dígitos a partir de {@code inicio} (16 bits), ou um valor negativo se algum é inválido. */
+    private static long quatro(String texto, int inicio) {
+        char c0 = texto.charAt(inicio);
+        char c1 = texto.charAt(inicio + 1);
+        char c2 = texto.charAt(inicio + 2);
+        char c3 = texto.charAt(inicio + 3);
+        if ((c0 | c1 | c2 | c3) >= 128) {
+            return -1;
+        }
+        return VALOR_HEX[c0] << 12 | VALOR_HEX[c1] << 8 | VALOR_HEX[c2] << 4 | VALOR_HEX[c3];
+    }
+}
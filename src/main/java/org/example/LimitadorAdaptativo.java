@@ -0,0 +1,151 @@
+package org.example;
+
+import io.javalin.Javalin;
+import io.javalin.http.HttpStatus;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Limite global de requisições simultâneas que se ajusta à latência, no
+ * estilo do algoritmo Gradient: a cada janela de {@value #JANELA_MS} ms a
+ * latência média é comparada com a latência base (a menor média observada,
+ * que sobe devagar para acompanhar mudanças do ambiente). Enquanto a média
+ * fica abaixo de {@code tolerancia} vezes a base o limite cresce (cerca da
+ * raiz quadrada dele mesmo); acima disso ele encolhe na proporção. As
+ * mudanças são suavizadas entre janelas. Quem passa do limite recebe 503 na
+ * hora, sem fila.
+ *
+ * <p>Ao contrário de {@link LimitadorConcorrencia}, que espera por uma
+ * permissão de um limite fixo, este corta a carga assim que a latência sobe,
+ * antes de as filas crescerem.</p>
+ */
+public final class LimitadorAdaptativo {
+
+    public static final int LIMITE_INICIAL_PADRAO = 20;
+    public static final int LIMITE_MAXIMO_PADRAO = 1000;
+    public static final double TOLERANCIA_PADRAO = 2.0;
+    static final int LIMITE_MINIMO = 2;
+    static final long JANELA_MS = 100;
+
+    private static final String ATRIBUTO_INICIO = "limitadorAdaptativo.inicio";
+    private static final long JANELA_NANOS = TimeUnit.MILLISECONDS.toNanos(JANELA_MS);
+    /** Quanto a latência base sobe por janela sem novas mínimas (dobra em cerca de 35 s). */
+    private static final double DERIVA_BASE = 1.002;
+    private static final double SUAVIZACAO = 0.2;
+
+    private final int limiteMaximo;
+    private final double tolerancia;
+    private final AtomicInteger emAndamento = new AtomicInteger();
+    private final LongAdder somaJanela = new LongAdder();
+    private final LongAdder contagemJanela = new LongAdder();
+    private final AtomicLong fimJanela;
+    private final LongAdder recusadas = new LongAdder();
+    /** Fracionário para que a suavização acumule aumentos menores que 1. */
+    private volatile double limite;
+    private volatile int picoJanela;
+    /** Só muda em {@link #recalcular}, que roda numa thread por vez. */
+    private volatile double latenciaBase = Double.NaN;
+
+    public LimitadorAdaptativo(int limiteInicial, int limiteMaximo, double tolerancia) {
+        this.limite = limiteInicial;
+        this.limiteMaximo = limiteMaximo;
+        this.tolerancia = tolerancia;
+        this.fimJanela = new AtomicLong(System.nanoTime() + JANELA_NANOS);
+    }
+
+    /** Ativado com -Dlimite.adaptativo=true; {@code null} caso contrário. */
+    public static LimitadorAdaptativo doSistema() {
+        if (!Boolean.getBoolean("limite.adaptativo")) {
+            return null;
+        }
+        return new LimitadorAdaptativo(
+                Integer.getInteger("limite.adaptativoInicial", LIMITE_INICIAL_PADRAO),
+                Integer.getInteger("limite.adaptativoMaximo", LIMITE_MAXIMO_PADRAO),
+                Double.parseDouble(System.getProperty("limite.adaptativoTolerancia", String.valueOf(TOLERANCIA_PADRAO))));
+    }
+
+    public void instalar(Javalin app) {
+        RequisicaoRecusadaException.instalar(app);
+        app.beforeMatched(ctx -> {
+            // Conexões do feed ficam abertas por minutos e não dizem nada sobre a latência.
+            if (TransmissorFeed.ROTA_SSE.equals(ctx.matchedPath())) {
+                return;
+            }
+            if (!adquirir()) {
+                throw new RequisicaoRecusadaException(HttpStatus.SERVICE_UNAVAILABLE, "1",
+                        "Servidor sobrecarregado, tente novamente.");
+            }
+            ctx.attribute(ATRIBUTO_INICIO, System.nanoTime());
+        });
+        app.after(ctx -> {
+            Long inicio = ctx.attribute(ATRIBUTO_INICIO);
+            if (inicio != null) {
+                ctx.attribute(ATRIBUTO_INICIO, null);
+                long agora = System.nanoTime();
+                liberar(agora - inicio, agora);
+            }
+        });
+    }
+
+    /** Tenta ocupar uma vaga; {@code false} se o limite atual já foi atingido. */
+    public boolean adquirir() {
+        int atual = emAndamento.incrementAndGet();
+        if (atual > limite) {
+            emAndamento.decrementAndGet();
+            recusadas.increment();
+            return false;
+        }
+        if (atual > picoJanela) {
+            picoJanela = atual;
+        }
+        return true;
+    }
+
+    /** Devolve a vaga e registra a duração da requisição. */
+    public void liberar(long duracaoNanos, long agora) {
+        emAndamento.decrementAndGet();
+        somaJanela.add(duracaoNanos);
+        contagemJanela.increment();
+        long fim = fimJanela.get();
+        if (agora - fim >= 0 && fimJanela.compareAndSet(fim, agora + JANELA_NANOS)) {
+            recalcular();
+        }
+    }
+
+    private void recalcular() {
+        long quantidade = contagemJanela.sumThenReset();
+        long soma = somaJanela.sumThenReset();
+        int pico = picoJanela;
+        picoJanela = 0;
+        if (quantidade == 0) {
+            return;
+        }
+        double media = (double) soma / quantidade;
+        double base = Double.isNaN(latenciaBase) ? media : Math.min(latenciaBase * DERIVA_BASE, media);
+        latenciaBase = base;
+
+        double atual = limite;
+        double gradiente = Math.max(0.5, Math.min(1.0, tolerancia * base / media));
+        double novo = atual * gradiente + Math.sqrt(atual);
+        // Sem uso perto do limite a janela não mostra se caberia mais; não cresce.
+        if (novo > atual && pico < atual / 2) {
+            return;
+        }
+        novo = atual * (1 - SUAVIZACAO) + novo * SUAVIZACAO;
+        limite = Math.max(LIMITE_MINIMO, Math.min(limiteMaximo, novo));
+    }
+
+    public int limite() {
+        return (int) limite;
+    }
+
+    public int emAndamento() {
+        return emAndamento.get();
+    }
+
+    public long recusadas() {
+        return recusadas.sum();
+    }
+}
@@ -0,0 +1,48 @@
+package org.example;
+
+import io.javalin.Javalin;
+import io.javalin.http.HttpStatus;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Limita quantas requisições são atendidas ao mesmo tempo. Com virtual threads
+ * o servidor aceita praticamente qualquer número de requisições simultâneas;
+ * o limite evita que todas cheguem juntas ao armazenamento. Quem não consegue
+ * uma permissão dentro da espera máxima recebe 503. A permissão é devolvida
+ * num {@code after}, que roda também quando um limitador seguinte recusa a
+ * requisição ({@link RequisicaoRecusadaException}).
+ */
+public class LimitadorConcorrencia {
+
+    private static final String ATRIBUTO_PERMISSAO = "limitadorConcorrencia.permissao";
+
+    private final Semaphore permissoes;
+    private final long esperaMaximaMs;
+
+    public LimitadorConcorrencia(int concorrenciaMaxima, long esperaMaximaMs) {
+        this.permissoes = new Semaphore(concorrenciaMaxima);
+        this.esperaMaximaMs = esperaMaximaMs;
+    }
+
+    public void instalar(Javalin app) {
+        RequisicaoRecusadaException.instalar(app);
+        app.before(ctx -> {
+            if (!permissoes.tryAcquire(esperaMaximaMs, TimeUnit.MILLISECONDS)) {
+                throw new RequisicaoRecusadaException(HttpStatus.SERVICE_UNAVAILABLE, null,
+                        "Servidor sobrecarregado, tente novamente.");
+            }
+            ctx.attribute(ATRIBUTO_PERMISSAO, Boolean.TRUE);
+        });
+        app.after(ctx -> {
+            if (ctx.attribute(ATRIBUTO_PERMISSAO) != null) {
+                ctx.attribute(ATRIBUTO_PERMISSAO, null);
+                permissoes.release();
+            }
+        });
+    }
+
+    public int disponiveis() {
+        return permissoes.availablePermits();
+    }
+}
@@ -0,0 +1,184 @@
+package org.example;
+
+import io.javalin.Javalin;
+import io.javalin.http.Context;
+import io.javalin.http.HandlerType;
+import io.javalin.http.HttpStatus;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Limite de requisições por cliente em cada rota, configurado com
+ * {@code -Dlimite.regras="POST /tarefas=50:100,POST /echo=10"} (taxa por
+ * segundo e, opcionalmente, rajada). O cliente é o IP; o header X-Api-Key só
+ * identifica o cliente quando a chave está entre as conhecidas
+ * ({@code -Dlimite.chaves}), senão trocar de chave a cada requisição
+ * escaparia do limite. Acima do limite a resposta é 429 com Retry-After.
+ *
+ * <p>Cada regra é um token bucket no formato GCRA: um único long por balde
+ * guarda o instante teórico da próxima chegada, atualizado com CAS, sem
+ * travas nem alocação. Os baldes ficam num array fixo de
+ * {@value #FAIXAS_PADRAO} faixas e o cliente é espalhado por hash; dois
+ * clientes na mesma faixa dividem o limite, o que só o torna mais rígido, em
+ * troca de memória constante mesmo com muitos IPs diferentes.</p>
+ */
+public final class LimitadorTaxa {
+
+    public static final int FAIXAS_PADRAO = 1024;
+
+    /** Cada faixa ocupa uma linha de cache (8 longs) para não disputar com as vizinhas. */
+    private static final int DESLOCAMENTO_FAIXA = 3;
+
+    private final Map<String, Regra>[] regrasPorMetodo;
+    private final long origem = System.nanoTime();
+    private final LongAdder recusadas = new LongAdder();
+    private final Set<String> chavesConhecidas;
+
+    public LimitadorTaxa(String regras, int faixas) {
+        this(regras, faixas, Set.of());
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public LimitadorTaxa(String regras, int faixas, Set<String> chavesConhecidas) {
+        this.chavesConhecidas = Set.copyOf(chavesConhecidas);
+        if (Integer.bitCount(faixas) != 1) {
+            throw new IllegalArgumentException("A quantidade de faixas deve ser potência de 2.");
+        }
+        regrasPorMetodo = new Map[HandlerType.values().length];
+        for (int i = 0; i < regrasPorMetodo.length; i++) {
+            regrasPorMetodo[i] = new HashMap<>();
+        }
+        for (String definicao : regras.split(",")) {
+            if (definicao.isBlank()) {
+                continue;
+            }
+            adicionar(definicao.trim(), faixas);
+        }
+    }
+
+    /**
+     * Limitador configurado por -Dlimite.regras (e -Dlimite.chaves, separadas
+     * por vírgula), ou {@code null} sem regras.
+     */
+    public static LimitadorTaxa doSistema() {
+        String regras = System.getProperty("limite.regras");
+        if (regras == null || regras.isBlank()) {
+            return null;
+        }
+        Set<String> chaves = new HashSet<>();
+        for (String chave : System.getProperty("limite.chaves", "").split(",")) {
+            if (!chave.isBlank()) {
+                chaves.add(chave.trim());
+            }
+        }
+        return new LimitadorTaxa(regras, Integer.getInteger("limite.faixas", FAIXAS_PADRAO), chaves);
+    }
+
+    private void adicionar(String definicao, int faixas) {
+        int igual = definicao.lastIndexOf('=');
+        int espaco = definicao.indexOf(' ');
+        if (igual < 0 || espaco < 0 || espaco > igual) {
+            throw new IllegalArgumentException("Regra de limite inválida (use \"METODO /rota=taxa[:rajada]\"): " + definicao);
+        }
+        String metodo = definicao.substring(0, espaco).trim().toUpperCase();
+        String rota = definicao.substring(espaco + 1, igual).trim();
+        String[] valores = definicao.substring(igual + 1).split(":");
+        double taxa;
+        int rajada;
+        try {
+            taxa = Double.parseDouble(valores[0].trim());
+            rajada = valores.length > 1 ? Integer.parseInt(valores[1].trim()) : Math.max(1, (int) Math.ceil(taxa));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Regra de limite inválida: " + definicao, e);
+        }
+        if (taxa <= 0 || rajada < 1) {
+            throw new IllegalArgumentException("Taxa e rajada devem ser positivas: " + definicao);
+        }
+        Regra regra = new Regra(taxa, rajada, faixas);
+        if (metodo.equals("*")) {
+            for (HandlerType tipo : HandlerType.values()) {
+                if (tipo.isHttpMethod()) {
+                    regrasPorMetodo[tipo.ordinal()].put(rota, regra);
+                }
+            }
+        } else {
+            regrasPorMetodo[HandlerType.valueOf(metodo).ordinal()].put(rota, regra);
+        }
+    }
+
+    public void instalar(Javalin app) {
+        RequisicaoRecusadaException.instalar(app);
+        app.beforeMatched(ctx -> {
+            Regra regra = regra(ctx.handlerType(), ctx.matchedPath());
+            if (regra == null) {
+                return;
+            }
+            long esperaNanos = regra.consumir(cliente(ctx).hashCode(), System.nanoTime() - origem);
+            if (esperaNanos > 0) {
+                recusadas.increment();
+                long segundos = TimeUnit.NANOSECONDS.toSeconds(esperaNanos + 999_999_999);
+                throw new RequisicaoRecusadaException(HttpStatus.TOO_MANY_REQUESTS, Long.toString(Math.max(1, segundos)),
+                        "Limite de requisições excedido, tente novamente mais tarde.");
+            }
+        });
+    }
+
+    /** Regra da rota, ou {@code null} se ela não é limitada. */
+    Regra regra(HandlerType metodo, String rota) {
+        return regrasPorMetodo[metodo.ordinal()].get(rota);
+    }
+
+    public long recusadas() {
+        return recusadas.sum();
+    }
+
+    private String cliente(Context ctx) {
+        String chave = ctx.header("X-Api-Key");
+        return chave != null && chavesConhecidas.contains(chave) ? chave : ctx.ip();
+    }
+
+    static final class Regra {
+        private final long intervaloNanos;
+        private final long toleranciaNanos;
+        private final int mascara;
+        private final int deslocamentoHash;
+        private final AtomicLongArray chegadas;
+
+        Regra(double taxaPorSegundo, int rajada, int faixas) {
+            this.intervaloNanos = Math.max(1, (long) (1_000_000_000L / taxaPorSegundo));
+            this.toleranciaNanos = intervaloNanos * (rajada - 1);
+            this.mascara = faixas - 1;
+            this.deslocamentoHash = 32 - Integer.numberOfTrailingZeros(faixas);
+            this.chegadas = new AtomicLongArray(faixas << DESLOCAMENTO_FAIXA);
+        }
+
+        /**
+         * Consome uma ficha do balde do cliente no instante {@code agora}
+         * (nanos, não negativo). Devolve 0 se a requisição pode seguir ou
+         * quantos nanos faltam para a próxima ficha.
+         */
+        long consumir(int hashCliente, long agora) {
+            int indice = faixa(hashCliente) << DESLOCAMENTO_FAIXA;
+            while (true) {
+                long proxima = chegadas.get(indice);
+                long base = Math.max(proxima, agora);
+                long adiantamento = base - agora;
+                if (adiantamento > toleranciaNanos) {
+                    return adiantamento - toleranciaNanos;
+                }
+                if (chegadas.compareAndSet(indice, proxima, base + intervaloNanos)) {
+                    return 0;
+                }
+            }
+        }
+
+        private int faixa(int hash) {
+            return (hash * 0x9E3779B9 >>> deslocamentoHash) & mascara;
+        }
+    }
+}
@@ -0,0 +1,472 @@
+package org.example;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Log estruturado (uma linha JSON por evento) de acesso e de auditoria. Quem
+ * registra só reserva uma posição num anel de eventos pré-alocados e preenche
+ * os campos, sem trava nem formatação; uma thread de fundo formata em lote e
+ * grava na saída, que é um arquivo rotacionado por tamanho, o console ou
+ * nenhuma. Sem eventos a thread fica parada e quem publica a acorda.
+ * <p>
+ * Com o anel cheio, a {@link Politica} decide: DESCARTAR conta o evento como
+ * descartado e segue, BLOQUEAR espera uma posição liberar.
+ */
+public final class LogEstruturado implements AutoCloseable {
+
+    public static final int CAPACIDADE_PADRAO = 8192;
+    public static final long TAMANHO_ARQUIVO_PADRAO = 64L * 1024 * 1024;
+    public static final int ARQUIVOS_MANTIDOS_PADRAO = 5;
+
+    public static final String ARQUIVO_PADRAO = "logs/tarefas.log";
+    private static final int TAMANHO_BUFFER = 64 * 1024;
+
+    public enum Politica {
+        DESCARTAR, BLOQUEAR;
+
+        public static Politica doSistema() {
+            return "bloquear".equalsIgnoreCase(System.getProperty("log.politica"))
+                    ? BLOQUEAR : DESCARTAR;
+        }
+    }
+
+    private final Evento[] anel;
+    private final int mascara;
+    private final Politica politica;
+    private final boolean registrarAcessos;
+    private final Saida saida;
+
+    /** Próxima sequência a ser reservada por quem registra. */
+    private final AtomicLong proximo = new AtomicLong();
+    /** Próxima sequência que a thread de escrita vai ler; tudo antes dela está livre. */
+    private volatile long consumido;
+    private final LongAdder descartados = new LongAdder();
+    private final AtomicLong gravados = new AtomicLong();
+    private volatile boolean fechado;
+    /** A thread de escrita está (ou vai ficar) parada esperando eventos. */
+    private volatile boolean ocioso;
+    private final Thread escritor;
+
+    /**
+     * @param arquivo          destino do log; null grava no console
+     * @param capacidade       eventos no anel, arredondado para potência de 2
+     * @param registrarAcessos se {@link #acesso} grava uma linha por requisição
+     */
+    public LogEstruturado(Path arquivo, int capacidade, Politica politica, boolean registrarAcessos,
+                          long tamanhoMaximoArquivo, int arquivosMantidos) {
+        this(arquivo == null
+                        ? new SaidaConsole(System.out)
+                        : new SaidaArquivo(arquivo, tamanhoMaximoArquivo, arquivosMantidos),
+                capacidade, politica, registrarAcessos);
+    }
+
+    private LogEstruturado(Saida saida, int capacidade, Politica politica, boolean registrarAcessos) {
+        int tamanho = Integer.highestOneBit(Math.max(2, capacidade - 1)) << 1;
+        this.anel = new Evento[tamanho];
+        for (int i = 0; i < tamanho; i++) {
+            anel[i] = new Evento(i - tamanho);
+        }
+        this.mascara = tamanho - 1;
+        this.politica = politica;
+        this.registrarAcessos = registrarAcessos;
+        this.saida = saida;
+        this.escritor = Thread.ofPlatform().daemon().name("log-estruturado").start(this::escrever);
+    }
+
+    /**
+     * Configuração pelas propriedades -Dlog.arquivo, -Dlog.capacidade,
+     * -Dlog.politica, -Dlog.acesso, -Dlog.tamanhoMaximoBytes e
+     * -Dlog.arquivosMantidos. Sem -Dlog.arquivo o log vai para
+     * {@value #ARQUIVO_PADRAO}; {@code console} grava na saída padrão e
+     * {@code desligado} descarta os eventos (é o que os testes usam).
+     */
+    public static LogEstruturado doSistema() {
+        String arquivo = System.getProperty("log.arquivo", ARQUIVO_PADRAO);
+        int capacidade = Integer.getInteger("log.capacidade", CAPACIDADE_PADRAO);
+        Politica politica = Politica.doSistema();
+        boolean acessos = Boolean.getBoolean("log.acesso");
+        if (arquivo.equals("desligado")) {
+            return new LogEstruturado(new SaidaNula(), capacidade, politica, acessos);
+        }
+        return new LogEstruturado(arquivo.equals("console") ? null : Path.of(arquivo), capacidade, politica, acessos,
+                Long.getLong("log.tamanhoMaximoBytes", TAMANHO_ARQUIVO_PADRAO),
+                Integer.getInteger("log.arquivosMantidos", ARQUIVOS_MANTIDOS_PADRAO));
+    }
+
+    /** Linha de acesso de uma requisição; ignorada se os acessos não estão ligados. */
+    public void acesso(String metodo, String caminho, int status, long duracaoNanos, String ip) {
+        if (!registrarAcessos) {
+            return;
+        }
+        long sequencia = reservar();
+        if (sequencia < 0) {
+            return;
+        }
+        Evento evento = anel[(int) (sequencia & mascara)];
+        evento.preencher(System.currentTimeMillis(), "acesso");
+        evento.metodo = metodo;
+        evento.caminho = caminho;
+        evento.status = status;
+        evento.duracaoNanos = duracaoNanos;
+        evento.ip = ip;
+        publicar(evento, sequencia);
+    }
+
+    /** Evento de auditoria, como a criação de uma tarefa ou de um lote. */
+    public void auditoria(String acao, UUID id, String titulo, long quantidade) {
+        long sequencia = reservar();
+        if (sequencia < 0) {
+            return;
+        }
+        Evento evento = anel[(int) (sequencia & mascara)];
+        evento.preencher(System.currentTimeMillis(), acao);
+        evento.id = id;
+        evento.titulo = titulo;
+        evento.quantidade = quantidade;
+        publicar(evento, sequencia);
+    }
+
+    /** Falha de uma tarefa de fundo (manutenção, snapshot), com a mensagem da exceção. */
+    public void falha(String evento, String mensagem) {
+        long sequencia = reservar();
+        if (sequencia < 0) {
+            return;
+        }
+        Evento registro = anel[(int) (sequencia & mascara)];
+        registro.preencher(System.currentTimeMillis(), evento);
+        registro.mensagem = mensagem;
+        publicar(registro, sequencia);
+    }
+
+    public long descartados() {
+        return descartados.sum();
+    }
+
+    public long gravados() {
+        return gravados.get();
+    }
+
+    public boolean registraAcessos() {
+        return registrarAcessos;
+    }
+
+    /** Reserva a próxima posição do anel, ou -1 se o evento foi descartado. */
+    private long reservar() {
+        if (fechado) {
+            descartados.increment();
+            return -1;
+        }
+        while (true) {
+            long sequencia = proximo.get();
+            if (sequencia - consumido >= anel.length) {
+                if (politica == Politica.DESCARTAR) {
+                    descartados.increment();
+                    return -1;
+                }
+                LockSupport.parkNanos(50_000L);
+                continue;
+            }
+            if (proximo.compareAndSet(sequencia, sequencia + 1)) {
+                return sequencia;
+            }
+        }
+    }
+
+    /**
+     * Libera o evento para a thread de escrita e a acorda se ela está parada.
+     * A escrita volátil da sequência antes da leitura de {@link #ocioso} (e o
+     * inverso em {@link #escrever}) garante que ao menos um dos lados vê o
+     * outro: ou a thread encontra o evento antes de parar, ou quem publica vê
+     * que ela parou.
+     */
+    private void publicar(Evento evento, long sequencia) {
+        evento.publicar(sequencia);
+        if (ocioso) {
+            LockSupport.unpark(escritor);
+        }
+    }
+
+    private void escrever() {
+        StringBuilder linha = new StringBuilder(256);
+        long sequencia = consumido;
+        while (true) {
+            Evento evento = anel[(int) (sequencia & mascara)];
+            if (evento.sequencia == sequencia) {
+                linha.setLength(0);
+                evento.formatar(linha);
+                evento.limpar();
+                sequencia++;
+                consumido = sequencia;
+                try {
+                    saida.escrever(linha);
+                    gravados.incrementAndGet();
+                } catch (IOException e) {
+                    descartados.increment();
+                }
+                continue;
+            }
+            // Anel vazio: grava o lote acumulado de uma vez e espera mais eventos.
+            try {
+                saida.descarregar();
+            } catch (IOException e) {
+                System.err.println("Falha ao gravar o log: " + e.getMessage());
+            }
+            if (fechado && sequencia == proximo.get()) {
+                break;
+            }
+            ocioso = true;
+            if (evento.sequencia != sequencia && !fechado) {
+                LockSupport.park(this);
+            }
+            ocioso = false;
+        }
+        try {
+            saida.close();
+        } catch (IOException e) {
+            System.err.println("Falha ao fechar o log: " + e.getMessage());
+        }
+    }
+
+    /** Grava o que já está no anel e encerra a thread de escrita. */
+    @Override
+    public void close() {
+        fechado = true;
+        LockSupport.unpark(escritor);
+        try {
+            escritor.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static final class Evento {
+        volatile long sequencia;
+        long instante;
+        String tipo;
+        String metodo;
+        String caminho;
+        int status;
+        long duracaoNanos = -1;
+        String ip;
+        UUID id;
+        String titulo;
+        long quantidade = -1;
+        String mensagem;
+
+        Evento(long sequenciaInicial) {
+            this.sequencia = sequenciaInicial;
+        }
+
+        void preencher(long instante, String tipo) {
+            this.instante = instante;
+            this.tipo = tipo;
+        }
+
+        /** Escrita volátil: a thread de escrita só lê os campos depois de ver a sequência. */
+        void publicar(long sequencia) {
+            this.sequencia = sequencia;
+        }
+
+        void limpar() {
+            metodo = null;
+            caminho = null;
+            status = 0;
+            duracaoNanos = -1;
+            ip = null;
+            id = null;
+            titulo = null;
+            quantidade = -1;
+            mensagem = null;
+        }
+
+        void formatar(StringBuilder saida) {
+            saida.append("{\"instante\":\"").append(Instant.ofEpochMilli(instante)).append('"');
+            saida.append(",\"evento\":\"").append(tipo).append('"');
+            if (metodo != null) {
+                saida.append(",\"metodo\":\"").append(metodo).append('"');
+            }
+            if (caminho != null) {
+                saida.append(",\"caminho\":");
+                texto(saida, caminho);
+            }
+            if (status != 0) {
+                saida.append(",\"status\":").append(status);
+            }
+            if (duracaoNanos >= 0) {
+                saida.append(",\"duracaoMs\":").append(duracaoNanos / 1_000_000.0);
+            }
+            if (ip != null) {
+                saida.append(",\"ip\":");
+                texto(saida, ip);
+            }
+            if (id != null) {
+                saida.append(",\"id\":\"").append(id).append('"');
+            }
+            if (titulo != null) {
+                saida.append(",\"titulo\":");
+                texto(saida, titulo);
+            }
+            if (quantidade >= 0) {
+                saida.append(",\"quantidade\":").append(quantidade);
+            }
+            if (mensagem != null) {
+                saida.append(",\"mensagem\":");
+                texto(saida, mensagem);
+            }
+            saida.append("}\n");
+        }
+
+        private static void texto(StringBuilder saida, String valor) {
+            saida.append('"');
+            for (int i = 0; i < valor.length(); i++) {
+                char c = valor.charAt(i);
+                if (c == '"' || c == '\\') {
+                    saida.append('\\').append(c);
+                } else if (c < 0x20) {
+                    saida.append(String.format("\\u%04x", (int) c));
+                } else {
+                    saida.append(c);
+                }
+            }
+            saida.append('"');
+        }
+    }
+
+    private interface Saida {
+        void escrever(CharSequence linha) throws IOException;
+
+        void descarregar() throws IOException;
+
+        void close() throws IOException;
+    }
+
+    private static final class SaidaConsole implements Saida {
+        private final PrintStream console;
+        private final StringBuilder lote = new StringBuilder(TAMANHO_BUFFER);
+
+        SaidaConsole(PrintStream console) {
+            this.console = console;
+        }
+
+        @Override
+        public void escrever(CharSequence linha) {
+            lote.append(linha);
+            if (lote.length() >= TAMANHO_BUFFER) {
+                descarregar();
+            }
+        }
+
+        @Override
+        public void descarregar() {
+            if (lote.length() > 0) {
+                console.print(lote);
+                console.flush();
+                lote.setLength(0);
+            }
+        }
+
+        @Override
+        public void close() {
+            descarregar();
+        }
+    }
+
+    /** Descarta tudo: log desligado. */
+    private static final class SaidaNula implements Saida {
+        @Override
+        public void escrever(CharSequence linha) {
+        }
+
+        @Override
+        public void descarregar() {
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    /**
+     * Arquivo com rotação por tamanho: ao passar do limite, {@code log} vira
+     * {@code log.1}, {@code log.1} vira {@code log.2} e assim por diante,
+     * mantendo no máximo {@code arquivosMantidos} arquivos antigos.
+     */
+    private static final class SaidaArquivo implements Saida {
+        private final Path arquivo;
+        private final long tamanhoMaximo;
+        private final int arquivosMantidos;
+        private OutputStream saida;
+        private long tamanho;
+
+        SaidaArquivo(Path arquivo, long tamanhoMaximo, int arquivosMantidos) {
+            this.arquivo = arquivo.toAbsolutePath();
+            this.tamanhoMaximo = tamanhoMaximo;
+            this.arquivosMantidos = arquivosMantidos;
+            try {
+                abrir();
+            } catch (IOException e) {
+                throw new IllegalStateException("Não foi possível abrir o arquivo de log " + arquivo, e);
+            }
+        }
+
+        private void abrir() throws IOException {
+            Files.createDirectories(arquivo.getParent());
+            saida = new BufferedOutputStream(Files.newOutputStream(arquivo,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND), TAMANHO_BUFFER);
+            tamanho = Files.size(arquivo);
+        }
+
+        @Override
+        public void escrever(CharSequence linha) throws IOException {
+            byte[] bytes = linha.toString().getBytes(StandardCharsets.UTF_8);
+            if (tamanho > 0 && tamanho + bytes.length > tamanhoMaximo) {
+                rotacionar();
+            }
+            saida.write(bytes);
+            tamanho += bytes.length;
+        }
+
+        private void rotacionar() throws IOException {
+            saida.close();
+            Files.deleteIfExists(antigo(arquivosMantidos));
+            for (int i = arquivosMantidos - 1; i >= 1; i--) {
+                if (Files.exists(antigo(i))) {
+                    Files.move(antigo(i), antigo(i + 1), StandardCopyOption.REPLACE_EXISTING);
+                }
+            }
+            if (arquivosMantidos > 0) {
+                Files.move(arquivo, antigo(1), StandardCopyOption.REPLACE_EXISTING);
+            } else {
+                Files.delete(arquivo);
+            }
+            abrir();
+        }
+
+        private Path antigo(int indice) {
+            return arquivo.resolveSibling(arquivo.getFileName() + "." + indice);
+        }
+
+        @Override
+        public void descarregar() throws IOException {
+            saida.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            saida.close();
+        }
+    }
+}
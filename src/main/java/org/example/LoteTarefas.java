@@ -0,0 +1,114 @@
+package org.example;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Importação de tarefas em lote para POST /tarefas/batch. O corpo pode ser um
+ * array JSON ou NDJSON (um objeto por linha), ou um array CBOR quando
+ * enviado com Content-Type application/cbor; ele é lido item a item com o
+ * parser de streaming do Jackson, cada item é validado separadamente e as
+ * tarefas válidas são gravadas em blocos de {@value #TAMANHO_BLOCO} com
+ * {@link TarefaRepository#salvarTodos}.
+ *
+ * <p>Um erro de sintaxe interrompe a leitura; os blocos já gravados
+ * permanecem gravados e o erro é informado no índice em que ocorreu.</p>
+ */
+public final class LoteTarefas {
+
+    static final int TAMANHO_BLOCO = 1000;
+
+    private LoteTarefas() {
+    }
+
+    public static Resultado importar(InputStream corpo, TarefaRepository repositorio) throws IOException {
+        return importar(corpo, repositorio, FormatoCorpo.JSON);
+    }
+
+    public static Resultado importar(InputStream corpo, TarefaRepository repositorio,
+                                     FormatoCorpo formato) throws IOException {
+        ObjectMapper objectMapper = formato.objectMapper();
+        Resultado resultado = new Resultado();
+        List<Tarefa> bloco = new ArrayList<>(TAMANHO_BLOCO);
+        int indice = 0;
+        try (JsonParser parser = objectMapper.getFactory().createParser(corpo)) {
+            JsonToken token = parser.nextToken();
+            boolean array = token == JsonToken.START_ARRAY;
+            if (array) {
+                token = parser.nextToken();
+            }
+            while (token != null && token != JsonToken.END_ARRAY) {
+                JsonNode item = parser.readValueAsTree();
+                Tarefa tarefa = validar(objectMapper, item, indice, resultado);
+                if (tarefa != null) {
+                    bloco.add(tarefa);
+                    if (bloco.size() == TAMANHO_BLOCO) {
+                        gravar(bloco, repositorio, resultado);
+                    }
+                }
+                indice++;
+                token = parser.nextToken();
+            }
+        } catch (JsonProcessingException e) {
+            resultado.erros.add(Map.of("indice", indice, "erro", formato + " malformado: " + e.getOriginalMessage()));
+        }
+        gravar(bloco, repositorio, resultado);
+        return resultado;
+    }
+
+    private static Tarefa validar(ObjectMapper objectMapper, JsonNode item, int indice, Resultado resultado) {
+        if (item == null || !item.isObject()) {
+            resultado.erros.add(Map.of("indice", indice, "erro", "O item deve ser um objeto."));
+            return null;
+        }
+        Tarefa tarefa;
+        try {
+            tarefa = objectMapper.treeToValue(item, Tarefa.class);
+        } catch (JsonProcessingException e) {
+            resultado.erros.add(Map.of("indice", indice, "erro", "Tarefa inválida: " + e.getOriginalMessage()));
+            return null;
+        }
+        if (tarefa.getTitulo() == null || tarefa.getTitulo().trim().isEmpty()) {
+            resultado.erros.add(Map.of("indice", indice, "erro", "O título da tarefa é obrigatório."));
+            return null;
+        }
+        return tarefa;
+    }
+
+    private static void gravar(List<Tarefa> bloco, TarefaRepository repositorio, Resultado resultado) {
+        if (bloco.isEmpty()) {
+            return;
+        }
+        repositorio.salvarTodos(bloco);
+        for (Tarefa tarefa : bloco) {
+            resultado.ids.add(tarefa.getId());
+        }
+        bloco.clear();
+    }
+
+    public static class Resultado {
+        private final List<UUID> ids = new ArrayList<>();
+        private final List<Map<String, Object>> erros = new ArrayList<>();
+
+        public int getCriadas() {
+            return ids.size();
+        }
+
+        public List<UUID> getIds() {
+            return ids;
+        }
+
+        public List<Map<String, Object>> getErros() {
+            return erros;
+        }
+    }
+}
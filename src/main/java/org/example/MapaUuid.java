@@ -0,0 +1,248 @@
+package org.example;
+
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.UnaryOperator;
+
+/**
+ * Mapa de UUID para valor com endereçamento aberto (sondagem linear): cada
+ * posição guarda as duas metades do UUID num {@code long[]} e o valor num
+ * array paralelo, sem objeto de chave nem nó por entrada: 20 bytes por
+ * posição (com referências comprimidas), contra cerca de 60 por entrada de um
+ * {@code ConcurrentHashMap} com chaves {@link UUID}.
+ *
+ * <p>Leituras não travam nem alocam. As escritas de um mesmo ID são
+ * serializadas por uma de {@value #QUANTIDADE_TRAVAS} travas, escolhida pelo
+ * hash; escritas de IDs em travas diferentes correm em paralelo e disputam
+ * uma posição livre por CAS. A chave de uma posição é gravada antes do valor e
+ * nunca muda enquanto a tabela existir, então quem lê o valor (volátil)
+ * enxerga a chave completa. Remoções deixam uma marca que a sondagem pula; a
+ * tabela é reconstruída, sem as marcas, quando as posições usadas passam de
+ * {@value #CARGA_MAXIMA} da capacidade, e dobra se as vivas passam da metade
+ * desse limite. Só a reconstrução é exclusiva (a parte de escrita de uma
+ * {@link ReentrantReadWriteLock}, que as escritas tomam compartilhada). Quem
+ * lê durante a troca pode ver a tabela antiga, o que equivale a ter lido
+ * antes da escrita concorrente.</p>
+ */
+final class MapaUuid<V> {
+
+    static final double CARGA_MAXIMA = 0.6;
+    private static final int CAPACIDADE_INICIAL = 64;
+    private static final int QUANTIDADE_TRAVAS = 256;
+    private static final Object REMOVIDO = new Object();
+    /** Posição tomada por uma inserção que ainda não gravou a chave; a sondagem a pula. */
+    private static final Object RESERVADO = new Object();
+
+    private volatile Tabela tabela = new Tabela(CAPACIDADE_INICIAL);
+    private final AtomicInteger vivas = new AtomicInteger();
+    /** Posições ocupadas ou reservadas na tabela atual, marcas de remoção incluídas. */
+    private final AtomicInteger usadas = new AtomicInteger();
+    private final ReentrantLock[] travas = new ReentrantLock[QUANTIDADE_TRAVAS];
+    private final ReentrantReadWriteLock reconstrucao = new ReentrantReadWriteLock();
+
+    MapaUuid() {
+        for (int i = 0; i < travas.length; i++) {
+            travas[i] = new ReentrantLock();
+        }
+    }
+
+    V get(UUID id) {
+        return get(id.getMostSignificantBits(), id.getLeastSignificantBits());
+    }
+
+    @SuppressWarnings("unchecked")
+    V get(long maisSignificativos, long menosSignificativos) {
+        Tabela atual = tabela;
+        int i = procurar(atual, maisSignificativos, menosSignificativos,
+                misturar(maisSignificativos, menosSignificativos));
+        Object valor = i >= 0 ? atual.valores.get(i) : null;
+        return valor == null || valor == REMOVIDO ? null : (V) valor;
+    }
+
+    /**
+     * Troca o valor de {@code id} pelo resultado de {@code alteracao} (que
+     * recebe o atual ou {@code null}); {@code null} remove. A função é chamada
+     * uma única vez, sob a trava da faixa do ID, então pode atualizar outras
+     * estruturas junto com o mapa sem que outra escrita do mesmo ID se
+     * intercale. Uma exceção dela cancela a alteração.
+     */
+    @SuppressWarnings("unchecked")
+    V alterar(UUID id, UnaryOperator<V> alteracao) {
+        long maisSignificativos = id.getMostSignificantBits();
+        long menosSignificativos = id.getLeastSignificantBits();
+        long hash = misturar(maisSignificativos, menosSignificativos);
+        ReentrantLock trava = travas[(int) (hash >>> 32) & (QUANTIDADE_TRAVAS - 1)];
+        trava.lock();
+        reconstrucao.readLock().lock();
+        try {
+            Tabela atual = tabela;
+            int i = procurar(atual, maisSignificativos, menosSignificativos, hash);
+            Object valor = i >= 0 ? atual.valores.get(i) : null;
+            V anterior = valor == null || valor == REMOVIDO ? null : (V) valor;
+            V novo = alteracao.apply(anterior);
+            if (i >= 0) {
+                // A posição já é desta chave: basta trocar o valor.
+                if (novo != null || anterior != null) {
+                    atual.valores.set(i, novo != null ? novo : REMOVIDO);
+                    vivas.addAndGet((novo != null ? 1 : 0) - (anterior != null ? 1 : 0));
+                }
+                return novo;
+            }
+            if (novo == null) {
+                return null;
+            }
+            // A reserva vem antes da sondagem, para que inserções simultâneas nunca encham a tabela.
+            if (usadas.incrementAndGet() > atual.valores.length() * CARGA_MAXIMA) {
+                usadas.decrementAndGet();
+                reconstrucao.readLock().unlock();
+                reconstrucao.writeLock().lock();
+                try {
+                    atual = tabela;
+                    if (usadas.get() + 1 > atual.valores.length() * CARGA_MAXIMA) {
+                        reconstruir(vivas.get() + 1 > atual.valores.length() * CARGA_MAXIMA / 2
+                                ? atual.valores.length() * 2 : atual.valores.length());
+                        atual = tabela;
+                    }
+                    usadas.incrementAndGet();
+                } finally {
+                    reconstrucao.readLock().lock();
+                    reconstrucao.writeLock().unlock();
+                }
+            }
+            inserir(atual, maisSignificativos, menosSignificativos, hash, novo);
+            vivas.incrementAndGet();
+            return novo;
+        } finally {
+            reconstrucao.readLock().unlock();
+            trava.unlock();
+        }
+    }
+
+    V put(UUID id, V valor) {
+        return alterar(id, atual -> valor);
+    }
+
+    V remove(UUID id) {
+        Object[] anterior = new Object[1];
+        alterar(id, atual -> {
+            anterior[0] = atual;
+            return null;
+        });
+        @SuppressWarnings("unchecked")
+        V removido = (V) anterior[0];
+        return removido;
+    }
+
+    int size() {
+        return vivas.get();
+    }
+
+    void clear() {
+        clear(null);
+    }
+
+    /**
+     * Esvazia o mapa com todas as travas tomadas e roda {@code junto}
+     * (se não for {@code null}) antes de soltá-las, para que quem atualiza
+     * outras estruturas nas funções de {@link #alterar} as esvazie sem que uma
+     * escrita concorrente fique só num dos lados.
+     */
+    void clear(Runnable junto) {
+        for (ReentrantLock trava : travas) {
+            trava.lock();
+        }
+        try {
+            tabela = new Tabela(CAPACIDADE_INICIAL);
+            vivas.set(0);
+            usadas.set(0);
+            if (junto != null) {
+                junto.run();
+            }
+        } finally {
+            for (ReentrantLock trava : travas) {
+                trava.unlock();
+            }
+        }
+    }
+
+    /** Posições da tabela atual, para medir a ocupação. */
+    int capacidade() {
+        return tabela.valores.length();
+    }
+
+    /** Chamado com a parte de escrita de {@link #reconstrucao}: nenhuma outra escrita está em andamento. */
+    private void reconstruir(int capacidade) {
+        Tabela antiga = tabela;
+        Tabela nova = new Tabela(capacidade);
+        for (int i = 0; i < antiga.valores.length(); i++) {
+            Object valor = antiga.valores.get(i);
+            if (valor != null && valor != REMOVIDO) {
+                long maisSignificativos = antiga.chaves[i << 1];
+                long menosSignificativos = antiga.chaves[(i << 1) + 1];
+                int j = (int) misturar(maisSignificativos, menosSignificativos) & nova.mascara;
+                while (nova.valores.get(j) != null) {
+                    j = (j + 1) & nova.mascara;
+                }
+                nova.chaves[j << 1] = maisSignificativos;
+                nova.chaves[(j << 1) + 1] = menosSignificativos;
+                nova.valores.lazySet(j, valor);
+            }
+        }
+        usadas.set(vivas.get());
+        // A escrita volátil publica a tabela nova já preenchida.
+        tabela = nova;
+    }
+
+    /** Posição da chave na tabela (viva ou marcada como removida), ou -1. */
+    private static int procurar(Tabela tabela, long maisSignificativos, long menosSignificativos, long hash) {
+        int mascara = tabela.mascara;
+        for (int i = (int) hash & mascara; ; i = (i + 1) & mascara) {
+            Object valor = tabela.valores.get(i);
+            if (valor == null) {
+                return -1;
+            }
+            if (valor != RESERVADO && tabela.chaves[i << 1] == maisSignificativos
+                    && tabela.chaves[(i << 1) + 1] == menosSignificativos) {
+                return i;
+            }
+        }
+    }
+
+    /** Toma por CAS a primeira posição livre a partir do hash; chamado com uma posição já reservada em {@link #usadas}. */
+    private static void inserir(Tabela tabela, long maisSignificativos, long menosSignificativos, long hash,
+                                Object valor) {
+        int mascara = tabela.mascara;
+        for (int i = (int) hash & mascara; ; i = (i + 1) & mascara) {
+            if (tabela.valores.get(i) == null && tabela.valores.compareAndSet(i, null, RESERVADO)) {
+                tabela.chaves[i << 1] = maisSignificativos;
+                tabela.chaves[(i << 1) + 1] = menosSignificativos;
+                tabela.valores.set(i, valor);
+                return;
+            }
+        }
+    }
+
+    /** Mistura as duas metades (finalizador do MurmurHash3), já que UUIDs de outras versões não são aleatórios em todos os bits. */
+    private static long misturar(long maisSignificativos, long menosSignificativos) {
+        long h = maisSignificativos ^ Long.rotateLeft(menosSignificativos, 32);
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    private static final class Tabela {
+        final long[] chaves;
+        final AtomicReferenceArray<Object> valores;
+        final int mascara;
+
+        Tabela(int capacidade) {
+            this.chaves = new long[capacidade * 2];
+            this.valores = new AtomicReferenceArray<>(capacidade);
+            this.mascara = capacidade - 1;
+        }
+    }
+}
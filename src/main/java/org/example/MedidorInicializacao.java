@@ -0,0 +1,283 @@
+package org.example;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark de inicialização: sobe a aplicação numa JVM nova várias vezes e
+ * mede, a partir do lançamento do processo, o tempo até o primeiro 200 de
+ * {@code GET /hello} (servidor pronto), o tempo até o primeiro 201 de
+ * {@code POST /tarefas} (primeira resposta de tarefa, que passa pelo Jackson)
+ * e o RSS do processo nesse instante, lido de {@code /proc/<pid>/status}
+ * (-1 fora do Linux).
+ *
+ * <p>Cada rodada executa os modos alternados, para que ruído da máquina
+ * afete os dois igualmente: {@code padrao}, sem arquivo de classes, e
+ * {@code arquivo}, com o arquivo de {@code --arquivo} (AppCDS {@code .jsa} ou
+ * cache AOT {@code .aot}) exigido pela JVM, que falha em vez de subir sem
+ * ele. A task {@code inicializacao} do Gradle gera o arquivo e passa
+ * {@code --java}, {@code --classpath} e {@code --arquivo}; opções extras vão em
+ * {@code -Pinicializacao.args}, por exemplo {@code --repeticoes 10 --jvm
+ * -Dinicializacao.aquecer=false}.</p>
+ */
+public class MedidorInicializacao {
+
+    private static final long ESPERA_MAXIMA_NANOS = TimeUnit.SECONDS.toNanos(60);
+    private static final long INTERVALO_SONDAGEM_MS = 5;
+
+    private final Configuracao configuracao;
+    private final HttpClient http = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(1))
+            .build();
+
+    public MedidorInicializacao(Configuracao configuracao) {
+        this.configuracao = configuracao;
+    }
+
+    public static void main(String[] args) throws Exception {
+        Configuracao configuracao = Configuracao.dosArgumentos(args);
+        Map<String, Object> resumo = new MedidorInicializacao(configuracao).executar();
+        if (configuracao.saida != null) {
+            Files.createDirectories(configuracao.saida.toAbsolutePath().getParent());
+            new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT)
+                    .writeValue(configuracao.saida.toFile(), resumo);
+            System.out.println("Resumo gravado em " + configuracao.saida);
+        }
+        System.exit(0);
+    }
+
+    public Map<String, Object> executar() throws IOException, InterruptedException {
+        Map<String, List<String>> modos = new LinkedHashMap<>();
+        modos.put("padrao", List.of());
+        if (configuracao.arquivo != null) {
+            if (Files.exists(configuracao.arquivo)) {
+                modos.put("arquivo", opcoesDoArquivo(configuracao.arquivo));
+            } else {
+                System.out.println("Arquivo de classes não encontrado, medindo só o modo padrão: "
+                        + configuracao.arquivo);
+            }
+        }
+        System.out.printf("Inicialização: %d rodadas de %s, porta %d%n", configuracao.repeticoes,
+                modos.keySet(), configuracao.porta);
+
+        // Também prepara o cliente HTTP deste processo, para que a primeira medida não pague a carga dele.
+        if (sondar("/hello") != -1) {
+            throw new IllegalStateException("Já há um servidor na porta " + configuracao.porta + "; use --porta.");
+        }
+
+        Map<String, List<Medida>> medidas = new LinkedHashMap<>();
+        modos.keySet().forEach(modo -> medidas.put(modo, new ArrayList<>()));
+        for (int rodada = 0; rodada < configuracao.repeticoes; rodada++) {
+            for (Map.Entry<String, List<String>> modo : modos.entrySet()) {
+                Medida medida = medir(modo.getValue());
+                medidas.get(modo.getKey()).add(medida);
+                System.out.printf("  %-8s rodada %d: pronto %d ms, 1ª tarefa %d ms, RSS %d KB%n", modo.getKey(),
+                        rodada + 1, medida.prontoMs, medida.primeiraTarefaMs, medida.rssKb);
+            }
+        }
+
+        Map<String, Object> resumo = new LinkedHashMap<>();
+        resumo.put("repeticoes", configuracao.repeticoes);
+        resumo.put("java", configuracao.java);
+        resumo.put("opcoesJvm", configuracao.jvm);
+        Map<String, Object> porModo = new LinkedHashMap<>();
+        medidas.forEach((modo, lista) -> porModo.put(modo, resumir(lista)));
+        resumo.put("modos", porModo);
+        imprimir(porModo);
+        return resumo;
+    }
+
+    static List<String> opcoesDoArquivo(Path arquivo) {
+        String caminho = arquivo.toAbsolutePath().toString();
+        return caminho.endsWith(".aot")
+                ? List.of("-XX:AOTMode=on", "-XX:AOTCache=" + caminho)
+                : List.of("-Xshare:on", "-XX:SharedArchiveFile=" + caminho);
+    }
+
+    private Medida medir(List<String> opcoesModo) throws IOException, InterruptedException {
+        List<String> comando = new ArrayList<>();
+        comando.add(configuracao.java);
+        comando.addAll(opcoesModo);
+        comando.addAll(configuracao.jvm);
+        comando.add("-Dservidor.porta=" + configuracao.porta);
+        comando.add("-cp");
+        comando.add(configuracao.classpath);
+        comando.add("org.example.AplicacaoPrincipal");
+
+        long inicio = System.nanoTime();
+        Process processo = new ProcessBuilder(comando)
+                .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                .redirectError(ProcessBuilder.Redirect.DISCARD)
+                .start();
+        try {
+            while (sondar("/hello") != 200) {
+                if (!processo.isAlive()) {
+                    throw new IllegalStateException("A aplicação encerrou antes de responder (código "
+                            + processo.exitValue() + "): " + String.join(" ", comando));
+                }
+                if (System.nanoTime() - inicio > ESPERA_MAXIMA_NANOS) {
+                    throw new IllegalStateException("A aplicação não respondeu em 60 s: " + String.join(" ", comando));
+                }
+                Thread.sleep(INTERVALO_SONDAGEM_MS);
+            }
+            long pronto = System.nanoTime() - inicio;
+            HttpResponse<Void> criada = http.send(HttpRequest.newBuilder(URI.create(url("/tarefas")))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString("{\"titulo\":\"Primeira tarefa\"}"))
+                    .build(), HttpResponse.BodyHandlers.discarding());
+            long primeiraTarefa = System.nanoTime() - inicio;
+            if (criada.statusCode() != 201) {
+                throw new IllegalStateException("POST /tarefas respondeu " + criada.statusCode());
+            }
+            return new Medida(TimeUnit.NANOSECONDS.toMillis(pronto), TimeUnit.NANOSECONDS.toMillis(primeiraTarefa),
+                    rssKb(processo.pid()));
+        } finally {
+            processo.destroy();
+            if (!processo.waitFor(10, TimeUnit.SECONDS)) {
+                processo.destroyForcibly().waitFor();
+            }
+        }
+    }
+
+    /** Status de um GET, ou -1 se a conexão falhou. */
+    private int sondar(String caminho) throws InterruptedException {
+        try {
+            return http.send(HttpRequest.newBuilder(URI.create(url(caminho))).build(),
+                    HttpResponse.BodyHandlers.discarding()).statusCode();
+        } catch (IOException e) {
+            return -1;
+        }
+    }
+
+    private String url(String caminho) {
+        return "http://localhost:" + configuracao.porta + caminho;
+    }
+
+    static long rssKb(long pid) {
+        Path status = Path.of("/proc", Long.toString(pid), "status");
+        try {
+            for (String linha : Files.readAllLines(status)) {
+                if (linha.startsWith("VmRSS:")) {
+                    return Long.parseLong(linha.substring("VmRSS:".length()).replace("kB", "").trim());
+                }
+            }
+        } catch (IOException e) {
+            // Fora do Linux não há /proc.
+        }
+        return -1;
+    }
+
+    private static Map<String, Object> resumir(List<Medida> medidas) {
+        long[] pronto = medidas.stream().mapToLong(m -> m.prontoMs).sorted().toArray();
+        long[] primeiraTarefa = medidas.stream().mapToLong(m -> m.primeiraTarefaMs).sorted().toArray();
+        long[] rss = medidas.stream().mapToLong(m -> m.rssKb).sorted().toArray();
+        Map<String, Object> dados = new LinkedHashMap<>();
+        dados.put("prontoMs", estatisticas(pronto));
+        dados.put("primeiraTarefaMs", estatisticas(primeiraTarefa));
+        dados.put("rssKb", estatisticas(rss));
+        return dados;
+    }
+
+    private static Map<String, Object> estatisticas(long[] ordenados) {
+        Map<String, Object> dados = new LinkedHashMap<>();
+        dados.put("mediana", ordenados[ordenados.length / 2]);
+        dados.put("min", ordenados[0]);
+        dados.put("max", ordenados[ordenados.length - 1]);
+        dados.put("valores", Arrays.stream(ordenados).boxed().toList());
+        return dados;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void imprimir(Map<String, Object> porModo) {
+        System.out.printf("%-8s %22s %22s %22s%n", "modo", "pronto ms (med/min/max)",
+                "1ª tarefa ms", "RSS MB");
+        porModo.forEach((modo, dados) -> {
+            Map<String, Map<String, Object>> medidas = (Map<String, Map<String, Object>>) dados;
+            Map<String, Object> pronto = medidas.get("prontoMs");
+            Map<String, Object> tarefa = medidas.get("primeiraTarefaMs");
+            Map<String, Object> rss = medidas.get("rssKb");
+            System.out.printf("%-8s %22s %22s %22s%n", modo,
+                    pronto.get("mediana") + " / " + pronto.get("min") + " / " + pronto.get("max"),
+                    tarefa.get("mediana") + " / " + tarefa.get("min") + " / " + tarefa.get("max"),
+                    (long) rss.get("mediana") / 1024 + " / " + (long) rss.get("min") / 1024
+                            + " / " + (long) rss.get("max") / 1024);
+        });
+    }
+
+    private static final class Medida {
+        final long prontoMs;
+        final long primeiraTarefaMs;
+        final long rssKb;
+
+        Medida(long prontoMs, long primeiraTarefaMs, long rssKb) {
+            this.prontoMs = prontoMs;
+            this.primeiraTarefaMs = primeiraTarefaMs;
+            this.rssKb = rssKb;
+        }
+    }
+
+    public static class Configuracao {
+        String java = ProcessHandle.current().info().command().orElse("java");
+        String classpath = System.getProperty("java.class.path");
+        Path arquivo;
+        int repeticoes = 5;
+        int porta = 7411;
+        List<String> jvm = new ArrayList<>();
+        Path saida;
+
+        public static Configuracao dosArgumentos(String[] args) {
+            Configuracao configuracao = new Configuracao();
+            for (int i = 0; i < args.length; i++) {
+                String nome = args[i];
+                if (i + 1 >= args.length) {
+                    throw new IllegalArgumentException("Falta o valor de " + nome);
+                }
+                String valor = args[++i];
+                switch (nome) {
+                    case "--java":
+                        configuracao.java = valor;
+                        break;
+                    case "--classpath":
+                        configuracao.classpath = valor;
+                        break;
+                    case "--arquivo":
+                        configuracao.arquivo = Path.of(valor);
+                        break;
+                    case "--repeticoes":
+                        configuracao.repeticoes = Integer.parseInt(valor);
+                        break;
+                    case "--porta":
+                        configuracao.porta = Integer.parseInt(valor);
+                        break;
+                    case "--jvm":
+                        configuracao.jvm.add(valor);
+                        break;
+                    case "--saida":
+                        configuracao.saida = Path.of(valor);
+                        break;
+                    default:
+                        throw new IllegalArgumentException("Opção desconhecida: " + nome);
+                }
+            }
+            if (configuracao.repeticoes < 1) {
+                throw new IllegalArgumentException("--repeticoes deve ser ao menos 1.");
+            }
+            return configuracao;
+        }
+    }
+}
@@ -0,0 +1,332 @@
+package org.example;
+
+import io.javalin.Javalin;
+import io.javalin.config.JavalinConfig;
+import io.javalin.http.Context;
+import io.javalin.http.HandlerType;
+import io.javalin.json.JavalinJackson;
+import io.javalin.json.JsonMapper;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryUsage;
+import java.lang.reflect.Type;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+/**
+ * Métricas do servidor: contagem de requisições por rota e classe de status,
+ * histograma de latência por rota, requisições em andamento, tamanho do
+ * armazenamento, tempo de serialização JSON e dados de heap/GC da JVM.
+ * Exportadas em {@code /metrics} no formato texto do Prometheus e resumidas
+ * no {@code /status}.
+ * <p>
+ * A duração vem do request logger do Javalin, que já marca o início de cada
+ * requisição; registrar é só uma busca num mapa pelo caminho da rota (a mesma
+ * String a cada requisição) e incrementos em {@link LongAdder}, sem travas nem
+ * alocação.
+ */
+public class MetricasServidor {
+
+    public static final String CONTENT_TYPE_PROMETHEUS = "text/plain; version=0.0.4; charset=utf-8";
+
+    /** Rótulo das requisições que não casaram com nenhuma rota (404, 503 do limitador). */
+    static final String SEM_ROTA = "sem_rota";
+
+    /*
+     * Os três histogramas de serialização valem para a JVM inteira, como os
+     * dados de heap e GC: o JSON guardado numa Tarefa é gerado uma vez e
+     * servido por qualquer servidor que a liste, e FormatoCorpo é chamado sem
+     * saber de qual servidor é a requisição. Com vários ServidorTarefas no
+     * mesmo processo, cada /metrics mostra a soma de todos.
+     */
+    /** Tarefa para bytes JSON, medido só quando a tarefa ainda não tinha o JSON guardado. */
+    static final HistogramaLatencia SERIALIZACAO_TAREFA = new HistogramaLatencia();
+    /** ctx.json(...) nas respostas que não são tarefas. */
+    static final HistogramaLatencia SERIALIZACAO_RESPOSTA = new HistogramaLatencia();
+    /** ctx.bodyAsClass(...) nos corpos das requisições. */
+    static final HistogramaLatencia DESSERIALIZACAO_REQUISICAO = new HistogramaLatencia();
+
+    private final TarefaRepositoryVersionado tarefas;
+    private final ConcurrentHashMap<String, MetricasRota>[] rotasPorMetodo;
+    private final LongAdder emAndamento = new LongAdder();
+    private final JavalinJackson jackson = new JavalinJackson();
+
+    @SuppressWarnings("unchecked")
+    public MetricasServidor(TarefaRepositoryVersionado tarefas) {
+        this.tarefas = tarefas;
+        this.rotasPorMetodo = (ConcurrentHashMap<String, MetricasRota>[])
+                new ConcurrentHashMap<?, ?>[HandlerType.values().length];
+        for (int i = 0; i < rotasPorMetodo.length; i++) {
+            rotasPorMetodo[i] = new ConcurrentHashMap<>();
+        }
+    }
+
+    /**
+     * Liga o JsonMapper medido; chamar dentro de {@code Javalin.create}. O
+     * request logger do Javalin é um só, então quem configura o servidor chama
+     * {@link #registrar(Context, Float)} de dentro dele.
+     */
+    public void configurar(JavalinConfig config) {
+        config.jsonMapper(new JsonMapperMedido(jackson));
+    }
+
+    /** O JsonMapper do Javalin sem a medição, para {@link AquecimentoJackson}. */
+    JsonMapper jsonMapper() {
+        return jackson;
+    }
+
+    /** Registra os handlers de contagem e a rota {@code GET /metrics}. */
+    public void instalar(Javalin app) {
+        app.before(ctx -> emAndamento.increment());
+        app.beforeMatched(ctx -> rota(ctx.handlerType(), ctx.matchedPath()).emAndamento.increment());
+        app.get("/metrics", ctx -> ctx.contentType(CONTENT_TYPE_PROMETHEUS).result(exportar()));
+    }
+
+    /** Fim de uma requisição, chamado pelo request logger com a duração medida pelo Javalin. */
+    public void registrar(Context ctx, Float duracaoMs) {
+        emAndamento.decrement();
+        HandlerType tipo = ctx.handlerType();
+        long duracaoNanos = (long) (duracaoMs * 1_000_000.0);
+        if (tipo.isHttpMethod()) {
+            MetricasRota rota = rota(tipo, ctx.matchedPath());
+            rota.emAndamento.decrement();
+            rota.registrar(ctx.statusCode(), duracaoNanos);
+        } else {
+            registrar(ctx.method(), SEM_ROTA, ctx.statusCode(), duracaoNanos);
+        }
+    }
+
+    void registrar(HandlerType metodo, String caminho, int status, long duracaoNanos) {
+        rota(metodo, caminho).registrar(status, duracaoNanos);
+    }
+
+    private MetricasRota rota(HandlerType metodo, String caminho) {
+        ConcurrentHashMap<String, MetricasRota> rotas = rotasPorMetodo[metodo.ordinal()];
+        MetricasRota rota = rotas.get(caminho);
+        if (rota == null) {
+            rota = rotas.computeIfAbsent(caminho, c -> new MetricasRota(metodo.name(), c));
+        }
+        return rota;
+    }
+
+    public long requisicoes() {
+        long total = 0;
+        for (ConcurrentHashMap<String, MetricasRota> rotas : rotasPorMetodo) {
+            for (MetricasRota rota : rotas.values()) {
+                total += rota.total();
+            }
+        }
+        return total;
+    }
+
+    public long emAndamento() {
+        return emAndamento.sum();
+    }
+
+    /** Resumo para o {@code /status}. */
+    public Map<String, Object> resumo() {
+        MemoryUsage heap = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage();
+        long coletas = 0;
+        long tempoColetasMs = 0;
+        for (GarbageCollectorMXBean coletor : ManagementFactory.getGarbageCollectorMXBeans()) {
+            coletas += Math.max(0, coletor.getCollectionCount());
+            tempoColetasMs += Math.max(0, coletor.getCollectionTime());
+        }
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("status", "ok");
+        status.put("timestamp", LocalDateTime.now().format(DateTimeFormatter.ISO_DATE_TIME));
+        status.put("tempoAtivoSegundos", ManagementFactory.getRuntimeMXBean().getUptime() / 1000);
+        status.put("tarefas", tarefas.tamanho());
+        status.put("versaoTarefas", tarefas.versao());
+        status.put("assinantesFeed", tarefas.feed().quantidadeAssinantes());
+        if (tarefas.delegado() instanceof TarefaRepositoryRetencao) {
+            status.put("retencao", ((TarefaRepositoryRetencao) tarefas.delegado()).resumo());
+        }
+        status.put("requisicoes", requisicoes());
+        status.put("requisicoesEmAndamento", emAndamento());
+        status.put("heapUsadoBytes", heap.getUsed());
+        status.put("heapMaximoBytes", heap.getMax());
+        status.put("coletasGc", coletas);
+        status.put("tempoGcMs", tempoColetasMs);
+        status.put("threads", ManagementFactory.getThreadMXBean().getThreadCount());
+        return status;
+    }
+
+    /** Todas as métricas no formato texto do Prometheus. */
+    public String exportar() {
+        StringBuilder saida = new StringBuilder(8 * 1024);
+        Map<String, MetricasRota> rotas = new TreeMap<>();
+        for (ConcurrentHashMap<String, MetricasRota> porCaminho : rotasPorMetodo) {
+            for (MetricasRota rota : porCaminho.values()) {
+                rotas.put(rota.caminho + " " + rota.metodo, rota);
+            }
+        }
+
+        cabecalho(saida, "http_requisicoes_total", "counter", "Requisições atendidas por rota e classe de status.");
+        for (MetricasRota rota : rotas.values()) {
+            for (int i = 0; i < rota.porStatus.length; i++) {
+                long quantidade = rota.porStatus[i].sum();
+                if (quantidade > 0) {
+                    saida.append("http_requisicoes_total{").append(rota.rotulos)
+                            .append(",status=\"").append(i + 1).append("xx\"} ").append(quantidade).append('\n');
+                }
+            }
+        }
+        cabecalho(saida, "http_requisicao_duracao_segundos", "histogram", "Duração das requisições por rota.");
+        for (MetricasRota rota : rotas.values()) {
+            rota.latencia.escreverPrometheus(saida, "http_requisicao_duracao_segundos", rota.rotulos);
+        }
+        cabecalho(saida, "http_requisicoes_em_andamento", "gauge", "Requisições sendo atendidas por rota.");
+        for (MetricasRota rota : rotas.values()) {
+            if (!rota.caminho.equals(SEM_ROTA)) {
+                saida.append("http_requisicoes_em_andamento{").append(rota.rotulos).append("} ")
+                        .append(rota.emAndamento.sum()).append('\n');
+            }
+        }
+        cabecalho(saida, "http_requisicoes_em_andamento_total", "gauge",
+                "Requisições sendo atendidas, incluindo as que esperam no limitador.");
+        saida.append("http_requisicoes_em_andamento_total ").append(emAndamento()).append('\n');
+
+        cabecalho(saida, "serializacao_duracao_segundos", "histogram", "Tempo de serialização e leitura de JSON, somado entre os servidores da JVM.");
+        SERIALIZACAO_TAREFA.escreverPrometheus(saida, "serializacao_duracao_segundos", "tipo=\"tarefa\"");
+        SERIALIZACAO_RESPOSTA.escreverPrometheus(saida, "serializacao_duracao_segundos", "tipo=\"resposta\"");
+        DESSERIALIZACAO_REQUISICAO.escreverPrometheus(saida, "serializacao_duracao_segundos", "tipo=\"requisicao\"");
+
+        cabecalho(saida, "tarefas_armazenadas", "gauge", "Tarefas no armazenamento.");
+        saida.append("tarefas_armazenadas ").append(tarefas.tamanho()).append('\n');
+        cabecalho(saida, "tarefas_versao", "counter", "Escritas aplicadas ao armazenamento desde o início.");
+        saida.append("tarefas_versao ").append(tarefas.versao()).append('\n');
+        cabecalho(saida, "feed_assinantes", "gauge", "Conexões SSE/WebSocket abertas no feed de alterações.");
+        saida.append("feed_assinantes ").append(tarefas.feed().quantidadeAssinantes()).append('\n');
+
+        exportarJvm(saida);
+        return saida.toString();
+    }
+
+    private static void exportarJvm(StringBuilder saida) {
+        MemoryUsage heap = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage();
+        cabecalho(saida, "jvm_memoria_heap_bytes", "gauge", "Heap da JVM.");
+        saida.append("jvm_memoria_heap_bytes{area=\"usada\"} ").append(heap.getUsed()).append('\n');
+        saida.append("jvm_memoria_heap_bytes{area=\"comprometida\"} ").append(heap.getCommitted()).append('\n');
+        saida.append("jvm_memoria_heap_bytes{area=\"maxima\"} ").append(heap.getMax()).append('\n');
+
+        cabecalho(saida, "jvm_gc_coletas_total", "counter", "Coletas de lixo por coletor.");
+        for (GarbageCollectorMXBean coletor : ManagementFactory.getGarbageCollectorMXBeans()) {
+            saida.append("jvm_gc_coletas_total{coletor=\"").append(escapar(coletor.getName())).append("\"} ")
+                    .append(Math.max(0, coletor.getCollectionCount())).append('\n');
+        }
+        cabecalho(saida, "jvm_gc_duracao_segundos_total", "counter", "Tempo gasto em coletas de lixo por coletor.");
+        for (GarbageCollectorMXBean coletor : ManagementFactory.getGarbageCollectorMXBeans()) {
+            saida.append("jvm_gc_duracao_segundos_total{coletor=\"").append(escapar(coletor.getName())).append("\"} ")
+                    .append(Math.max(0, coletor.getCollectionTime()) / 1000.0).append('\n');
+        }
+        cabecalho(saida, "jvm_threads", "gauge", "Threads de plataforma vivas.");
+        saida.append("jvm_threads ").append(ManagementFactory.getThreadMXBean().getThreadCount()).append('\n');
+        cabecalho(saida, "processo_tempo_ativo_segundos", "gauge", "Tempo desde o início da JVM.");
+        saida.append("processo_tempo_ativo_segundos ")
+                .append(ManagementFactory.getRuntimeMXBean().getUptime() / 1000.0).append('\n');
+    }
+
+    private static void cabecalho(StringBuilder saida, String nome, String tipo, String ajuda) {
+        saida.append("# HELP ").append(nome).append(' ').append(ajuda).append('\n');
+        saida.append("# TYPE ").append(nome).append(' ').append(tipo).append('\n');
+    }
+
+    private static String escapar(String valor) {
+        return valor.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+
+    private static final class MetricasRota {
+        final String metodo;
+        final String caminho;
+        final String rotulos;
+        final LongAdder[] porStatus = new LongAdder[5];
+        final HistogramaLatencia latencia = new HistogramaLatencia();
+        final LongAdder emAndamento = new LongAdder();
+
+        MetricasRota(String metodo, String caminho) {
+            this.metodo = metodo;
+            this.caminho = caminho;
+            this.rotulos = "metodo=\"" + metodo + "\",rota=\"" + escapar(caminho) + "\"";
+            for (int i = 0; i < porStatus.length; i++) {
+                porStatus[i] = new LongAdder();
+            }
+        }
+
+        void registrar(int status, long duracaoNanos) {
+            int classe = Math.min(Math.max(status / 100, 1), 5) - 1;
+            porStatus[classe].increment();
+            latencia.registrar(duracaoNanos);
+        }
+
+        long total() {
+            long total = 0;
+            for (LongAdder quantidade : porStatus) {
+                total += quantidade.sum();
+            }
+            return total;
+        }
+    }
+
+    /** Repassa ao JsonMapper do Javalin medindo o tempo de cada conversão. */
+    private static final class JsonMapperMedido implements JsonMapper {
+        private final JsonMapper delegado;
+
+        JsonMapperMedido(JsonMapper delegado) {
+            this.delegado = delegado;
+        }
+
+        @Override
+        public String toJsonString(Object obj, Type type) {
+            long inicio = System.nanoTime();
+            try {
+                return delegado.toJsonString(obj, type);
+            } finally {
+                SERIALIZACAO_RESPOSTA.registrar(System.nanoTime() - inicio);
+            }
+        }
+
+        @Override
+        public InputStream toJsonStream(Object obj, Type type) {
+            long inicio = System.nanoTime();
+            try {
+                return delegado.toJsonStream(obj, type);
+            } finally {
+                SERIALIZACAO_RESPOSTA.registrar(System.nanoTime() - inicio);
+            }
+        }
+
+        @Override
+        public void writeToOutputStream(Stream<?> stream, OutputStream outputStream) {
+            delegado.writeToOutputStream(stream, outputStream);
+        }
+
+        @Override
+        public <T> T fromJsonString(String json, Type targetType) {
+            long inicio = System.nanoTime();
+            try {
+                return delegado.fromJsonString(json, targetType);
+            } finally {
+                DESSERIALIZACAO_REQUISICAO.registrar(System.nanoTime() - inicio);
+            }
+        }
+
+        @Override
+        public <T> T fromJsonStream(InputStream json, Type targetType) {
+            long inicio = System.nanoTime();
+            try {
+                return delegado.fromJsonStream(json, targetType);
+            } finally {
+                DESSERIALIZACAO_REQUISICAO.registrar(System.nanoTime() - inicio);
+            }
+        }
+    }
+}
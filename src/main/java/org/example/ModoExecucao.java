@@ -0,0 +1,25 @@
+package org.example;
+
+import java.util.Locale;
+
+/**
+ * Onde os handlers HTTP rodam: no pool de threads de plataforma do Jetty
+ * (padrão) ou em virtual threads.
+ */
+public enum ModoExecucao {
+    PLATAFORMA,
+    VIRTUAL;
+
+    public static ModoExecucao doSistema() {
+        String modo = System.getProperty("servidor.threads", "plataforma");
+        switch (modo.toLowerCase(Locale.ROOT)) {
+            case "plataforma":
+                return PLATAFORMA;
+            case "virtuais":
+            case "virtual":
+                return VIRTUAL;
+            default:
+                throw new IllegalArgumentException("Modo de execução desconhecido: " + modo);
+        }
+    }
+}
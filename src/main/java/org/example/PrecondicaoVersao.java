@@ -0,0 +1,72 @@
+package org.example;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Header If-Match de PUT, PATCH e DELETE em /tarefas/{id}. Aceita {@code *},
+ * uma lista de ETags separadas por vírgula e o prefixo {@code W/}. Sem o
+ * header a alteração é incondicional.
+ */
+public final class PrecondicaoVersao {
+
+    private static final PrecondicaoVersao NENHUMA = new PrecondicaoVersao(false, List.of());
+
+    private final boolean qualquer;
+    private final List<String> etags;
+
+    private PrecondicaoVersao(boolean qualquer, List<String> etags) {
+        this.qualquer = qualquer;
+        this.etags = etags;
+    }
+
+    public static PrecondicaoVersao doHeader(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank()) {
+            return NENHUMA;
+        }
+        List<String> etags = new ArrayList<>();
+        for (String parte : ifMatch.split(",")) {
+            String etag = parte.trim();
+            if (etag.equals("*")) {
+                return new PrecondicaoVersao(true, List.of());
+            }
+            if (etag.startsWith("W/")) {
+                etag = etag.substring(2);
+            }
+            if (!etag.isEmpty()) {
+                etags.add(etag.startsWith("\"") ? etag : "\"" + etag + "\"");
+            }
+        }
+        return new PrecondicaoVersao(false, etags);
+    }
+
+    /**
+     * Confere a versão atual dentro de {@link TarefaRepository#alterar}, para
+     * que a comparação e a gravação sejam atômicas.
+     *
+     * @throws VersaoConflitanteException se a versão atual não corresponder
+     */
+    public void exigir(Tarefa atual) {
+        if (qualquer || etags.isEmpty()) {
+            return;
+        }
+        if (!etags.contains(atual.etag())) {
+            throw new VersaoConflitanteException(atual.getVersao());
+        }
+    }
+
+    public static class VersaoConflitanteException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        private final long versaoAtual;
+
+        public VersaoConflitanteException(long versaoAtual) {
+            super("A tarefa foi alterada por outra requisição (versão atual: " + versaoAtual + ").", null, false, false);
+            this.versaoAtual = versaoAtual;
+        }
+
+        public long getVersaoAtual() {
+            return versaoAtual;
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package org.example;
+
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Avaliação de If-None-Match e If-Modified-Since para responder 304 Not
+ * Modified nos GETs de tarefas. Como manda a RFC 9110, If-Modified-Since só é
+ * considerado quando não há If-None-Match.
+ *
+ * <p>As datas HTTP têm resolução de um segundo: duas escritas no mesmo
+ * segundo têm o mesmo Last-Modified. Por isso, enquanto o segundo da última
+ * escrita não termina, a resposta leva só o ETag ({@link #segundoEncerrado}) e
+ * If-Modified-Since sozinho não gera 304.</p>
+ */
+public final class RequisicaoCondicional {
+
+    private static volatile DataFormatada ultimaData = new DataFormatada(-1, null);
+
+    private RequisicaoCondicional() {
+    }
+
+    /**
+     * Se a resposta pode ser 304.
+     *
+     * @param ultimaAlteracao epoch em ms da última escrita
+     * @param agora           epoch em ms do atendimento
+     */
+    public static boolean naoModificado(String ifNoneMatch, String ifModifiedSince, String etag,
+                                        long ultimaAlteracao, long agora) {
+        if (ifNoneMatch != null) {
+            for (String parte : ifNoneMatch.split(",")) {
+                String candidata = parte.trim();
+                if (candidata.startsWith("W/")) {
+                    candidata = candidata.substring(2);
+                }
+                if (candidata.equals("*") || candidata.equals(etag)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        if (ifModifiedSince != null && segundoEncerrado(ultimaAlteracao, agora)) {
+            try {
+                long desde = ZonedDateTime.parse(ifModifiedSince, DateTimeFormatter.RFC_1123_DATE_TIME).toEpochSecond();
+                return ultimaAlteracao / 1000 <= desde;
+            } catch (DateTimeParseException e) {
+                return false;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Se o segundo da última escrita já terminou, ou seja, se nenhuma escrita
+     * futura pode ter o mesmo Last-Modified. Só então o Last-Modified é enviado.
+     */
+    public static boolean segundoEncerrado(long ultimaAlteracao, long agora) {
+        return ultimaAlteracao / 1000 < agora / 1000;
+    }
+
+    /**
+     * Data no formato HTTP (RFC 1123), com precisão de segundos. A última data
+     * formatada é reaproveitada, já que quase todas as respostas usam a mesma.
+     */
+    public static String formatarData(long epochMillis) {
+        long segundo = epochMillis / 1000;
+        DataFormatada data = ultimaData;
+        if (data.segundo != segundo) {
+            data = new DataFormatada(segundo, DateTimeFormatter.RFC_1123_DATE_TIME
+                    .format(Instant.ofEpochSecond(segundo).atZone(ZoneOffset.UTC)));
+            ultimaData = data;
+        }
+        return data.texto;
+    }
+
+    private static final class DataFormatada {
+        final long segundo;
+        final String texto;
+
+        DataFormatada(long segundo, String texto) {
+            this.segundo = segundo;
+            this.texto = texto;
+        }
+    }
+}
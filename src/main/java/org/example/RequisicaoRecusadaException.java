@@ -0,0 +1,39 @@
+package org.example;
+
+import io.javalin.Javalin;
+import io.javalin.http.HttpStatus;
+import java.util.Map;
+
+/**
+ * Recusa de um limitador (429 ou 503). Os limitadores lançam esta exceção em
+ * vez de chamar {@code ctx.skipRemainingHandlers()}: no Javalin 6 pular os
+ * handlers descarta também os {@code after}, e é neles que
+ * {@link LimitadorConcorrencia} e {@link LimitadorAdaptativo} devolvem as
+ * vagas. Com a exceção, os {@code before} e o endpoint restantes são pulados,
+ * mas os {@code after} continuam rodando.
+ */
+final class RequisicaoRecusadaException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final HttpStatus status;
+    private final String retryAfter;
+
+    /** @param retryAfter segundos para o header Retry-After, ou {@code null} para não enviá-lo */
+    RequisicaoRecusadaException(HttpStatus status, String retryAfter, String mensagem) {
+        super(mensagem, null, false, false);
+        this.status = status;
+        this.retryAfter = retryAfter;
+    }
+
+    /** Registra a resposta da recusa; pode ser chamado por mais de um limitador. */
+    static void instalar(Javalin app) {
+        app.exception(RequisicaoRecusadaException.class, (e, ctx) -> {
+            ctx.status(e.status);
+            if (e.retryAfter != null) {
+                ctx.header("Retry-After", e.retryAfter);
+            }
+            ctx.json(Map.of("erro", e.getMessage()));
+        });
+    }
+}
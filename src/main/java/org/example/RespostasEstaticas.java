@@ -0,0 +1,113 @@
+package org.example;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * Corpos já codificados de /hello, /status e /saudacao/{nome}. O handler só
+ * entrega o array de bytes guardado, sem montar Map, formatar data nem passar
+ * pelo Jackson a cada requisição.
+ *
+ * <p>O corpo do /status é refeito no máximo uma vez por intervalo (o "relógio"
+ * do timestamp anda nesse passo), por uma única thread; as demais continuam
+ * servindo o corpo anterior enquanto isso. As saudações ficam num
+ * {@link CacheLru} por nome.</p>
+ */
+public final class RespostasEstaticas {
+
+    public static final long INTERVALO_STATUS_PADRAO_MS = 1000;
+    public static final int CAPACIDADE_SAUDACOES_PADRAO = 10_000;
+
+    /** Nomes maiores que isso geram a saudação sem passar pelo cache. */
+    static final int TAMANHO_MAXIMO_NOME = 256;
+
+    private static final byte[] HELLO = "Hello, Javalin!".getBytes(StandardCharsets.UTF_8);
+    /**
+     * Corpo do 400 para IDs de tarefa inválidos, que podem chegar em rajadas.
+     * Escrito à mão para que carregar esta classe não carregue o Jackson.
+     */
+    static final byte[] ERRO_UUID_INVALIDO = "{\"erro\":\"O ID fornecido não é um formato UUID válido.\"}"
+            .getBytes(StandardCharsets.UTF_8);
+
+    private final Supplier<Map<String, Object>> status;
+    private final long intervaloStatusMs;
+    private final AtomicBoolean atualizandoStatus = new AtomicBoolean();
+    private volatile CorpoStatus corpoStatus;
+    private final CacheLru<String, byte[]> saudacoes;
+
+    public RespostasEstaticas(Supplier<Map<String, Object>> status, long intervaloStatusMs, int capacidadeSaudacoes) {
+        this.status = status;
+        this.intervaloStatusMs = intervaloStatusMs;
+        this.saudacoes = new CacheLru<>(capacidadeSaudacoes);
+    }
+
+    public byte[] hello() {
+        return HELLO;
+    }
+
+    public byte[] status() {
+        CorpoStatus atual = corpoStatus;
+        long agora = System.currentTimeMillis();
+        if (atual == null) {
+            return atualizarStatus(agora);
+        }
+        if (agora >= atual.validoAte && atualizandoStatus.compareAndSet(false, true)) {
+            try {
+                return atualizarStatus(agora);
+            } finally {
+                atualizandoStatus.set(false);
+            }
+        }
+        return atual.corpo;
+    }
+
+    private byte[] atualizarStatus(long agora) {
+        CorpoStatus novo = new CorpoStatus(json(status.get()), agora + intervaloStatusMs);
+        corpoStatus = novo;
+        return novo.corpo;
+    }
+
+    public byte[] saudacao(String nome) {
+        if (nome.length() > TAMANHO_MAXIMO_NOME) {
+            return criarSaudacao(nome);
+        }
+        return saudacoes.buscarOuCriar(nome, RespostasEstaticas::criarSaudacao);
+    }
+
+    int saudacoesEmCache() {
+        return saudacoes.tamanho();
+    }
+
+    private static byte[] criarSaudacao(String nome) {
+        return json(Map.of("mensagem", "Olá, " + nome + "!"));
+    }
+
+    private static byte[] json(Object valor) {
+        try {
+            return EscritorJson.WRITER.writeValueAsBytes(valor);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /** Criado no primeiro status ou saudação, não ao carregar a classe. */
+    private static final class EscritorJson {
+        static final ObjectWriter WRITER = new ObjectMapper().writer();
+    }
+
+    private static final class CorpoStatus {
+        final byte[] corpo;
+        final long validoAte;
+
+        CorpoStatus(byte[] corpo, long validoAte) {
+            this.corpo = corpo;
+            this.validoAte = validoAte;
+        }
+    }
+}
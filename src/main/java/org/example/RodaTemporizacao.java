@@ -0,0 +1,127 @@
+package org.example;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Roda de temporização hierárquica (no estilo dos timers do kernel Linux):
+ * {@value #NIVEIS} níveis de {@value #POSICOES} posições, cada nível com
+ * posições 64 vezes mais largas que o anterior. Agendar e vencer custam O(1);
+ * a cada volta completa de um nível, a posição correspondente do nível de
+ * cima é redistribuída nos níveis de baixo. Com tick de 1 s o alcance é de
+ * cerca de 194 dias; prazos mais distantes ficam na última posição e são
+ * reagendados quando ela vence.
+ *
+ * <p>Não é thread-safe: é usada só pela thread de manutenção de
+ * {@link TarefaRepositoryRetencao}. Cancelamentos não existem; quem recebe o
+ * vencimento confere se o item ainda vale.</p>
+ */
+final class RodaTemporizacao<T> {
+
+    static final int NIVEIS = 4;
+    static final int POSICOES = 64;
+    private static final int BITS = 6;
+    private static final int MASCARA = POSICOES - 1;
+    private static final long ALCANCE = 1L << (BITS * NIVEIS);
+
+    private final long tickMs;
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private final List<Agendamento<T>>[][] posicoes = new List[NIVEIS][POSICOES];
+    private long tickAtual;
+    private int tamanho;
+
+    RodaTemporizacao(long tickMs, long agoraMs) {
+        this.tickMs = tickMs;
+        this.tickAtual = agoraMs / tickMs;
+    }
+
+    /** Agenda {@code item} para vencer em {@code prazoMs} (epoch), arredondado para o tick seguinte. */
+    void agendar(T item, long prazoMs) {
+        inserir(new Agendamento<>(item, (prazoMs + tickMs - 1) / tickMs), tickAtual + 1);
+        tamanho++;
+    }
+
+    /**
+     * Avança até {@code agoraMs}, entregando a {@code vencidos} cada item cujo
+     * prazo passou. O custo é proporcional aos ticks percorridos e aos itens
+     * vencidos ou redistribuídos, nunca ao total agendado.
+     */
+    void avancar(long agoraMs, Consumer<T> vencidos) {
+        long alvo = agoraMs / tickMs;
+        while (tickAtual < alvo) {
+            tickAtual++;
+            int indice = (int) (tickAtual & MASCARA);
+            if (indice == 0) {
+                cascatear(1);
+            }
+            List<Agendamento<T>> posicao = posicoes[0][indice];
+            if (posicao == null || posicao.isEmpty()) {
+                continue;
+            }
+            posicoes[0][indice] = null;
+            for (Agendamento<T> agendamento : posicao) {
+                if (agendamento.prazoTick <= tickAtual) {
+                    tamanho--;
+                    vencidos.accept(agendamento.item);
+                } else {
+                    inserir(agendamento, tickAtual + 1);
+                }
+            }
+        }
+    }
+
+    /** Itens agendados, inclusive os que o dono já não considera válidos. */
+    int tamanho() {
+        return tamanho;
+    }
+
+    private void cascatear(int nivel) {
+        if (nivel >= NIVEIS) {
+            return;
+        }
+        int indice = (int) ((tickAtual >>> (BITS * nivel)) & MASCARA);
+        if (indice == 0) {
+            cascatear(nivel + 1);
+        }
+        List<Agendamento<T>> posicao = posicoes[nivel][indice];
+        if (posicao == null) {
+            return;
+        }
+        posicoes[nivel][indice] = null;
+        // O tick atual ainda vai ser processado no nível 0, logo após a redistribuição.
+        for (Agendamento<T> agendamento : posicao) {
+            inserir(agendamento, tickAtual);
+        }
+    }
+
+    private void inserir(Agendamento<T> agendamento, long minimo) {
+        long prazo = Math.max(agendamento.prazoTick, minimo);
+        long distancia = prazo - tickAtual;
+        if (distancia >= ALCANCE) {
+            prazo = tickAtual + ALCANCE - 1;
+            distancia = ALCANCE - 1;
+        }
+        int nivel = 0;
+        while (distancia >= (1L << (BITS * (nivel + 1)))) {
+            nivel++;
+        }
+        int indice = (int) ((prazo >>> (BITS * nivel)) & MASCARA);
+        List<Agendamento<T>> posicao = posicoes[nivel][indice];
+        if (posicao == null) {
+            posicao = new ArrayList<>();
+            posicoes[nivel][indice] = posicao;
+        }
+        posicao.add(agendamento);
+    }
+
+    private static final class Agendamento<T> {
+        final T item;
+        final long prazoTick;
+
+        Agendamento(T item, long prazoTick) {
+            this.item = item;
+            this.prazoTick = prazoTick;
+        }
+    }
+}
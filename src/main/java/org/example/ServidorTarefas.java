@@ -0,0 +1,96 @@
+package org.example;
+
+import io.javalin.Javalin;
+import org.eclipse.jetty.server.HttpConnectionFactory;
+import org.eclipse.jetty.server.LocalConnector;
+
+/**
+ * Uma instância da API: as rotas de {@link AplicacaoPrincipal} sobre o
+ * repositório recebido, que passa a pertencer ao servidor e é fechado por
+ * {@link #close()}. Cada instância tem o seu próprio repositório, métricas e
+ * caches, então várias podem rodar na mesma JVM (testes em paralelo, nós de
+ * um cluster). As exceções são as métricas da própria JVM: heap, GC e os
+ * histogramas de serialização de {@link MetricasServidor} somam todas as
+ * instâncias do processo.
+ *
+ * <p>{@link #iniciar} abre uma porta TCP (0 escolhe uma livre, lida em
+ * {@link #porta()}); {@link #emProcesso} não abre porta nenhuma: as
+ * requisições entram pelo {@link TransporteEmProcesso}, que passa pelo
+ * parser HTTP do Jetty e pelos mesmos handlers, sem sockets.</p>
+ */
+public final class ServidorTarefas implements AutoCloseable {
+
+    private final Javalin app;
+    private final TarefaRepositoryVersionado tarefas;
+    private final TransporteEmProcesso transporte;
+
+    private ServidorTarefas(Javalin app, TarefaRepositoryVersionado tarefas, TransporteEmProcesso transporte) {
+        this.app = app;
+        this.tarefas = tarefas;
+        this.transporte = transporte;
+    }
+
+    /** Modo de execução e limite de concorrência vindos das propriedades do sistema. */
+    public static ServidorTarefas iniciar(TarefaRepository repositorio, int porta) {
+        return iniciar(repositorio, porta, ModoExecucao.doSistema(),
+                Integer.getInteger("servidor.concorrenciaMaxima", 0));
+    }
+
+    public static ServidorTarefas iniciar(TarefaRepository repositorio, int porta, ModoExecucao modo,
+                                          int concorrenciaMaxima) {
+        TarefaRepositoryVersionado versionado = TarefaRepositoryVersionado.de(repositorio);
+        Javalin app = AplicacaoPrincipal.criar(versionado, modo, concorrenciaMaxima, config -> {
+        });
+        // Só abre a porta com todas as rotas registradas: antes disso uma
+        // verificação de saúde receberia 404.
+        app.start(porta);
+        return new ServidorTarefas(app, versionado, null);
+    }
+
+    /** Servidor sem porta, atendido só pelo {@link #transporte()}. */
+    public static ServidorTarefas emProcesso(TarefaRepository repositorio) {
+        TarefaRepositoryVersionado versionado = TarefaRepositoryVersionado.de(repositorio);
+        LocalConnector[] conector = new LocalConnector[1];
+        // Com um conector configurado o Javalin não cria o de TCP.
+        Javalin app = AplicacaoPrincipal.criar(versionado, ModoExecucao.doSistema(), 0,
+                config -> config.jetty.addConnector((servidor, configuracaoHttp) ->
+                        conector[0] = new LocalConnector(servidor, new HttpConnectionFactory(configuracaoHttp))));
+        app.start();
+        return new ServidorTarefas(app, versionado, new TransporteEmProcesso(conector[0]));
+    }
+
+    public Javalin app() {
+        return app;
+    }
+
+    /** O repositório recebido, já envolvido em {@link TarefaRepositoryVersionado}. */
+    public TarefaRepositoryVersionado tarefas() {
+        return tarefas;
+    }
+
+    /** Porta TCP em uso; -1 em processo. */
+    public int porta() {
+        return transporte == null ? app.port() : -1;
+    }
+
+    public String url() {
+        if (transporte != null) {
+            throw new IllegalStateException("Servidor em processo não tem URL; use transporte().");
+        }
+        return "http://localhost:" + app.port();
+    }
+
+    public TransporteEmProcesso transporte() {
+        if (transporte == null) {
+            throw new IllegalStateException("Servidor iniciado numa porta TCP; use url().");
+        }
+        return transporte;
+    }
+
+    /** Para o servidor e fecha o repositório. */
+    @Override
+    public void close() {
+        app.stop();
+        tarefas.close();
+    }
+}
@@ -1,23 +1,60 @@
 package org.example;
 
-import java.util.Objects;
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import java.io.UncheckedIOException;
 import java.util.UUID;
 
-public class Tarefa {
-    private UUID id;
-    private String titulo;
-    private String descricao;
-    private boolean concluida;
+/**
+ * Tarefa imutável. Alterações criam uma nova instância ({@code comTitulo},
+ * {@code comConcluida}...), então o JSON de cada instância pode ser gerado uma
+ * única vez e reaproveitado em todas as respostas. O mesmo vale para o CBOR
+ * ({@link FormatoCorpo#CBOR}), gerado só quando algum cliente o pede.
+ *
+ * <p>{@code versao} começa em 1 e é incrementada pelo repositório a cada
+ * alteração; é exposta como ETag. O valor enviado pelo cliente no corpo é
+ * ignorado.</p>
+ */
+@JsonPropertyOrder({"id", "titulo", "descricao", "concluida", "versao"})
+@JsonIgnoreProperties(value = "versao", allowGetters = true)
+public final class Tarefa {
 
-    public Tarefa() {
-        this.id = UUID.randomUUID();
-        this.concluida = false;
-    }
+    private static final ObjectWriter writerJson = new ObjectMapper().writerFor(Tarefa.class);
+    private static final ObjectWriter writerCbor = new ObjectMapper(new CBORFactory()).writerFor(Tarefa.class);
+
+    private final UUID id;
+    private final String titulo;
+    private final String descricao;
+    private final boolean concluida;
+    private final long versao;
+
+    private volatile byte[] json;
+    private volatile byte[] cbor;
 
     public Tarefa(String titulo, String descricao) {
-        this();
+        this(null, titulo, descricao, false);
+    }
+
+    @JsonCreator
+    public Tarefa(@JsonProperty("id") UUID id,
+                  @JsonProperty("titulo") String titulo,
+                  @JsonProperty("descricao") String descricao,
+                  @JsonProperty("concluida") boolean concluida) {
+        this(id, titulo, descricao, concluida, 1);
+    }
+
+    public Tarefa(UUID id, String titulo, String descricao, boolean concluida, long versao) {
+        this.id = id != null ? id : UUID.randomUUID();
         this.titulo = titulo;
         this.descricao = descricao;
+        this.concluida = concluida;
+        this.versao = versao;
     }
 
     public UUID getId() {
@@ -36,20 +73,92 @@ public class Tarefa {
         return concluida;
     }
 
-    public void setId(UUID id) {
-        this.id = id;
+    public long getVersao() {
+        return versao;
     }
 
-    public void setTitulo(String titulo) {
-        this.titulo = titulo;
+    /** Valor do header ETag desta versão da tarefa. */
+    public String etag() {
+        return etag(versao);
     }
 
-    public void setDescricao(String descricao) {
-        this.descricao = descricao;
+    /** Valor do header ETag de uma tarefa na versão {@code versao}. */
+    public static String etag(long versao) {
+        return "\"" + versao + "\"";
     }
 
-    public void setConcluida(boolean concluida) {
-        this.concluida = concluida;
+    public Tarefa comId(UUID novoId) {
+        return new Tarefa(novoId, titulo, descricao, concluida, versao);
+    }
+
+    public Tarefa comTitulo(String novoTitulo) {
+        return new Tarefa(id, novoTitulo, descricao, concluida, versao);
+    }
+
+    public Tarefa comDescricao(String novaDescricao) {
+        return new Tarefa(id, titulo, novaDescricao, concluida, versao);
+    }
+
+    public Tarefa comConcluida(boolean novaConcluida) {
+        return new Tarefa(id, titulo, descricao, novaConcluida, versao);
+    }
+
+    public Tarefa comVersao(long novaVersao) {
+        return new Tarefa(id, titulo, descricao, concluida, novaVersao);
+    }
+
+    /**
+     * JSON UTF-8 desta tarefa, gerado na primeira chamada. O array devolvido é
+     * compartilhado e não deve ser alterado.
+     */
+    public byte[] jsonUtf8() {
+        byte[] atual = json;
+        if (atual == null) {
+            long inicio = System.nanoTime();
+            try {
+                atual = writerJson.writeValueAsBytes(this);
+            } catch (JsonProcessingException e) {
+                throw new UncheckedIOException(e);
+            }
+            MetricasServidor.SERIALIZACAO_TAREFA.registrar(System.nanoTime() - inicio);
+            json = atual;
+        }
+        return atual;
+    }
+
+    /** CBOR desta tarefa, com o ID em 16 bytes; gerado e compartilhado como {@link #jsonUtf8()}. */
+    public byte[] cbor() {
+        byte[] atual = cbor;
+        if (atual == null) {
+            long inicio = System.nanoTime();
+            try {
+                atual = writerCbor.writeValueAsBytes(this);
+            } catch (JsonProcessingException e) {
+                throw new UncheckedIOException(e);
+            }
+            MetricasServidor.SERIALIZACAO_TAREFA.registrar(System.nanoTime() - inicio);
+            cbor = atual;
+        }
+        return atual;
+    }
+
+    /**
+     * Monta os serializadores JSON e CBOR de Tarefa com uma tarefa de exemplo,
+     * sem registrar o tempo em {@link MetricasServidor#SERIALIZACAO_TAREFA}.
+     */
+    static void aquecerSerializadores() {
+        Tarefa exemplo = new Tarefa(new UUID(0, 0), "aquecimento", "", false, 0);
+        try {
+            writerJson.writeValueAsBytes(exemplo);
+            writerCbor.writeValueAsBytes(exemplo);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /** Bytes desta tarefa no formato pedido. */
+    public byte[] corpo(FormatoCorpo formato) {
+        return formato == FormatoCorpo.CBOR ? cbor() : jsonUtf8();
     }
 
     @Override
@@ -59,6 +168,7 @@ public class Tarefa {
                 ", titulo='" + titulo + '\'' +
                 ", descricao='" + descricao + '\'' +
                 ", concluida=" + concluida +
+                ", versao=" + versao +
                 '}';
     }
 
@@ -67,11 +177,11 @@ public class Tarefa {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         Tarefa tarefa = (Tarefa) o;
-        return Objects.equals(id, tarefa.id);
+        return id.equals(tarefa.id);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(id);
+        return id.hashCode();
     }
 }
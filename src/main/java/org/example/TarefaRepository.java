@@ -0,0 +1,94 @@
+package org.example;
+
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.UnaryOperator;
+
+/**
+ * Armazenamento de tarefas usado pelas rotas /tarefas. Cada implementação
+ * lista as tarefas numa ordem estável (por ID ou por inserção), o que permite
+ * a paginação por cursor.
+ */
+public interface TarefaRepository extends AutoCloseable {
+
+    void salvar(Tarefa tarefa);
+
+    /**
+     * Salva várias tarefas de uma vez. Implementações podem aproveitar para
+     * agrupar o trabalho (um único commit, uma única aquisição de trava).
+     */
+    default void salvarTodos(Collection<Tarefa> novas) {
+        for (Tarefa tarefa : novas) {
+            salvar(tarefa);
+        }
+    }
+
+    Optional<Tarefa> buscarPorId(UUID id);
+
+    /**
+     * Altera uma tarefa de forma atômica, no estilo de
+     * {@link java.util.concurrent.ConcurrentHashMap#compute}: {@code alteracao}
+     * recebe a versão atual (ou {@code null}, se não existir) e devolve a nova
+     * tarefa, ou {@code null} para removê-la. A nova tarefa recebe a versão
+     * seguinte à atual. Uma exceção lançada por {@code alteracao} cancela a
+     * operação; a função pode ser chamada mais de uma vez e não deve ter
+     * efeitos colaterais.
+     *
+     * @return a tarefa gravada, ou {@code null} se ela foi removida ou não existia
+     */
+    Tarefa alterar(UUID id, UnaryOperator<Tarefa> alteracao);
+
+    /**
+     * Itera as tarefas na ordem do repositório, começando logo após {@code aPartirDe}
+     * (ou do início, se for {@code null}).
+     */
+    Iterator<Tarefa> listar(UUID aPartirDe);
+
+    /**
+     * Lista só as tarefas aceitas pelo filtro. A implementação padrão percorre
+     * todas as tarefas; {@link TarefaRepositoryIndexado} usa índices.
+     */
+    default Iterator<Tarefa> listar(FiltroTarefas filtro, UUID aPartirDe) {
+        if (filtro.vazio()) {
+            return listar(aPartirDe);
+        }
+        return new IteradorFiltrado<>(listar(aPartirDe), filtro::aceita);
+    }
+
+    /**
+     * Próxima versão de uma tarefa alterada por {@link #alterar}.
+     */
+    static Tarefa versionar(Tarefa atual, Tarefa nova) {
+        if (nova == null) {
+            return null;
+        }
+        return nova.comVersao(atual == null ? 1 : atual.getVersao() + 1);
+    }
+
+    /**
+     * Se {@link #listar} percorre as tarefas em ordem de ID. Quem intercala
+     * listagens (o cluster, o armazenamento frio) depende disso; o
+     * {@link TarefaRepositoryMapeado} lista em ordem de inserção.
+     */
+    default boolean listaEmOrdemDeId() {
+        return true;
+    }
+
+    int tamanho();
+
+    void limpar();
+
+    /**
+     * Passa a registrar em {@code log} as falhas de trabalho em segundo plano
+     * (snapshot, manutenção), que não têm a quem devolver a exceção. Quem
+     * envolve outro repositório repassa a chamada, como em {@link #close}.
+     */
+    default void registrarFalhasEm(LogEstruturado log) {
+    }
+
+    @Override
+    default void close() {
+    }
+}
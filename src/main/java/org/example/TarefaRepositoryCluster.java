@@ -0,0 +1,532 @@
+package org.example;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import io.javalin.Javalin;
+import io.javalin.http.HttpStatus;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.UnaryOperator;
+
+/**
+ * Repositório particionado entre vários servidores. O {@link AnelConsistente}
+ * define, pelo UUID, o nó dono de cada tarefa e as réplicas seguintes; este
+ * nó guarda no repositório {@code local} as tarefas de que é dono ou réplica
+ * e fala com os demais pelas rotas internas {@code /cluster/...}, instaladas
+ * por {@link #instalar}.
+ *
+ * <ul>
+ *   <li>Escritas vão primeiro ao dono e depois, em sequência, às réplicas. Se
+ *   o dono não responde a escrita falha; falhas nas réplicas são só
+ *   contadas.</li>
+ *   <li>{@link #alterar} lê a versão atual no dono, aplica a alteração aqui e
+ *   grava no dono exigindo a mesma versão, repetindo se outra escrita chegou
+ *   antes.</li>
+ *   <li>Leituras por ID usam a cópia local quando este nó é dono ou réplica;
+ *   senão vão ao dono e, se ele não responde, às réplicas.</li>
+ *   <li>A listagem pede a cada nó, em páginas, as tarefas de que ele é dono e
+ *   intercala os resultados por ID, e a página seguinte continua a partir do
+ *   último ID recebido ({@code desde}). Por isso o repositório local precisa
+ *   listar em ordem de ID (memória ou persistente); o mapeado, que lista em
+ *   ordem de inserção, é recusado na construção.</li>
+ * </ul>
+ */
+public class TarefaRepositoryCluster implements TarefaRepository {
+
+    public static final int REPLICAS_PADRAO = 1;
+    static final int TAMANHO_PAGINA = 500;
+
+    private static final Duration TEMPO_LIMITE = Duration.ofSeconds(5);
+    private static final TypeReference<List<Tarefa>> LISTA_TAREFAS = new TypeReference<>() {
+    };
+
+    private final String eu;
+    private final AnelConsistente anel;
+    private final int replicas;
+    private final TarefaRepository local;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final HttpClient http;
+    private final LongAdder falhasReplicacao = new LongAdder();
+
+    /**
+     * @param eu       URL base deste nó, como aparece em {@code nos}
+     * @param nos      URLs base de todos os nós do cluster
+     * @param replicas quantos nós guardam cada tarefa, contando o dono
+     */
+    public TarefaRepositoryCluster(String eu, List<String> nos, int replicas, TarefaRepository local) {
+        if (!nos.contains(eu)) {
+            throw new IllegalArgumentException("O nó " + eu + " não está na lista do cluster: " + nos);
+        }
+        if (!local.listaEmOrdemDeId()) {
+            throw new IllegalArgumentException(
+                    "O cluster precisa de um armazenamento local que liste em ordem de ID (memoria ou persistente).");
+        }
+        this.eu = eu;
+        this.anel = new AnelConsistente(nos);
+        this.replicas = Math.max(1, Math.min(replicas, nos.size()));
+        this.local = local;
+        this.http = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(TEMPO_LIMITE)
+                .executor(executor)
+                .build();
+    }
+
+    /**
+     * Configuração pelas propriedades -Dcluster.nos (URLs separadas por
+     * vírgula), -Dcluster.eu e -Dcluster.replicas.
+     */
+    public static TarefaRepositoryCluster doSistema(TarefaRepository local) {
+        List<String> nos = Arrays.stream(System.getProperty("cluster.nos").split(","))
+                .map(String::trim)
+                .filter(no -> !no.isEmpty())
+                .toList();
+        String eu = System.getProperty("cluster.eu");
+        if (eu == null) {
+            throw new IllegalArgumentException("Informe a URL deste nó em -Dcluster.eu.");
+        }
+        return new TarefaRepositoryCluster(eu, nos, Integer.getInteger("cluster.replicas", REPLICAS_PADRAO), local);
+    }
+
+    public AnelConsistente anel() {
+        return anel;
+    }
+
+    public TarefaRepository local() {
+        return local;
+    }
+
+    public long falhasReplicacao() {
+        return falhasReplicacao.sum();
+    }
+
+    @Override
+    public void salvar(Tarefa tarefa) {
+        List<String> donos = anel.donos(tarefa.getId(), replicas);
+        gravar(donos.get(0), tarefa);
+        for (String replica : donos.subList(1, donos.size())) {
+            try {
+                gravar(replica, tarefa);
+            } catch (NoIndisponivelException e) {
+                falhasReplicacao.increment();
+            }
+        }
+    }
+
+    @Override
+    public void salvarTodos(Collection<Tarefa> novas) {
+        Map<String, List<Tarefa>> porNo = new LinkedHashMap<>();
+        for (Tarefa tarefa : novas) {
+            for (String no : anel.donos(tarefa.getId(), replicas)) {
+                porNo.computeIfAbsent(no, chave -> new ArrayList<>()).add(tarefa);
+            }
+        }
+        List<CompletableFuture<?>> envios = new ArrayList<>();
+        for (Map.Entry<String, List<Tarefa>> grupo : porNo.entrySet()) {
+            if (grupo.getKey().equals(eu)) {
+                envios.add(CompletableFuture.runAsync(() -> local.salvarTodos(grupo.getValue()), executor));
+            } else {
+                HttpRequest requisicao = requisicao(grupo.getKey(), "/cluster/tarefas")
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofByteArray(json(grupo.getValue())))
+                        .build();
+                envios.add(enviarAsync(grupo.getKey(), requisicao)
+                        .thenAccept(resposta -> exigirStatus(grupo.getKey(), resposta, 204)));
+            }
+        }
+        aguardar(CompletableFuture.allOf(envios.toArray(new CompletableFuture<?>[0])));
+    }
+
+    @Override
+    public Optional<Tarefa> buscarPorId(UUID id) {
+        List<String> donos = anel.donos(id, replicas);
+        if (donos.contains(eu)) {
+            return local.buscarPorId(id);
+        }
+        NoIndisponivelException falha = null;
+        for (String no : donos) {
+            try {
+                return Optional.ofNullable(ler(no, id));
+            } catch (NoIndisponivelException e) {
+                falha = e;
+            }
+        }
+        throw falha;
+    }
+
+    @Override
+    public Tarefa alterar(UUID id, UnaryOperator<Tarefa> alteracao) {
+        List<String> donos = anel.donos(id, replicas);
+        String dono = donos.get(0);
+        Tarefa gravada;
+        if (dono.equals(eu)) {
+            gravada = local.alterar(id, alteracao);
+        } else {
+            while (true) {
+                Tarefa atual = ler(dono, id);
+                Tarefa nova = alteracao.apply(atual);
+                if (atual == null && nova == null) {
+                    return null;
+                }
+                try {
+                    gravada = alterarNoDono(dono, id, atual == null ? 0 : atual.getVersao(), nova);
+                    break;
+                } catch (PrecondicaoVersao.VersaoConflitanteException e) {
+                    // Outra escrita chegou ao dono entre a leitura e a gravação.
+                }
+            }
+        }
+        for (String replica : donos.subList(1, donos.size())) {
+            try {
+                if (gravada == null) {
+                    remover(replica, id);
+                } else {
+                    gravar(replica, gravada);
+                }
+            } catch (NoIndisponivelException e) {
+                falhasReplicacao.increment();
+            }
+        }
+        return gravada;
+    }
+
+    @Override
+    public Iterator<Tarefa> listar(UUID aPartirDe) {
+        return listar(FiltroTarefas.NENHUM, aPartirDe);
+    }
+
+    @Override
+    public Iterator<Tarefa> listar(FiltroTarefas filtro, UUID aPartirDe) {
+        List<Iterator<Tarefa>> partes = new ArrayList<>();
+        for (String no : anel.nos()) {
+            partes.add(no.equals(eu) ? listarDonoLocal(filtro, aPartirDe) : new IteradorRemoto(no, filtro, aPartirDe));
+        }
+        return new IteradorIntercalado(partes);
+    }
+
+    private Iterator<Tarefa> listarDonoLocal(FiltroTarefas filtro, UUID aPartirDe) {
+        Iterator<Tarefa> todas = local.listar(filtro, aPartirDe);
+        return replicas == 1 ? todas : new IteradorFiltrado<>(todas, tarefa -> anel.dono(tarefa.getId()).equals(eu));
+    }
+
+    private int contarDonoLocal() {
+        if (replicas == 1) {
+            return local.tamanho();
+        }
+        int total = 0;
+        for (Iterator<Tarefa> tarefas = listarDonoLocal(FiltroTarefas.NENHUM, null); tarefas.hasNext(); tarefas.next()) {
+            total++;
+        }
+        return total;
+    }
+
+    @Override
+    public int tamanho() {
+        List<CompletableFuture<Integer>> contagens = new ArrayList<>();
+        for (String no : anel.nos()) {
+            if (no.equals(eu)) {
+                contagens.add(CompletableFuture.completedFuture(contarDonoLocal()));
+            } else {
+                contagens.add(enviarAsync(no, requisicao(no, "/cluster/tamanho").GET().build())
+                        .thenApply(resposta -> Integer.parseInt(exigirStatus(no, resposta, 200).trim())));
+            }
+        }
+        int total = 0;
+        for (CompletableFuture<Integer> contagem : contagens) {
+            total += aguardar(contagem);
+        }
+        return total;
+    }
+
+    @Override
+    public void limpar() {
+        local.limpar();
+        for (String no : anel.nos()) {
+            if (!no.equals(eu)) {
+                exigirStatus(no, enviar(no, requisicao(no, "/cluster/tarefas").DELETE().build()), 204);
+            }
+        }
+    }
+
+    @Override
+    public void registrarFalhasEm(LogEstruturado log) {
+        local.registrarFalhasEm(log);
+    }
+
+    @Override
+    public void close() {
+        local.close();
+        executor.shutdownNow();
+    }
+
+    /**
+     * Rotas internas que os outros nós usam para ler e gravar no repositório
+     * local deste nó.
+     */
+    public void instalar(Javalin app) {
+        app.get("/cluster/tarefas/{id}", ctx -> {
+            Tarefa tarefa = local.buscarPorId(UUID.fromString(ctx.pathParam("id"))).orElse(null);
+            if (tarefa == null) {
+                ctx.status(HttpStatus.NOT_FOUND);
+                return;
+            }
+            ctx.contentType("application/json").result(tarefa.jsonUtf8());
+        });
+
+        // Sem ?esperada grava a cópia exata (réplica); com ?esperada só grava se a
+        // versão atual for essa (0 = não existe) e devolve a tarefa com a versão nova.
+        app.put("/cluster/tarefas/{id}", ctx -> {
+            Tarefa recebida = ClienteApiRest.objectMapper.readValue(ctx.bodyInputStream(), Tarefa.class);
+            String esperada = ctx.queryParam("esperada");
+            if (esperada == null) {
+                local.salvar(recebida);
+                ctx.status(HttpStatus.NO_CONTENT);
+                return;
+            }
+            Tarefa gravada = local.alterar(UUID.fromString(ctx.pathParam("id")),
+                    exigirVersao(Long.parseLong(esperada), recebida));
+            ctx.contentType("application/json").result(gravada.jsonUtf8());
+        });
+
+        app.delete("/cluster/tarefas/{id}", ctx -> {
+            UUID id = UUID.fromString(ctx.pathParam("id"));
+            String esperada = ctx.queryParam("esperada");
+            local.alterar(id, esperada == null ? atual -> null : exigirVersao(Long.parseLong(esperada), null));
+            ctx.status(HttpStatus.NO_CONTENT);
+        });
+
+        app.post("/cluster/tarefas", ctx -> {
+            local.salvarTodos(ClienteApiRest.objectMapper.readValue(ctx.bodyInputStream(), LISTA_TAREFAS));
+            ctx.status(HttpStatus.NO_CONTENT);
+        });
+
+        app.get("/cluster/tarefas", ctx -> {
+            String desde = ctx.queryParam("desde");
+            String concluida = ctx.queryParam("concluida");
+            FiltroTarefas filtro = new FiltroTarefas(concluida == null ? null : Boolean.valueOf(concluida),
+                    ctx.queryParam("titulo_prefix"), ctx.queryParam("q"));
+            Iterator<Tarefa> tarefas = listarDonoLocal(filtro, desde == null ? null : UUID.fromString(desde));
+            int limite = ctx.queryParam("limit") == null ? TAMANHO_PAGINA : Integer.parseInt(ctx.queryParam("limit"));
+            ctx.contentType("application/json");
+            EscritorJsonTarefas.escreverArray(ctx.outputStream(), tarefas, limite);
+        });
+
+        app.get("/cluster/tamanho", ctx -> ctx.result(Integer.toString(contarDonoLocal())));
+
+        app.delete("/cluster/tarefas", ctx -> {
+            local.limpar();
+            ctx.status(HttpStatus.NO_CONTENT);
+        });
+    }
+
+    private static UnaryOperator<Tarefa> exigirVersao(long esperada, Tarefa nova) {
+        return atual -> {
+            long versaoAtual = atual == null ? 0 : atual.getVersao();
+            if (versaoAtual != esperada) {
+                throw new PrecondicaoVersao.VersaoConflitanteException(versaoAtual);
+            }
+            return nova;
+        };
+    }
+
+    private void gravar(String no, Tarefa tarefa) {
+        if (no.equals(eu)) {
+            local.salvar(tarefa);
+            return;
+        }
+        HttpRequest requisicao = requisicao(no, "/cluster/tarefas/" + tarefa.getId())
+                .header("Content-Type", "application/json")
+                .PUT(HttpRequest.BodyPublishers.ofByteArray(tarefa.jsonUtf8()))
+                .build();
+        exigirStatus(no, enviar(no, requisicao), 204);
+    }
+
+    private void remover(String no, UUID id) {
+        if (no.equals(eu)) {
+            local.alterar(id, atual -> null);
+            return;
+        }
+        exigirStatus(no, enviar(no, requisicao(no, "/cluster/tarefas/" + id).DELETE().build()), 204);
+    }
+
+    private Tarefa ler(String no, UUID id) {
+        HttpResponse<String> resposta = enviar(no, requisicao(no, "/cluster/tarefas/" + id).GET().build());
+        if (resposta.statusCode() == 404) {
+            return null;
+        }
+        return lerJson(exigirStatus(no, resposta, 200), Tarefa.class);
+    }
+
+    private Tarefa alterarNoDono(String dono, UUID id, long esperada, Tarefa nova) {
+        String caminho = "/cluster/tarefas/" + id + "?esperada=" + esperada;
+        HttpRequest requisicao = nova == null
+                ? requisicao(dono, caminho).DELETE().build()
+                : requisicao(dono, caminho)
+                        .header("Content-Type", "application/json")
+                        .PUT(HttpRequest.BodyPublishers.ofByteArray(nova.jsonUtf8()))
+                        .build();
+        HttpResponse<String> resposta = enviar(dono, requisicao);
+        if (resposta.statusCode() == 412) {
+            throw new PrecondicaoVersao.VersaoConflitanteException(-1);
+        }
+        if (nova == null) {
+            exigirStatus(dono, resposta, 204);
+            return null;
+        }
+        return lerJson(exigirStatus(dono, resposta, 200), Tarefa.class);
+    }
+
+    private HttpRequest.Builder requisicao(String no, String caminho) {
+        return HttpRequest.newBuilder(URI.create(no + caminho)).timeout(TEMPO_LIMITE);
+    }
+
+    private HttpResponse<String> enviar(String no, HttpRequest requisicao) {
+        return aguardar(enviarAsync(no, requisicao));
+    }
+
+    private CompletableFuture<HttpResponse<String>> enviarAsync(String no, HttpRequest requisicao) {
+        return http.sendAsync(requisicao, HttpResponse.BodyHandlers.ofString())
+                .exceptionally(erro -> {
+                    throw new NoIndisponivelException(no, erro instanceof CompletionException ? erro.getCause() : erro);
+                });
+    }
+
+    private static <T> T aguardar(CompletableFuture<T> futuro) {
+        try {
+            return futuro.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    private static String exigirStatus(String no, HttpResponse<String> resposta, int esperado) {
+        if (resposta.statusCode() != esperado) {
+            throw new NoIndisponivelException(no, new IOException(
+                    "Resposta " + resposta.statusCode() + " de " + resposta.uri() + ": " + resposta.body()));
+        }
+        return resposta.body();
+    }
+
+    private static byte[] json(Object valor) {
+        try {
+            return ClienteApiRest.objectMapper.writeValueAsBytes(valor);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static <T> T lerJson(String corpo, Class<T> tipo) {
+        try {
+            return ClienteApiRest.objectMapper.readValue(corpo, tipo);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /** Nó do cluster que não respondeu ou respondeu com erro. */
+    public static class NoIndisponivelException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        private final String no;
+
+        public NoIndisponivelException(String no, Throwable causa) {
+            super("Nó do cluster indisponível: " + no, causa);
+            this.no = no;
+        }
+
+        public String getNo() {
+            return no;
+        }
+    }
+
+    /**
+     * Lê de um nó, em páginas de {@link #TAMANHO_PAGINA}, as tarefas de que ele
+     * é dono. A primeira página é pedida já na criação, para que todos os nós
+     * sejam consultados em paralelo.
+     */
+    private final class IteradorRemoto implements Iterator<Tarefa> {
+        private final String no;
+        private final String parametrosFiltro;
+        private CompletableFuture<HttpResponse<String>> paginaPedida;
+        private Iterator<Tarefa> pagina = List.<Tarefa>of().iterator();
+        private boolean ultimaPagina;
+
+        IteradorRemoto(String no, FiltroTarefas filtro, UUID aPartirDe) {
+            this.no = no;
+            this.parametrosFiltro = parametros(filtro);
+            pedir(aPartirDe);
+        }
+
+        private void pedir(UUID desde) {
+            String caminho = "/cluster/tarefas?" + parametrosFiltro + (desde == null ? "" : "&desde=" + desde);
+            paginaPedida = enviarAsync(no, requisicao(no, caminho).GET().build());
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (!pagina.hasNext() && paginaPedida != null) {
+                List<Tarefa> tarefas = lerJson(exigirStatus(no, aguardar(paginaPedida), 200), LISTA_TAREFAS);
+                paginaPedida = null;
+                pagina = tarefas.iterator();
+                if (tarefas.size() == TAMANHO_PAGINA) {
+                    pedir(tarefas.get(tarefas.size() - 1).getId());
+                }
+            }
+            return pagina.hasNext();
+        }
+
+        @Override
+        public Tarefa next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return pagina.next();
+        }
+
+        private <T> T lerJson(String corpo, TypeReference<T> tipo) {
+            try {
+                return ClienteApiRest.objectMapper.readValue(corpo, tipo);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    private static String parametros(FiltroTarefas filtro) {
+        StringBuilder parametros = new StringBuilder("limit=" + TAMANHO_PAGINA);
+        if (filtro.getConcluida() != null) {
+            parametros.append("&concluida=").append(filtro.getConcluida());
+        }
+        if (filtro.getPrefixoTitulo() != null) {
+            parametros.append("&titulo_prefix=").append(URLEncoder.encode(filtro.getPrefixoTitulo(), StandardCharsets.UTF_8));
+        }
+        if (!filtro.getTermos().isEmpty()) {
+            parametros.append("&q=").append(URLEncoder.encode(String.join(" ", filtro.getTermos()), StandardCharsets.UTF_8));
+        }
+        return parametros.toString();
+    }
+}
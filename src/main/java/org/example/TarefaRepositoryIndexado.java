@@ -0,0 +1,353 @@
+package org.example;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.NavigableSet;
+import java.util.Optional;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.UnaryOperator;
+
+/**
+ * Decorador que mantém índices secundários sobre outro repositório:
+ *
+ * <ul>
+ *   <li>{@code concluida}: dois conjuntos ordenados de IDs, um por valor;</li>
+ *   <li>prefixo do título: mapa ordenado por título normalizado, e os IDs
+ *   de cada prefixo de até {@value #TAMANHO_PREFIXO_INDEXADO} caracteres,
+ *   em ordem de ID;</li>
+ *   <li>busca textual: índice invertido termo → IDs, sobre título e
+ *   descrição.</li>
+ * </ul>
+ *
+ * <p>A escrita no repositório e a atualização dos índices acontecem sob a
+ * mesma trava (por faixa de IDs), então os índices acompanham sempre a última
+ * versão salva de cada tarefa. Consultas filtradas percorrem apenas os IDs do
+ * índice mais seletivo, conferem os demais filtros na própria tarefa e
+ * devolvem o resultado em ordem de ID. Um prefixo mais longo é copiado do mapa
+ * de títulos e ordenado por ID; se casa com mais de
+ * {@value #LIMITE_COPIA_PREFIXO} títulos, a listagem percorre em vez disso os
+ * IDs dos seus primeiros {@value #TAMANHO_PREFIXO_INDEXADO} caracteres e
+ * confere o prefixo em cada tarefa, parando quando a página enche. Cada
+ * conjunto de IDs por termo ou prefixo guarda a própria contagem (o
+ * {@code size()} de um {@link ConcurrentSkipListSet} percorre o conjunto) e
+ * sai do índice quando fica vazio.</p>
+ *
+ * <p>Os índices guardam uma entrada por tarefa no heap e são montados
+ * percorrendo o repositório inteiro; {@link #doSistema} não os usa sobre
+ * {@link TarefaRepositoryMapeado}, que existe justamente para manter as
+ * tarefas fora do heap.</p>
+ */
+public class TarefaRepositoryIndexado implements TarefaRepository {
+
+    private static final int QUANTIDADE_TRAVAS = 256;
+    private static final char SEPARADOR_TITULO = '\u0000';
+    static final int LIMITE_COPIA_PREFIXO = 1024;
+    static final int TAMANHO_PREFIXO_INDEXADO = 3;
+
+    private final TarefaRepository repositorio;
+    private final ReentrantLock[] travas = new ReentrantLock[QUANTIDADE_TRAVAS];
+    private final ConcurrentHashMap<UUID, EntradaIndice> entradas = new ConcurrentHashMap<>();
+    private final NavigableSet<UUID> pendentes = new ConcurrentSkipListSet<>();
+    private final NavigableSet<UUID> concluidas = new ConcurrentSkipListSet<>();
+    private final ConcurrentNavigableMap<String, UUID> porTitulo = new ConcurrentSkipListMap<>();
+    private final ConcurrentHashMap<String, Ids> porPrefixo = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Ids> porTermo = new ConcurrentHashMap<>();
+
+    /**
+     * Envolve {@code repositorio} com os índices, a menos que
+     * {@code -Dtarefas.indices=false} ou que ele seja mapeado.
+     */
+    static TarefaRepository doSistema(TarefaRepository repositorio) {
+        boolean indices = Boolean.parseBoolean(System.getProperty("tarefas.indices", "true"));
+        if (!indices || repositorio instanceof TarefaRepositoryMapeado) {
+            return repositorio;
+        }
+        return new TarefaRepositoryIndexado(repositorio);
+    }
+
+    public TarefaRepositoryIndexado(TarefaRepository repositorio) {
+        this.repositorio = repositorio;
+        for (int i = 0; i < travas.length; i++) {
+            travas[i] = new ReentrantLock();
+        }
+        repositorio.listar(null).forEachRemaining(this::indexar);
+    }
+
+    @Override
+    public void salvar(Tarefa tarefa) {
+        ReentrantLock trava = travaDe(tarefa.getId());
+        trava.lock();
+        try {
+            repositorio.salvar(tarefa);
+            indexar(tarefa);
+        } finally {
+            trava.unlock();
+        }
+    }
+
+    @Override
+    public void salvarTodos(Collection<Tarefa> novas) {
+        // Trava as faixas envolvidas sempre em ordem crescente para evitar deadlock.
+        SortedSet<Integer> faixas = new TreeSet<>();
+        for (Tarefa tarefa : novas) {
+            faixas.add(faixaDe(tarefa.getId()));
+        }
+        for (int faixa : faixas) {
+            travas[faixa].lock();
+        }
+        try {
+            repositorio.salvarTodos(novas);
+            novas.forEach(this::indexar);
+        } finally {
+            for (int faixa : faixas) {
+                travas[faixa].unlock();
+            }
+        }
+    }
+
+    @Override
+    public Optional<Tarefa> buscarPorId(UUID id) {
+        return repositorio.buscarPorId(id);
+    }
+
+    @Override
+    public Tarefa alterar(UUID id, UnaryOperator<Tarefa> alteracao) {
+        ReentrantLock trava = travaDe(id);
+        trava.lock();
+        try {
+            Tarefa nova = repositorio.alterar(id, alteracao);
+            if (nova != null) {
+                indexar(nova);
+            } else {
+                desindexar(id);
+            }
+            return nova;
+        } finally {
+            trava.unlock();
+        }
+    }
+
+    @Override
+    public Iterator<Tarefa> listar(UUID aPartirDe) {
+        return repositorio.listar(aPartirDe);
+    }
+
+    @Override
+    public Iterator<Tarefa> listar(FiltroTarefas filtro, UUID aPartirDe) {
+        if (filtro.vazio()) {
+            return repositorio.listar(aPartirDe);
+        }
+        NavigableSet<UUID> candidatos = candidatos(filtro);
+        if (aPartirDe != null) {
+            candidatos = candidatos.tailSet(aPartirDe, false);
+        }
+        Iterator<UUID> ids = candidatos.iterator();
+        Iterator<Tarefa> tarefas = new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return ids.hasNext();
+            }
+
+            @Override
+            public Tarefa next() {
+                return repositorio.buscarPorId(ids.next()).orElse(null);
+            }
+        };
+        return new IteradorFiltrado<>(tarefas, tarefa -> tarefa != null && filtro.aceita(tarefa));
+    }
+
+    @Override
+    public boolean listaEmOrdemDeId() {
+        return repositorio.listaEmOrdemDeId();
+    }
+
+    @Override
+    public int tamanho() {
+        return repositorio.tamanho();
+    }
+
+    @Override
+    public void limpar() {
+        for (ReentrantLock trava : travas) {
+            trava.lock();
+        }
+        try {
+            repositorio.limpar();
+            entradas.clear();
+            pendentes.clear();
+            concluidas.clear();
+            porTitulo.clear();
+            porPrefixo.clear();
+            porTermo.clear();
+        } finally {
+            for (ReentrantLock trava : travas) {
+                trava.unlock();
+            }
+        }
+    }
+
+    @Override
+    public void registrarFalhasEm(LogEstruturado log) {
+        repositorio.registrarFalhasEm(log);
+    }
+
+    @Override
+    public void close() {
+        repositorio.close();
+    }
+
+    /** Termos com ao menos uma tarefa no índice textual. */
+    int termosIndexados() {
+        return porTermo.size();
+    }
+
+    /** IDs candidatos em ordem, a conferir com o filtro. */
+    private NavigableSet<UUID> candidatos(FiltroTarefas filtro) {
+        if (!filtro.getTermos().isEmpty()) {
+            Ids menor = null;
+            for (String termo : filtro.getTermos()) {
+                Ids ids = porTermo.get(termo);
+                if (ids == null) {
+                    return Collections.emptyNavigableSet();
+                }
+                if (menor == null || ids.quantidade < menor.quantidade) {
+                    menor = ids;
+                }
+            }
+            return menor.ids;
+        }
+        if (filtro.getPrefixoTitulo() != null) {
+            String prefixo = filtro.getPrefixoTitulo();
+            if (prefixo.length() > TAMANHO_PREFIXO_INDEXADO) {
+                NavigableSet<UUID> copiados = new TreeSet<>();
+                for (UUID id : porTitulo.subMap(prefixo, true, prefixo + Character.MAX_VALUE, true).values()) {
+                    if (copiados.size() == LIMITE_COPIA_PREFIXO) {
+                        copiados = null;
+                        break;
+                    }
+                    copiados.add(id);
+                }
+                if (copiados != null) {
+                    return copiados;
+                }
+                prefixo = prefixo.substring(0, TAMANHO_PREFIXO_INDEXADO);
+            }
+            Ids ids = porPrefixo.get(prefixo);
+            return ids != null ? ids.ids : Collections.emptyNavigableSet();
+        }
+        return filtro.getConcluida() ? concluidas : pendentes;
+    }
+
+    private void indexar(Tarefa tarefa) {
+        UUID id = tarefa.getId();
+        EntradaIndice nova = new EntradaIndice(
+                tarefa.isConcluida(),
+                tarefa.getTitulo() == null ? null : FiltroTarefas.normalizar(tarefa.getTitulo()),
+                termosDe(tarefa));
+        EntradaIndice anterior = entradas.put(id, nova);
+        if (anterior != null) {
+            removerDosIndices(id, anterior, nova);
+        }
+        (nova.concluida ? concluidas : pendentes).add(id);
+        if (nova.titulo != null && (anterior == null || !nova.titulo.equals(anterior.titulo))) {
+            porTitulo.put(chaveTitulo(nova.titulo, id), id);
+            for (int tamanho = 1; tamanho <= Math.min(TAMANHO_PREFIXO_INDEXADO, nova.titulo.length()); tamanho++) {
+                adicionar(porPrefixo, nova.titulo.substring(0, tamanho), id);
+            }
+        }
+        for (String termo : nova.termos) {
+            if (anterior == null || !anterior.termos.contains(termo)) {
+                adicionar(porTermo, termo, id);
+            }
+        }
+    }
+
+    private void desindexar(UUID id) {
+        EntradaIndice anterior = entradas.remove(id);
+        if (anterior != null) {
+            removerDosIndices(id, anterior, null);
+        }
+    }
+
+    /** Tira {@code id} do que {@code anterior} indexava e {@code nova} (ou {@code null}) não indexa mais. */
+    private void removerDosIndices(UUID id, EntradaIndice anterior, EntradaIndice nova) {
+        (anterior.concluida ? concluidas : pendentes).remove(id);
+        if (anterior.titulo != null && (nova == null || !anterior.titulo.equals(nova.titulo))) {
+            porTitulo.remove(chaveTitulo(anterior.titulo, id));
+            for (int tamanho = 1; tamanho <= Math.min(TAMANHO_PREFIXO_INDEXADO, anterior.titulo.length()); tamanho++) {
+                remover(porPrefixo, anterior.titulo.substring(0, tamanho), id);
+            }
+        }
+        for (String termo : anterior.termos) {
+            if (nova == null || !nova.termos.contains(termo)) {
+                remover(porTermo, termo, id);
+            }
+        }
+    }
+
+    private static void adicionar(ConcurrentHashMap<String, Ids> indice, String chave, UUID id) {
+        indice.compute(chave, (c, atuais) -> {
+            Ids ids = atuais != null ? atuais : new Ids();
+            if (ids.ids.add(id)) {
+                ids.quantidade++;
+            }
+            return ids;
+        });
+    }
+
+    /** Tira o ID da chave e, se ela ficou vazia, a própria chave do índice. */
+    private static void remover(ConcurrentHashMap<String, Ids> indice, String chave, UUID id) {
+        indice.computeIfPresent(chave, (c, ids) -> {
+            if (ids.ids.remove(id)) {
+                ids.quantidade--;
+            }
+            return ids.quantidade > 0 ? ids : null;
+        });
+    }
+
+    private static Set<String> termosDe(Tarefa tarefa) {
+        Set<String> termos = FiltroTarefas.tokens(tarefa.getTitulo());
+        termos.addAll(FiltroTarefas.tokens(tarefa.getDescricao()));
+        return termos;
+    }
+
+    private static String chaveTitulo(String tituloNormalizado, UUID id) {
+        return tituloNormalizado + SEPARADOR_TITULO + id;
+    }
+
+    private ReentrantLock travaDe(UUID id) {
+        return travas[faixaDe(id)];
+    }
+
+    private static int faixaDe(UUID id) {
+        return (id.hashCode() & 0x7fffffff) % QUANTIDADE_TRAVAS;
+    }
+
+    /** IDs de um termo ou prefixo, em ordem, com a contagem mantida à parte. */
+    private static final class Ids {
+        final NavigableSet<UUID> ids = new ConcurrentSkipListSet<>();
+        /** Só muda dentro do {@code compute} da chave, que serializa as escritas dela. */
+        volatile int quantidade;
+    }
+
+    private static final class EntradaIndice {
+        final boolean concluida;
+        final String titulo;
+        final Set<String> termos;
+
+        EntradaIndice(boolean concluida, String titulo, Set<String> termos) {
+            this.concluida = concluida;
+            this.titulo = titulo;
+            this.termos = termos;
+        }
+    }
+}
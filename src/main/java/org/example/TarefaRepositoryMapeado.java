@@ -0,0 +1,376 @@
+package org.example;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.UnaryOperator;
+
+/**
+ * Repositório que mantém as tarefas fora do heap, em arquivos mapeados em
+ * memória dentro de um diretório de dados:
+ *
+ * <ul>
+ *   <li>{@code registros.dat}: cabeçalho de 64 bytes seguido de registros de
+ *   tamanho fixo (64 bytes) com o UUID em dois longs, um campo de flags e os
+ *   offsets/tamanhos dos textos;</li>
+ *   <li>{@code textos.dat}: arena append-only com os títulos e descrições em
+ *   UTF-8;</li>
+ *   <li>{@code indice.dat}: índice hash de endereçamento aberto (sondagem
+ *   linear) UUID → número do registro, reconstruído a partir dos registros
+ *   ao abrir o repositório.</li>
+ * </ul>
+ *
+ * <p>Objetos {@link Tarefa} só são criados nas leituras. A listagem segue a
+ * ordem de inserção. Regravar uma tarefa atualiza o registro no lugar, mas os
+ * textos antigos continuam ocupando a arena. Remover apenas marca o registro
+ * com uma flag; ele continua no índice e é reaproveitado se o ID voltar.</p>
+ */
+public class TarefaRepositoryMapeado implements TarefaRepository {
+
+    private static final int MAGIC = 0x5441524D;
+    private static final int VERSAO = 1;
+
+    private static final long TAMANHO_CABECALHO = 64;
+    private static final long POS_QUANTIDADE = 8;
+    private static final long POS_FIM_ARENA = 16;
+    private static final long POS_REMOVIDAS = 24;
+
+    private static final long TAMANHO_REGISTRO = 64;
+    private static final int CAMPO_MSB = 0;
+    private static final int CAMPO_LSB = 8;
+    private static final int CAMPO_FLAGS = 16;
+    private static final int CAMPO_TAMANHO_TITULO = 20;
+    private static final int CAMPO_OFFSET_TITULO = 24;
+    private static final int CAMPO_OFFSET_DESCRICAO = 32;
+    private static final int CAMPO_TAMANHO_DESCRICAO = 40;
+    private static final int CAMPO_VERSAO = 48;
+
+    private static final int FLAG_CONCLUIDA = 1;
+    private static final int FLAG_TEM_TITULO = 1 << 1;
+    private static final int FLAG_TEM_DESCRICAO = 1 << 2;
+    private static final int FLAG_REMOVIDA = 1 << 3;
+
+    private static final long TAMANHO_SLOT = 24;
+    private static final long CAPACIDADE_INICIAL_INDICE = 1L << 16;
+
+    private final Path diretorio;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final ArquivoMapeado registros;
+    private final ArquivoMapeado textos;
+
+    private ArquivoMapeado indice;
+    private long capacidadeIndice;
+    private long quantidade;
+    private long removidas;
+    private long fimArena;
+
+    public TarefaRepositoryMapeado(Path diretorio) {
+        this.diretorio = diretorio;
+        try {
+            Files.createDirectories(diretorio);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Não foi possível criar " + diretorio, e);
+        }
+        registros = new ArquivoMapeado(diretorio.resolve("registros.dat"), false);
+        textos = new ArquivoMapeado(diretorio.resolve("textos.dat"), false);
+        if (registros.getInt(0) == MAGIC) {
+            quantidade = registros.getLong(POS_QUANTIDADE);
+            fimArena = registros.getLong(POS_FIM_ARENA);
+            removidas = registros.getLong(POS_REMOVIDAS);
+        } else {
+            registros.putInt(0, MAGIC);
+            registros.putInt(4, VERSAO);
+            gravarCabecalho();
+        }
+        reconstruirIndice(Math.max(CAPACIDADE_INICIAL_INDICE, Long.highestOneBit(Math.max(1, quantidade * 2)) << 1));
+    }
+
+    @Override
+    public void salvar(Tarefa tarefa) {
+        lock.writeLock().lock();
+        try {
+            gravar(tarefa);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void salvarTodos(Collection<Tarefa> novas) {
+        lock.writeLock().lock();
+        try {
+            for (Tarefa tarefa : novas) {
+                gravar(tarefa);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public Optional<Tarefa> buscarPorId(UUID id) {
+        lock.readLock().lock();
+        try {
+            long registro = procurarAtivo(id);
+            return registro < 0 ? Optional.empty() : Optional.of(materializar(registro));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public Tarefa alterar(UUID id, UnaryOperator<Tarefa> alteracao) {
+        lock.writeLock().lock();
+        try {
+            long registro = procurarAtivo(id);
+            Tarefa atual = registro < 0 ? null : materializar(registro);
+            Tarefa nova = TarefaRepository.versionar(atual, alteracao.apply(atual));
+            if (nova != null) {
+                gravar(nova);
+            } else if (atual != null) {
+                long posicao = posicaoDoRegistro(registro);
+                registros.putInt(posicao + CAMPO_FLAGS, registros.getInt(posicao + CAMPO_FLAGS) | FLAG_REMOVIDA);
+                removidas++;
+                gravarCabecalho();
+            }
+            return nova;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public Iterator<Tarefa> listar(UUID aPartirDe) {
+        long inicio = 0;
+        if (aPartirDe != null) {
+            lock.readLock().lock();
+            try {
+                long registro = procurar(aPartirDe.getMostSignificantBits(), aPartirDe.getLeastSignificantBits());
+                inicio = registro < 0 ? quantidade : registro + 1;
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+        long primeiro = inicio;
+        return new Iterator<>() {
+            private long proximo = primeiro;
+
+            @Override
+            public boolean hasNext() {
+                lock.readLock().lock();
+                try {
+                    pularRemovidas();
+                    return proximo < quantidade;
+                } finally {
+                    lock.readLock().unlock();
+                }
+            }
+
+            @Override
+            public Tarefa next() {
+                lock.readLock().lock();
+                try {
+                    pularRemovidas();
+                    if (proximo >= quantidade) {
+                        throw new NoSuchElementException();
+                    }
+                    return materializar(proximo++);
+                } finally {
+                    lock.readLock().unlock();
+                }
+            }
+
+            private void pularRemovidas() {
+                while (proximo < quantidade && removida(proximo)) {
+                    proximo++;
+                }
+            }
+        };
+    }
+
+    @Override
+    public boolean listaEmOrdemDeId() {
+        return false;
+    }
+
+    @Override
+    public int tamanho() {
+        lock.readLock().lock();
+        try {
+            return (int) Math.min(Integer.MAX_VALUE, quantidade - removidas);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void limpar() {
+        lock.writeLock().lock();
+        try {
+            quantidade = 0;
+            removidas = 0;
+            fimArena = 0;
+            gravarCabecalho();
+            reconstruirIndice(CAPACIDADE_INICIAL_INDICE);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void close() {
+        lock.writeLock().lock();
+        try {
+            registros.close();
+            textos.close();
+            indice.close();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void gravar(Tarefa tarefa) {
+        UUID id = tarefa.getId();
+        long registro = procurar(id.getMostSignificantBits(), id.getLeastSignificantBits());
+        boolean novo = registro < 0;
+        if (novo) {
+            if ((quantidade + 1) * 2 > capacidadeIndice) {
+                reconstruirIndice(capacidadeIndice * 2);
+            }
+            registro = quantidade;
+        }
+
+        long posicao = posicaoDoRegistro(registro);
+        int flags = tarefa.isConcluida() ? FLAG_CONCLUIDA : 0;
+        if (tarefa.getTitulo() != null) {
+            flags |= FLAG_TEM_TITULO;
+            byte[] titulo = tarefa.getTitulo().getBytes(StandardCharsets.UTF_8);
+            registros.putLong(posicao + CAMPO_OFFSET_TITULO, anexarTexto(titulo));
+            registros.putInt(posicao + CAMPO_TAMANHO_TITULO, titulo.length);
+        }
+        if (tarefa.getDescricao() != null) {
+            flags |= FLAG_TEM_DESCRICAO;
+            byte[] descricao = tarefa.getDescricao().getBytes(StandardCharsets.UTF_8);
+            registros.putLong(posicao + CAMPO_OFFSET_DESCRICAO, anexarTexto(descricao));
+            registros.putInt(posicao + CAMPO_TAMANHO_DESCRICAO, descricao.length);
+        }
+        if (!novo && (registros.getInt(posicao + CAMPO_FLAGS) & FLAG_REMOVIDA) != 0) {
+            removidas--;
+        }
+        registros.putInt(posicao + CAMPO_FLAGS, flags);
+        registros.putLong(posicao + CAMPO_VERSAO, tarefa.getVersao());
+
+        if (novo) {
+            registros.putLong(posicao + CAMPO_MSB, id.getMostSignificantBits());
+            registros.putLong(posicao + CAMPO_LSB, id.getLeastSignificantBits());
+            inserirNoIndice(id.getMostSignificantBits(), id.getLeastSignificantBits(), registro);
+            quantidade++;
+        }
+        gravarCabecalho();
+    }
+
+    private Tarefa materializar(long registro) {
+        long posicao = posicaoDoRegistro(registro);
+        int flags = registros.getInt(posicao + CAMPO_FLAGS);
+        String titulo = null;
+        if ((flags & FLAG_TEM_TITULO) != 0) {
+            titulo = lerTexto(registros.getLong(posicao + CAMPO_OFFSET_TITULO),
+                    registros.getInt(posicao + CAMPO_TAMANHO_TITULO));
+        }
+        String descricao = null;
+        if ((flags & FLAG_TEM_DESCRICAO) != 0) {
+            descricao = lerTexto(registros.getLong(posicao + CAMPO_OFFSET_DESCRICAO),
+                    registros.getInt(posicao + CAMPO_TAMANHO_DESCRICAO));
+        }
+        return new Tarefa(new UUID(registros.getLong(posicao + CAMPO_MSB), registros.getLong(posicao + CAMPO_LSB)),
+                titulo, descricao, (flags & FLAG_CONCLUIDA) != 0,
+                Math.max(1, registros.getLong(posicao + CAMPO_VERSAO)));
+    }
+
+    private boolean removida(long registro) {
+        return (registros.getInt(posicaoDoRegistro(registro) + CAMPO_FLAGS) & FLAG_REMOVIDA) != 0;
+    }
+
+    private long procurarAtivo(UUID id) {
+        long registro = procurar(id.getMostSignificantBits(), id.getLeastSignificantBits());
+        return registro < 0 || removida(registro) ? -1 : registro;
+    }
+
+    private String lerTexto(long offset, int tamanho) {
+        byte[] bytes = new byte[tamanho];
+        textos.lerBytes(offset, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private long anexarTexto(byte[] bytes) {
+        long offset = fimArena;
+        textos.escreverBytes(offset, bytes);
+        fimArena += bytes.length;
+        return offset;
+    }
+
+    private void gravarCabecalho() {
+        registros.putLong(POS_QUANTIDADE, quantidade);
+        registros.putLong(POS_FIM_ARENA, fimArena);
+        registros.putLong(POS_REMOVIDAS, removidas);
+    }
+
+    private static long posicaoDoRegistro(long registro) {
+        return TAMANHO_CABECALHO + registro * TAMANHO_REGISTRO;
+    }
+
+    private long procurar(long msb, long lsb) {
+        long mascara = capacidadeIndice - 1;
+        for (long slot = espalhar(msb, lsb) & mascara; ; slot = (slot + 1) & mascara) {
+            long posicao = slot * TAMANHO_SLOT;
+            long registroMaisUm = indice.getLong(posicao + 16);
+            if (registroMaisUm == 0) {
+                return -1;
+            }
+            if (indice.getLong(posicao) == msb && indice.getLong(posicao + 8) == lsb) {
+                return registroMaisUm - 1;
+            }
+        }
+    }
+
+    private void inserirNoIndice(long msb, long lsb, long registro) {
+        long mascara = capacidadeIndice - 1;
+        long slot = espalhar(msb, lsb) & mascara;
+        while (indice.getLong(slot * TAMANHO_SLOT + 16) != 0) {
+            slot = (slot + 1) & mascara;
+        }
+        long posicao = slot * TAMANHO_SLOT;
+        indice.putLong(posicao, msb);
+        indice.putLong(posicao + 8, lsb);
+        indice.putLong(posicao + 16, registro + 1);
+    }
+
+    private void reconstruirIndice(long novaCapacidade) {
+        if (indice != null) {
+            indice.close();
+        }
+        indice = new ArquivoMapeado(diretorio.resolve("indice.dat"), true);
+        capacidadeIndice = novaCapacidade;
+        for (long registro = 0; registro < quantidade; registro++) {
+            long posicao = posicaoDoRegistro(registro);
+            inserirNoIndice(registros.getLong(posicao + CAMPO_MSB), registros.getLong(posicao + CAMPO_LSB), registro);
+        }
+    }
+
+    private static long espalhar(long msb, long lsb) {
+        long h = msb ^ Long.rotateLeft(lsb, 32);
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        return h;
+    }
+}
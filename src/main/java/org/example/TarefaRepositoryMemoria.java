@@ -0,0 +1,62 @@
+package org.example;
+
+import java.util.Iterator;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.UnaryOperator;
+
+/**
+ * Tarefas em memória. O mapa ordenado atende a listagem por cursor; as
+ * buscas por ID vão ao {@link MapaUuid}, sem percorrer a skip list. As
+ * escritas atualizam os dois sob a trava da faixa do ID no {@code MapaUuid},
+ * então escritas de IDs em faixas diferentes não esperam umas pelas outras.
+ */
+public class TarefaRepositoryMemoria implements TarefaRepository {
+
+    private final ConcurrentNavigableMap<UUID, Tarefa> tarefas = new ConcurrentSkipListMap<>();
+    private final MapaUuid<Tarefa> porId = new MapaUuid<>();
+
+    @Override
+    public void salvar(Tarefa tarefa) {
+        porId.alterar(tarefa.getId(), atual -> {
+            tarefas.put(tarefa.getId(), tarefa);
+            return tarefa;
+        });
+    }
+
+    @Override
+    public Optional<Tarefa> buscarPorId(UUID id) {
+        return Optional.ofNullable(porId.get(id));
+    }
+
+    @Override
+    public Tarefa alterar(UUID id, UnaryOperator<Tarefa> alteracao) {
+        return porId.alterar(id, atual -> {
+            Tarefa nova = TarefaRepository.versionar(atual, alteracao.apply(atual));
+            if (nova != null) {
+                tarefas.put(id, nova);
+            } else {
+                tarefas.remove(id);
+            }
+            return nova;
+        });
+    }
+
+    @Override
+    public Iterator<Tarefa> listar(UUID aPartirDe) {
+        ConcurrentNavigableMap<UUID, Tarefa> origem = aPartirDe == null ? tarefas : tarefas.tailMap(aPartirDe, false);
+        return origem.values().iterator();
+    }
+
+    @Override
+    public int tamanho() {
+        return porId.size();
+    }
+
+    @Override
+    public void limpar() {
+        porId.clear(tarefas::clear);
+    }
+}
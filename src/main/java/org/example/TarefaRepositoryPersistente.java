@@ -0,0 +1,531 @@
+package org.example;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.UnaryOperator;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Repositório durável: as tarefas ficam num mapa em memória e cada escrita é
+ * registrada num log append-only (write-ahead log) antes de ser aplicada.
+ *
+ * <p>Uma única thread escritora drena a fila de operações e grava os registros
+ * em lote, com um só {@code fsync} por lote (group commit). A cada
+ * {@code intervaloSnapshot} registros o log é rotacionado e um snapshot
+ * compactado do mapa é gravado em segundo plano; na inicialização basta
+ * carregar o snapshot e reaplicar os segmentos de log posteriores a ele.</p>
+ *
+ * <p>Formato de cada registro: {@code [int tamanho][int crc32][payload]}. Um
+ * registro truncado ou com CRC inválido encerra a leitura do segmento.</p>
+ */
+public class TarefaRepositoryPersistente implements TarefaRepository {
+
+    static final int INTERVALO_SNAPSHOT_PADRAO = 100_000;
+
+    private static final byte TIPO_SALVAR = 1;
+    private static final byte TIPO_LIMPAR = 2;
+    private static final byte TIPO_REMOVER = 3;
+    private static final int QUANTIDADE_TRAVAS = 256;
+
+    private static final int TAMANHO_MAXIMO_LOTE = 4096;
+    private static final int MAGIC_SNAPSHOT = 0x54415246;
+    private static final String ARQUIVO_SNAPSHOT = "snapshot.bin";
+    private static final String PREFIXO_SEGMENTO = "wal-";
+    private static final String SUFIXO_SEGMENTO = ".log";
+
+    private final ConcurrentNavigableMap<UUID, Tarefa> tarefas = new ConcurrentSkipListMap<>();
+    /** Buscas por ID sem percorrer a skip list; também só alterado pela thread escritora. */
+    private final MapaUuid<Tarefa> porId = new MapaUuid<>();
+    private final BlockingQueue<Operacao> fila = new LinkedBlockingQueue<>();
+    private final Path diretorio;
+    private final int intervaloSnapshot;
+    private final Thread escritora;
+    private final ExecutorService executorSnapshot = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "tarefas-snapshot");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicBoolean snapshotEmAndamento = new AtomicBoolean();
+    private final ReentrantLock[] travas = new ReentrantLock[QUANTIDADE_TRAVAS];
+
+    /**
+     * Compartilhada por quem enfileira e exclusiva em {@link #close}: uma
+     * operação que viu o repositório ativo já está na fila quando a escritora
+     * recebe o aviso de parar, e é gravada antes de ela terminar.
+     */
+    private final ReentrantReadWriteLock fechamento = new ReentrantReadWriteLock();
+
+    private volatile boolean ativo = true;
+    private volatile LogEstruturado log;
+    private FileChannel segmentoAtual;
+    private long numeroSegmentoAtual;
+    private long registrosDesdeSnapshot;
+
+    public TarefaRepositoryPersistente(Path diretorio) {
+        this(diretorio, INTERVALO_SNAPSHOT_PADRAO);
+    }
+
+    public TarefaRepositoryPersistente(Path diretorio, int intervaloSnapshot) {
+        this.diretorio = diretorio;
+        this.intervaloSnapshot = intervaloSnapshot;
+        for (int i = 0; i < travas.length; i++) {
+            travas[i] = new ReentrantLock();
+        }
+        try {
+            Files.createDirectories(diretorio);
+            long ultimoSegmento = recuperar();
+            abrirSegmento(ultimoSegmento + 1);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Não foi possível abrir o repositório em " + diretorio, e);
+        }
+        escritora = new Thread(this::executarEscritora, "tarefas-wal");
+        escritora.setDaemon(true);
+        escritora.start();
+    }
+
+    @Override
+    public void salvar(Tarefa tarefa) {
+        aguardar(new Operacao(TIPO_SALVAR, tarefa));
+    }
+
+    @Override
+    public void salvarTodos(Collection<Tarefa> novas) {
+        List<Operacao> operacoes = new ArrayList<>(novas.size());
+        for (Tarefa tarefa : novas) {
+            operacoes.add(new Operacao(TIPO_SALVAR, tarefa));
+        }
+        aguardar(operacoes);
+    }
+
+    @Override
+    public Optional<Tarefa> buscarPorId(UUID id) {
+        return Optional.ofNullable(porId.get(id));
+    }
+
+    /**
+     * A leitura da versão atual e a gravação da nova acontecem sob uma trava
+     * por faixa de IDs, mantida até o registro estar no disco. {@link #salvar}
+     * não usa a trava: é uma gravação incondicional.
+     */
+    @Override
+    public Tarefa alterar(UUID id, UnaryOperator<Tarefa> alteracao) {
+        ReentrantLock trava = travas[(id.hashCode() & 0x7fffffff) % QUANTIDADE_TRAVAS];
+        trava.lock();
+        try {
+            Tarefa atual = porId.get(id);
+            Tarefa nova = TarefaRepository.versionar(atual, alteracao.apply(atual));
+            if (nova != null) {
+                aguardar(new Operacao(TIPO_SALVAR, nova));
+            } else if (atual != null) {
+                aguardar(new Operacao(TIPO_REMOVER, id));
+            }
+            return nova;
+        } finally {
+            trava.unlock();
+        }
+    }
+
+    @Override
+    public Iterator<Tarefa> listar(UUID aPartirDe) {
+        ConcurrentNavigableMap<UUID, Tarefa> origem = aPartirDe == null ? tarefas : tarefas.tailMap(aPartirDe, false);
+        return origem.values().iterator();
+    }
+
+    @Override
+    public int tamanho() {
+        // O size() da skip list percorre o mapa inteiro.
+        return porId.size();
+    }
+
+    @Override
+    public void limpar() {
+        aguardar(new Operacao(TIPO_LIMPAR, (UUID) null));
+    }
+
+    @Override
+    public void registrarFalhasEm(LogEstruturado log) {
+        this.log = log;
+    }
+
+    @Override
+    public void close() {
+        fechamento.writeLock().lock();
+        try {
+            ativo = false;
+        } finally {
+            fechamento.writeLock().unlock();
+        }
+        try {
+            escritora.join();
+            Operacao pendente;
+            while ((pendente = fila.poll()) != null) {
+                pendente.concluida.completeExceptionally(new IllegalStateException("Repositório de tarefas já foi fechado."));
+            }
+            executorSnapshot.shutdown();
+            executorSnapshot.awaitTermination(1, TimeUnit.MINUTES);
+            segmentoAtual.close();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void aguardar(Operacao operacao) {
+        aguardar(List.of(operacao));
+    }
+
+    private void aguardar(List<Operacao> operacoes) {
+        fechamento.readLock().lock();
+        try {
+            if (!ativo) {
+                throw new IllegalStateException("Repositório de tarefas já foi fechado.");
+            }
+            fila.addAll(operacoes);
+        } finally {
+            fechamento.readLock().unlock();
+        }
+        try {
+            for (Operacao operacao : operacoes) {
+                operacao.concluida.join();
+            }
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof IOException io) {
+                throw new UncheckedIOException("Falha ao gravar no log de tarefas.", io);
+            }
+            throw e;
+        }
+    }
+
+    private void executarEscritora() {
+        List<Operacao> lote = new ArrayList<>(TAMANHO_MAXIMO_LOTE);
+        ByteArrayOutputStream bytesLote = new ByteArrayOutputStream(64 * 1024);
+        while (ativo || !fila.isEmpty()) {
+            try {
+                Operacao primeira = fila.poll(100, TimeUnit.MILLISECONDS);
+                if (primeira == null) {
+                    continue;
+                }
+                lote.add(primeira);
+                fila.drainTo(lote, TAMANHO_MAXIMO_LOTE - 1);
+                long inicioLote = segmentoAtual.size();
+                try {
+                    gravarLote(lote, bytesLote);
+                } catch (IOException | RuntimeException e) {
+                    descartarLote(inicioLote, e);
+                    throw e;
+                }
+                for (Operacao operacao : lote) {
+                    aplicar(operacao.tipo, operacao.id, operacao.tarefa);
+                    operacao.concluida.complete(null);
+                }
+                registrosDesdeSnapshot += lote.size();
+                if (registrosDesdeSnapshot >= intervaloSnapshot) {
+                    iniciarSnapshot();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (IOException | RuntimeException e) {
+                // Uma exceção inesperada não pode matar a escritora: quem
+                // espera na fila e o close() ficariam parados para sempre.
+                // As operações já confirmadas do lote não são afetadas.
+                for (Operacao operacao : lote) {
+                    operacao.concluida.completeExceptionally(e);
+                }
+            } finally {
+                lote.clear();
+                bytesLote.reset();
+            }
+        }
+    }
+
+    private void gravarLote(List<Operacao> lote, ByteArrayOutputStream bytesLote) throws IOException {
+        DataOutputStream saida = new DataOutputStream(bytesLote);
+        for (Operacao operacao : lote) {
+            escreverRegistro(saida, operacao.tipo, operacao.id, operacao.tarefa);
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(bytesLote.toByteArray());
+        while (buffer.hasRemaining()) {
+            segmentoAtual.write(buffer);
+        }
+        segmentoAtual.force(false);
+    }
+
+    /**
+     * Tira do log um lote que falhou, para que a recuperação não pare num
+     * registro cortado (perdendo os lotes confirmados depois dele) nem
+     * reaplique registros cuja gravação foi informada como falha. Se nem o
+     * truncamento funcionar, os próximos lotes vão para um segmento novo:
+     * o registro cortado encerra só o segmento antigo.
+     */
+    private void descartarLote(long inicioLote, Exception falha) {
+        try {
+            segmentoAtual.truncate(inicioLote);
+            segmentoAtual.force(false);
+            return;
+        } catch (IOException e) {
+            falha.addSuppressed(e);
+        }
+        try {
+            segmentoAtual.close();
+        } catch (IOException e) {
+            falha.addSuppressed(e);
+        }
+        try {
+            abrirSegmento(numeroSegmentoAtual + 1);
+        } catch (IOException e) {
+            falha.addSuppressed(e);
+        }
+    }
+
+    private void aplicar(byte tipo, UUID id, Tarefa tarefa) {
+        if (tipo == TIPO_SALVAR) {
+            tarefas.put(id, tarefa);
+            porId.put(id, tarefa);
+        } else if (tipo == TIPO_REMOVER) {
+            tarefas.remove(id);
+            porId.remove(id);
+        } else if (tipo == TIPO_LIMPAR) {
+            tarefas.clear();
+            porId.clear();
+        }
+    }
+
+    private void iniciarSnapshot() throws IOException {
+        if (!snapshotEmAndamento.compareAndSet(false, true)) {
+            return;
+        }
+        // Só a thread escritora altera o mapa, então esta cópia corresponde
+        // exatamente ao conteúdo dos segmentos anteriores ao novo.
+        List<Tarefa> copia = new ArrayList<>(tarefas.values());
+        long primeiroSegmentoPosterior = numeroSegmentoAtual + 1;
+        segmentoAtual.close();
+        abrirSegmento(primeiroSegmentoPosterior);
+        registrosDesdeSnapshot = 0;
+        executorSnapshot.execute(() -> {
+            try {
+                gravarSnapshot(copia, primeiroSegmentoPosterior);
+            } catch (IOException e) {
+                LogEstruturado atual = log;
+                if (atual != null) {
+                    atual.falha("snapshot_falha", e.toString());
+                } else {
+                    System.err.println("Falha ao gravar snapshot de tarefas: " + e.getMessage());
+                }
+            } finally {
+                snapshotEmAndamento.set(false);
+            }
+        });
+    }
+
+    private void gravarSnapshot(List<Tarefa> copia, long primeiroSegmentoPosterior) throws IOException {
+        Path temporario = diretorio.resolve(ARQUIVO_SNAPSHOT + ".tmp");
+        try (FileChannel canal = FileChannel.open(temporario, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+             DataOutputStream saida = new DataOutputStream(new BufferedOutputStream(
+                     Channels.newOutputStream(canal), 64 * 1024))) {
+            saida.writeInt(MAGIC_SNAPSHOT);
+            saida.writeLong(primeiroSegmentoPosterior);
+            for (Tarefa tarefa : copia) {
+                escreverRegistro(saida, TIPO_SALVAR, tarefa.getId(), tarefa);
+            }
+            saida.flush();
+            canal.force(true);
+        }
+        Files.move(temporario, diretorio.resolve(ARQUIVO_SNAPSHOT),
+                StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        for (Path segmento : listarSegmentos()) {
+            if (numeroDoSegmento(segmento) < primeiroSegmentoPosterior) {
+                Files.deleteIfExists(segmento);
+            }
+        }
+    }
+
+    private long recuperar() throws IOException {
+        long primeiroSegmento = 0;
+        Path snapshot = diretorio.resolve(ARQUIVO_SNAPSHOT);
+        if (Files.exists(snapshot)) {
+            try (DataInputStream entrada = new DataInputStream(
+                    new BufferedInputStream(Files.newInputStream(snapshot), 64 * 1024))) {
+                if (entrada.readInt() != MAGIC_SNAPSHOT) {
+                    throw new IOException("Snapshot de tarefas corrompido: " + snapshot);
+                }
+                primeiroSegmento = entrada.readLong();
+                reaplicar(entrada);
+            }
+        }
+        long ultimoSegmento = primeiroSegmento;
+        for (Path segmento : listarSegmentos()) {
+            long numero = numeroDoSegmento(segmento);
+            if (numero < primeiroSegmento) {
+                continue;
+            }
+            try (InputStream entrada = new BufferedInputStream(Files.newInputStream(segmento), 64 * 1024)) {
+                reaplicar(new DataInputStream(entrada));
+            }
+            ultimoSegmento = Math.max(ultimoSegmento, numero);
+        }
+        return ultimoSegmento;
+    }
+
+    private void reaplicar(DataInputStream entrada) throws IOException {
+        CRC32 crc = new CRC32();
+        while (true) {
+            int tamanho;
+            int crcEsperado;
+            byte[] payload;
+            try {
+                tamanho = entrada.readInt();
+                crcEsperado = entrada.readInt();
+                if (tamanho <= 0) {
+                    return;
+                }
+                payload = entrada.readNBytes(tamanho);
+            } catch (EOFException e) {
+                return;
+            }
+            crc.reset();
+            crc.update(payload);
+            if (payload.length != tamanho || (int) crc.getValue() != crcEsperado) {
+                return;
+            }
+            DataInputStream registro = new DataInputStream(new ByteArrayInputStream(payload));
+            byte tipo = registro.readByte();
+            if (tipo == TIPO_SALVAR) {
+                Tarefa tarefa = lerTarefa(registro);
+                aplicar(tipo, tarefa.getId(), tarefa);
+            } else if (tipo == TIPO_REMOVER) {
+                aplicar(tipo, new UUID(registro.readLong(), registro.readLong()), null);
+            } else {
+                aplicar(tipo, null, null);
+            }
+        }
+    }
+
+    private void abrirSegmento(long numero) throws IOException {
+        numeroSegmentoAtual = numero;
+        segmentoAtual = FileChannel.open(diretorio.resolve(nomeDoSegmento(numero)),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    private List<Path> listarSegmentos() throws IOException {
+        try (Stream<Path> arquivos = Files.list(diretorio)) {
+            return arquivos
+                    .filter(p -> p.getFileName().toString().startsWith(PREFIXO_SEGMENTO)
+                            && p.getFileName().toString().endsWith(SUFIXO_SEGMENTO))
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    private static String nomeDoSegmento(long numero) {
+        return String.format("%s%020d%s", PREFIXO_SEGMENTO, numero, SUFIXO_SEGMENTO);
+    }
+
+    private static long numeroDoSegmento(Path segmento) {
+        String nome = segmento.getFileName().toString();
+        return Long.parseLong(nome.substring(PREFIXO_SEGMENTO.length(), nome.length() - SUFIXO_SEGMENTO.length()));
+    }
+
+    private static void escreverRegistro(DataOutputStream saida, byte tipo, UUID id, Tarefa tarefa) throws IOException {
+        ByteArrayOutputStream bytesPayload = new ByteArrayOutputStream(128);
+        DataOutputStream payload = new DataOutputStream(bytesPayload);
+        payload.writeByte(tipo);
+        if (tipo == TIPO_SALVAR || tipo == TIPO_REMOVER) {
+            payload.writeLong(id.getMostSignificantBits());
+            payload.writeLong(id.getLeastSignificantBits());
+        }
+        if (tipo == TIPO_SALVAR) {
+            escreverTexto(payload, tarefa.getTitulo());
+            escreverTexto(payload, tarefa.getDescricao());
+            payload.writeBoolean(tarefa.isConcluida());
+            payload.writeLong(tarefa.getVersao());
+        }
+        CRC32 crc = new CRC32();
+        crc.update(bytesPayload.toByteArray());
+        saida.writeInt(bytesPayload.size());
+        saida.writeInt((int) crc.getValue());
+        bytesPayload.writeTo(saida);
+    }
+
+    static Tarefa lerTarefa(DataInputStream entrada) throws IOException {
+        UUID id = new UUID(entrada.readLong(), entrada.readLong());
+        String titulo = lerTexto(entrada);
+        String descricao = lerTexto(entrada);
+        boolean concluida = entrada.readBoolean();
+        return new Tarefa(id, titulo, descricao, concluida, entrada.readLong());
+    }
+
+    static void escreverTexto(DataOutputStream saida, String texto) throws IOException {
+        if (texto == null) {
+            saida.writeInt(-1);
+            return;
+        }
+        byte[] bytes = texto.getBytes(StandardCharsets.UTF_8);
+        saida.writeInt(bytes.length);
+        saida.write(bytes);
+    }
+
+    static String lerTexto(DataInputStream entrada) throws IOException {
+        int tamanho = entrada.readInt();
+        if (tamanho < 0) {
+            return null;
+        }
+        return new String(entrada.readNBytes(tamanho), StandardCharsets.UTF_8);
+    }
+
+    private static final class Operacao {
+        final byte tipo;
+        final UUID id;
+        final Tarefa tarefa;
+        final CompletableFuture<Void> concluida = new CompletableFuture<>();
+
+        Operacao(byte tipo, Tarefa tarefa) {
+            this.tipo = tipo;
+            this.id = tarefa.getId();
+            this.tarefa = tarefa;
+        }
+
+        Operacao(byte tipo, UUID id) {
+            this.tipo = tipo;
+            this.id = id;
+            this.tarefa = null;
+        }
+    }
+}
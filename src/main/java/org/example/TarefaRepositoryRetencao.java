@@ -0,0 +1,727 @@
+package org.example;
+
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.UnaryOperator;
+
+/**
+ * Decorador que limita quanto tempo e quanto espaço as tarefas ocupam:
+ *
+ * <ul>
+ *   <li>tarefas concluídas expiram {@code ttlConcluidasMs} depois da última
+ *   escrita;</li>
+ *   <li>acima de {@code maximoTarefas} ou de {@code maximoBytes} (estimados)
+ *   as menos usadas são despejadas, por LRU ou SLRU;</li>
+ *   <li>com um {@link ArmazenamentoFrio}, a tarefa despejada vai para o disco
+ *   e volta para a memória quando é pedida por ID ou alterada.</li>
+ * </ul>
+ *
+ * <p>O caminho da requisição só registra o que aconteceu: escritas numa fila
+ * e leituras num anel com perdas. Uma thread de manutenção aplica esses
+ * registros à ordem LRU, avança uma {@link RodaTemporizacao} e remove o que
+ * venceu ou passou do limite, no máximo {@value #MAXIMO_POR_RODADA} tarefas
+ * por rodada, então o trabalho fica espalhado em vez de acontecer num pico.
+ * Os limites podem ser ultrapassados por uma rodada.</p>
+ *
+ * <p>No SLRU a tarefa entra no segmento probatório e só passa ao protegido
+ * (80% do limite) quando é lida ou escrita de novo; o despejo começa pelo
+ * probatório, então uma rajada de tarefas novas não tira da memória as que
+ * são consultadas com frequência.</p>
+ *
+ * <p>Remoções por expiração, e despejos sem armazenamento frio, passam pelo
+ * {@link TarefaRepositoryVersionado} informado em {@link #conectar}, para
+ * aparecer no feed como REMOVIDA e invalidar o cache de listagens. Isso vale
+ * também para as concluídas que estão no armazenamento frio: elas continuam
+ * na roda e, ao vencer, são removidas pelo mesmo caminho. Como em memória,
+ * uma tarefa vencida ainda aparece até a rodada que a remove. Idas e
+ * voltas do armazenamento frio não geram eventos, só mudam a versão da
+ * listagem. Uma tarefa no armazenamento frio continua existindo para os
+ * clientes: {@link #tamanho()} a conta e as listagens a intercalam, em ordem
+ * de ID, com as que estão em memória, lendo-a do disco sem trazê-la de volta
+ * (por isso o armazenamento frio exige um repositório listado em ordem de
+ * ID).</p>
+ *
+ * <p>A thread de manutenção só começa em {@link #iniciar()}.</p>
+ */
+public class TarefaRepositoryRetencao implements TarefaRepository {
+
+    public static final long TICK_PADRAO_MS = 1000;
+    static final long INTERVALO_MANUTENCAO_MS = 100;
+    static final int MAXIMO_POR_RODADA = 10_000;
+
+    private static final int QUANTIDADE_TRAVAS = 256;
+    private static final int CAPACIDADE_LEITURAS = 4096;
+    private static final double FRACAO_PROTEGIDA = 0.8;
+    /** Objetos da tarefa, do UUID e das strings, além dos bytes JSON guardados em cache. */
+    private static final int BYTES_FIXOS_TAREFA = 200;
+    private static final RuntimeException CANCELADA = new RuntimeException("remoção cancelada", null, false, false) {
+    };
+
+    private final TarefaRepository repositorio;
+    private final long ttlConcluidasMs;
+    private final long maximoTarefas;
+    private final long maximoBytes;
+    private final boolean segmentado;
+    private final ArmazenamentoFrio frio;
+    private final ReentrantLock[] travas = new ReentrantLock[QUANTIDADE_TRAVAS];
+    private final ConcurrentLinkedQueue<Escrita> escritas = new ConcurrentLinkedQueue<>();
+    private final AtomicReferenceArray<UUID> leituras = new AtomicReferenceArray<>(CAPACIDADE_LEITURAS);
+    private final LongAdder expiradas = new LongAdder();
+    private final LongAdder despejadas = new LongAdder();
+    private final LongAdder recuperadas = new LongAdder();
+    private volatile TarefaRepository destino = this;
+    private volatile TarefaRepositoryVersionado versionado;
+    private volatile boolean encerrado;
+    private final long intervaloManutencaoMs;
+    private volatile LogEstruturado log;
+    private Thread manutencao;
+
+    // Estado da manutenção: só acessado dentro de rodada(), sob o monitor deste objeto.
+    private final HashMap<UUID, Entrada> entradas = new HashMap<>();
+    /** Concluídas no armazenamento frio, agendadas na roda para expirar. */
+    private final HashMap<UUID, Entrada> frias = new HashMap<>();
+    private final ListaLru probatorio = new ListaLru();
+    private final ListaLru protegido = new ListaLru();
+    private final RodaTemporizacao<Entrada> roda;
+    private final ArrayDeque<Entrada> vencidas = new ArrayDeque<>();
+    private long bytesEmUso;
+    private long bytesProtegidos;
+
+    /**
+     * @param ttlConcluidasMs tempo de vida das concluídas; 0 desliga
+     * @param maximoTarefas   limite de tarefas em memória; 0 desliga
+     * @param maximoBytes     limite estimado de bytes em memória; 0 desliga
+     * @param segmentado      SLRU ({@code true}) ou LRU simples
+     * @param arquivoFrio     arquivo para as despejadas, ou {@code null} para apagá-las
+     * @param tickMs          resolução da expiração
+     */
+    public TarefaRepositoryRetencao(TarefaRepository repositorio, long ttlConcluidasMs, long maximoTarefas,
+                                    long maximoBytes, boolean segmentado, Path arquivoFrio, long tickMs) {
+        this(repositorio, ttlConcluidasMs, maximoTarefas, maximoBytes, segmentado, arquivoFrio, tickMs,
+                INTERVALO_MANUTENCAO_MS);
+    }
+
+    /** Com {@code intervaloManutencaoMs} 0 {@link #iniciar()} não cria a thread: quem usa chama {@link #rodada}. */
+    TarefaRepositoryRetencao(TarefaRepository repositorio, long ttlConcluidasMs, long maximoTarefas,
+                             long maximoBytes, boolean segmentado, Path arquivoFrio, long tickMs,
+                             long intervaloManutencaoMs) {
+        if (arquivoFrio != null && !repositorio.listaEmOrdemDeId()) {
+            throw new IllegalArgumentException("O armazenamento frio exige um repositório listado em ordem de ID; "
+                    + "não use -Dretencao.arquivoFrio com -Dtarefas.armazenamento=mapeado.");
+        }
+        this.repositorio = repositorio;
+        this.ttlConcluidasMs = ttlConcluidasMs;
+        this.maximoTarefas = maximoTarefas;
+        this.maximoBytes = maximoBytes;
+        this.segmentado = segmentado;
+        this.frio = arquivoFrio != null ? new ArmazenamentoFrio(arquivoFrio) : null;
+        this.roda = new RodaTemporizacao<>(tickMs, System.currentTimeMillis());
+        for (int i = 0; i < travas.length; i++) {
+            travas[i] = new ReentrantLock();
+        }
+        // Sem o horário real da última escrita, as tarefas existentes começam a contar agora.
+        long agora = System.currentTimeMillis();
+        repositorio.listar(null).forEachRemaining(tarefa -> escritas.add(new Escrita(tarefa.getId(), tarefa, agora)));
+        if (frio != null && ttlConcluidasMs > 0) {
+            frio.paraCadaConcluida((id, ultimaEscrita) -> agendarFria(id, ultimaEscrita + ttlConcluidasMs));
+        }
+        this.intervaloManutencaoMs = intervaloManutencaoMs;
+    }
+
+    /** Inicia a thread de manutenção, uma vez; devolve o próprio repositório. */
+    public synchronized TarefaRepositoryRetencao iniciar() {
+        if (manutencao == null && intervaloManutencaoMs > 0) {
+            manutencao = new Thread(this::manter, "retencao-tarefas");
+            manutencao.setDaemon(true);
+            manutencao.start();
+        }
+        return this;
+    }
+
+    /**
+     * Envolve {@code repositorio} conforme -Dretencao.ttlConcluidasSegundos,
+     * -Dretencao.maximoTarefas, -Dretencao.maximoBytes, -Dretencao.politica
+     * (slru ou lru) e -Dretencao.arquivoFrio; sem TTL nem limites devolve o
+     * próprio repositório.
+     */
+    public static TarefaRepository doSistema(TarefaRepository repositorio) {
+        long ttlSegundos = Long.getLong("retencao.ttlConcluidasSegundos", 0);
+        long maximoTarefas = Long.getLong("retencao.maximoTarefas", 0);
+        long maximoBytes = Long.getLong("retencao.maximoBytes", 0);
+        if (ttlSegundos <= 0 && maximoTarefas <= 0 && maximoBytes <= 0) {
+            return repositorio;
+        }
+        String politica = System.getProperty("retencao.politica", "slru");
+        if (!politica.equalsIgnoreCase("slru") && !politica.equalsIgnoreCase("lru")) {
+            throw new IllegalArgumentException("Política de retenção inválida (use slru ou lru): " + politica);
+        }
+        String arquivoFrio = System.getProperty("retencao.arquivoFrio");
+        return new TarefaRepositoryRetencao(repositorio, ttlSegundos * 1000, maximoTarefas, maximoBytes,
+                politica.equalsIgnoreCase("slru"), arquivoFrio != null ? Path.of(arquivoFrio) : null,
+                Long.getLong("retencao.tickMs", TICK_PADRAO_MS)).iniciar();
+    }
+
+    /**
+     * Faz as remoções por expiração e despejo passarem pelo repositório
+     * versionado que envolve este, para gerar eventos e invalidar caches.
+     */
+    public void conectar(TarefaRepositoryVersionado versionado) {
+        conectar(versionado, null);
+    }
+
+    /** Como {@link #conectar(TarefaRepositoryVersionado)}, registrando as falhas da manutenção em {@code log}. */
+    public void conectar(TarefaRepositoryVersionado versionado, LogEstruturado log) {
+        this.versionado = versionado;
+        this.destino = versionado;
+        this.log = log;
+    }
+
+    @Override
+    public void salvar(Tarefa tarefa) {
+        ReentrantLock trava = travaDe(tarefa.getId());
+        trava.lock();
+        try {
+            repositorio.salvar(tarefa);
+            if (frio != null) {
+                frio.remover(tarefa.getId());
+            }
+            registrarEscrita(tarefa.getId(), tarefa);
+        } finally {
+            trava.unlock();
+        }
+    }
+
+    @Override
+    public void salvarTodos(Collection<Tarefa> novas) {
+        // Mesma ordem de aquisição dos outros decoradores, para evitar deadlock.
+        SortedSet<Integer> faixas = new TreeSet<>();
+        for (Tarefa tarefa : novas) {
+            faixas.add(faixaDe(tarefa.getId()));
+        }
+        for (int faixa : faixas) {
+            travas[faixa].lock();
+        }
+        try {
+            repositorio.salvarTodos(novas);
+            for (Tarefa tarefa : novas) {
+                if (frio != null) {
+                    frio.remover(tarefa.getId());
+                }
+                registrarEscrita(tarefa.getId(), tarefa);
+            }
+        } finally {
+            for (int faixa : faixas) {
+                travas[faixa].unlock();
+            }
+        }
+    }
+
+    @Override
+    public Optional<Tarefa> buscarPorId(UUID id) {
+        Optional<Tarefa> tarefa = repositorio.buscarPorId(id);
+        if (tarefa.isPresent()) {
+            leituras.lazySet(ThreadLocalRandom.current().nextInt(CAPACIDADE_LEITURAS), id);
+            return tarefa;
+        }
+        if (frio == null || !frio.contem(id)) {
+            return tarefa;
+        }
+        ReentrantLock trava = travaDe(id);
+        trava.lock();
+        try {
+            Tarefa recuperada = recuperar(id);
+            return recuperada != null ? Optional.of(recuperada) : repositorio.buscarPorId(id);
+        } finally {
+            trava.unlock();
+        }
+    }
+
+    @Override
+    public Tarefa alterar(UUID id, UnaryOperator<Tarefa> alteracao) {
+        ReentrantLock trava = travaDe(id);
+        trava.lock();
+        try {
+            if (frio != null && frio.contem(id)) {
+                recuperar(id);
+            }
+            Tarefa alterada = repositorio.alterar(id, alteracao);
+            if (alterada == null && frio != null) {
+                frio.remover(id);
+            }
+            registrarEscrita(id, alterada);
+            return alterada;
+        } finally {
+            trava.unlock();
+        }
+    }
+
+    @Override
+    public Iterator<Tarefa> listar(UUID aPartirDe) {
+        if (frio == null || frio.tamanho() == 0) {
+            return repositorio.listar(aPartirDe);
+        }
+        return new IteradorIntercalado(List.of(repositorio.listar(aPartirDe), frio.listar(aPartirDe)));
+    }
+
+    @Override
+    public Iterator<Tarefa> listar(FiltroTarefas filtro, UUID aPartirDe) {
+        if (filtro.vazio()) {
+            return listar(aPartirDe);
+        }
+        if (frio == null || frio.tamanho() == 0) {
+            return repositorio.listar(filtro, aPartirDe);
+        }
+        // As frias não estão nos índices: são lidas do disco e conferidas uma a uma.
+        return new IteradorIntercalado(List.of(repositorio.listar(filtro, aPartirDe),
+                new IteradorFiltrado<>(frio.listar(aPartirDe), filtro::aceita)));
+    }
+
+    @Override
+    public boolean listaEmOrdemDeId() {
+        return repositorio.listaEmOrdemDeId();
+    }
+
+    @Override
+    public int tamanho() {
+        // Durante uma ida ou volta do armazenamento frio a tarefa pode ser contada duas vezes.
+        return repositorio.tamanho() + (frio != null ? frio.tamanho() : 0);
+    }
+
+    @Override
+    public void limpar() {
+        for (ReentrantLock trava : travas) {
+            trava.lock();
+        }
+        try {
+            repositorio.limpar();
+            if (frio != null) {
+                frio.limpar();
+            }
+            escritas.add(new Escrita(null, null, 0));
+        } finally {
+            for (ReentrantLock trava : travas) {
+                trava.unlock();
+            }
+        }
+    }
+
+    @Override
+    public void registrarFalhasEm(LogEstruturado log) {
+        this.log = log;
+        repositorio.registrarFalhasEm(log);
+    }
+
+    @Override
+    public void close() {
+        encerrado = true;
+        Thread thread;
+        synchronized (this) {
+            thread = manutencao;
+        }
+        if (thread != null) {
+            LockSupport.unpark(thread);
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (frio != null) {
+            frio.close();
+        }
+        repositorio.close();
+    }
+
+    /** Configuração legível, para o log de inicialização. */
+    public String descricao() {
+        return "TTL das concluídas " + (ttlConcluidasMs > 0 ? ttlConcluidasMs / 1000 + " s" : "desligado")
+                + ", máximo " + (maximoTarefas > 0 ? maximoTarefas + " tarefas" : "sem limite de tarefas")
+                + (maximoBytes > 0 ? " e " + maximoBytes + " bytes" : "")
+                + " (" + (segmentado ? "SLRU" : "LRU") + "), despejadas "
+                + (frio != null ? "vão para o armazenamento frio" : "são apagadas");
+    }
+
+    /** Contadores para o /status. */
+    public Map<String, Object> resumo() {
+        Map<String, Object> resumo = new LinkedHashMap<>();
+        resumo.put("politica", segmentado ? "slru" : "lru");
+        resumo.put("tarefasNoArmazenamentoFrio", frio != null ? frio.tamanho() : 0);
+        resumo.put("expiradas", expiradas.sum());
+        resumo.put("despejadas", despejadas.sum());
+        resumo.put("recuperadasDoArmazenamentoFrio", recuperadas.sum());
+        return resumo;
+    }
+
+    long expiradas() {
+        return expiradas.sum();
+    }
+
+    long despejadas() {
+        return despejadas.sum();
+    }
+
+    int tarefasNoArmazenamentoFrio() {
+        return frio != null ? frio.tamanho() : 0;
+    }
+
+    /**
+     * Traz a tarefa do armazenamento frio para a memória, com o horário da
+     * última escrita original; se ela já venceu, a próxima rodada a remove.
+     * Chamado com a trava da faixa.
+     */
+    private Tarefa recuperar(UUID id) {
+        Tarefa tarefa = frio.ler(id);
+        if (tarefa == null || repositorio.buscarPorId(id).isPresent()) {
+            return null;
+        }
+        long ultimaEscrita = frio.ultimaEscrita(id);
+        repositorio.salvar(tarefa);
+        frio.remover(id);
+        escritas.add(new Escrita(id, tarefa, ultimaEscrita));
+        recuperadas.increment();
+        registrarMudancaNaListagem();
+        return tarefa;
+    }
+
+    /** Chamado com a trava da faixa, para que as escritas de uma tarefa entrem na fila em ordem. */
+    private void registrarEscrita(UUID id, Tarefa tarefa) {
+        escritas.add(new Escrita(id, tarefa, System.currentTimeMillis()));
+    }
+
+    private void registrarMudancaNaListagem() {
+        TarefaRepositoryVersionado atual = versionado;
+        if (atual != null) {
+            atual.registrarMudancaExterna();
+        }
+    }
+
+    private void manter() {
+        while (!encerrado) {
+            try {
+                rodada(System.currentTimeMillis());
+            } catch (RuntimeException e) {
+                LogEstruturado atual = log;
+                if (atual != null) {
+                    atual.falha("retencao_falha", e.toString());
+                } else {
+                    System.err.println("Falha na manutenção da retenção de tarefas: " + e);
+                }
+            }
+            LockSupport.parkNanos(intervaloManutencaoMs * 1_000_000);
+        }
+    }
+
+    /** Uma rodada de manutenção no instante {@code agora}; também usada pelos testes. */
+    synchronized void rodada(long agora) {
+        Escrita escrita;
+        while ((escrita = escritas.poll()) != null) {
+            aplicar(escrita);
+        }
+        for (int i = 0; i < CAPACIDADE_LEITURAS; i++) {
+            UUID lida = leituras.getAndSet(i, null);
+            if (lida != null) {
+                Entrada entrada = entradas.get(lida);
+                if (entrada != null) {
+                    tocar(entrada);
+                }
+            }
+        }
+        roda.avancar(agora, vencidas::add);
+        int removidas = expirar(agora);
+        despejar(MAXIMO_POR_RODADA - removidas);
+        if (frio != null) {
+            frio.compactarSeNecessario();
+        }
+    }
+
+    private void aplicar(Escrita escrita) {
+        if (escrita.id == null) {
+            entradas.clear();
+            frias.clear();
+            probatorio.limpar();
+            protegido.limpar();
+            bytesEmUso = 0;
+            bytesProtegidos = 0;
+            return;
+        }
+        // Escrita ou volta do armazenamento frio: a expiração passa a ser a da memória.
+        frias.remove(escrita.id);
+        Entrada entrada = entradas.get(escrita.id);
+        if (escrita.tarefa == null) {
+            if (entrada != null) {
+                descartar(entrada);
+            }
+            return;
+        }
+        int bytes = estimarBytes(escrita.tarefa);
+        if (entrada == null) {
+            entrada = new Entrada(escrita.id);
+            entradas.put(escrita.id, entrada);
+            entrada.bytes = bytes;
+            bytesEmUso += bytes;
+            probatorio.adicionar(entrada);
+        } else {
+            ajustarBytes(entrada, bytes);
+            tocar(entrada);
+        }
+        entrada.versao = escrita.tarefa.getVersao();
+        entrada.ultimaEscrita = escrita.instante;
+        if (ttlConcluidasMs > 0 && escrita.tarefa.isConcluida()) {
+            entrada.prazo = escrita.instante + ttlConcluidasMs;
+            roda.agendar(entrada, entrada.prazo);
+        } else {
+            entrada.prazo = 0;
+        }
+    }
+
+    /** Registra um uso: no SLRU promove do probatório ao protegido; no LRU só move para o fim. */
+    private void tocar(Entrada entrada) {
+        if (!segmentado || entrada.protegida) {
+            (entrada.protegida ? protegido : probatorio).moverParaFim(entrada);
+            return;
+        }
+        probatorio.remover(entrada);
+        entrada.protegida = true;
+        protegido.adicionar(entrada);
+        bytesProtegidos += entrada.bytes;
+        while (protegidoCheio()) {
+            Entrada rebaixada = protegido.primeiro();
+            protegido.remover(rebaixada);
+            rebaixada.protegida = false;
+            bytesProtegidos -= rebaixada.bytes;
+            probatorio.adicionar(rebaixada);
+        }
+    }
+
+    private boolean protegidoCheio() {
+        return protegido.tamanho > 1
+                && ((maximoTarefas > 0 && protegido.tamanho > maximoTarefas * FRACAO_PROTEGIDA)
+                || (maximoBytes > 0 && bytesProtegidos > maximoBytes * FRACAO_PROTEGIDA));
+    }
+
+    private void ajustarBytes(Entrada entrada, int bytes) {
+        bytesEmUso += bytes - entrada.bytes;
+        if (entrada.protegida) {
+            bytesProtegidos += bytes - entrada.bytes;
+        }
+        entrada.bytes = bytes;
+    }
+
+    private void descartar(Entrada entrada) {
+        entradas.remove(entrada.id);
+        (entrada.protegida ? protegido : probatorio).remover(entrada);
+        bytesEmUso -= entrada.bytes;
+        if (entrada.protegida) {
+            bytesProtegidos -= entrada.bytes;
+        }
+        entrada.prazo = 0;
+    }
+
+    private int expirar(long agora) {
+        int removidas = 0;
+        while (removidas < MAXIMO_POR_RODADA && !vencidas.isEmpty()) {
+            Entrada entrada = vencidas.poll();
+            // Reagendada, alterada ou já removida desde que foi posta na roda.
+            if (entrada.prazo == 0 || entrada.prazo > agora
+                    || (entrada.fria ? frias : entradas).get(entrada.id) != entrada) {
+                continue;
+            }
+            long versao;
+            if (entrada.fria) {
+                frias.remove(entrada.id);
+                versao = frio.versao(entrada.id);
+            } else {
+                versao = entrada.versao;
+                descartar(entrada);
+            }
+            if (versao >= 0 && removerSeIgual(entrada.id, versao, true)) {
+                expiradas.increment();
+            }
+            removidas++;
+        }
+        return removidas;
+    }
+
+    private void despejar(int maximo) {
+        boolean moveuParaFrio = false;
+        int despejos = 0;
+        while (despejos < maximo && acimaDoLimite()) {
+            Entrada vitima = probatorio.primeiro() != null ? probatorio.primeiro() : protegido.primeiro();
+            long versao = vitima.versao;
+            long ultimaEscrita = vitima.ultimaEscrita;
+            long prazo = vitima.prazo;
+            descartar(vitima);
+            boolean despejada = frio != null
+                    ? moverParaFrio(vitima.id, versao, ultimaEscrita)
+                    : removerSeIgual(vitima.id, versao, false);
+            if (despejada) {
+                despejadas.increment();
+                moveuParaFrio |= frio != null;
+                if (frio != null && prazo != 0) {
+                    agendarFria(vitima.id, prazo);
+                }
+            }
+            despejos++;
+        }
+        if (moveuParaFrio) {
+            registrarMudancaNaListagem();
+        }
+    }
+
+    private void agendarFria(UUID id, long prazo) {
+        Entrada entrada = new Entrada(id);
+        entrada.fria = true;
+        entrada.prazo = prazo;
+        frias.put(id, entrada);
+        roda.agendar(entrada, prazo);
+    }
+
+    private boolean acimaDoLimite() {
+        return !entradas.isEmpty()
+                && ((maximoTarefas > 0 && entradas.size() > maximoTarefas)
+                || (maximoBytes > 0 && bytesEmUso > maximoBytes));
+    }
+
+    /**
+     * Remove pela cadeia de decoradores (feed, versão) se a tarefa ainda está
+     * na versão vista pela manutenção; uma escrita mais nova já está na fila
+     * e devolve a tarefa às listas.
+     */
+    private boolean removerSeIgual(UUID id, long versao, boolean soConcluida) {
+        try {
+            destino.alterar(id, atual -> {
+                if (atual == null || atual.getVersao() != versao || (soConcluida && !atual.isConcluida())) {
+                    throw CANCELADA;
+                }
+                return null;
+            });
+            return true;
+        } catch (RuntimeException e) {
+            if (e != CANCELADA) {
+                throw e;
+            }
+            return false;
+        }
+    }
+
+    private boolean moverParaFrio(UUID id, long versao, long ultimaEscrita) {
+        ReentrantLock trava = travaDe(id);
+        trava.lock();
+        try {
+            Tarefa atual = repositorio.buscarPorId(id).orElse(null);
+            if (atual == null || atual.getVersao() != versao) {
+                return false;
+            }
+            frio.gravar(atual, ultimaEscrita);
+            repositorio.alterar(id, tarefa -> null);
+            return true;
+        } finally {
+            trava.unlock();
+        }
+    }
+
+    private static int estimarBytes(Tarefa tarefa) {
+        int texto = (tarefa.getTitulo() != null ? tarefa.getTitulo().length() : 0)
+                + (tarefa.getDescricao() != null ? tarefa.getDescricao().length() : 0);
+        // O texto aparece nas strings e de novo no JSON em cache.
+        return BYTES_FIXOS_TAREFA + 2 * texto;
+    }
+
+    private ReentrantLock travaDe(UUID id) {
+        return travas[faixaDe(id)];
+    }
+
+    private static int faixaDe(UUID id) {
+        return (id.hashCode() & 0x7fffffff) % QUANTIDADE_TRAVAS;
+    }
+
+    private static final class Escrita {
+        /** {@code null} numa limpeza. */
+        final UUID id;
+        /** {@code null} numa remoção. */
+        final Tarefa tarefa;
+        final long instante;
+
+        Escrita(UUID id, Tarefa tarefa, long instante) {
+            this.id = id;
+            this.tarefa = tarefa;
+            this.instante = instante;
+        }
+    }
+
+    private static final class Entrada {
+        final UUID id;
+        long versao;
+        int bytes;
+        long ultimaEscrita;
+        /** Instante de expiração, ou 0 se a tarefa não expira. */
+        long prazo;
+        boolean protegida;
+        /** Agendada só para expirar no armazenamento frio; fica fora das listas LRU. */
+        boolean fria;
+        Entrada anterior;
+        Entrada proxima;
+
+        Entrada(UUID id) {
+            this.id = id;
+        }
+    }
+
+    /** Lista duplamente encadeada pelas próprias entradas, da menos para a mais recente. */
+    private static final class ListaLru {
+        private final Entrada sentinela = new Entrada(null);
+        int tamanho;
+
+        ListaLru() {
+            sentinela.anterior = sentinela;
+            sentinela.proxima = sentinela;
+        }
+
+        Entrada primeiro() {
+            return sentinela.proxima != sentinela ? sentinela.proxima : null;
+        }
+
+        void adicionar(Entrada entrada) {
+            entrada.anterior = sentinela.anterior;
+            entrada.proxima = sentinela;
+            sentinela.anterior.proxima = entrada;
+            sentinela.anterior = entrada;
+            tamanho++;
+        }
+
+        void remover(Entrada entrada) {
+            entrada.anterior.proxima = entrada.proxima;
+            entrada.proxima.anterior = entrada.anterior;
+            entrada.anterior = null;
+            entrada.proxima = null;
+            tamanho--;
+        }
+
+        void moverParaFim(Entrada entrada) {
+            remover(entrada);
+            adicionar(entrada);
+        }
+
+        void limpar() {
+            sentinela.anterior = sentinela;
+            sentinela.proxima = sentinela;
+            tamanho = 0;
+        }
+    }
+}
@@ -0,0 +1,247 @@
+package org.example;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.UnaryOperator;
+
+/**
+ * Decorador que numera as escritas feitas no repositório. A versão global e o
+ * horário da última escrita alimentam o ETag e o Last-Modified de GET /tarefas
+ * e a validade do {@link CacheListagens}; cada escrita também é publicada no
+ * {@link FeedAlteracoes}, sob uma trava por faixa de IDs, para que os eventos
+ * de uma tarefa saiam na mesma ordem em que foram gravados.
+ *
+ * <p>A versão é incrementada depois que a escrita termina, então uma leitura
+ * que começa após o incremento sempre enxerga a escrita. Uma resposta montada
+ * durante uma escrita pode incluí-la e ainda assim levar a versão anterior; o
+ * próximo pedido condicional apenas recebe o conteúdo completo de novo.</p>
+ *
+ * <p>{@link #salvar} e {@link #salvarTodos} também numeram a tarefa: uma
+ * tarefa gravada de novo com um ID existente recebe a versão seguinte à
+ * atual, e não a que veio no corpo, para que um If-Match ou If-None-Match
+ * antigo não volte a valer.</p>
+ */
+public class TarefaRepositoryVersionado implements TarefaRepository {
+
+    private static final int QUANTIDADE_TRAVAS = 256;
+
+    private final TarefaRepository repositorio;
+    private final FeedAlteracoes feed;
+    private final ReentrantLock[] travas = new ReentrantLock[QUANTIDADE_TRAVAS];
+    private final AtomicLong versao = new AtomicLong();
+    private final long epoca = System.currentTimeMillis();
+    private volatile long ultimaAlteracao = epoca;
+
+    public TarefaRepositoryVersionado(TarefaRepository repositorio) {
+        this(repositorio, new FeedAlteracoes());
+    }
+
+    public TarefaRepositoryVersionado(TarefaRepository repositorio, FeedAlteracoes feed) {
+        this.repositorio = repositorio;
+        this.feed = feed;
+        for (int i = 0; i < travas.length; i++) {
+            travas[i] = new ReentrantLock();
+        }
+    }
+
+    /** Devolve o próprio repositório, se já for versionado, ou o envolve. */
+    public static TarefaRepositoryVersionado de(TarefaRepository repositorio) {
+        if (repositorio instanceof TarefaRepositoryVersionado) {
+            return (TarefaRepositoryVersionado) repositorio;
+        }
+        return new TarefaRepositoryVersionado(repositorio);
+    }
+
+    /** Repositório envolvido por este decorador. */
+    public TarefaRepository delegado() {
+        return repositorio;
+    }
+
+    public FeedAlteracoes feed() {
+        return feed;
+    }
+
+    public long versao() {
+        return versao.get();
+    }
+
+    /** Horário (epoch em ms) da última escrita, ou da criação do repositório. */
+    public long ultimaAlteracao() {
+        return ultimaAlteracao;
+    }
+
+    /**
+     * ETag da listagem na versão informada. Inclui o horário de criação para
+     * que um ETag guardado pelo cliente não coincida após um reinício.
+     */
+    public String etag(long versaoLida) {
+        return "\"" + Long.toString(epoca, 36) + "-" + versaoLida + "\"";
+    }
+
+    /**
+     * Registra uma mudança feita abaixo deste decorador, sem evento no feed
+     * (ex.: tarefas levadas para o armazenamento frio de
+     * {@link TarefaRepositoryRetencao}), para que a listagem não seja servida
+     * do cache.
+     */
+    public void registrarMudancaExterna() {
+        registrarEscrita();
+    }
+
+    @Override
+    public void salvar(Tarefa tarefa) {
+        ReentrantLock trava = travaDe(tarefa.getId());
+        trava.lock();
+        try {
+            Tarefa atual = repositorio.buscarPorId(tarefa.getId()).orElse(null);
+            Tarefa nova = TarefaRepository.versionar(atual, tarefa);
+            repositorio.salvar(nova);
+            feed.publicar(atual != null ? EventoTarefa.Tipo.ALTERADA : EventoTarefa.Tipo.CRIADA, nova.getId(), nova);
+        } finally {
+            trava.unlock();
+        }
+        registrarEscrita();
+    }
+
+    @Override
+    public void salvarTodos(Collection<Tarefa> novas) {
+        // Mesma ordem de aquisição de TarefaRepositoryIndexado, para evitar deadlock.
+        SortedSet<Integer> faixas = new TreeSet<>();
+        for (Tarefa tarefa : novas) {
+            faixas.add(faixaDe(tarefa.getId()));
+        }
+        for (int faixa : faixas) {
+            travas[faixa].lock();
+        }
+        try {
+            boolean[] existiam = new boolean[novas.size()];
+            List<Tarefa> versionadas = new ArrayList<>(novas.size());
+            // Um ID repetido no lote é numerado a partir da ocorrência anterior,
+            // como se as gravações viessem uma depois da outra.
+            Map<UUID, Tarefa> noLote = new HashMap<>();
+            int i = 0;
+            for (Tarefa tarefa : novas) {
+                Tarefa atual = noLote.containsKey(tarefa.getId()) ? noLote.get(tarefa.getId())
+                        : repositorio.buscarPorId(tarefa.getId()).orElse(null);
+                existiam[i++] = atual != null;
+                Tarefa versionada = TarefaRepository.versionar(atual, tarefa);
+                noLote.put(tarefa.getId(), versionada);
+                versionadas.add(versionada);
+            }
+            repositorio.salvarTodos(versionadas);
+            i = 0;
+            for (Tarefa tarefa : versionadas) {
+                feed.publicar(existiam[i++] ? EventoTarefa.Tipo.ALTERADA : EventoTarefa.Tipo.CRIADA,
+                        tarefa.getId(), tarefa);
+            }
+        } finally {
+            for (int faixa : faixas) {
+                travas[faixa].unlock();
+            }
+        }
+        registrarEscrita();
+    }
+
+    @Override
+    public Optional<Tarefa> buscarPorId(UUID id) {
+        return repositorio.buscarPorId(id);
+    }
+
+    @Override
+    public Tarefa alterar(UUID id, UnaryOperator<Tarefa> alteracao) {
+        Tarefa alterada;
+        ReentrantLock trava = travaDe(id);
+        trava.lock();
+        try {
+            boolean[] existia = new boolean[1];
+            alterada = repositorio.alterar(id, atual -> {
+                existia[0] = atual != null;
+                return alteracao.apply(atual);
+            });
+            if (alterada != null) {
+                feed.publicar(existia[0] ? EventoTarefa.Tipo.ALTERADA : EventoTarefa.Tipo.CRIADA, id, alterada);
+            } else if (existia[0]) {
+                feed.publicar(EventoTarefa.Tipo.REMOVIDA, id, null);
+            }
+        } catch (PrecondicaoVersao.VersaoConflitanteException e) {
+            throw e;
+        } catch (RuntimeException e) {
+            // Uma falha de I/O pode ter acontecido depois da gravação.
+            registrarEscrita();
+            throw e;
+        } finally {
+            trava.unlock();
+        }
+        registrarEscrita();
+        return alterada;
+    }
+
+    @Override
+    public Iterator<Tarefa> listar(UUID aPartirDe) {
+        return repositorio.listar(aPartirDe);
+    }
+
+    @Override
+    public Iterator<Tarefa> listar(FiltroTarefas filtro, UUID aPartirDe) {
+        return repositorio.listar(filtro, aPartirDe);
+    }
+
+    @Override
+    public boolean listaEmOrdemDeId() {
+        return repositorio.listaEmOrdemDeId();
+    }
+
+    @Override
+    public int tamanho() {
+        return repositorio.tamanho();
+    }
+
+    @Override
+    public void limpar() {
+        for (ReentrantLock trava : travas) {
+            trava.lock();
+        }
+        try {
+            repositorio.limpar();
+            feed.publicar(EventoTarefa.Tipo.LIMPEZA, null, null);
+        } finally {
+            for (ReentrantLock trava : travas) {
+                trava.unlock();
+            }
+        }
+        registrarEscrita();
+    }
+
+    @Override
+    public void registrarFalhasEm(LogEstruturado log) {
+        repositorio.registrarFalhasEm(log);
+    }
+
+    @Override
+    public void close() {
+        repositorio.close();
+    }
+
+    private ReentrantLock travaDe(UUID id) {
+        return travas[faixaDe(id)];
+    }
+
+    private static int faixaDe(UUID id) {
+        return (id.hashCode() & 0x7fffffff) % QUANTIDADE_TRAVAS;
+    }
+
+    private void registrarEscrita() {
+        ultimaAlteracao = System.currentTimeMillis();
+        versao.incrementAndGet();
+    }
+}
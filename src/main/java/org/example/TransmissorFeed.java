@@ -0,0 +1,201 @@
+package org.example;
+
+import io.javalin.Javalin;
+import io.javalin.http.sse.SseClient;
+import io.javalin.websocket.WsContext;
+import java.io.IOException;
+
+/**
+ * Expõe o {@link FeedAlteracoes} em GET /tarefas/eventos (Server-Sent Events)
+ * e em /tarefas/eventos/ws (WebSocket). Cada conexão tem uma virtual thread
+ * própria que esvazia a fila da sua assinatura, então um cliente lento só
+ * atrasa a si mesmo.
+ *
+ * <p>Para retomar, o cliente informa a última sequência recebida no header
+ * Last-Event-ID (enviado automaticamente pelo EventSource) ou no parâmetro
+ * {@code desde}.</p>
+ */
+public class TransmissorFeed {
+
+    static final String ROTA_SSE = "/tarefas/eventos";
+    static final long INTERVALO_PING_MS = 15_000;
+    static final int CODIGO_ASSINANTE_ATRASADO = 4001;
+
+    private static final String AVISO_LACUNA =
+            "{\"aviso\":\"lacuna\",\"mensagem\":\"Parte dos eventos não está mais disponível; recarregue GET /tarefas.\"}";
+    private static final String AVISO_ATRASADO =
+            "{\"aviso\":\"atrasado\",\"mensagem\":\"Conexão encerrada porque os eventos não foram consumidos a tempo; reconecte informando a última sequência.\"}";
+
+    private final FeedAlteracoes feed;
+    private final int capacidadeAssinante;
+    private final FeedAlteracoes.Politica politica;
+    private final LogEstruturado log;
+    private final long intervaloPingMs;
+
+    /** @param log recebe as falhas do envio que não são uma desconexão do cliente */
+    public TransmissorFeed(FeedAlteracoes feed, int capacidadeAssinante, FeedAlteracoes.Politica politica,
+                           LogEstruturado log) {
+        this(feed, capacidadeAssinante, politica, log, INTERVALO_PING_MS);
+    }
+
+    TransmissorFeed(FeedAlteracoes feed, int capacidadeAssinante, FeedAlteracoes.Politica politica,
+                    LogEstruturado log, long intervaloPingMs) {
+        this.feed = feed;
+        this.capacidadeAssinante = capacidadeAssinante;
+        this.politica = politica;
+        this.log = log;
+        this.intervaloPingMs = intervaloPingMs;
+    }
+
+    public void instalar(Javalin app) {
+        app.sse(ROTA_SSE, cliente -> {
+            long desde = ultimaSequencia(cliente.ctx().header("Last-Event-ID"), cliente.ctx().queryParam("desde"));
+            FeedAlteracoes.Assinatura assinatura = feed.assinar(desde, capacidadeAssinante, politica);
+            cliente.keepAlive();
+            cliente.onClose(assinatura::close);
+            Thread.ofVirtual().name("feed-sse").start(() -> transmitir(assinatura, new CanalSse(cliente)));
+        });
+
+        app.ws("/tarefas/eventos/ws", ws -> {
+            ws.onConnect(ctx -> {
+                long desde = ultimaSequencia(null, ctx.queryParam("desde"));
+                FeedAlteracoes.Assinatura assinatura = feed.assinar(desde, capacidadeAssinante, politica);
+                ctx.attribute("assinatura", assinatura);
+                Thread.ofVirtual().name("feed-ws").start(() -> transmitir(assinatura, new CanalWebSocket(ctx)));
+            });
+            ws.onClose(ctx -> encerrar(ctx.attribute("assinatura")));
+            ws.onError(ctx -> encerrar(ctx.attribute("assinatura")));
+        });
+    }
+
+    private static void encerrar(FeedAlteracoes.Assinatura assinatura) {
+        if (assinatura != null) {
+            assinatura.close();
+        }
+    }
+
+    static long ultimaSequencia(String lastEventId, String desde) {
+        String valor = lastEventId != null ? lastEventId : desde;
+        if (valor == null) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(valor.trim());
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private void transmitir(FeedAlteracoes.Assinatura assinatura, Canal canal) {
+        try {
+            if (assinatura.teveLacuna()) {
+                canal.avisar("lacuna", AVISO_LACUNA);
+            }
+            while (assinatura.ativa() && canal.aberto()) {
+                EventoTarefa evento = assinatura.proximo(intervaloPingMs);
+                if (evento != null) {
+                    canal.enviar(evento);
+                } else if (assinatura.ativa()) {
+                    canal.ping();
+                }
+            }
+            if (assinatura.atrasada() && canal.aberto()) {
+                canal.avisar("atrasado", AVISO_ATRASADO);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            // Cliente desconectado no meio do envio.
+        } catch (RuntimeException e) {
+            log.falha("feed_falha", e.toString());
+        } finally {
+            assinatura.close();
+            canal.fechar(assinatura.atrasada());
+        }
+    }
+
+    private interface Canal {
+        void enviar(EventoTarefa evento) throws IOException;
+
+        void avisar(String tipo, String json) throws IOException;
+
+        void ping() throws IOException;
+
+        boolean aberto();
+
+        void fechar(boolean atrasado);
+    }
+
+    private static final class CanalSse implements Canal {
+        private final SseClient cliente;
+
+        CanalSse(SseClient cliente) {
+            this.cliente = cliente;
+        }
+
+        @Override
+        public void enviar(EventoTarefa evento) {
+            cliente.sendEvent(evento.getTipo().name().toLowerCase(), evento.json(), Long.toString(evento.getSequencia()));
+        }
+
+        @Override
+        public void avisar(String tipo, String json) {
+            cliente.sendEvent(tipo, json);
+        }
+
+        @Override
+        public void ping() {
+            cliente.sendComment("ping");
+        }
+
+        @Override
+        public boolean aberto() {
+            return !cliente.terminated();
+        }
+
+        @Override
+        public void fechar(boolean atrasado) {
+            cliente.close();
+        }
+    }
+
+    private static final class CanalWebSocket implements Canal {
+        private final WsContext ctx;
+
+        CanalWebSocket(WsContext ctx) {
+            this.ctx = ctx;
+        }
+
+        @Override
+        public void enviar(EventoTarefa evento) {
+            ctx.send(evento.json());
+        }
+
+        @Override
+        public void avisar(String tipo, String json) {
+            ctx.send(json);
+        }
+
+        @Override
+        public void ping() {
+            ctx.sendPing();
+        }
+
+        @Override
+        public boolean aberto() {
+            return ctx.session.isOpen();
+        }
+
+        @Override
+        public void fechar(boolean atrasado) {
+            if (!ctx.session.isOpen()) {
+                return;
+            }
+            if (atrasado) {
+                ctx.closeSession(CODIGO_ASSINANTE_ATRASADO, "assinante atrasado");
+            } else {
+                ctx.closeSession();
+            }
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package org.example;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.eclipse.jetty.http.HttpTester;
+import org.eclipse.jetty.server.LocalConnector;
+
+/**
+ * Requisições HTTP/1.1 entregues direto a um {@link LocalConnector} do Jetty:
+ * o texto da requisição passa pelo mesmo parser, handlers e filtros de uma
+ * conexão TCP, mas sem sockets, portas nem cliente HTTP. Serve para testes e
+ * benchmarks que querem medir ou exercitar só o servidor. Cada chamada usa uma
+ * conexão própria e pode ser feita de várias threads.
+ *
+ * <p>Respostas em chunked chegam já montadas; gzip não é descomprimido.</p>
+ */
+public final class TransporteEmProcesso {
+
+    private static final long ESPERA_MAXIMA_SEGUNDOS = 30;
+
+    private final LocalConnector conector;
+
+    TransporteEmProcesso(LocalConnector conector) {
+        this.conector = conector;
+    }
+
+    public Resposta get(String caminho) {
+        return enviar("GET", caminho, Map.of(), null);
+    }
+
+    public Resposta post(String caminho, String json) {
+        return enviar("POST", caminho, Map.of("Content-Type", "application/json"),
+                json.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /** Envia a requisição e espera a resposta completa. {@code corpo} pode ser {@code null}. */
+    public Resposta enviar(String metodo, String caminho, Map<String, String> headers, byte[] corpo) {
+        HttpTester.Request requisicao = HttpTester.newRequest();
+        requisicao.setMethod(metodo);
+        requisicao.setURI(caminho);
+        requisicao.setVersion("HTTP/1.1");
+        requisicao.setHeader("Host", "localhost");
+        requisicao.setHeader("Connection", "close");
+        headers.forEach(requisicao::setHeader);
+        if (corpo != null) {
+            requisicao.setContent(corpo);
+        }
+        ByteBuffer bruta;
+        try {
+            bruta = conector.getResponse(requisicao.generate(), ESPERA_MAXIMA_SEGUNDOS, TimeUnit.SECONDS);
+        } catch (Exception e) {
+            throw new IllegalStateException("Falha na requisição em processo " + metodo + " " + caminho, e);
+        }
+        if (bruta == null) {
+            throw new IllegalStateException("Sem resposta em " + ESPERA_MAXIMA_SEGUNDOS + " s para "
+                    + metodo + " " + caminho);
+        }
+        return new Resposta(HttpTester.parseResponse(bruta));
+    }
+
+    public static final class Resposta {
+        private final HttpTester.Response resposta;
+
+        Resposta(HttpTester.Response resposta) {
+            this.resposta = resposta;
+        }
+
+        public int status() {
+            return resposta.getStatus();
+        }
+
+        /** Valor do header, ou {@code null}. */
+        public String header(String nome) {
+            return resposta.get(nome);
+        }
+
+        public byte[] corpo() {
+            byte[] corpo = resposta.getContentBytes();
+            return corpo == null ? new byte[0] : corpo;
+        }
+
+        public String texto() {
+            return new String(corpo(), StandardCharsets.UTF_8);
+        }
+    }
+}
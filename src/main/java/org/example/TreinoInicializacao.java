@@ -0,0 +1,75 @@
+package org.example;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.UUID;
+
+/**
+ * Execução de treino para o arquivo de inicialização (AppCDS, ou cache AOT
+ * com {@code -Pinicializacao.aot=true}), gerado pela task {@code arquivoInicializacao} do
+ * Gradle: sobe a aplicação como o {@link AplicacaoPrincipal#main}, passa uma
+ * vez por cada rota, em JSON, CBOR e gzip, e encerra a JVM, que grava no
+ * arquivo as classes carregadas. Na porta {@code servidor.porta}, ou numa
+ * livre se a propriedade não foi definida.
+ */
+public class TreinoInicializacao {
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        if (System.getProperty("servidor.porta") == null) {
+            System.setProperty("servidor.porta", "0");
+        }
+        String base = AplicacaoPrincipal.iniciarDoSistema().url();
+        HttpClient http = HttpClient.newHttpClient();
+        UUID id = UUID.randomUUID();
+        String tarefa = "{\"id\":\"" + id + "\",\"titulo\":\"Treino\",\"descricao\":\"inicialização\"}";
+        byte[] tarefaCbor = FormatoCorpo.CBOR.objectMapper().writeValueAsBytes(
+                new Tarefa(UUID.randomUUID(), "Treino CBOR", "", false, 0));
+
+        enviar(http, HttpRequest.newBuilder(URI.create(base + "/hello")));
+        enviar(http, HttpRequest.newBuilder(URI.create(base + "/status")));
+        enviar(http, HttpRequest.newBuilder(URI.create(base + "/metrics")));
+        enviar(http, HttpRequest.newBuilder(URI.create(base + "/saudacao/Treino")));
+        enviar(http, HttpRequest.newBuilder(URI.create(base + "/echo"))
+                .POST(HttpRequest.BodyPublishers.ofString("{\"mensagem\":\"treino\"}")));
+        enviar(http, HttpRequest.newBuilder(URI.create(base + "/tarefas"))
+                .POST(HttpRequest.BodyPublishers.ofString(tarefa)));
+        enviar(http, HttpRequest.newBuilder(URI.create(base + "/tarefas"))
+                .header("Content-Type", FormatoCorpo.CBOR.tipo())
+                .header("Accept", FormatoCorpo.CBOR.tipo())
+                .POST(HttpRequest.BodyPublishers.ofByteArray(tarefaCbor)));
+        enviar(http, HttpRequest.newBuilder(URI.create(base + "/tarefas/batch"))
+                .POST(HttpRequest.BodyPublishers.ofString("[{\"titulo\":\"Lote 1\"},{\"titulo\":\"Lote 2\"}]")));
+        enviar(http, HttpRequest.newBuilder(URI.create(base + "/tarefas")));
+        enviar(http, HttpRequest.newBuilder(URI.create(base + "/tarefas?limit=1&concluida=false&titulo_prefix=Tr")));
+        enviar(http, HttpRequest.newBuilder(URI.create(base + "/tarefas")).header("Accept-Encoding", "gzip"));
+        enviar(http, HttpRequest.newBuilder(URI.create(base + "/tarefas")).header("Accept", FormatoCorpo.CBOR.tipo()));
+        enviar(http, HttpRequest.newBuilder(URI.create(base + "/tarefas/" + id)));
+        enviar(http, HttpRequest.newBuilder(URI.create(base + "/tarefas/" + id)).header("Accept", FormatoCorpo.CBOR.tipo()));
+        enviar(http, HttpRequest.newBuilder(URI.create(base + "/tarefas/nao-eh-um-uuid")));
+        enviar(http, HttpRequest.newBuilder(URI.create(base + "/tarefas/" + id))
+                .PUT(HttpRequest.BodyPublishers.ofString(tarefa)));
+        enviar(http, HttpRequest.newBuilder(URI.create(base + "/tarefas/" + id))
+                .header("If-Match", "\"0\"")
+                .method("PATCH", HttpRequest.BodyPublishers.ofString("{\"concluida\":true}")));
+        enviar(http, HttpRequest.newBuilder(URI.create(base + "/tarefas/" + id))
+                .method("PATCH", HttpRequest.BodyPublishers.ofString("{\"concluida\":true}")));
+        enviar(http, HttpRequest.newBuilder(URI.create(base + "/tarefas/" + id)).DELETE());
+        enviar(http, HttpRequest.newBuilder(URI.create(base + "/tarefas/" + id)).DELETE());
+        // O feed não termina: basta dar tempo para o histórico ser enviado.
+        http.sendAsync(HttpRequest.newBuilder(URI.create(base + "/tarefas/eventos?desde=0")).build(),
+                HttpResponse.BodyHandlers.discarding());
+        Thread.sleep(500);
+
+        System.out.println("Treino de inicialização concluído em " + base + ".");
+        // A JVM grava o arquivo ao sair; o gancho de desligamento fecha o servidor.
+        System.exit(0);
+    }
+
+    private static void enviar(HttpClient http, HttpRequest.Builder requisicao)
+            throws IOException, InterruptedException {
+        http.send(requisicao.build(), HttpResponse.BodyHandlers.discarding());
+    }
+}
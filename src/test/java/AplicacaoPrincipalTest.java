@@ -1,21 +1,19 @@
 package org.example;
 
-import io.javalin.Javalin;
-import io.javalin.http.HttpStatus;
 import org.junit.jupiter.api.*;
 import static org.junit.jupiter.api.Assertions.*;
 
-import java.io.BufferedReader;
-import java.io.InputStreamReader;
-import java.io.OutputStream;
-import java.net.HttpURLConnection;
 import java.net.URI;
-import java.net.URL;
+import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.UUID;
+import java.util.stream.Collectors;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 
@@ -23,117 +21,52 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 @TestMethodOrder(MethodOrderer.OrderAnnotation.class)
 public class AplicacaoPrincipalTest {
 
-    private Javalin app;
+    private ServidorTarefas servidor;
+    private String baseUrl;
     private final ObjectMapper objectMapper = new ObjectMapper();
+    private final HttpClient cliente = HttpClient.newHttpClient();
 
     @BeforeAll
     void setup() {
-        app = Javalin.create()
-                .start(7001);
-
-        app.get("/hello", ctx -> ctx.result("Hello, Javalin!"));
-
-        app.get("/status", ctx -> {
-            ctx.json(Map.of("status", "ok", "timestamp", "2025-01-01T00:00:00"));
-        });
-
-        app.post("/echo", ctx -> {
-            Map<String, Object> corpoRequisicao = ctx.bodyAsClass(Map.class);
-            String mensagemRecebida = (String) corpoRequisicao.get("mensagem");
-            ctx.json(Map.of("mensagem", mensagemRecebida));
-        });
-
-        app.get("/saudacao/{nome}", ctx -> {
-            String nome = ctx.pathParam("nome");
-            ctx.json(Map.of("mensagem", "Olá, " + nome + "!"));
-        });
-
-        app.post("/tarefas", ctx -> {
-            Tarefa novaTarefa = ctx.bodyAsClass(Tarefa.class);
-
-            if (novaTarefa.getTitulo() == null || novaTarefa.getTitulo().trim().isEmpty()) {
-                ctx.status(HttpStatus.BAD_REQUEST);
-                ctx.json(Map.of("erro", "O título da tarefa é obrigatório."));
-                return;
-            }
-
-            AplicacaoPrincipal.tarefas.put(novaTarefa.getId(), novaTarefa);
-            ctx.status(HttpStatus.CREATED);
-            ctx.json(novaTarefa);
-        });
-
-        app.get("/tarefas", ctx -> {
-            ctx.json(new ArrayList<>(AplicacaoPrincipal.tarefas.values()));
-        });
-
-        app.get("/tarefas/{id}", ctx -> {
-            String idBusca = ctx.pathParam("id");
-            Tarefa tarefaEncontrada = null;
-            try {
-                UUID uuidIdBusca = UUID.fromString(idBusca);
-                tarefaEncontrada = AplicacaoPrincipal.tarefas.get(uuidIdBusca);
-            } catch (IllegalArgumentException e) {
-                ctx.status(HttpStatus.BAD_REQUEST);
-                ctx.json(Map.of("erro", "O ID fornecido não é um formato UUID válido."));
-                return;
-            }
-
-            if (tarefaEncontrada != null) {
-                ctx.json(tarefaEncontrada);
-            } else {
-                ctx.status(HttpStatus.NOT_FOUND);
-                ctx.json(Map.of("erro", "Tarefa não encontrada com o ID: " + idBusca));
-            }
-        });
-
-        System.out.println("Servidor Javalin de TESTE iniciado na porta 7001 para JUnit.");
+        // Rotas de produção, repositório próprio e porta livre: roda em paralelo com as outras classes.
+        servidor = ServidorTarefas.iniciar(new TarefaRepositoryMemoria(), 0);
+        baseUrl = servidor.url();
     }
 
     @AfterAll
     void tearDown() {
-        app.stop();
-        AplicacaoPrincipal.tarefas.clear();
-        System.out.println("Servidor Javalin de TESTE parado.");
+        servidor.close();
     }
 
 
     private TestResponse enviaRequisicao(String metodo, String path, String body) throws Exception {
-        URL url = new URI("http://localhost:7001" + path).toURL();
-        HttpURLConnection connection = (HttpURLConnection) url.openConnection();
-        connection.setRequestMethod(metodo);
-        connection.setDoOutput(metodo.equals("POST") || metodo.equals("PUT"));
-        connection.setRequestProperty("Content-Type", "application/json");
-
-        if (body != null && !body.isEmpty()) {
-            try (OutputStream os = connection.getOutputStream()) {
-                byte[] input = body.getBytes(StandardCharsets.UTF_8);
-                os.write(input, 0, input.length);
-            }
-        }
+        return enviaRequisicao(metodo, path, body, Map.of());
+    }
 
-        int status = connection.getResponseCode();
-        String responseBody = "";
-        try (BufferedReader br = new BufferedReader(new InputStreamReader(
-                status >= 300 ? connection.getErrorStream() : connection.getInputStream(), StandardCharsets.UTF_8))) {
-            StringBuilder response = new StringBuilder();
-            String responseLine;
-            while ((responseLine = br.readLine()) != null) {
-                response.append(responseLine.trim());
-            }
-            responseBody = response.toString();
-        } finally {
-            connection.disconnect();
-        }
-        return new TestResponse(status, responseBody);
+    private TestResponse enviaRequisicao(String metodo, String path, String body, Map<String, String> headers)
+            throws Exception {
+        // HttpClient em vez de HttpURLConnection, que não aceita PATCH.
+        HttpRequest.Builder requisicao = HttpRequest.newBuilder(new URI(baseUrl + path))
+                .header("Content-Type", "application/json")
+                .method(metodo, body != null && !body.isEmpty()
+                        ? HttpRequest.BodyPublishers.ofString(body, StandardCharsets.UTF_8)
+                        : HttpRequest.BodyPublishers.noBody());
+        headers.forEach(requisicao::header);
+        HttpResponse<String> resposta = cliente.send(requisicao.build(),
+                HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8));
+        String responseBody = resposta.body().lines().map(String::trim).collect(Collectors.joining());
+        return new TestResponse(resposta.statusCode(), responseBody, resposta.headers());
     }
 
     private static class TestResponse {
         public final int status;
         public final String body;
+        public final HttpHeaders headers;
 
-        public TestResponse(int status, String body) {
+        public TestResponse(int status, String body, HttpHeaders headers) {
             this.status = status;
             this.body = body;
+            this.headers = headers;
         }
     }
 
@@ -259,4 +192,214 @@ public class AplicacaoPrincipalTest {
         Map<String, String> erroResponse = objectMapper.readValue(resposta.body, Map.class);
         assertEquals("O ID fornecido não é um formato UUID válido.", erroResponse.get("erro"));
     }
+
+    @Test
+    @Order(11)
+    @DisplayName("Transporte em processo: mesmas rotas e respostas, sem abrir porta")
+    void testeTransporteEmProcesso() throws Exception {
+        try (ServidorTarefas local = ServidorTarefas.emProcesso(new TarefaRepositoryMemoria())) {
+            TransporteEmProcesso transporte = local.transporte();
+            assertEquals(-1, local.porta());
+            assertEquals("Hello, Javalin!", transporte.get("/hello").texto());
+
+            TransporteEmProcesso.Resposta criada = transporte.post("/tarefas", "{\"titulo\":\"Em processo\"}");
+            assertEquals(201, criada.status());
+            String id = (String) objectMapper.readValue(criada.corpo(), Map.class).get("id");
+            assertEquals(1, local.tarefas().tamanho());
+            assertEquals(200, transporte.get("/tarefas/" + id).status());
+
+            TransporteEmProcesso.Resposta invalida = transporte.get("/tarefas/NAO-EH-UM-UUID-VALIDO");
+            assertEquals(400, invalida.status());
+            assertEquals("O ID fornecido não é um formato UUID válido.",
+                    objectMapper.readValue(invalida.corpo(), Map.class).get("erro"));
+        }
+    }
+
+    @Test
+    @Order(12)
+    @DisplayName("Teste POST /tarefas com ID existente: a versão continua e o If-Match antigo falha")
+    void testeRecriaTarefaComIdExistente() throws Exception {
+        String id = "aaaaaaaa-bbbb-cccc-dddd-eeeeeeeeeeee";
+        TestResponse primeira = enviaRequisicao("POST", "/tarefas", "{\"id\":\"" + id + "\",\"titulo\":\"Original\"}");
+        assertEquals(201, primeira.status);
+        assertEquals(1, objectMapper.readValue(primeira.body, Map.class).get("versao"));
+
+        TestResponse repetida = enviaRequisicao("POST", "/tarefas",
+                "{\"id\":\"" + id + "\",\"titulo\":\"Repetida\",\"versao\":1}");
+        assertEquals(201, repetida.status);
+        Map<String, Object> recriada = objectMapper.readValue(repetida.body, Map.class);
+        assertEquals(2, recriada.get("versao"));
+        assertEquals("Repetida", recriada.get("titulo"));
+
+        TestResponse conflito = enviaRequisicao("PUT", "/tarefas/" + id, "{\"titulo\":\"Com ETag antigo\"}",
+                Map.of("If-Match", "\"1\""));
+        assertEquals(412, conflito.status);
+
+        TestResponse lote = enviaRequisicao("POST", "/tarefas/batch", "[{\"id\":\"" + id + "\",\"titulo\":\"Lote\"}]");
+        assertEquals(201, lote.status);
+        Map<String, Object> gravada = objectMapper.readValue(enviaRequisicao("GET", "/tarefas/" + id, null).body, Map.class);
+        assertEquals(3, gravada.get("versao"));
+        assertEquals("Lote", gravada.get("titulo"));
+    }
+
+    @Test
+    @Order(13)
+    @DisplayName("Teste PUT, PATCH e DELETE /tarefas/{id}: corpo inválido dá 400, ID inexistente 404 e If-Match antigo 412")
+    void testeErrosDeAlteracaoERemocao() throws Exception {
+        String id = objectMapper.readValue(enviaRequisicao("POST", "/tarefas", "{\"titulo\":\"Alvo\"}").body,
+                Map.class).get("id").toString();
+        String inexistente = "00000000-0000-0000-0000-00000000abcd";
+
+        Map<String, String> patchesInvalidos = Map.of(
+                "{\"titulo\":\"  \"}", "O título da tarefa é obrigatório.",
+                "{\"titulo\":7}", "O título da tarefa é obrigatório.",
+                "{\"descricao\":false}", "O campo descricao deve ser um texto.",
+                "{\"concluida\":\"sim\"}", "O campo concluida deve ser true ou false.");
+        for (Map.Entry<String, String> patch : patchesInvalidos.entrySet()) {
+            TestResponse resposta = enviaRequisicao("PATCH", "/tarefas/" + id, patch.getKey());
+            assertEquals(400, resposta.status, patch.getKey());
+            assertEquals(patch.getValue(), objectMapper.readValue(resposta.body, Map.class).get("erro"));
+        }
+        assertEquals(400, enviaRequisicao("PATCH", "/tarefas/" + id, "[1, 2]").status);
+        assertEquals(1, objectMapper.readValue(enviaRequisicao("GET", "/tarefas/" + id, null).body, Map.class)
+                .get("versao"), "PATCH inválido não grava nada");
+
+        assertEquals(404, enviaRequisicao("PUT", "/tarefas/" + inexistente, "{\"titulo\":\"Nova\"}").status);
+        assertEquals(404, enviaRequisicao("PATCH", "/tarefas/" + inexistente, "{\"concluida\":true}").status);
+        assertEquals(404, enviaRequisicao("GET", "/tarefas/" + inexistente, null).status,
+                "PUT e PATCH não criam a tarefa");
+
+        TestResponse antigo = enviaRequisicao("DELETE", "/tarefas/" + id, null, Map.of("If-Match", "\"7\""));
+        assertEquals(412, antigo.status);
+        assertEquals("\"1\"", antigo.headers.firstValue("ETag").orElse(null));
+        assertEquals(200, enviaRequisicao("GET", "/tarefas/" + id, null).status);
+
+        assertEquals(204, enviaRequisicao("DELETE", "/tarefas/" + id, null, Map.of("If-Match", "\"1\"")).status);
+        assertEquals(404, enviaRequisicao("DELETE", "/tarefas/" + id, null).status);
+        assertEquals(404, enviaRequisicao("GET", "/tarefas/" + id, null).status);
+    }
+
+    private static List<Object> indicesComErro(Map<String, Object> resultado) {
+        List<Map<String, Object>> erros = (List<Map<String, Object>>) resultado.get("erros");
+        return erros.stream().map(erro -> erro.get("indice")).toList();
+    }
+
+    @Test
+    @Order(14)
+    @DisplayName("Teste POST /tarefas/batch: array com itens inválidos grava os válidos e aponta o índice de cada erro")
+    void testeLoteComErrosPorIndice() throws Exception {
+        String corpo = "[{\"titulo\":\"Lote A\"}, {\"titulo\":\"   \"}, 42,"
+                + " {\"titulo\":\"Lote B\"}, {\"titulo\":\"Lote C\",\"concluida\":\"talvez\"}]";
+        TestResponse resposta = enviaRequisicao("POST", "/tarefas/batch", corpo);
+        assertEquals(201, resposta.status);
+        Map<String, Object> resultado = objectMapper.readValue(resposta.body, Map.class);
+        assertEquals(2, resultado.get("criadas"));
+        assertEquals(List.of(1, 2, 4), indicesComErro(resultado));
+
+        List<String> ids = (List<String>) resultado.get("ids");
+        assertEquals("Lote A", objectMapper.readValue(enviaRequisicao("GET", "/tarefas/" + ids.get(0), null).body,
+                Map.class).get("titulo"));
+        assertEquals("Lote B", objectMapper.readValue(enviaRequisicao("GET", "/tarefas/" + ids.get(1), null).body,
+                Map.class).get("titulo"));
+    }
+
+    @Test
+    @Order(15)
+    @DisplayName("Teste POST /tarefas/batch: NDJSON, um objeto por linha, é aceito como o array")
+    void testeLoteNdjson() throws Exception {
+        TestResponse resposta = enviaRequisicao("POST", "/tarefas/batch",
+                "{\"titulo\":\"Linha 1\"}\n{\"titulo\":\"   \"}\n{\"titulo\":\"Linha 3\"}\n");
+        assertEquals(201, resposta.status);
+        Map<String, Object> resultado = objectMapper.readValue(resposta.body, Map.class);
+        assertEquals(2, resultado.get("criadas"));
+        assertEquals(List.of(1), indicesComErro(resultado));
+        String id = ((List<String>) resultado.get("ids")).get(1);
+        assertEquals("Linha 3", objectMapper.readValue(enviaRequisicao("GET", "/tarefas/" + id, null).body,
+                Map.class).get("titulo"));
+    }
+
+    @Test
+    @Order(16)
+    @DisplayName("Teste POST /tarefas/batch: erro de sintaxe interrompe a leitura e mantém os blocos anteriores")
+    void testeLoteInterrompidoPorErroDeSintaxe() throws Exception {
+        int validas = LoteTarefas.TAMANHO_BLOCO + 5;
+        StringBuilder corpo = new StringBuilder("[");
+        for (int i = 0; i < validas; i++) {
+            corpo.append("{\"titulo\":\"Bloco ").append(i).append("\"},");
+        }
+        corpo.append("{\"titulo\": }, {\"titulo\":\"Depois do erro\"}]");
+
+        TestResponse resposta = enviaRequisicao("POST", "/tarefas/batch", corpo.toString());
+        assertEquals(201, resposta.status);
+        Map<String, Object> resultado = objectMapper.readValue(resposta.body, Map.class);
+        assertEquals(validas, resultado.get("criadas"));
+        assertEquals(List.of(validas), indicesComErro(resultado));
+        List<Map<String, Object>> erros = (List<Map<String, Object>>) resultado.get("erros");
+        assertTrue(((String) erros.get(0).get("erro")).startsWith("JSON malformado"), erros.toString());
+
+        List<String> ids = (List<String>) resultado.get("ids");
+        assertEquals(200, enviaRequisicao("GET", "/tarefas/" + ids.get(0), null).status);
+        assertEquals(200, enviaRequisicao("GET", "/tarefas/" + ids.get(validas - 1), null).status);
+        TestResponse depois = enviaRequisicao("GET", "/tarefas?titulo_prefix=Depois%20do%20erro", null);
+        assertEquals(List.of(), objectMapper.readValue(depois.body, List.class));
+    }
+
+    @Test
+    @Order(17)
+    @DisplayName("Teste POST /tarefas/batch: sem nenhum item válido, espera 400 com os erros")
+    void testeLoteSemItensValidos() throws Exception {
+        TestResponse invalidos = enviaRequisicao("POST", "/tarefas/batch", "[{\"titulo\":\"\"}, {}]");
+        assertEquals(400, invalidos.status);
+        Map<String, Object> resultado = objectMapper.readValue(invalidos.body, Map.class);
+        assertEquals(0, resultado.get("criadas"));
+        assertEquals(List.of(0, 1), indicesComErro(resultado));
+
+        TestResponse malformado = enviaRequisicao("POST", "/tarefas/batch", "isto não é JSON");
+        assertEquals(400, malformado.status);
+        assertEquals(List.of(0), indicesComErro(objectMapper.readValue(malformado.body, Map.class)));
+    }
+
+    @Test
+    @Order(18)
+    @DisplayName("Teste GET /tarefas paginado: limites de limit, cursor inválido e última página sem X-Proximo-Cursor")
+    void testePaginacaoPorCursor() throws Exception {
+        try (ServidorTarefas local = ServidorTarefas.emProcesso(new TarefaRepositoryMemoria())) {
+            TransporteEmProcesso transporte = local.transporte();
+            for (int i = 0; i < 5; i++) {
+                assertEquals(201, transporte.post("/tarefas", "{\"titulo\":\"Página " + i + "\"}").status());
+            }
+
+            for (String limite : List.of("0", "-1", "1001", "abc")) {
+                TransporteEmProcesso.Resposta invalido = transporte.get("/tarefas?limit=" + limite);
+                assertEquals(400, invalido.status(), "limit=" + limite);
+                assertEquals("O parâmetro limit deve estar entre 1 e " + AplicacaoPrincipal.LIMITE_MAXIMO_PAGINA + ".",
+                        objectMapper.readValue(invalido.corpo(), Map.class).get("erro"));
+            }
+            assertEquals(200, transporte.get("/tarefas?limit=" + AplicacaoPrincipal.LIMITE_MAXIMO_PAGINA).status());
+
+            TransporteEmProcesso.Resposta cursorInvalido = transporte.get("/tarefas?limit=2&cursor=nao-e-um-cursor");
+            assertEquals(400, cursorInvalido.status());
+            assertEquals("O cursor fornecido é inválido.",
+                    objectMapper.readValue(cursorInvalido.corpo(), Map.class).get("erro"));
+
+            List<Object> ids = new ArrayList<>();
+            List<Integer> tamanhos = new ArrayList<>();
+            String cursor = null;
+            do {
+                TransporteEmProcesso.Resposta pagina = transporte.get("/tarefas?limit=2"
+                        + (cursor == null ? "" : "&cursor=" + cursor));
+                assertEquals(200, pagina.status());
+                List<Map<String, Object>> tarefas = objectMapper.readValue(pagina.corpo(), List.class);
+                tamanhos.add(tarefas.size());
+                tarefas.forEach(tarefa -> ids.add(tarefa.get("id")));
+                cursor = pagina.header("X-Proximo-Cursor");
+            } while (cursor != null);
+            assertEquals(List.of(2, 2, 1), tamanhos);
+            assertEquals(5, new HashSet<>(ids).size());
+
+            TransporteEmProcesso.Resposta exata = transporte.get("/tarefas?limit=5");
+            assertEquals(5, objectMapper.readValue(exata.corpo(), List.class).size());
+            assertNull(exata.header("X-Proximo-Cursor"), "Página que termina a listagem não tem cursor");
+        }
+    }
 }
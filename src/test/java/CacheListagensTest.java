@@ -0,0 +1,150 @@
+package org.example;
+
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPInputStream;
+
+public class CacheListagensTest {
+
+    @Test
+    @DisplayName("Resposta em cache é descartada quando o repositório recebe uma escrita")
+    void testeInvalidaAposEscrita() throws IOException {
+        TarefaRepositoryVersionado repositorio = new TarefaRepositoryVersionado(new TarefaRepositoryMemoria());
+        CacheListagens cache = new CacheListagens(1024);
+
+        long versao = repositorio.versao();
+        ByteArrayOutputStream saida = new ByteArrayOutputStream();
+        CacheListagens.Captura captura = cache.capturar(saida);
+        captura.write("[]".getBytes(StandardCharsets.UTF_8));
+        cache.guardar("limit=10", versao, captura, null);
+
+        assertArrayEquals(saida.toByteArray(), cache.buscar("limit=10", versao).getCorpo());
+        repositorio.salvar(new Tarefa("Nova", null));
+        assertNotEquals(versao, repositorio.versao());
+        assertNull(cache.buscar("limit=10", repositorio.versao()));
+        assertNotEquals(repositorio.etag(versao), repositorio.etag(repositorio.versao()));
+    }
+
+    @Test
+    @DisplayName("Respostas acima do limite são transmitidas mas não entram no cache")
+    void testeIgnoraRespostaGrande() throws IOException {
+        CacheListagens cache = new CacheListagens(64);
+        ByteArrayOutputStream saida = new ByteArrayOutputStream();
+        CacheListagens.Captura captura = cache.capturar(saida);
+        captura.write(new byte[100]);
+        cache.guardar("", 0, captura, null);
+
+        assertEquals(100, saida.size());
+        assertNull(cache.buscar("", 0));
+    }
+
+    @Test
+    @DisplayName("Gravações concorrentes de versões diferentes mantêm os bytes contados iguais aos guardados")
+    void testeContagemConcorrente() throws Exception {
+        CacheListagens cache = new CacheListagens(1 << 20);
+        CompressaoRespostas compressao = new CompressaoRespostas(1, 0);
+        AtomicLong versao = new AtomicLong();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        for (int t = 0; t < 4; t++) {
+            int thread = t;
+            executor.execute(() -> {
+                for (int i = 0; i < 2_000; i++) {
+                    long v = i % 10 == 0 ? versao.incrementAndGet() : versao.get();
+                    String chave = "limit=" + (thread * 7 + i) % 16;
+                    CacheListagens.Captura captura = cache.capturar(OutputStream.nullOutputStream());
+                    try {
+                        captura.write(textoRepetido(256 + i % 512));
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                    cache.guardar(chave, v, captura, null);
+                    CacheListagens.Resposta resposta = cache.buscar(chave, v);
+                    if (resposta != null) {
+                        cache.corpoGzip(resposta, compressao);
+                    }
+                }
+            });
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(1, TimeUnit.MINUTES));
+        assertEquals(cache.bytesGuardados(), cache.bytesEmUso());
+    }
+
+    @Test
+    @DisplayName("If-None-Match tem precedência sobre If-Modified-Since, que não vale no segundo da última escrita")
+    void testeRequisicaoCondicional() {
+        long agora = System.currentTimeMillis();
+        long depois = agora + 1000;
+        String data = RequisicaoCondicional.formatarData(agora);
+        assertTrue(RequisicaoCondicional.naoModificado("W/\"a-1\", \"a-2\"", null, "\"a-2\"", agora, agora));
+        assertFalse(RequisicaoCondicional.naoModificado("\"a-1\"", data, "\"a-2\"", agora, depois));
+        assertTrue(RequisicaoCondicional.naoModificado(null, data, "\"a-2\"", agora, depois));
+        assertFalse(RequisicaoCondicional.naoModificado(null, data, "\"a-2\"", agora + 1000, depois + 1000));
+
+        // Outra escrita pode cair no mesmo segundo: sem 304 por data e sem Last-Modified até ele acabar.
+        assertFalse(RequisicaoCondicional.naoModificado(null, data, "\"a-2\"", agora, agora));
+        assertFalse(RequisicaoCondicional.segundoEncerrado(agora, agora));
+        assertTrue(RequisicaoCondicional.segundoEncerrado(agora, depois));
+    }
+
+    @Test
+    @DisplayName("Listagens grandes saem em gzip, o corpo comprimido é reaproveitado e /hello não é comprimido")
+    void testeCompressao() throws Exception {
+        assertTrue(CompressaoRespostas.aceitaGzip("gzip, deflate, br"));
+        assertTrue(CompressaoRespostas.aceitaGzip("br;q=1.0, *;q=0.5"));
+        assertFalse(CompressaoRespostas.aceitaGzip("gzip;q=0, *"));
+        assertFalse(CompressaoRespostas.aceitaGzip(null));
+
+        ServidorTarefas servidor = ServidorTarefas.iniciar(new TarefaRepositoryMemoria(), 0);
+        try {
+            for (int i = 0; i < 50; i++) {
+                servidor.tarefas().salvar(new Tarefa("Tarefa comprimida " + i, "Descrição " + i));
+            }
+            HttpClient http = HttpClient.newHttpClient();
+            String base = servidor.url();
+            byte[] semCompressao = http.send(HttpRequest.newBuilder(URI.create(base + "/tarefas")).build(),
+                    HttpResponse.BodyHandlers.ofByteArray()).body();
+            for (int i = 0; i < 2; i++) {
+                HttpResponse<byte[]> comprimida = http.send(HttpRequest.newBuilder(URI.create(base + "/tarefas"))
+                        .header("Accept-Encoding", "gzip").build(), HttpResponse.BodyHandlers.ofByteArray());
+                assertEquals("gzip", comprimida.headers().firstValue("Content-Encoding").orElseThrow());
+                assertTrue(comprimida.body().length < semCompressao.length / 3);
+                try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(comprimida.body()))) {
+                    assertArrayEquals(semCompressao, gzip.readAllBytes());
+                }
+            }
+            HttpResponse<byte[]> hello = http.send(HttpRequest.newBuilder(URI.create(base + "/hello"))
+                    .header("Accept-Encoding", "gzip").build(), HttpResponse.BodyHandlers.ofByteArray());
+            assertTrue(hello.headers().firstValue("Content-Encoding").isEmpty());
+        } finally {
+            servidor.close();
+        }
+
+        CacheListagens cache = new CacheListagens(1 << 20);
+        CacheListagens.Captura captura = cache.capturar(new ByteArrayOutputStream());
+        captura.write(textoRepetido(4096));
+        cache.guardar("", 1, captura, null);
+        CacheListagens.Resposta resposta = cache.buscar("", 1);
+        CompressaoRespostas compressao = new CompressaoRespostas(6, 1500);
+        assertSame(cache.corpoGzip(resposta, compressao), cache.corpoGzip(resposta, compressao));
+    }
+
+    private static byte[] textoRepetido(int tamanho) {
+        return "tarefa ".repeat(tamanho / 7).getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,147 @@
+package org.example;
+
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.cbor.CBORParser;
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletionException;
+
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class ClienteApiRestTest {
+
+    private ServidorTarefas servidor;
+    private ClienteApiRest cliente;
+
+    @BeforeAll
+    void setup() {
+        servidor = ServidorTarefas.iniciar(new TarefaRepositoryMemoria(), 0);
+        cliente = new ClienteApiRest(servidor.url());
+    }
+
+    @AfterAll
+    void tearDown() {
+        cliente.close();
+        servidor.close();
+    }
+
+    @Test
+    @DisplayName("Cliente cria, busca e altera tarefas com If-Match")
+    void testeCicloDeVida() {
+        Tarefa criada = cliente.criarTarefa(new Tarefa("Estudar", "Java")).join();
+        assertEquals(1, criada.getVersao());
+        assertEquals("Estudar", cliente.buscarTarefa(criada.getId()).join().orElseThrow().getTitulo());
+        assertTrue(cliente.buscarTarefa(UUID.randomUUID()).join().isEmpty());
+
+        Tarefa concluida = cliente.alterarTarefa(criada.getId(), Map.of("concluida", true), 1L).join();
+        assertTrue(concluida.isConcluida());
+        assertEquals(2, concluida.getVersao());
+
+        CompletionException erro = assertThrows(CompletionException.class,
+                () -> cliente.alterarTarefa(criada.getId(), Map.of("titulo", "Antigo"), 1L).join());
+        assertEquals(412, ((ClienteApiRest.ErroApi) erro.getCause()).getStatus());
+
+        assertTrue(cliente.removerTarefa(criada.getId()).join());
+        assertFalse(cliente.removerTarefa(criada.getId()).join());
+    }
+
+    @Test
+    @DisplayName("Criações em paralelo e em lotes chegam todas ao servidor")
+    void testeCriacaoEmParaleloEEmLotes() {
+        List<Tarefa> novas = new ArrayList<>();
+        for (int i = 0; i < 2_500; i++) {
+            novas.add(new Tarefa("Tarefa " + i, null));
+        }
+        int antes = servidor.tarefas().tamanho();
+
+        List<Tarefa> criadas = cliente.criarTodas(novas.subList(0, 500), 32).join();
+        assertEquals(novas.get(499).getId(), criadas.get(499).getId());
+
+        List<ClienteApiRest.ResultadoLote> lotes = cliente.criarEmLotes(novas.subList(500, novas.size()), 600, 2).join();
+        assertEquals(4, lotes.size());
+        assertEquals(2_000, lotes.stream().mapToInt(lote -> lote.criadas).sum());
+        assertEquals(antes + 2_500, servidor.tarefas().tamanho());
+
+        ClienteApiRest.Pagina pagina = cliente.listarPagina(100, null).join();
+        assertEquals(100, pagina.getTarefas().size());
+        assertNotNull(pagina.getProximoCursor());
+    }
+
+    @Test
+    @DisplayName("Em CBOR o cliente cria, lista e altera tarefas e o UUID trafega em 16 bytes")
+    void testeFormatoCbor() throws Exception {
+        assertEquals(FormatoCorpo.CBOR, FormatoCorpo.daResposta("application/cbor"));
+        assertEquals(FormatoCorpo.CBOR, FormatoCorpo.daResposta("application/json;q=0.5, application/cbor"));
+        assertEquals(FormatoCorpo.JSON, FormatoCorpo.daResposta("application/cbor;q=0.2, application/json"));
+        assertEquals(FormatoCorpo.JSON, FormatoCorpo.daResposta("*/*"));
+        assertEquals(FormatoCorpo.JSON, FormatoCorpo.daResposta((String) null));
+
+        try (ClienteApiRest clienteCbor = new ClienteApiRest(servidor.url(), FormatoCorpo.CBOR)) {
+            Tarefa criada = clienteCbor.criarTarefa(new Tarefa("Binária", "Corpo em CBOR")).join();
+            assertEquals("Corpo em CBOR", cliente.buscarTarefa(criada.getId()).join().orElseThrow().getDescricao());
+
+            List<Tarefa> lote = new ArrayList<>();
+            for (int i = 0; i < 50; i++) {
+                lote.add(new Tarefa("Lote CBOR " + i, null));
+            }
+            ClienteApiRest.ResultadoLote resultado = clienteCbor.criarLote(lote).join();
+            assertEquals(50, resultado.criadas);
+            assertEquals(lote.get(49).getId(), resultado.ids.get(49));
+
+            List<Tarefa> todas = clienteCbor.listarTarefas().join();
+            assertEquals(cliente.listarTarefas().join().size(), todas.size());
+            assertTrue(todas.contains(criada));
+            assertEquals(20, clienteCbor.listarPagina(20, null).join().getTarefas().size());
+
+            Tarefa concluida = clienteCbor.alterarTarefa(criada.getId(), Map.of("concluida", true), 1L).join();
+            assertTrue(concluida.isConcluida());
+            assertEquals(2, concluida.getVersao());
+
+            HttpResponse<byte[]> resposta = HttpClient.newHttpClient().send(
+                    HttpRequest.newBuilder(URI.create(servidor.url() + "/tarefas/" + criada.getId()))
+                            .header("Accept", "application/cbor").build(),
+                    HttpResponse.BodyHandlers.ofByteArray());
+            assertEquals("application/cbor", resposta.headers().firstValue("Content-Type").orElseThrow());
+            try (CBORParser parser = new CBORFactory().createParser(resposta.body())) {
+                assertEquals(JsonToken.START_OBJECT, parser.nextToken());
+                assertEquals("id", parser.nextFieldName());
+                assertEquals(JsonToken.VALUE_EMBEDDED_OBJECT, parser.nextToken());
+                assertEquals(16, parser.getBinaryValue().length);
+            }
+            assertTrue(resposta.body().length < concluida.jsonUtf8().length);
+        }
+    }
+
+    @Test
+    @DisplayName("Corpo malformado, em CBOR ou JSON, recebe 400 com o erro em JSON")
+    void testeCorpoMalformado() throws Exception {
+        HttpClient http = HttpClient.newHttpClient();
+        byte[] cborTruncado = {(byte) 0xBF, 0x66, 't', 'i'};
+        for (String metodo : List.of("POST", "PUT")) {
+            String caminho = metodo.equals("POST") ? "/tarefas" : "/tarefas/" + UUID.randomUUID();
+            HttpResponse<String> cbor = http.send(HttpRequest.newBuilder(URI.create(servidor.url() + caminho))
+                    .header("Content-Type", "application/cbor")
+                    .method(metodo, HttpRequest.BodyPublishers.ofByteArray(cborTruncado))
+                    .build(), HttpResponse.BodyHandlers.ofString());
+            assertEquals(400, cbor.statusCode(), metodo + " " + cbor.body());
+            assertTrue(cbor.body().startsWith("{\"erro\":"), cbor.body());
+            assertEquals("application/json", cbor.headers().firstValue("Content-Type").orElseThrow());
+
+            HttpResponse<String> json = http.send(HttpRequest.newBuilder(URI.create(servidor.url() + caminho))
+                    .header("Content-Type", "application/json")
+                    .method(metodo, HttpRequest.BodyPublishers.ofString("{\"titulo\": "))
+                    .build(), HttpResponse.BodyHandlers.ofString());
+            assertEquals(400, json.statusCode(), metodo + " " + json.body());
+            assertTrue(json.body().startsWith("{\"erro\":"), json.body());
+        }
+    }
+}
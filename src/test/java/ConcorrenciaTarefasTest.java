@@ -0,0 +1,289 @@
+package org.example;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * POST e GET /tarefas concorrentes contra as rotas de produção. A listagem é
+ * fracamente consistente (o mapa é percorrido sem trava), então cada leitura é
+ * conferida contra o intervalo em que foi feita: não repete IDs, contém toda
+ * escrita confirmada antes de ela começar e só contém escritas iniciadas antes
+ * de ela terminar, com o conteúdo gravado.
+ */
+public class ConcorrenciaTarefasTest {
+
+    private static final int ESCRITORES = 4;
+    private static final int TAREFAS_POR_ESCRITOR = 150;
+    private static final int LEITORES = 3;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @TempDir
+    Path diretorio;
+
+    /** Instantes de uma escrita; {@code fim} fica 0 até o 201 chegar. */
+    private static final class Escrita {
+        final String titulo;
+        final long inicio;
+        volatile long fim;
+
+        Escrita(String titulo, long inicio) {
+            this.titulo = titulo;
+            this.inicio = inicio;
+        }
+    }
+
+    @Test
+    @DisplayName("POSTs concorrentes por HTTP: nenhuma escrita perdida e nenhum ID repetido")
+    void testePostsConcorrentesHttp() throws Exception {
+        int threads = 8;
+        int porThread = 100;
+        try (ServidorTarefas servidor = ServidorTarefas.iniciar(new TarefaRepositoryMemoria(), 0)) {
+            HttpClient cliente = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+            URI uri = URI.create(servidor.url() + "/tarefas");
+            Set<String> ids = ConcurrentHashMap.newKeySet();
+            ExecutorService executor = Executors.newFixedThreadPool(threads);
+            try {
+                List<Future<?>> futuros = new ArrayList<>();
+                for (int t = 0; t < threads; t++) {
+                    int thread = t;
+                    futuros.add(executor.submit(() -> {
+                        for (int i = 0; i < porThread; i++) {
+                            HttpResponse<String> resposta = cliente.send(HttpRequest.newBuilder(uri)
+                                    .header("Content-Type", "application/json")
+                                    .POST(HttpRequest.BodyPublishers.ofString(
+                                            "{\"titulo\":\"Carga " + thread + "-" + i + "\"}"))
+                                    .build(), HttpResponse.BodyHandlers.ofString());
+                            assertEquals(201, resposta.statusCode(), resposta.body());
+                            String id = (String) objectMapper.readValue(resposta.body(), Map.class).get("id");
+                            assertTrue(ids.add(id), "ID repetido: " + id);
+                        }
+                        return null;
+                    }));
+                }
+                for (Future<?> futuro : futuros) {
+                    futuro.get();
+                }
+            } finally {
+                executor.shutdownNow();
+            }
+
+            assertEquals(threads * porThread, ids.size());
+            assertEquals(threads * porThread, servidor.tarefas().tamanho());
+            HttpResponse<String> lista = cliente.send(HttpRequest.newBuilder(uri).build(),
+                    HttpResponse.BodyHandlers.ofString());
+            List<String> listados = idsDe(objectMapper.readValue(lista.body(), List.class));
+            assertEquals(ids.size(), listados.size());
+            assertEquals(ids, new HashSet<>(listados));
+        }
+    }
+
+    @Test
+    @DisplayName("Listagens durante escritas concorrentes são consistentes com o intervalo de cada leitura")
+    void testeListagensDuranteEscritas() throws Exception {
+        try (ServidorTarefas servidor = ServidorTarefas.emProcesso(
+                new TarefaRepositoryIndexado(new TarefaRepositoryMemoria()))) {
+            TransporteEmProcesso transporte = servidor.transporte();
+            Map<String, Escrita> escritas = new ConcurrentHashMap<>();
+            Queue<String> falhas = new ConcurrentLinkedQueue<>();
+            AtomicBoolean escrevendo = new AtomicBoolean(true);
+
+            ExecutorService executor = Executors.newFixedThreadPool(ESCRITORES + LEITORES);
+            try {
+                List<Future<?>> escritores = new ArrayList<>();
+                for (int e = 0; e < ESCRITORES; e++) {
+                    int escritor = e;
+                    escritores.add(executor.submit(() -> {
+                        for (int i = 0; i < TAREFAS_POR_ESCRITOR; i++) {
+                            String id = UUID.randomUUID().toString();
+                            String titulo = "Escritor " + escritor + " #" + i;
+                            Escrita escrita = new Escrita(titulo, System.nanoTime());
+                            escritas.put(id, escrita);
+                            TransporteEmProcesso.Resposta resposta = transporte.post("/tarefas",
+                                    "{\"id\":\"" + id + "\",\"titulo\":\"" + titulo + "\"}");
+                            escrita.fim = System.nanoTime();
+                            if (resposta.status() != 201) {
+                                falhas.add("POST " + titulo + " respondeu " + resposta.status());
+                            }
+                        }
+                        return null;
+                    }));
+                }
+                List<Future<Integer>> leitores = new ArrayList<>();
+                for (int l = 0; l < LEITORES; l++) {
+                    leitores.add(executor.submit(() -> ler(transporte, escritas, falhas, escrevendo)));
+                }
+
+                for (Future<?> futuro : escritores) {
+                    futuro.get();
+                }
+                escrevendo.set(false);
+                int leituras = 0;
+                for (Future<Integer> futuro : leitores) {
+                    leituras += futuro.get();
+                }
+                assertTrue(leituras > 0);
+            } finally {
+                executor.shutdownNow();
+            }
+
+            assertTrue(falhas.isEmpty(), () -> falhas.size() + " inconsistências, por exemplo: "
+                    + falhas.stream().limit(5).toList());
+            assertEquals(ESCRITORES * TAREFAS_POR_ESCRITOR, servidor.tarefas().tamanho());
+            List<String> finais = idsDe(objectMapper.readValue(transporte.get("/tarefas").corpo(), List.class));
+            assertEquals(escritas.size(), finais.size());
+            assertEquals(escritas.keySet(), new HashSet<>(finais));
+        }
+    }
+
+    @Test
+    @DisplayName("POSTs concorrentes no repositório persistente sobrevivem à reabertura")
+    void testePostsConcorrentesPersistente() throws Exception {
+        Set<String> ids = ConcurrentHashMap.newKeySet();
+        try (ServidorTarefas servidor = ServidorTarefas.emProcesso(new TarefaRepositoryPersistente(diretorio))) {
+            TransporteEmProcesso transporte = servidor.transporte();
+            ExecutorService executor = Executors.newFixedThreadPool(ESCRITORES);
+            try {
+                List<Future<?>> futuros = new ArrayList<>();
+                for (int e = 0; e < ESCRITORES; e++) {
+                    int escritor = e;
+                    futuros.add(executor.submit(() -> {
+                        for (int i = 0; i < 50; i++) {
+                            TransporteEmProcesso.Resposta resposta = transporte.post("/tarefas",
+                                    "{\"titulo\":\"Durável " + escritor + "-" + i + "\"}");
+                            assertEquals(201, resposta.status());
+                            ids.add((String) objectMapper.readValue(resposta.corpo(), Map.class).get("id"));
+                        }
+                        return null;
+                    }));
+                }
+                for (Future<?> futuro : futuros) {
+                    futuro.get();
+                }
+            } finally {
+                executor.shutdownNow();
+            }
+        }
+
+        assertEquals(ESCRITORES * 50, ids.size());
+        try (TarefaRepository reaberto = new TarefaRepositoryPersistente(diretorio)) {
+            assertEquals(ids.size(), reaberto.tamanho());
+            for (String id : ids) {
+                assertTrue(reaberto.buscarPorId(UUID.fromString(id)).isPresent(), "Perdida: " + id);
+            }
+        }
+    }
+
+    /**
+     * Alterna listagem completa (condicional, com o ETag da anterior),
+     * paginação por cursor e filtro por {@code concluida} até os escritores
+     * terminarem; devolve o número de leituras.
+     */
+    private int ler(TransporteEmProcesso transporte, Map<String, Escrita> escritas, Queue<String> falhas,
+                    AtomicBoolean escrevendo) throws Exception {
+        int leituras = 0;
+        String etag = null;
+        List<Map<String, Object>> ultimaCompleta = null;
+        while (escrevendo.get() || leituras == 0) {
+            long inicio = System.nanoTime();
+            List<Map<String, Object>> tarefas;
+            String descricao;
+            switch (ThreadLocalRandom.current().nextInt(3)) {
+                case 0:
+                    descricao = "GET /tarefas";
+                    TransporteEmProcesso.Resposta resposta = transporte.enviar("GET", "/tarefas",
+                            etag == null ? Map.of() : Map.of("If-None-Match", etag), null);
+                    if (resposta.status() == 304) {
+                        descricao += " (304)";
+                        tarefas = ultimaCompleta;
+                    } else {
+                        tarefas = objectMapper.readValue(resposta.corpo(), List.class);
+                        etag = resposta.header("ETag");
+                        ultimaCompleta = tarefas;
+                    }
+                    break;
+                case 1:
+                    descricao = "GET /tarefas?limit=50 (todas as páginas)";
+                    tarefas = paginar(transporte);
+                    break;
+                default:
+                    descricao = "GET /tarefas?concluida=false";
+                    tarefas = objectMapper.readValue(transporte.get("/tarefas?concluida=false").corpo(), List.class);
+                    break;
+            }
+            long fim = System.nanoTime();
+            conferir(descricao, tarefas, inicio, fim, escritas, falhas);
+            leituras++;
+        }
+        return leituras;
+    }
+
+    private List<Map<String, Object>> paginar(TransporteEmProcesso transporte) throws Exception {
+        List<Map<String, Object>> todas = new ArrayList<>();
+        String cursor = null;
+        do {
+            TransporteEmProcesso.Resposta pagina = transporte.get("/tarefas?limit=50"
+                    + (cursor == null ? "" : "&cursor=" + cursor));
+            todas.addAll(objectMapper.readValue(pagina.corpo(), List.class));
+            cursor = pagina.header("X-Proximo-Cursor");
+        } while (cursor != null);
+        return todas;
+    }
+
+    private void conferir(String descricao, List<Map<String, Object>> tarefas, long inicio, long fim,
+                          Map<String, Escrita> escritas, Queue<String> falhas) {
+        Map<String, String> titulos = new HashMap<>();
+        for (Map<String, Object> tarefa : tarefas) {
+            String id = (String) tarefa.get("id");
+            if (titulos.put(id, (String) tarefa.get("titulo")) != null) {
+                falhas.add(descricao + ": ID repetido " + id);
+            }
+        }
+        titulos.forEach((id, titulo) -> {
+            Escrita escrita = escritas.get(id);
+            if (escrita == null || escrita.inicio > fim) {
+                falhas.add(descricao + ": " + id + " listado antes de ser escrito");
+            } else if (!escrita.titulo.equals(titulo)) {
+                falhas.add(descricao + ": " + id + " com título " + titulo + ", esperado " + escrita.titulo);
+            }
+        });
+        escritas.forEach((id, escrita) -> {
+            long confirmada = escrita.fim;
+            if (confirmada != 0 && confirmada < inicio && !titulos.containsKey(id)) {
+                falhas.add(descricao + ": escrita confirmada antes da leitura ausente " + id);
+            }
+        });
+    }
+
+    private static List<String> idsDe(List<Map<String, Object>> tarefas) {
+        List<String> ids = new ArrayList<>(tarefas.size());
+        for (Map<String, Object> tarefa : tarefas) {
+            ids.add((String) tarefa.get("id"));
+        }
+        return ids;
+    }
+}
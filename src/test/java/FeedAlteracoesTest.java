@@ -0,0 +1,70 @@
+package org.example;
+
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+
+public class FeedAlteracoesTest {
+
+    @Test
+    @DisplayName("Escritas no repositório viram eventos numerados e a assinatura retoma pela sequência")
+    void testeRetomaPelaSequencia() throws InterruptedException {
+        TarefaRepositoryVersionado repositorio = new TarefaRepositoryVersionado(new TarefaRepositoryMemoria());
+        Tarefa tarefa = new Tarefa("Estudar", null);
+        repositorio.salvar(tarefa);
+        repositorio.alterar(tarefa.getId(), atual -> atual.comConcluida(true));
+        repositorio.alterar(tarefa.getId(), atual -> null);
+
+        FeedAlteracoes.Assinatura assinatura = repositorio.feed().assinar(1, 10, FeedAlteracoes.Politica.DESCONECTAR);
+        EventoTarefa alterada = assinatura.proximo(0);
+        assertEquals(2, alterada.getSequencia());
+        assertEquals(EventoTarefa.Tipo.ALTERADA, alterada.getTipo());
+        assertEquals(2, alterada.getTarefa().getVersao());
+        assertEquals(EventoTarefa.Tipo.REMOVIDA, assinatura.proximo(0).getTipo());
+        assertNull(assinatura.proximo(0));
+        assertFalse(assinatura.teveLacuna());
+    }
+
+    @Test
+    @DisplayName("ID repetido num lote recebe versões seguidas e vira criação seguida de alteração")
+    void testeIdRepetidoNoLote() throws InterruptedException {
+        TarefaRepositoryVersionado repositorio = new TarefaRepositoryVersionado(new TarefaRepositoryMemoria());
+        Tarefa tarefa = new Tarefa("Estudar", null);
+        repositorio.salvarTodos(List.of(tarefa, tarefa.comConcluida(true), new Tarefa("Outra", null)));
+
+        assertEquals(2, repositorio.tamanho());
+        Tarefa gravada = repositorio.buscarPorId(tarefa.getId()).orElseThrow();
+        assertEquals(2, gravada.getVersao());
+        assertTrue(gravada.isConcluida());
+
+        FeedAlteracoes.Assinatura assinatura = repositorio.feed().assinar(0, 10, FeedAlteracoes.Politica.DESCONECTAR);
+        EventoTarefa criada = assinatura.proximo(0);
+        assertEquals(EventoTarefa.Tipo.CRIADA, criada.getTipo());
+        assertEquals(1, criada.getTarefa().getVersao());
+        EventoTarefa alterada = assinatura.proximo(0);
+        assertEquals(EventoTarefa.Tipo.ALTERADA, alterada.getTipo());
+        assertEquals(2, alterada.getTarefa().getVersao());
+    }
+
+    @Test
+    @DisplayName("Assinante lento é desconectado ou perde os eventos mais antigos sem bloquear quem publica")
+    void testeAssinanteLento() throws InterruptedException {
+        FeedAlteracoes feed = new FeedAlteracoes(4);
+        FeedAlteracoes.Assinatura desconectada = feed.assinar(-1, 2, FeedAlteracoes.Politica.DESCONECTAR);
+        FeedAlteracoes.Assinatura descartando = feed.assinar(-1, 2, FeedAlteracoes.Politica.DESCARTAR_ANTIGOS);
+        for (int i = 0; i < 10; i++) {
+            feed.publicar(EventoTarefa.Tipo.CRIADA, null, new Tarefa("Tarefa " + i, null));
+        }
+
+        assertFalse(desconectada.ativa());
+        assertTrue(desconectada.atrasada());
+        assertEquals(1, feed.quantidadeAssinantes());
+        assertEquals(8, descartando.descartados());
+        assertEquals(9, descartando.proximo(0).getSequencia());
+
+        FeedAlteracoes.Assinatura atrasada = feed.assinar(2, 2, FeedAlteracoes.Politica.DESCONECTAR);
+        assertTrue(atrasada.teveLacuna());
+        assertEquals(7, atrasada.proximo(0).getSequencia());
+    }
+}
@@ -0,0 +1,41 @@
+package org.example;
+
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Map;
+
+public class GeradorCargaTest {
+
+    @Test
+    @DisplayName("Gerador de carga em malha aberta produz resumo com percentis por rota")
+    @SuppressWarnings("unchecked")
+    void testeResumoDaCarga() throws Exception {
+        ServidorTarefas servidor = ServidorTarefas.iniciar(new TarefaRepositoryMemoria(), 0);
+        try {
+            GeradorCarga.Configuracao configuracao = GeradorCarga.Configuracao.dosArgumentos(new String[]{
+                    "--modo", "aberto", "--taxa", "50", "--duracao", "1", "--aquecimento", "0",
+                    "--tarefas-iniciais", "10", "--mix", "buscar=3,status=1",
+                    "--url", servidor.url()});
+
+            Map<String, Object> resumo = new GeradorCarga(configuracao).executar();
+
+            Map<String, Object> total = (Map<String, Object>) resumo.get("total");
+            assertEquals(50L, total.get("requisicoes"));
+            assertEquals(0L, total.get("erros"));
+            assertTrue((double) total.get("p99Ms") >= (double) total.get("p50Ms"));
+            Map<String, Object> rotas = (Map<String, Object>) resumo.get("rotas");
+            assertEquals(2, rotas.size());
+            assertTrue(rotas.containsKey("buscar"));
+        } finally {
+            servidor.close();
+        }
+    }
+
+    @Test
+    @DisplayName("Mix com rota desconhecida é rejeitado")
+    void testeMixInvalido() {
+        assertThrows(IllegalArgumentException.class,
+                () -> GeradorCarga.Configuracao.dosArgumentos(new String[]{"--mix", "apagar=1"}));
+    }
+}
@@ -0,0 +1,163 @@
+package org.example;
+
+import io.javalin.Javalin;
+import io.javalin.http.HandlerType;
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class LimitadorTaxaTest {
+
+    @Test
+    @DisplayName("Balde aceita a rajada, recusa o excesso informando a espera e se recupera com o tempo")
+    void testeBaldePorCliente() {
+        LimitadorTaxa.Regra regra = new LimitadorTaxa("POST /tarefas=10:5", 64)
+                .regra(HandlerType.POST, "/tarefas");
+        long segundo = TimeUnit.SECONDS.toNanos(1);
+        for (int i = 0; i < 5; i++) {
+            assertEquals(0, regra.consumir(1, segundo));
+        }
+        assertEquals(segundo / 10, regra.consumir(1, segundo));
+        assertEquals(0, regra.consumir(2, segundo), "Outro cliente tem o próprio balde");
+        assertEquals(0, regra.consumir(1, segundo + segundo / 10));
+        assertTrue(regra.consumir(1, segundo + segundo / 10) > 0);
+    }
+
+    @Test
+    @DisplayName("Rota limitada responde 429 com Retry-After e não afeta outras chaves conhecidas nem outras rotas")
+    void testeRespostaHttp() throws Exception {
+        LimitadorTaxa limitador = new LimitadorTaxa("POST /echo=0.5:2", LimitadorTaxa.FAIXAS_PADRAO,
+                Set.of("a", "b"));
+        LimitadorAdaptativo adaptativo = new LimitadorAdaptativo(10, 10, 2.0);
+        AtomicInteger atendidas = new AtomicInteger();
+        Javalin app = Javalin.create().start(0);
+        try {
+            limitador.instalar(app);
+            adaptativo.instalar(app);
+            app.post("/echo", ctx -> ctx.result("ok " + atendidas.incrementAndGet()));
+            app.get("/hello", ctx -> ctx.result("ok"));
+            HttpClient http = HttpClient.newHttpClient();
+            String base = "http://localhost:" + app.port();
+
+            assertEquals(200, enviar(http, base + "/echo", "a").statusCode());
+            assertEquals(200, enviar(http, base + "/echo", "a").statusCode());
+            HttpResponse<String> recusada = enviar(http, base + "/echo", "a");
+            assertEquals(429, recusada.statusCode());
+            assertEquals("2", recusada.headers().firstValue("Retry-After").orElseThrow());
+            assertEquals(200, enviar(http, base + "/echo", "b").statusCode());
+            // Chaves desconhecidas não ganham balde próprio: todas contam no do IP.
+            assertEquals(200, enviar(http, base + "/echo", "x").statusCode());
+            assertEquals(200, enviar(http, base + "/echo", "y").statusCode());
+            assertEquals(429, enviar(http, base + "/echo", "z").statusCode());
+            for (int i = 0; i < 5; i++) {
+                assertEquals(200, http.send(HttpRequest.newBuilder(URI.create(base + "/hello")).build(),
+                        HttpResponse.BodyHandlers.ofString()).statusCode());
+            }
+            assertEquals(2, limitador.recusadas());
+            assertEquals(5, atendidas.get(), "A requisição recusada não chega ao handler");
+            assertEquals(0, adaptativo.emAndamento());
+        } finally {
+            app.stop();
+        }
+        assertThrows(IllegalArgumentException.class, () -> new LimitadorTaxa("/echo=10", 64));
+    }
+
+    @Test
+    @DisplayName("Limite adaptativo cresce com latência estável, encolhe quando ela sobe e recusa o excesso")
+    void testeLimiteAdaptativo() {
+        LimitadorAdaptativo limitador = new LimitadorAdaptativo(10, 100, 2.0);
+        long agora = System.nanoTime();
+        long janela = TimeUnit.MILLISECONDS.toNanos(LimitadorAdaptativo.JANELA_MS);
+        for (int i = 1; i <= 20; i++) {
+            simularJanela(limitador, agora + i * janela, TimeUnit.MILLISECONDS.toNanos(1));
+        }
+        int estavel = limitador.limite();
+        assertTrue(estavel > 10, "Limite deveria crescer: " + estavel);
+
+        for (int i = 21; i <= 40; i++) {
+            simularJanela(limitador, agora + i * janela, TimeUnit.MILLISECONDS.toNanos(10));
+        }
+        assertTrue(limitador.limite() < estavel / 2, "Limite deveria encolher: " + limitador.limite());
+
+        int vagas = limitador.limite();
+        for (int i = 0; i < vagas; i++) {
+            assertTrue(limitador.adquirir());
+        }
+        assertFalse(limitador.adquirir());
+        assertEquals(1, limitador.recusadas());
+        assertEquals(vagas, limitador.emAndamento());
+    }
+
+    @Test
+    @DisplayName("Recusas da taxa e do limite adaptativo devolvem a vaga do limite de concorrência")
+    void testeRecusasNaoVazamVagas() throws Exception {
+        LimitadorTaxa taxa = new LimitadorTaxa("POST /echo=1:1", LimitadorTaxa.FAIXAS_PADRAO);
+        LimitadorAdaptativo adaptativo = new LimitadorAdaptativo(10, 10, 2.0);
+        LimitadorConcorrencia concorrencia = new LimitadorConcorrencia(2, 50);
+        Javalin app = Javalin.create().start(0);
+        try {
+            // Mesma ordem de AplicacaoPrincipal.criar: a vaga de concorrência é tomada num before.
+            taxa.instalar(app);
+            adaptativo.instalar(app);
+            concorrencia.instalar(app);
+            app.post("/echo", ctx -> ctx.result("ok"));
+            app.get("/hello", ctx -> ctx.result("ok"));
+            HttpClient http = HttpClient.newHttpClient();
+            String base = "http://localhost:" + app.port();
+
+            assertEquals(200, enviar(http, base + "/echo", "a").statusCode());
+            for (int i = 0; i < 4; i++) {
+                HttpResponse<String> recusada = enviar(http, base + "/echo", "a");
+                assertEquals(429, recusada.statusCode());
+                assertTrue(recusada.headers().firstValue("Retry-After").isPresent());
+                assertTrue(recusada.body().startsWith("{\"erro\":"), recusada.body());
+            }
+
+            for (int i = 0; i < adaptativo.limite(); i++) {
+                assertTrue(adaptativo.adquirir());
+            }
+            for (int i = 0; i < 4; i++) {
+                HttpResponse<String> sobrecarga = http.send(HttpRequest.newBuilder(URI.create(base + "/hello")).build(),
+                        HttpResponse.BodyHandlers.ofString());
+                assertEquals(503, sobrecarga.statusCode());
+                assertEquals("1", sobrecarga.headers().firstValue("Retry-After").orElseThrow());
+            }
+            long agora = System.nanoTime();
+            for (int i = 0; i < 10; i++) {
+                adaptativo.liberar(TimeUnit.MILLISECONDS.toNanos(1), agora);
+            }
+
+            for (int i = 0; i < 5; i++) {
+                assertEquals(200, http.send(HttpRequest.newBuilder(URI.create(base + "/hello")).build(),
+                        HttpResponse.BodyHandlers.ofString()).statusCode());
+            }
+            assertEquals(2, concorrencia.disponiveis());
+            assertEquals(0, adaptativo.emAndamento());
+        } finally {
+            app.stop();
+        }
+    }
+
+    /** Ocupa todas as vagas e as libera com a mesma latência, fechando uma janela. */
+    private static void simularJanela(LimitadorAdaptativo limitador, long fim, long latencia) {
+        int vagas = limitador.limite();
+        for (int i = 0; i < vagas; i++) {
+            assertTrue(limitador.adquirir());
+        }
+        for (int i = 0; i < vagas; i++) {
+            limitador.liberar(latencia, fim);
+        }
+    }
+
+    private static HttpResponse<String> enviar(HttpClient http, String url, String chave) throws Exception {
+        return http.send(HttpRequest.newBuilder(URI.create(url)).header("X-Api-Key", chave)
+                .POST(HttpRequest.BodyPublishers.ofString("{}")).build(), HttpResponse.BodyHandlers.ofString());
+    }
+}
@@ -0,0 +1,101 @@
+package org.example;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+public class LogEstruturadoTest {
+
+    @TempDir
+    Path diretorio;
+
+    @Test
+    @DisplayName("Eventos viram linhas JSON e o arquivo é rotacionado por tamanho")
+    void testeArquivoRotacionado() throws Exception {
+        Path arquivo = diretorio.resolve("logs/tarefas.log");
+        LogEstruturado log = new LogEstruturado(arquivo, 64, LogEstruturado.Politica.BLOQUEAR, true, 1_000, 2);
+        UUID id = UUID.randomUUID();
+        log.auditoria("tarefa_criada", id, "Comprar \"leite\"", -1);
+        log.acesso("GET", "/tarefas", 200, 1_500_000, "127.0.0.1");
+        // A thread de escrita descarrega o lote assim que o anel esvazia.
+        List<String> linhas = Files.readAllLines(arquivo);
+        for (int tentativa = 0; linhas.size() < 2 && tentativa < 5_000; tentativa++) {
+            Thread.sleep(1);
+            linhas = Files.readAllLines(arquivo);
+        }
+        assertTrue(linhas.get(0).contains("\"evento\":\"tarefa_criada\",\"id\":\"" + id
+                + "\",\"titulo\":\"Comprar \\\"leite\\\"\"}"));
+        assertTrue(linhas.get(1).contains("\"evento\":\"acesso\",\"metodo\":\"GET\",\"caminho\":\"/tarefas\","
+                + "\"status\":200,\"duracaoMs\":1.5,\"ip\":\"127.0.0.1\"}"));
+
+        for (int i = 0; i < 100; i++) {
+            log.auditoria("lote_criado", null, null, i);
+        }
+        log.close();
+
+        assertEquals(102, log.gravados());
+        assertTrue(Files.exists(diretorio.resolve("logs/tarefas.log.1")));
+        assertTrue(Files.exists(diretorio.resolve("logs/tarefas.log.2")));
+        assertFalse(Files.exists(diretorio.resolve("logs/tarefas.log.3")));
+        assertTrue(Files.size(arquivo) <= 1_000);
+        List<String> ultimas = Files.readAllLines(arquivo);
+        assertTrue(ultimas.get(ultimas.size() - 1).endsWith("\"quantidade\":99}"));
+    }
+
+    @Test
+    @DisplayName("Com o anel cheio, DESCARTAR conta o que perdeu e BLOQUEAR espera sem perder nada")
+    void testePoliticaAnelCheio() throws Exception {
+        for (LogEstruturado.Politica politica : LogEstruturado.Politica.values()) {
+            LogEstruturado log = new LogEstruturado(diretorio.resolve(politica + ".log"), 2, politica, false,
+                    LogEstruturado.TAMANHO_ARQUIVO_PADRAO, 1);
+            List<Thread> threads = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                threads.add(Thread.ofVirtual().start(() -> {
+                    for (int i = 0; i < 5_000; i++) {
+                        log.auditoria("tarefa_criada", null, "Tarefa " + i, -1);
+                    }
+                }));
+            }
+            for (Thread thread : threads) {
+                thread.join();
+            }
+            log.close();
+
+            assertEquals(20_000, log.gravados() + log.descartados());
+            assertEquals(log.gravados(), Files.readAllLines(diretorio.resolve(politica + ".log")).size());
+            if (politica == LogEstruturado.Politica.BLOQUEAR) {
+                assertEquals(0, log.descartados());
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Thread de escrita parada sem eventos é acordada por cada publicação")
+    void testeEscritorAcordaAoPublicar() throws Exception {
+        LogEstruturado log = new LogEstruturado(diretorio.resolve("ocioso.log"), 64,
+                LogEstruturado.Politica.DESCARTAR, false, LogEstruturado.TAMANHO_ARQUIVO_PADRAO, 1);
+        try {
+            for (int i = 1; i <= 3; i++) {
+                // Dá tempo para a thread esvaziar o anel e parar antes do próximo evento.
+                Thread.sleep(20);
+                log.falha("teste_falha", "evento " + i);
+                long limite = System.nanoTime() + 5_000_000_000L;
+                while (log.gravados() < i && System.nanoTime() < limite) {
+                    Thread.sleep(1);
+                }
+                assertEquals(i, log.gravados());
+            }
+        } finally {
+            log.close();
+        }
+        List<String> linhas = Files.readAllLines(diretorio.resolve("ocioso.log"));
+        assertEquals(3, linhas.size());
+        assertTrue(linhas.get(2).endsWith("\"evento\":\"teste_falha\",\"mensagem\":\"evento 3\"}"), linhas.get(2));
+    }
+}
@@ -0,0 +1,141 @@
+package org.example;
+
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class MapaUuidTest {
+
+    @Test
+    @DisplayName("Leitor de UUID aceita a forma canônica em qualquer caixa e recusa o resto sem exceção")
+    void testeLeitorUuid() {
+        for (int i = 0; i < 1000; i++) {
+            UUID id = UUID.randomUUID();
+            assertEquals(id, LeitorUuid.ler(id.toString()));
+            assertEquals(id, LeitorUuid.ler(id.toString().toUpperCase()));
+        }
+        assertEquals(new UUID(-1, -1), LeitorUuid.ler("ffffffff-ffff-ffff-ffff-ffffffffffff"));
+        assertEquals(new UUID(0, 0), LeitorUuid.ler("00000000-0000-0000-0000-000000000000"));
+
+        String valido = "a1b2c3d4-e5f6-7890-1234-567890abcdef";
+        assertNull(LeitorUuid.ler(null));
+        assertNull(LeitorUuid.ler("NAO-EH-UM-UUID-VALIDO"));
+        assertNull(LeitorUuid.ler("1-2-3-4-5"), "Forma abreviada não é aceita");
+        assertNull(LeitorUuid.ler(valido + "0"));
+        assertNull(LeitorUuid.ler(valido.replace('-', ',')));
+        assertNull(LeitorUuid.ler(valido.replace('a', 'g')));
+        assertNull(LeitorUuid.ler(valido.replace('a', 'á')));
+        assertNull(LeitorUuid.ler(valido.replace('1', '١')));
+    }
+
+    @Test
+    @DisplayName("Mapa por UUID se comporta como um HashMap com inserções, trocas e remoções misturadas")
+    void testeMapaComoHashMap() {
+        MapaUuid<Integer> mapa = new MapaUuid<>();
+        Map<UUID, Integer> esperado = new HashMap<>();
+        List<UUID> ids = new ArrayList<>();
+        Random aleatorio = new Random(7);
+        for (int i = 0; i < 5000; i++) {
+            ids.add(new UUID(aleatorio.nextLong() & 0xFF, i));
+        }
+        for (int passo = 0; passo < 100_000; passo++) {
+            UUID id = ids.get(aleatorio.nextInt(ids.size()));
+            if (aleatorio.nextInt(3) == 0) {
+                assertEquals(esperado.remove(id), mapa.remove(id));
+            } else {
+                mapa.put(id, passo);
+                esperado.put(id, passo);
+            }
+        }
+        assertEquals(esperado.size(), mapa.size());
+        for (UUID id : ids) {
+            assertEquals(esperado.get(id), mapa.get(id));
+        }
+        assertTrue(mapa.capacidade() * MapaUuid.CARGA_MAXIMA >= mapa.size());
+        mapa.clear();
+        assertNull(mapa.get(ids.get(0)));
+        assertEquals(0, mapa.size());
+    }
+
+    @Test
+    @DisplayName("Leituras concorrentes com o crescimento da tabela sempre encontram as chaves já inseridas")
+    void testeLeituraDuranteCrescimento() throws InterruptedException {
+        MapaUuid<UUID> mapa = new MapaUuid<>();
+        UUID[] ids = new UUID[200_000];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = UUID.randomUUID();
+        }
+        AtomicInteger inseridas = new AtomicInteger();
+        AtomicBoolean terminou = new AtomicBoolean();
+        AtomicInteger falhas = new AtomicInteger();
+        Thread leitor = new Thread(() -> {
+            Random aleatorio = new Random();
+            while (!terminou.get()) {
+                int limite = inseridas.get();
+                if (limite > 0) {
+                    UUID id = ids[aleatorio.nextInt(limite)];
+                    if (!id.equals(mapa.get(id))) {
+                        falhas.incrementAndGet();
+                    }
+                }
+            }
+        });
+        leitor.start();
+        for (UUID id : ids) {
+            mapa.put(id, id);
+            inseridas.incrementAndGet();
+        }
+        terminou.set(true);
+        leitor.join();
+        assertEquals(0, falhas.get());
+        assertEquals(ids.length, mapa.size());
+    }
+
+    @Test
+    @DisplayName("Escritas concorrentes em IDs diferentes, com crescimento da tabela, não perdem nem duplicam chaves")
+    void testeEscritasConcorrentes() throws InterruptedException {
+        MapaUuid<UUID> mapa = new MapaUuid<>();
+        int threads = 8;
+        int porThread = 50_000;
+        UUID[][] ids = new UUID[threads][porThread];
+        Thread[] escritores = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            UUID[] meus = ids[t];
+            for (int i = 0; i < porThread; i++) {
+                meus[i] = UUID.randomUUID();
+            }
+            escritores[t] = new Thread(() -> {
+                for (int i = 0; i < porThread; i++) {
+                    mapa.put(meus[i], meus[i]);
+                    if (i % 3 == 0) {
+                        mapa.remove(meus[i]);
+                    }
+                }
+            });
+            escritores[t].start();
+        }
+        for (Thread escritor : escritores) {
+            escritor.join();
+        }
+        int esperadas = 0;
+        for (UUID[] meus : ids) {
+            for (int i = 0; i < porThread; i++) {
+                if (i % 3 == 0) {
+                    assertNull(mapa.get(meus[i]));
+                } else {
+                    assertEquals(meus[i], mapa.get(meus[i]));
+                    esperadas++;
+                }
+            }
+        }
+        assertEquals(esperadas, mapa.size());
+    }
+}
@@ -0,0 +1,75 @@
+package org.example;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Map;
+
+public class MetricasServidorTest {
+
+    @Test
+    @DisplayName("Histograma acumula os buckets e estima percentis pelo limite do bucket")
+    void testeHistograma() {
+        HistogramaLatencia histograma = new HistogramaLatencia(new long[]{1_000, 10_000});
+        histograma.registrar(500);
+        histograma.registrar(1_000);
+        histograma.registrar(5_000);
+        histograma.registrar(50_000);
+
+        assertEquals(4, histograma.contagem());
+        assertEquals(1_000, histograma.percentilNanos(50));
+        assertEquals(10_000, histograma.percentilNanos(75));
+        assertEquals(Long.MAX_VALUE, histograma.percentilNanos(100));
+
+        StringBuilder saida = new StringBuilder();
+        histograma.escreverPrometheus(saida, "duracao", "rota=\"/x\"");
+        assertTrue(saida.toString().contains("duracao_bucket{rota=\"/x\",le=\"1.0E-6\"} 2\n"));
+        assertTrue(saida.toString().contains("duracao_bucket{rota=\"/x\",le=\"+Inf\"} 4\n"));
+        assertTrue(saida.toString().contains("duracao_count{rota=\"/x\"} 4\n"));
+    }
+
+    @Test
+    @DisplayName("/metrics conta requisições por rota e status e /status traz o resumo")
+    @SuppressWarnings("unchecked")
+    void testeMetricasDoServidor() throws Exception {
+        TarefaRepositoryMemoria repositorio = new TarefaRepositoryMemoria();
+        repositorio.salvar(new Tarefa("Estudar", null));
+        ServidorTarefas servidor = ServidorTarefas.iniciar(repositorio, 0);
+        HttpClient cliente = HttpClient.newHttpClient();
+        try {
+            String base = servidor.url();
+            for (int i = 0; i < 3; i++) {
+                get(cliente, base + "/tarefas/" + java.util.UUID.randomUUID());
+            }
+            get(cliente, base + "/nao-existe");
+
+            HttpResponse<String> metricas = get(cliente, base + "/metrics");
+            assertEquals(200, metricas.statusCode());
+            assertTrue(metricas.headers().firstValue("Content-Type").orElse("").startsWith("text/plain"));
+            String corpo = metricas.body();
+            assertTrue(corpo.contains("http_requisicoes_total{metodo=\"GET\",rota=\"/tarefas/{id}\",status=\"4xx\"} 3\n"));
+            assertTrue(corpo.contains("http_requisicoes_total{metodo=\"GET\",rota=\"sem_rota\",status=\"4xx\"} 1\n"));
+            assertTrue(corpo.contains("http_requisicao_duracao_segundos_count{metodo=\"GET\",rota=\"/tarefas/{id}\"} 3\n"));
+            // A própria requisição ao /metrics ainda está em andamento.
+            assertTrue(corpo.contains("http_requisicoes_em_andamento{metodo=\"GET\",rota=\"/metrics\"} 1\n"));
+            assertTrue(corpo.contains("tarefas_armazenadas 1\n"));
+            assertTrue(corpo.contains("jvm_memoria_heap_bytes{area=\"usada\"}"));
+
+            Map<String, Object> status = new ObjectMapper().readValue(get(cliente, base + "/status").body(), Map.class);
+            assertEquals("ok", status.get("status"));
+            assertEquals(1, status.get("tarefas"));
+            assertTrue(((Number) status.get("requisicoes")).longValue() >= 5);
+        } finally {
+            servidor.close();
+        }
+    }
+
+    private static HttpResponse<String> get(HttpClient cliente, String url) throws Exception {
+        return cliente.send(HttpRequest.newBuilder(URI.create(url)).GET().build(), HttpResponse.BodyHandlers.ofString());
+    }
+}
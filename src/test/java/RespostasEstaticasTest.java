@@ -0,0 +1,64 @@
+package org.example;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.parallel.Isolated;
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.javalin.json.JavalinJackson;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Confere histogramas estáticos de MetricasServidor, que as outras classes alimentam.
+@Isolated
+public class RespostasEstaticasTest {
+
+    @Test
+    @DisplayName("Corpo do /status é reaproveitado dentro do intervalo e refeito depois")
+    void testeStatusPorIntervalo() throws InterruptedException {
+        AtomicInteger geracoes = new AtomicInteger();
+        RespostasEstaticas respostas = new RespostasEstaticas(
+                () -> Map.of("status", "ok", "geracao", geracoes.incrementAndGet()), 50, 10);
+
+        byte[] primeiro = respostas.status();
+        assertSame(primeiro, respostas.status());
+        assertEquals("{\"status\":\"ok\",\"geracao\":1}".length(), primeiro.length);
+
+        Thread.sleep(60);
+        byte[] segundo = respostas.status();
+        assertNotSame(primeiro, segundo);
+        assertEquals(2, geracoes.get());
+    }
+
+    @Test
+    @DisplayName("Saudações vêm do cache LRU limitado e escapam o nome no JSON")
+    void testeSaudacoesEmCache() {
+        RespostasEstaticas respostas = new RespostasEstaticas(Map::of, 1000, 32);
+
+        byte[] bernardo = respostas.saudacao("Bernardo");
+        assertEquals("{\"mensagem\":\"Olá, Bernardo!\"}", new String(bernardo, StandardCharsets.UTF_8));
+        assertSame(bernardo, respostas.saudacao("Bernardo"));
+        assertEquals("{\"mensagem\":\"Olá, \\\"x\\\"!\"}",
+                new String(respostas.saudacao("\"x\""), StandardCharsets.UTF_8));
+
+        for (int i = 0; i < 1_000; i++) {
+            respostas.saudacao("Nome " + i);
+        }
+        assertTrue(respostas.saudacoesEmCache() <= 32);
+        respostas.saudacao("x".repeat(RespostasEstaticas.TAMANHO_MAXIMO_NOME + 1));
+        assertTrue(respostas.saudacoesEmCache() <= 32);
+    }
+
+    @Test
+    @DisplayName("Erro de UUID escrito à mão é o mesmo JSON que o Jackson geraria, e o aquecimento não entra nas métricas")
+    void testeInicializacaoSemJackson() throws Exception {
+        byte[] esperado = new ObjectMapper().writeValueAsBytes(
+                Map.of("erro", "O ID fornecido não é um formato UUID válido."));
+        assertArrayEquals(esperado, RespostasEstaticas.ERRO_UUID_INVALIDO);
+
+        long antes = MetricasServidor.SERIALIZACAO_TAREFA.contagem();
+        AquecimentoJackson.aquecer(new JavalinJackson());
+        assertEquals(antes, MetricasServidor.SERIALIZACAO_TAREFA.contagem());
+    }
+}
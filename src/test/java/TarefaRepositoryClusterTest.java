@@ -0,0 +1,153 @@
+package org.example;
+
+import io.javalin.Javalin;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletionException;
+import java.util.stream.Collectors;
+
+public class TarefaRepositoryClusterTest {
+
+    private static final int NOS = 3;
+
+    private final List<String> urls = new ArrayList<>();
+    private final List<TarefaRepositoryMemoria> locais = new ArrayList<>();
+    private final List<Javalin> apps = new ArrayList<>();
+    private final List<ClienteApiRest> clientes = new ArrayList<>();
+    private AnelConsistente anel;
+
+    @BeforeEach
+    void iniciarCluster() throws IOException {
+        for (int i = 0; i < NOS; i++) {
+            try (ServerSocket socket = new ServerSocket(0)) {
+                urls.add("http://localhost:" + socket.getLocalPort());
+            }
+        }
+        anel = new AnelConsistente(urls);
+        for (String url : urls) {
+            TarefaRepositoryMemoria local = new TarefaRepositoryMemoria();
+            locais.add(local);
+            apps.add(ServidorTarefas.iniciar(new TarefaRepositoryCluster(url, urls, 2, local),
+                    Integer.parseInt(url.substring(url.lastIndexOf(':') + 1))).app());
+            clientes.add(new ClienteApiRest(url));
+        }
+    }
+
+    @AfterEach
+    void pararCluster() {
+        clientes.forEach(ClienteApiRest::close);
+        apps.forEach(Javalin::stop);
+    }
+
+    @Test
+    @DisplayName("Anel distribui os IDs de forma equilibrada e tirar um nó só move as chaves dele")
+    void testeAnelConsistente() {
+        List<String> nos = List.of("http://a:1", "http://b:2", "http://c:3", "http://d:4");
+        AnelConsistente completo = new AnelConsistente(nos);
+        AnelConsistente semD = new AnelConsistente(nos.subList(0, 3));
+        Map<String, Integer> porNo = new HashMap<>();
+        int movidas = 0;
+        for (int i = 0; i < 40_000; i++) {
+            UUID id = UUID.randomUUID();
+            String dono = completo.dono(id);
+            porNo.merge(dono, 1, Integer::sum);
+            if (!dono.equals("http://d:4") && !dono.equals(semD.dono(id))) {
+                movidas++;
+            }
+            List<String> donos = completo.donos(id, 3);
+            assertEquals(dono, donos.get(0));
+            assertEquals(3, new HashSet<>(donos).size());
+        }
+        for (int quantidade : porNo.values()) {
+            assertTrue(quantidade > 7_000 && quantidade < 13_000, "Distribuição desequilibrada: " + porNo);
+        }
+        assertEquals(0, movidas);
+    }
+
+    @Test
+    @DisplayName("Armazenamento local fora de ordem de ID (mapeado) é recusado")
+    void testeRecusaArmazenamentoMapeado(@TempDir Path diretorio) {
+        try (TarefaRepositoryMapeado mapeado = new TarefaRepositoryMapeado(diretorio)) {
+            assertThrows(IllegalArgumentException.class,
+                    () -> new TarefaRepositoryCluster(urls.get(0), urls, 2, mapeado));
+        }
+    }
+
+    @Test
+    @DisplayName("Qualquer nó cria, lista, busca, altera e remove tarefas guardadas no dono e na réplica")
+    void testeRoteamentoEReplicacao() {
+        List<UUID> ids = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            ids.add(clientes.get(i % NOS).criarTarefa(new Tarefa("Tarefa " + i, null)).join().getId());
+        }
+        List<Tarefa> lote = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            lote.add(new Tarefa("Lote " + i, null));
+        }
+        assertEquals(20, clientes.get(1).criarLote(lote).join().criadas);
+        lote.forEach(tarefa -> ids.add(tarefa.getId()));
+
+        assertEquals(100, locais.stream().mapToInt(TarefaRepositoryMemoria::tamanho).sum());
+        for (UUID id : ids) {
+            for (int i = 0; i < NOS; i++) {
+                boolean guarda = anel.donos(id, 2).contains(urls.get(i));
+                assertEquals(guarda, locais.get(i).buscarPorId(id).isPresent());
+            }
+            assertTrue(clientes.get(2).buscarTarefa(id).join().isPresent());
+        }
+
+        List<Tarefa> todas = clientes.get(1).listarTarefas().join();
+        assertEquals(50, todas.size());
+        assertEquals(new HashSet<>(ids), todas.stream().map(Tarefa::getId).collect(Collectors.toSet()));
+        for (int i = 1; i < todas.size(); i++) {
+            assertTrue(todas.get(i - 1).getId().compareTo(todas.get(i).getId()) < 0);
+        }
+        Set<UUID> paginadas = new HashSet<>();
+        String cursor = null;
+        do {
+            ClienteApiRest.Pagina pagina = clientes.get(2).listarPagina(20, cursor).join();
+            pagina.getTarefas().forEach(tarefa -> paginadas.add(tarefa.getId()));
+            cursor = pagina.getProximoCursor();
+        } while (cursor != null);
+        assertEquals(50, paginadas.size());
+
+        UUID id = ids.get(0);
+        Tarefa alterada = clientes.get(2).alterarTarefa(id, Map.of("concluida", true), 1L).join();
+        assertEquals(2, alterada.getVersao());
+        for (String dono : anel.donos(id, 2)) {
+            assertEquals(2, locais.get(urls.indexOf(dono)).buscarPorId(id).orElseThrow().getVersao());
+        }
+        CompletionException conflito = assertThrows(CompletionException.class,
+                () -> clientes.get(0).alterarTarefa(id, Map.of("titulo", "Antigo"), 1L).join());
+        assertEquals(412, ((ClienteApiRest.ErroApi) conflito.getCause()).getStatus());
+
+        assertTrue(clientes.get(1).removerTarefa(id).join());
+        assertFalse(clientes.get(0).buscarTarefa(id).join().isPresent());
+        assertEquals(98, locais.stream().mapToInt(TarefaRepositoryMemoria::tamanho).sum());
+    }
+
+    @Test
+    @DisplayName("Com o dono fora do ar, a leitura por ID é atendida pela réplica")
+    void testeLeituraPelaReplica() {
+        UUID id = clientes.get(0).criarTarefa(new Tarefa("Replicada", null)).join().getId();
+        // Com três nós e duas cópias, sempre sobra um nó que não guarda a tarefa.
+        List<String> donos = anel.donos(id, 2);
+        int naoGuarda = urls.indexOf(urls.stream().filter(url -> !donos.contains(url)).findFirst().orElseThrow());
+
+        apps.get(urls.indexOf(anel.dono(id))).stop();
+
+        assertEquals("Replicada", clientes.get(naoGuarda).buscarTarefa(id).join().orElseThrow().getTitulo());
+    }
+}
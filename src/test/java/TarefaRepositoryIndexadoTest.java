@@ -0,0 +1,117 @@
+package org.example;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.UUID;
+
+public class TarefaRepositoryIndexadoTest {
+
+    private final TarefaRepository tarefas = new TarefaRepositoryIndexado(new TarefaRepositoryMemoria());
+
+    private List<String> titulos(FiltroTarefas filtro) {
+        List<String> titulos = new ArrayList<>();
+        Iterator<Tarefa> iterador = tarefas.listar(filtro, null);
+        iterador.forEachRemaining(t -> titulos.add(t.getTitulo()));
+        titulos.sort(null);
+        return titulos;
+    }
+
+    @Test
+    @DisplayName("Filtros por concluida, prefixo do título e texto usam os índices atualizados")
+    void testeFiltrosIndexados() {
+        Tarefa leite = new Tarefa("Comprar Leite", "No supermercado da esquina");
+        Tarefa pao = new Tarefa("Comprar pão", "Padaria");
+        Tarefa contas = new Tarefa("Pagar contas", "Luz e água do mercado").comConcluida(true);
+        tarefas.salvar(leite);
+        tarefas.salvar(pao);
+        tarefas.salvar(contas);
+
+        assertEquals(List.of("Comprar Leite", "Comprar pão"), titulos(new FiltroTarefas(false, null, null)));
+        assertEquals(List.of("Pagar contas"), titulos(new FiltroTarefas(true, null, null)));
+        assertEquals(List.of("Comprar Leite", "Comprar pão"), titulos(new FiltroTarefas(null, "comp", null)));
+        assertEquals(List.of("Pagar contas"), titulos(new FiltroTarefas(null, null, "AGUA")));
+        assertEquals(List.of("Comprar Leite"), titulos(new FiltroTarefas(false, "Comprar", "supermercado esquina")));
+        assertEquals(List.of(), titulos(new FiltroTarefas(null, null, "inexistente")));
+
+        tarefas.salvar(new Tarefa(leite.getId(), "Vender leite", "Feira", true));
+
+        assertEquals(List.of("Comprar pão"), titulos(new FiltroTarefas(null, "comprar", null)));
+        assertEquals(List.of("Pagar contas", "Vender leite"), titulos(new FiltroTarefas(true, null, null)));
+        assertEquals(List.of(), titulos(new FiltroTarefas(null, null, "supermercado")));
+        assertEquals(List.of("Vender leite"), titulos(new FiltroTarefas(null, null, "leite")));
+    }
+
+    @Test
+    @DisplayName("Prefixo com muitos títulos é listado pelo índice, sem percorrer o repositório, em ordem de ID")
+    void testePrefixoAmplo() {
+        int[] varreduras = new int[1];
+        TarefaRepository tarefas = new TarefaRepositoryIndexado(new TarefaRepositoryMemoria() {
+            @Override
+            public Iterator<Tarefa> listar(UUID aPartirDe) {
+                varreduras[0]++;
+                return super.listar(aPartirDe);
+            }
+        });
+        List<UUID> lote = new ArrayList<>();
+        for (int i = 0; i < TarefaRepositoryIndexado.LIMITE_COPIA_PREFIXO + 100; i++) {
+            Tarefa tarefa = new Tarefa("Lote " + i, null);
+            tarefas.salvar(tarefa);
+            lote.add(tarefa.getId());
+        }
+        tarefas.salvar(new Tarefa("Lotação", null));
+        tarefas.salvar(new Tarefa("Outra coisa", null));
+        lote.sort(null);
+        varreduras[0] = 0;
+
+        List<UUID> listados = new ArrayList<>();
+        tarefas.listar(new FiltroTarefas(null, "lote", null), null).forEachRemaining(t -> listados.add(t.getId()));
+        assertEquals(lote, listados);
+
+        List<UUID> seguintes = new ArrayList<>();
+        tarefas.listar(new FiltroTarefas(null, "lote", null), lote.get(9)).forEachRemaining(t -> seguintes.add(t.getId()));
+        assertEquals(lote.subList(10, lote.size()), seguintes);
+
+        List<UUID> curtos = new ArrayList<>();
+        tarefas.listar(new FiltroTarefas(null, "Lo", null), null).forEachRemaining(t -> curtos.add(t.getId()));
+        assertEquals(lote.size() + 1, curtos.size());
+        assertEquals(0, varreduras[0], "Nenhuma listagem percorreu o repositório inteiro");
+    }
+
+    @Test
+    @DisplayName("Termos sem nenhuma tarefa saem do índice textual")
+    void testeTermosVaziosRemovidos() {
+        TarefaRepositoryIndexado indexado = new TarefaRepositoryIndexado(new TarefaRepositoryMemoria());
+        Tarefa tarefa = new Tarefa("Relatório mensal", "enviar ao financeiro");
+        indexado.salvar(tarefa);
+        assertEquals(5, indexado.termosIndexados());
+        indexado.alterar(tarefa.getId(), atual -> new Tarefa(atual.getId(), "Relatório anual", null, false));
+        assertEquals(2, indexado.termosIndexados());
+        assertEquals(List.of(), titulosDe(indexado, new FiltroTarefas(null, null, "mensal")));
+        assertEquals(List.of("Relatório anual"), titulosDe(indexado, new FiltroTarefas(null, "rel", "anual")));
+        indexado.alterar(tarefa.getId(), atual -> null);
+        assertEquals(0, indexado.termosIndexados());
+        assertEquals(List.of(), titulosDe(indexado, new FiltroTarefas(null, "rel", null)));
+    }
+
+    private static List<String> titulosDe(TarefaRepository repositorio, FiltroTarefas filtro) {
+        List<String> titulos = new ArrayList<>();
+        repositorio.listar(filtro, null).forEachRemaining(t -> titulos.add(t.getTitulo()));
+        return titulos;
+    }
+
+    @Test
+    @DisplayName("doSistema não indexa o repositório mapeado")
+    void testeDoSistemaSemIndicesNoMapeado(@TempDir Path diretorio) {
+        try (TarefaRepository mapeado = new TarefaRepositoryMapeado(diretorio)) {
+            assertSame(mapeado, TarefaRepositoryIndexado.doSistema(mapeado));
+        }
+        TarefaRepository memoria = new TarefaRepositoryMemoria();
+        assertInstanceOf(TarefaRepositoryIndexado.class, TarefaRepositoryIndexado.doSistema(memoria));
+    }
+}
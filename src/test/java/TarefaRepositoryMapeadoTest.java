@@ -0,0 +1,111 @@
+package org.example;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public class TarefaRepositoryMapeadoTest {
+
+    @TempDir
+    Path diretorio;
+
+    @Test
+    @DisplayName("Tarefas mapeadas fora do heap são encontradas após reabrir o diretório")
+    void testeReabreDiretorio() {
+        List<Tarefa> criadas = new ArrayList<>();
+        try (TarefaRepository repositorio = new TarefaRepositoryMapeado(diretorio)) {
+            for (int i = 0; i < 100_000; i++) {
+                Tarefa tarefa = new Tarefa("Tarefa " + i, i % 2 == 0 ? "Descrição " + i : null)
+                        .comConcluida(i % 3 == 0);
+                repositorio.salvar(tarefa);
+                criadas.add(tarefa);
+            }
+            Tarefa atualizada = criadas.get(42).comTitulo("Título atualizado");
+            repositorio.salvar(atualizada);
+            criadas.set(42, atualizada);
+        }
+
+        try (TarefaRepository repositorio = new TarefaRepositoryMapeado(diretorio)) {
+            assertEquals(criadas.size(), repositorio.tamanho());
+            for (Tarefa esperada : List.of(criadas.get(0), criadas.get(42), criadas.get(99_999))) {
+                Tarefa encontrada = repositorio.buscarPorId(esperada.getId()).orElseThrow();
+                assertEquals(esperada.getTitulo(), encontrada.getTitulo());
+                assertEquals(esperada.getDescricao(), encontrada.getDescricao());
+                assertEquals(esperada.isConcluida(), encontrada.isConcluida());
+            }
+            Iterator<Tarefa> aPartirDoPenultimo = repositorio.listar(criadas.get(99_998).getId());
+            assertEquals(criadas.get(99_999).getId(), aPartirDoPenultimo.next().getId());
+            assertFalse(aPartirDoPenultimo.hasNext());
+        }
+    }
+
+    @Test
+    @DisplayName("Tarefas removidas somem da listagem e podem ser gravadas de novo")
+    void testeRemoverEReinserir() {
+        Tarefa primeira = new Tarefa("Primeira", null);
+        Tarefa segunda = new Tarefa("Segunda", "Removida");
+        try (TarefaRepository repositorio = new TarefaRepositoryMapeado(diretorio)) {
+            repositorio.salvarTodos(List.of(primeira, segunda));
+            assertNull(repositorio.alterar(segunda.getId(), atual -> null));
+            assertEquals(2, repositorio.alterar(primeira.getId(), atual -> atual.comTitulo("Editada")).getVersao());
+        }
+
+        try (TarefaRepository repositorio = new TarefaRepositoryMapeado(diretorio)) {
+            assertEquals(1, repositorio.tamanho());
+            Iterator<Tarefa> iterador = repositorio.listar(null);
+            assertEquals("Editada", iterador.next().getTitulo());
+            assertFalse(iterador.hasNext());
+
+            Tarefa reinserida = repositorio.alterar(segunda.getId(), atual -> segunda);
+            assertEquals(1, reinserida.getVersao());
+            assertEquals(2, repositorio.tamanho());
+            assertEquals(2, repositorio.buscarPorId(primeira.getId()).orElseThrow().getVersao());
+        }
+    }
+
+    @Test
+    @DisplayName("Leitores concorrentes mapeiam cada região uma vez e leem os bytes certos após reabrir")
+    void testeMapeamentoConcorrenteDeRegioes() throws Exception {
+        long tamanhoRegiao = 1L << 26;
+        int regioes = 6;
+        Path arquivo = diretorio.resolve("regioes.dat");
+        try (ArquivoMapeado escrita = new ArquivoMapeado(arquivo, true)) {
+            for (int i = 0; i < regioes; i++) {
+                escrita.putLong(i * tamanhoRegiao + 8, 1000 + i);
+            }
+        }
+
+        for (int rodada = 0; rodada < 5; rodada++) {
+            try (ArquivoMapeado leitura = new ArquivoMapeado(arquivo, false)) {
+                ExecutorService executor = Executors.newFixedThreadPool(4);
+                CountDownLatch largada = new CountDownLatch(1);
+                List<Future<?>> leitores = new ArrayList<>();
+                for (int t = 0; t < 4; t++) {
+                    int deslocamento = t;
+                    leitores.add(executor.submit(() -> {
+                        largada.await();
+                        for (int j = 0; j < regioes; j++) {
+                            int i = (regioes - 1 - j + deslocamento) % regioes;
+                            assertEquals(1000 + i, leitura.getLong(i * tamanhoRegiao + 8));
+                        }
+                        return null;
+                    }));
+                }
+                largada.countDown();
+                for (Future<?> leitor : leitores) {
+                    leitor.get();
+                }
+                executor.shutdown();
+            }
+        }
+    }
+}
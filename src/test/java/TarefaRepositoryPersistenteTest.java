@@ -0,0 +1,142 @@
+package org.example;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+public class TarefaRepositoryPersistenteTest {
+
+    @TempDir
+    Path diretorio;
+
+    @Test
+    @DisplayName("Tarefas gravadas no log sobrevivem à reabertura do repositório")
+    void testeRecuperaDoLog() {
+        Tarefa tarefa = new Tarefa("Comprar Leite", "No supermercado").comConcluida(true);
+        try (TarefaRepository repositorio = new TarefaRepositoryPersistente(diretorio)) {
+            repositorio.salvar(tarefa);
+            repositorio.salvar(new Tarefa("Sem descrição", null));
+        }
+
+        try (TarefaRepository repositorio = new TarefaRepositoryPersistente(diretorio)) {
+            assertEquals(2, repositorio.tamanho());
+            Tarefa recuperada = repositorio.buscarPorId(tarefa.getId()).orElseThrow();
+            assertEquals("Comprar Leite", recuperada.getTitulo());
+            assertEquals("No supermercado", recuperada.getDescricao());
+            assertTrue(recuperada.isConcluida());
+        }
+    }
+
+    @Test
+    @DisplayName("Escritas concorrentes usam group commit e geram snapshot compactado")
+    void testeSnapshotComEscritasConcorrentes() throws Exception {
+        List<Tarefa> criadas = new ArrayList<>();
+        for (int i = 0; i < 2_000; i++) {
+            criadas.add(new Tarefa("Tarefa " + i, "Descrição " + i));
+        }
+
+        try (TarefaRepository repositorio = new TarefaRepositoryPersistente(diretorio, 500)) {
+            ExecutorService executor = Executors.newFixedThreadPool(8);
+            criadas.forEach(t -> executor.execute(() -> repositorio.salvar(t)));
+            executor.shutdown();
+            assertTrue(executor.awaitTermination(1, TimeUnit.MINUTES));
+            repositorio.limpar();
+            criadas.subList(0, 10).forEach(repositorio::salvar);
+        }
+
+        assertTrue(Files.exists(diretorio.resolve("snapshot.bin")));
+        try (TarefaRepository repositorio = new TarefaRepositoryPersistente(diretorio)) {
+            assertEquals(10, repositorio.tamanho());
+            assertTrue(repositorio.buscarPorId(criadas.get(9).getId()).isPresent());
+            assertFalse(repositorio.buscarPorId(criadas.get(10).getId()).isPresent());
+        }
+    }
+
+    @Test
+    @DisplayName("Registro truncado no fim do log é ignorado na recuperação")
+    void testeIgnoraRegistroTruncado() throws IOException {
+        Tarefa tarefa = new Tarefa("Pagar contas", "Luz e água");
+        try (TarefaRepository repositorio = new TarefaRepositoryPersistente(diretorio)) {
+            repositorio.salvar(tarefa);
+        }
+        Path segmento;
+        try (Stream<Path> arquivos = Files.list(diretorio)) {
+            segmento = arquivos.filter(p -> Files.isRegularFile(p) && p.toFile().length() > 0).findFirst().orElseThrow();
+        }
+        Files.write(segmento, new byte[]{0, 0, 0, 40, 1, 2}, StandardOpenOption.APPEND);
+
+        try (TarefaRepository repositorio = new TarefaRepositoryPersistente(diretorio)) {
+            assertEquals(1, repositorio.tamanho());
+            assertEquals("Pagar contas", repositorio.buscarPorId(tarefa.getId()).orElseThrow().getTitulo());
+        }
+    }
+
+    @Test
+    @DisplayName("Alterações incrementam a versão e remoções sobrevivem à reabertura")
+    void testeAlterarERemover() {
+        Tarefa mantida = new Tarefa("Estudar", "Java");
+        Tarefa removida = new Tarefa("Descartar", null);
+        try (TarefaRepository repositorio = new TarefaRepositoryPersistente(diretorio)) {
+            repositorio.salvarTodos(List.of(mantida, removida));
+            Tarefa alterada = repositorio.alterar(mantida.getId(), atual -> atual.comConcluida(true));
+            assertEquals(2, alterada.getVersao());
+            assertNull(repositorio.alterar(removida.getId(), atual -> null));
+            assertThrows(IllegalStateException.class, () -> repositorio.alterar(mantida.getId(), atual -> {
+                throw new IllegalStateException("cancelada");
+            }));
+        }
+
+        try (TarefaRepository repositorio = new TarefaRepositoryPersistente(diretorio)) {
+            assertEquals(1, repositorio.tamanho());
+            Tarefa recuperada = repositorio.buscarPorId(mantida.getId()).orElseThrow();
+            assertTrue(recuperada.isConcluida());
+            assertEquals(2, recuperada.getVersao());
+            assertFalse(repositorio.buscarPorId(removida.getId()).isPresent());
+        }
+    }
+
+    @Test
+    @DisplayName("Escritas que disputam com close() são gravadas ou recusadas, nunca ficam esperando")
+    void testeEscritasDuranteFechamento() throws Exception {
+        List<Tarefa> confirmadas = Collections.synchronizedList(new ArrayList<>());
+        TarefaRepository repositorio = new TarefaRepositoryPersistente(diretorio);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        for (int t = 0; t < 4; t++) {
+            executor.execute(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    Tarefa tarefa = new Tarefa("Tarefa " + i, null);
+                    try {
+                        repositorio.salvar(tarefa);
+                        confirmadas.add(tarefa);
+                    } catch (IllegalStateException e) {
+                        return;
+                    }
+                }
+            });
+        }
+        Thread.sleep(50);
+        repositorio.close();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS), "Escritas ficaram esperando após o close()");
+        assertThrows(IllegalStateException.class, () -> repositorio.salvar(new Tarefa("Depois", null)));
+
+        try (TarefaRepository reaberto = new TarefaRepositoryPersistente(diretorio)) {
+            assertEquals(confirmadas.size(), reaberto.tamanho());
+            for (Tarefa tarefa : confirmadas) {
+                assertTrue(reaberto.buscarPorId(tarefa.getId()).isPresent());
+            }
+        }
+    }
+}
@@ -0,0 +1,252 @@
+package org.example;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+public class TarefaRepositoryRetencaoTest {
+
+    @TempDir
+    Path diretorio;
+
+    @Test
+    @DisplayName("Roda de temporização vence cada item no tick do prazo, inclusive após redistribuir níveis")
+    void testeRodaTemporizacao() {
+        long inicio = 1_000_000;
+        RodaTemporizacao<Long> roda = new RodaTemporizacao<>(10, inicio);
+        Random aleatorio = new Random(42);
+        List<Long> prazos = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            // Até ~3 níveis de distância, para exercitar a redistribuição.
+            long prazo = inicio + 1 + aleatorio.nextInt(3_000_000);
+            prazos.add(prazo);
+            roda.agendar(prazo, prazo);
+        }
+        List<Long> vencidos = new ArrayList<>();
+        for (long agora = inicio; agora <= inicio + 3_000_010; agora += 7) {
+            long instante = agora;
+            roda.avancar(instante, prazo -> {
+                assertTrue(prazo <= instante, "Venceu antes do prazo");
+                assertTrue(instante - prazo < 10 + 7, "Venceu com atraso de " + (instante - prazo) + " ms");
+                vencidos.add(prazo);
+            });
+        }
+        assertEquals(prazos.size(), vencidos.size());
+        assertEquals(0, roda.tamanho());
+    }
+
+    @Test
+    @DisplayName("Tarefas concluídas expiram pelo TTL e saem no feed como removidas; pendentes ficam")
+    void testeTtlConcluidas() {
+        TarefaRepositoryRetencao retencao = new TarefaRepositoryRetencao(
+                new TarefaRepositoryMemoria(), 1000, 0, 0, true, null, 100, 0);
+        TarefaRepositoryVersionado tarefas = new TarefaRepositoryVersionado(retencao);
+        retencao.conectar(tarefas);
+        try {
+            Tarefa pendente = new Tarefa("Pendente", "fica");
+            Tarefa concluida = new Tarefa("Concluída", "expira").comConcluida(true);
+            tarefas.salvar(pendente);
+            tarefas.salvar(concluida);
+            long agora = System.currentTimeMillis();
+
+            retencao.rodada(agora + 500);
+            assertTrue(tarefas.buscarPorId(concluida.getId()).isPresent(), "Ainda dentro do TTL");
+
+            FeedAlteracoes.Assinatura assinatura = tarefas.feed().assinar(tarefas.feed().ultimaSequencia(), 16,
+                    FeedAlteracoes.Politica.DESCARTAR_ANTIGOS);
+            retencao.rodada(agora + 5000);
+            assertTrue(tarefas.buscarPorId(concluida.getId()).isEmpty());
+            assertTrue(tarefas.buscarPorId(pendente.getId()).isPresent());
+            assertEquals(1, retencao.expiradas());
+            EventoTarefa evento = assinatura.proximo(1000);
+            assertEquals(EventoTarefa.Tipo.REMOVIDA, evento.getTipo());
+            assertEquals(concluida.getId(), evento.getId());
+        } catch (InterruptedException e) {
+            fail(e);
+        } finally {
+            tarefas.close();
+        }
+    }
+
+    @Test
+    @DisplayName("No limite de tarefas o SLRU preserva as tarefas lidas de novo; o LRU as perde para uma rajada")
+    void testeDespejoSlruLru() {
+        assertEquals(5, sobreviventesAposRajada(true));
+        assertEquals(0, sobreviventesAposRajada(false));
+    }
+
+    /** Cinco tarefas lidas repetidamente seguidas de uma rajada de vinte novas, com limite de dez. */
+    private int sobreviventesAposRajada(boolean segmentado) {
+        try (TarefaRepositoryRetencao tarefas = new TarefaRepositoryRetencao(
+                new TarefaRepositoryMemoria(), 0, 10, 0, segmentado, null, 100, 0)) {
+            List<Tarefa> frequentes = new ArrayList<>();
+            for (int i = 0; i < 5; i++) {
+                Tarefa tarefa = new Tarefa("Frequente " + i, "");
+                tarefas.salvar(tarefa);
+                frequentes.add(tarefa);
+            }
+            for (Tarefa tarefa : frequentes) {
+                tarefas.buscarPorId(tarefa.getId());
+                tarefas.rodada(System.currentTimeMillis());
+            }
+            for (int i = 0; i < 20; i++) {
+                tarefas.salvar(new Tarefa("Nova " + i, ""));
+            }
+            tarefas.rodada(System.currentTimeMillis());
+            assertEquals(10, tarefas.tamanho());
+            assertEquals(15, tarefas.despejadas());
+            return (int) frequentes.stream().filter(t -> tarefas.buscarPorId(t.getId()).isPresent()).count();
+        }
+    }
+
+    @Test
+    @DisplayName("Tarefas despejadas vão para o arquivo frio, voltam ao serem lidas e sobrevivem a um reinício")
+    void testeArmazenamentoFrio() {
+        Path arquivo = diretorio.resolve("frias.bin");
+        List<Tarefa> criadas = new ArrayList<>();
+        TarefaRepositoryRetencao retencao = new TarefaRepositoryRetencao(
+                new TarefaRepositoryMemoria(), 0, 2, 0, false, arquivo, 100, 0);
+        TarefaRepositoryVersionado tarefas = new TarefaRepositoryVersionado(retencao);
+        retencao.conectar(tarefas);
+        try {
+            for (int i = 0; i < 5; i++) {
+                Tarefa tarefa = new Tarefa("Tarefa " + i, "Descrição " + i);
+                tarefas.salvar(tarefa);
+                criadas.add(tarefa);
+            }
+            long versaoAntes = tarefas.versao();
+            retencao.rodada(System.currentTimeMillis());
+            assertEquals(5, tarefas.tamanho(), "Tarefas frias continuam contadas");
+            assertEquals(3, retencao.tarefasNoArmazenamentoFrio());
+            assertTrue(tarefas.versao() > versaoAntes, "A listagem mudou e o cache precisa saber");
+            List<UUID> esperados = criadas.stream().map(Tarefa::getId).sorted().toList();
+            List<UUID> listados = new ArrayList<>();
+            tarefas.listar(null).forEachRemaining(t -> listados.add(t.getId()));
+            assertEquals(esperados, listados, "A listagem intercala as frias em ordem de ID");
+            List<UUID> pendentes = new ArrayList<>();
+            tarefas.listar(new FiltroTarefas(false, null, null), esperados.get(1))
+                    .forEachRemaining(t -> pendentes.add(t.getId()));
+            assertEquals(esperados.subList(2, 5), pendentes);
+
+            Tarefa lida = tarefas.buscarPorId(criadas.get(0).getId()).orElseThrow();
+            assertEquals("Descrição 0", lida.getDescricao());
+            assertEquals(5, tarefas.tamanho());
+            assertEquals(2, retencao.tarefasNoArmazenamentoFrio());
+
+            Tarefa alterada = tarefas.alterar(criadas.get(1).getId(), atual -> atual.comConcluida(true));
+            assertNotNull(alterada, "Alterar uma tarefa fria a traz de volta");
+            assertNull(tarefas.alterar(criadas.get(2).getId(), atual -> null));
+            assertTrue(tarefas.buscarPorId(criadas.get(2).getId()).isEmpty());
+            assertEquals(0, retencao.tarefasNoArmazenamentoFrio());
+
+            assertEquals(4, tarefas.tamanho());
+
+            retencao.rodada(System.currentTimeMillis());
+            assertEquals(4, tarefas.tamanho());
+            assertEquals(2, retencao.tarefasNoArmazenamentoFrio());
+        } finally {
+            tarefas.close();
+        }
+
+        try (TarefaRepositoryRetencao reaberto = new TarefaRepositoryRetencao(
+                new TarefaRepositoryMemoria(), 0, 2, 0, false, arquivo, 100, 0)) {
+            assertEquals(2, reaberto.tarefasNoArmazenamentoFrio());
+            assertTrue(reaberto.buscarPorId(criadas.get(2).getId()).isEmpty(), "Removida não reaparece");
+            long encontradas = criadas.stream().filter(t -> reaberto.buscarPorId(t.getId()).isPresent()).count();
+            assertEquals(2, encontradas);
+        }
+    }
+
+    @Test
+    @DisplayName("Concluídas no armazenamento frio também expiram pelo TTL, inclusive após um reinício")
+    void testeTtlNoArmazenamentoFrio() throws InterruptedException {
+        Path arquivo = diretorio.resolve("frias-ttl.bin");
+        TarefaRepositoryRetencao retencao = new TarefaRepositoryRetencao(
+                new TarefaRepositoryMemoria(), 1000, 1, 0, false, arquivo, 100, 0);
+        TarefaRepositoryVersionado tarefas = new TarefaRepositoryVersionado(retencao);
+        retencao.conectar(tarefas);
+        Tarefa concluida = new Tarefa("Concluída", "vai para o disco").comConcluida(true);
+        Tarefa pendente = new Tarefa("Pendente", "fica");
+        try {
+            tarefas.salvar(concluida);
+            tarefas.salvar(pendente);
+            long agora = System.currentTimeMillis();
+            retencao.rodada(agora);
+            assertEquals(1, retencao.tarefasNoArmazenamentoFrio());
+
+            FeedAlteracoes.Assinatura assinatura = tarefas.feed().assinar(tarefas.feed().ultimaSequencia(), 16,
+                    FeedAlteracoes.Politica.DESCARTAR_ANTIGOS);
+            retencao.rodada(agora + 3_600_000);
+            assertEquals(1, retencao.expiradas());
+            assertEquals(0, retencao.tarefasNoArmazenamentoFrio());
+            assertEquals(1, tarefas.tamanho());
+            List<UUID> listados = new ArrayList<>();
+            tarefas.listar(null).forEachRemaining(t -> listados.add(t.getId()));
+            assertEquals(List.of(pendente.getId()), listados);
+            EventoTarefa evento = assinatura.proximo(1000);
+            assertEquals(EventoTarefa.Tipo.REMOVIDA, evento.getTipo());
+            assertEquals(concluida.getId(), evento.getId());
+        } finally {
+            tarefas.close();
+        }
+
+        // Depois de um reinício as concluídas do arquivo voltam para a roda.
+        Path outroArquivo = diretorio.resolve("frias-reinicio.bin");
+        try (TarefaRepositoryRetencao antes = new TarefaRepositoryRetencao(
+                new TarefaRepositoryMemoria(), 1000, 1, 0, false, outroArquivo, 100, 0)) {
+            antes.salvar(new Tarefa("Concluída", "").comConcluida(true));
+            antes.salvar(new Tarefa("Pendente", ""));
+            antes.rodada(System.currentTimeMillis());
+            assertEquals(1, antes.tarefasNoArmazenamentoFrio());
+        }
+        try (TarefaRepositoryRetencao depois = new TarefaRepositoryRetencao(
+                new TarefaRepositoryMemoria(), 1000, 1, 0, false, outroArquivo, 100, 0)) {
+            assertEquals(1, depois.tamanho());
+            depois.rodada(System.currentTimeMillis() + 3_600_000);
+            assertEquals(1, depois.expiradas());
+            assertEquals(0, depois.tamanho());
+        }
+    }
+
+    @Test
+    @DisplayName("Compactação do armazenamento frio mantém as vivas, encolhe o arquivo e sobrevive a um reinício")
+    void testeCompactacaoArmazenamentoFrio() throws Exception {
+        Path arquivo = diretorio.resolve("compactacao.bin");
+        String texto = "x".repeat(2000);
+        List<Tarefa> vivas = new ArrayList<>();
+        try (ArmazenamentoFrio frio = new ArmazenamentoFrio(arquivo)) {
+            for (int i = 0; i < 1000; i++) {
+                Tarefa tarefa = new Tarefa("Tarefa " + i, texto).comConcluida(i % 2 == 0);
+                frio.gravar(tarefa, i);
+                if (i % 10 == 0) {
+                    vivas.add(tarefa);
+                } else {
+                    frio.remover(tarefa.getId());
+                }
+            }
+            long antes = Files.size(arquivo);
+            frio.compactarSeNecessario();
+            assertTrue(Files.size(arquivo) < antes / 5, "Arquivo não encolheu");
+            assertEquals(vivas.size(), frio.tamanho());
+            for (Tarefa tarefa : vivas) {
+                assertEquals(tarefa.getTitulo(), frio.ler(tarefa.getId()).getTitulo());
+            }
+            Tarefa nova = new Tarefa("Depois da compactação", "");
+            frio.gravar(nova, 1);
+            vivas.add(nova);
+        }
+        try (ArmazenamentoFrio reaberto = new ArmazenamentoFrio(arquivo)) {
+            assertEquals(vivas.size(), reaberto.tamanho());
+            for (Tarefa tarefa : vivas) {
+                assertEquals(tarefa.isConcluida(), reaberto.ler(tarefa.getId()).isConcluida());
+            }
+        }
+    }
+}
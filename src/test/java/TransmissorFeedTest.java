@@ -0,0 +1,170 @@
+package org.example;
+
+import io.javalin.Javalin;
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.WebSocket;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+public class TransmissorFeedTest {
+
+    private static final long INTERVALO_PING_MS = 200;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final FeedAlteracoes feed = new FeedAlteracoes(100);
+    private LogEstruturado log;
+    private Javalin app;
+
+    private void iniciar(int capacidadeAssinante) {
+        log = LogEstruturado.doSistema();
+        app = Javalin.create();
+        new TransmissorFeed(feed, capacidadeAssinante, FeedAlteracoes.Politica.DESCONECTAR, log, INTERVALO_PING_MS)
+                .instalar(app);
+        app.start(0);
+    }
+
+    @AfterEach
+    void encerrar() {
+        if (app != null) {
+            app.stop();
+        }
+        if (log != null) {
+            log.close();
+        }
+    }
+
+    private void publicar(int quantidade) {
+        for (int i = 0; i < quantidade; i++) {
+            feed.publicar(EventoTarefa.Tipo.CRIADA, null, new Tarefa("Tarefa " + i, null));
+        }
+    }
+
+    @Test
+    @DisplayName("SSE retoma por Last-Event-ID ou ?desde, entrega os eventos novos e manda ping quando ocioso")
+    void testeSse() {
+        iniciar(16);
+        publicar(3);
+        HttpClient http = HttpClient.newHttpClient();
+        String rota = "http://localhost:" + app.port() + TransmissorFeed.ROTA_SSE;
+
+        assertTimeoutPreemptively(Duration.ofSeconds(10), () -> {
+            HttpResponse<Stream<String>> resposta = http.send(HttpRequest.newBuilder(URI.create(rota))
+                    .header("Accept", "text/event-stream").header("Last-Event-ID", "1").build(), HttpResponse.BodyHandlers.ofLines());
+            assertEquals(200, resposta.statusCode());
+            try (Stream<String> corpo = resposta.body()) {
+                Iterator<String> linhas = corpo.iterator();
+                assertEquals("2", proximoCampo(linhas, "id: "));
+                assertEquals("3", proximoCampo(linhas, "id: "));
+
+                feed.publicar(EventoTarefa.Tipo.REMOVIDA, null, null);
+                assertEquals("4", proximoCampo(linhas, "id: "));
+                assertEquals("removida", proximoCampo(linhas, "event: "));
+                assertEquals(": ping", proximoCampo(linhas, ":"), "Sem eventos, o servidor manda um comentário");
+            }
+
+            HttpResponse<Stream<String>> retomada = http.send(HttpRequest.newBuilder(URI.create(rota + "?desde=3"))
+                    .header("Accept", "text/event-stream").build(), HttpResponse.BodyHandlers.ofLines());
+            try (Stream<String> corpo = retomada.body()) {
+                assertEquals("4", proximoCampo(corpo.iterator(), "id: "));
+            }
+        });
+    }
+
+    /** Próxima linha começada por {@code prefixo}, sem ele; {@code ":"} devolve a linha inteira. */
+    private static String proximoCampo(Iterator<String> linhas, String prefixo) {
+        while (linhas.hasNext()) {
+            String linha = linhas.next();
+            if (linha.startsWith(prefixo)) {
+                return prefixo.equals(":") ? linha : linha.substring(prefixo.length());
+            }
+        }
+        return fail("Fluxo encerrado antes de " + prefixo);
+    }
+
+    @Test
+    @DisplayName("WebSocket retoma por ?desde, manda ping e fecha com 4001 o assinante que não acompanha")
+    void testeWebSocket() throws Exception {
+        iniciar(2);
+        publicar(3);
+        Cliente cliente = new Cliente();
+        WebSocket ws = HttpClient.newHttpClient().newWebSocketBuilder()
+                .buildAsync(URI.create("ws://localhost:" + app.port() + "/tarefas/eventos/ws?desde=1"), cliente)
+                .get(5, TimeUnit.SECONDS);
+        try {
+            assertEquals(2, sequencia(cliente.mensagens.poll(5, TimeUnit.SECONDS)));
+            assertEquals(3, sequencia(cliente.mensagens.poll(5, TimeUnit.SECONDS)));
+            long limite = System.currentTimeMillis() + 5000;
+            while (cliente.pings.get() == 0 && System.currentTimeMillis() < limite) {
+                Thread.sleep(20);
+            }
+            assertTrue(cliente.pings.get() > 0, "Sem eventos, o servidor manda ping");
+
+            // Rajadas bem maiores que a fila de 2 eventos, até o servidor desistir do assinante.
+            while (!cliente.fechamento.isDone() && System.currentTimeMillis() < limite + 5000) {
+                publicar(1000);
+                Thread.sleep(10);
+            }
+            assertEquals(TransmissorFeed.CODIGO_ASSINANTE_ATRASADO, cliente.fechamento.get(5, TimeUnit.SECONDS));
+            List<String> recebidas = new ArrayList<>();
+            cliente.mensagens.drainTo(recebidas);
+            assertTrue(recebidas.get(recebidas.size() - 1).contains("\"aviso\":\"atrasado\""));
+            assertEquals(0, feed.quantidadeAssinantes());
+        } finally {
+            ws.abort();
+        }
+    }
+
+    private long sequencia(String json) throws Exception {
+        assertNotNull(json, "Evento não chegou");
+        return ((Number) objectMapper.readValue(json, Map.class).get("sequencia")).longValue();
+    }
+
+    private static final class Cliente implements WebSocket.Listener {
+        final BlockingQueue<String> mensagens = new LinkedBlockingQueue<>();
+        final AtomicInteger pings = new AtomicInteger();
+        final CompletableFuture<Integer> fechamento = new CompletableFuture<>();
+        private final StringBuilder parcial = new StringBuilder();
+
+        @Override
+        public CompletionStage<?> onText(WebSocket ws, CharSequence dados, boolean ultimo) {
+            parcial.append(dados);
+            if (ultimo) {
+                mensagens.add(parcial.toString());
+                parcial.setLength(0);
+            }
+            ws.request(1);
+            return null;
+        }
+
+        @Override
+        public CompletionStage<?> onPing(WebSocket ws, ByteBuffer mensagem) {
+            pings.incrementAndGet();
+            return WebSocket.Listener.super.onPing(ws, mensagem);
+        }
+
+        @Override
+        public CompletionStage<?> onClose(WebSocket ws, int codigo, String motivo) {
+            fechamento.complete(codigo);
+            return null;
+        }
+    }
+}